@@ -16,6 +16,8 @@
 
 package com.google.zxing;
 
+import com.google.zxing.qrcode.decoder.RSBlockCallback;
+
 import java.util.List;
 
 /**
@@ -88,6 +90,12 @@ public enum DecodeHintType {
    */
   NEED_RESULT_POINT_CALLBACK(ResultPointCallback.class),
 
+  /**
+   * The caller needs to be notified via callback of the RS block layout and error correction
+   * outcome of each decoded QR Code. Maps to a {@link RSBlockCallback}.
+   */
+  NEED_RS_BLOCK_CALLBACK(RSBlockCallback.class),
+
 
   /**
    * Allowed extension lengths for EAN or UPC barcodes. Other formats will ignore this.
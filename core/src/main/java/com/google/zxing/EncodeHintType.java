@@ -44,6 +44,13 @@ public enum EncodeHintType {
    */
   DATA_MATRIX_SHAPE,
 
+  /**
+   * Specifies whether to choose the Data Matrix encodation modes that give the smallest symbol, instead
+   * of the look-ahead heuristic of ISO 16022 annex S (type {@link Boolean}, or "true" or "false"
+   * {@link String} value).
+   */
+  DATA_MATRIX_COMPACT,
+
   /**
    * Specifies a minimum barcode size (type {@link Dimension}). Only applicable to Data Matrix now.
    *
@@ -110,9 +117,22 @@ public enum EncodeHintType {
    */
   QR_MASK_PATTERN,
 
+  /**
+   * Specifies whether the QR code mask patterns should be evaluated concurrently when choosing one
+   * automatically (type {@link Boolean}, or "true" or "false" {@link String} value). The chosen
+   * pattern is the same either way.
+   */
+  QR_PARALLEL_MASK_EVALUATION,
+
   /**
    * Specifies whether the data should be encoded to the GS1 standard (type {@link Boolean}, or "true" or "false"
    * {@link String } value).
    */
   GS1_FORMAT,
+
+  /**
+   * Specifies a callback to be notified of the RS block layout chosen for each encoded QR code
+   * (type {@link com.google.zxing.qrcode.decoder.RSBlockCallback}).
+   */
+  RS_BLOCK_CALLBACK,
 }
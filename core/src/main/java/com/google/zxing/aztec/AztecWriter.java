@@ -22,6 +22,7 @@ import com.google.zxing.Writer;
 import com.google.zxing.aztec.encoder.AztecCode;
 import com.google.zxing.aztec.encoder.Encoder;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.ScaledBitMatrix;
 
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
@@ -39,6 +40,25 @@ public final class AztecWriter implements Writer {
 
   @Override
   public BitMatrix encode(String contents, BarcodeFormat format, int width, int height, Map<EncodeHintType,?> hints) {
+    return encodeScaled(contents, format, width, height, hints).toBitMatrix();
+  }
+
+  /**
+   * Like {@link #encode(String, BarcodeFormat, int, int, Map)}, but only works out the modules, leaving
+   * them to be scaled up to the requested size as they are read.
+   *
+   * @param contents The contents to encode in the barcode
+   * @param format The barcode format to generate
+   * @param width The preferred width in pixels
+   * @param height The preferred height in pixels
+   * @param hints Additional parameters to supply to the encoder
+   * @return the same image as {@code encode} returns, as a view of the modules
+   */
+  public ScaledBitMatrix encodeScaled(String contents,
+                                      BarcodeFormat format,
+                                      int width,
+                                      int height,
+                                      Map<EncodeHintType,?> hints) {
     Charset charset = StandardCharsets.ISO_8859_1;
     int eccPercent = Encoder.DEFAULT_EC_PERCENT;
     int layers = Encoder.DEFAULT_AZTEC_LAYERS;
@@ -53,12 +73,12 @@ public final class AztecWriter implements Writer {
         layers = Integer.parseInt(hints.get(EncodeHintType.AZTEC_LAYERS).toString());
       }
     }
-    return encode(contents, format, width, height, charset, eccPercent, layers);
+    return encodeScaled(contents, format, width, height, charset, eccPercent, layers);
   }
 
-  private static BitMatrix encode(String contents, BarcodeFormat format,
-                                  int width, int height,
-                                  Charset charset, int eccPercent, int layers) {
+  private static ScaledBitMatrix encodeScaled(String contents, BarcodeFormat format,
+                                              int width, int height,
+                                              Charset charset, int eccPercent, int layers) {
     if (format != BarcodeFormat.AZTEC) {
       throw new IllegalArgumentException("Can only encode AZTEC, but got " + format);
     }
@@ -66,7 +86,7 @@ public final class AztecWriter implements Writer {
     return renderResult(aztec, width, height);
   }
 
-  private static BitMatrix renderResult(AztecCode code, int width, int height) {
+  private static ScaledBitMatrix renderResult(AztecCode code, int width, int height) {
     BitMatrix input = code.getMatrix();
     if (input == null) {
       throw new IllegalStateException();
@@ -80,16 +100,6 @@ public final class AztecWriter implements Writer {
     int leftPadding = (outputWidth - (inputWidth * multiple)) / 2;
     int topPadding = (outputHeight - (inputHeight * multiple)) / 2;
 
-    BitMatrix output = new BitMatrix(outputWidth, outputHeight);
-
-    for (int inputY = 0, outputY = topPadding; inputY < inputHeight; inputY++, outputY += multiple) {
-      // Write the contents of this row of the barcode
-      for (int inputX = 0, outputX = leftPadding; inputX < inputWidth; inputX++, outputX += multiple) {
-        if (input.get(inputX, inputY)) {
-          output.setRegion(outputX, outputY, multiple, multiple);
-        }
-      }
-    }
-    return output;
+    return new ScaledBitMatrix(input, outputWidth, outputHeight, leftPadding, topPadding, multiple, multiple);
   }
 }
@@ -19,11 +19,6 @@ package com.google.zxing.aztec.encoder;
 import com.google.zxing.common.BitArray;
 
 import java.util.Arrays;
-import java.util.Collection;
-import java.util.Collections;
-import java.util.Comparator;
-import java.util.Iterator;
-import java.util.LinkedList;
 
 /**
  * This produces nearly optimal encodings of text into the first-level of
@@ -34,13 +29,16 @@ import java.util.LinkedList;
  * character and generate a new set of optimal encodings until we have read
  * through the entire input.
  *
+ * The states are kept in parallel primitive arrays, and the output of each
+ * state as a chain of tokens in a growing arena, each token pointing back to
+ * the one before it.  Tokens are only stored for states that survive pruning,
+ * so the search allocates nothing per character once the arrays have grown.
+ *
  * @author Frank Yellin
  * @author Rustam Abdullaev
  */
 public final class HighLevelEncoder {
 
-  static final String[] MODE_NAMES = {"UPPER", "LOWER", "DIGIT", "MIXED", "PUNCT"};
-
   static final int MODE_UPPER = 0; // 5 bits
   static final int MODE_LOWER = 1; // 5 bits
   static final int MODE_DIGIT = 2; // 4 bits
@@ -147,8 +145,47 @@ public final class HighLevelEncoder {
     SHIFT_TABLE[MODE_DIGIT][MODE_UPPER] = 15;
   }
 
+  // Initial capacities; the arrays grow as needed
+  private static final int INITIAL_STATES = 16;
+  private static final int INITIAL_TOKENS = 256;
+
+  // Longest Binary Shift sequence
+  private static final int MAX_BINARY_SHIFT_BYTES = 2047 + 31;
+
   private final byte[] text;
 
+  // Candidate states for the current prefix, as parallel arrays. A state is the current mode (or
+  // the mode to which we'll return if we're in Binary Shift mode), the number of most recent bytes
+  // to output in Binary Shift mode, the total number of bits generated including Binary Shift, and
+  // the last token that we output, not including the pending Binary Shift bytes.
+  private int[] modes;
+  private int[] binaryShiftByteCounts;
+  private int[] bitCounts;
+  private int[] tokens;
+  private int numStates;
+  // Candidate states for the next prefix, in the same layout
+  private int[] nextModes;
+  private int[] nextBinaryShiftByteCounts;
+  private int[] nextBitCounts;
+  private int[] nextTokens;
+  private int numNextStates;
+
+  // All tokens, each one pointing back to the token before it; -1 is the empty start. A simple token
+  // is a value and its bit count; a Binary Shift token is the start of its bytes and minus their count.
+  private int[] tokenPrevious;
+  private int[] tokenValues;
+  private int[] tokenBitCounts;
+  private int numTokens;
+
+  // State being derived from one of the current states. Its new tokens are only kept if it survives.
+  private int candidateMode;
+  private int candidateBinaryShiftByteCount;
+  private int candidateBitCount;
+  private int candidateToken;
+  private final int[] pendingValues = new int[4];
+  private final int[] pendingBitCounts = new int[4];
+  private int numPending;
+
   public HighLevelEncoder(byte[] text) {
     this.text = text;
   }
@@ -157,7 +194,24 @@ public final class HighLevelEncoder {
    * @return text represented by this encoder encoded as a {@link BitArray}
    */
   public BitArray encode() {
-    Collection<State> states = Collections.singletonList(State.INITIAL_STATE);
+    modes = new int[INITIAL_STATES];
+    binaryShiftByteCounts = new int[INITIAL_STATES];
+    bitCounts = new int[INITIAL_STATES];
+    tokens = new int[INITIAL_STATES];
+    nextModes = new int[INITIAL_STATES];
+    nextBinaryShiftByteCounts = new int[INITIAL_STATES];
+    nextBitCounts = new int[INITIAL_STATES];
+    nextTokens = new int[INITIAL_STATES];
+    tokenPrevious = new int[INITIAL_TOKENS];
+    tokenValues = new int[INITIAL_TOKENS];
+    tokenBitCounts = new int[INITIAL_TOKENS];
+    numTokens = 0;
+
+    // Start in UPPER, with nothing output
+    modes[0] = MODE_UPPER;
+    tokens[0] = -1;
+    numStates = 1;
+
     for (int index = 0; index < text.length; index++) {
       int pairCode;
       int nextChar = index + 1 < text.length ? text[index + 1] : 0;
@@ -177,130 +231,332 @@ public final class HighLevelEncoder {
         default:
           pairCode = 0;
       }
+      numNextStates = 0;
       if (pairCode > 0) {
         // We have one of the four special PUNCT pairs.  Treat them specially.
         // Get a new set of states for the two new characters.
-        states = updateStateListForPair(states, index, pairCode);
+        for (int state = 0; state < numStates; state++) {
+          updateStateForPair(state, index, pairCode);
+        }
         index++;
       } else {
         // Get a new set of states for the new character.
-        states = updateStateListForChar(states, index);
+        for (int state = 0; state < numStates; state++) {
+          updateStateForChar(state, index);
+        }
       }
+      swapStates();
     }
     // We are left with a set of states.  Find the shortest one.
-    State minState = Collections.min(states, new Comparator<State>() {
-      @Override
-      public int compare(State a, State b) {
-        return a.getBitCount() - b.getBitCount();
+    int minState = 0;
+    for (int state = 1; state < numStates; state++) {
+      if (bitCounts[state] < bitCounts[minState]) {
+        minState = state;
       }
-    });
-    // Convert it to a bit array, and return.
-    return minState.toBitArray(text);
-  }
-
-  // We update a set of states for a new character by updating each state
-  // for the new character, merging the results, and then removing the
-  // non-optimal states.
-  private Collection<State> updateStateListForChar(Iterable<State> states, int index) {
-    Collection<State> result = new LinkedList<>();
-    for (State state : states) {
-      updateStateForChar(state, index, result);
     }
-    return simplifyStates(result);
+    // Convert it to a bit array, and return.
+    return toBitArray(minState);
   }
 
-  // Return a set of states that represent the possible ways of updating this
-  // state for the next character.  The resulting set of states are added to
-  // the "result" list.
-  private void updateStateForChar(State state, int index, Collection<State> result) {
+  // Add the possible ways of updating this state for the next character to the
+  // next states.
+  private void updateStateForChar(int state, int index) {
     char ch = (char) (text[index] & 0xFF);
-    boolean charInCurrentTable = CHAR_MAP[state.getMode()][ch] > 0;
-    State stateNoBinary = null;
+    int stateMode = modes[state];
+    boolean charInCurrentTable = CHAR_MAP[stateMode][ch] > 0;
     for (int mode = 0; mode <= MODE_PUNCT; mode++) {
       int charInMode = CHAR_MAP[mode][ch];
       if (charInMode > 0) {
-        if (stateNoBinary == null) {
-          // Only create stateNoBinary the first time it's required.
-          stateNoBinary = state.endBinaryShift(index);
-        }
         // Try generating the character by latching to its mode
-        if (!charInCurrentTable || mode == state.getMode() || mode == MODE_DIGIT) {
+        if (!charInCurrentTable || mode == stateMode || mode == MODE_DIGIT) {
           // If the character is in the current table, we don't want to latch to
           // any other mode except possibly digit (which uses only 4 bits).  Any
           // other latch would be equally successful *after* this character, and
           // so wouldn't save any bits.
-          State latchState = stateNoBinary.latchAndAppend(mode, charInMode);
-          result.add(latchState);
+          startCandidate(state);
+          endBinaryShift(index);
+          latchAndAppend(mode, charInMode);
+          addCandidate();
         }
         // Try generating the character by switching to its mode.
-        if (!charInCurrentTable && SHIFT_TABLE[state.getMode()][mode] >= 0) {
+        if (!charInCurrentTable && SHIFT_TABLE[stateMode][mode] >= 0) {
           // It never makes sense to temporarily shift to another mode if the
           // character exists in the current mode.  That can never save bits.
-          State shiftState = stateNoBinary.shiftAndAppend(mode, charInMode);
-          result.add(shiftState);
+          startCandidate(state);
+          endBinaryShift(index);
+          shiftAndAppend(mode, charInMode);
+          addCandidate();
         }
       }
     }
-    if (state.getBinaryShiftByteCount() > 0 || CHAR_MAP[state.getMode()][ch] == 0) {
+    if (binaryShiftByteCounts[state] > 0 || !charInCurrentTable) {
       // It's never worthwhile to go into binary shift mode if you're not already
       // in binary shift mode, and the character exists in your current mode.
       // That can never save bits over just outputting the char in the current mode.
-      State binaryState = state.addBinaryShiftChar(index);
-      result.add(binaryState);
-    }
-  }
-
-  private static Collection<State> updateStateListForPair(Iterable<State> states, int index, int pairCode) {
-    Collection<State> result = new LinkedList<>();
-    for (State state : states) {
-      updateStateForPair(state, index, pairCode, result);
+      startCandidate(state);
+      addBinaryShiftChar(index);
+      addCandidate();
     }
-    return simplifyStates(result);
   }
 
-  private static void updateStateForPair(State state, int index, int pairCode, Collection<State> result) {
-    State stateNoBinary = state.endBinaryShift(index);
+  private void updateStateForPair(int state, int index, int pairCode) {
     // Possibility 1.  Latch to MODE_PUNCT, and then append this code
-    result.add(stateNoBinary.latchAndAppend(MODE_PUNCT, pairCode));
-    if (state.getMode() != MODE_PUNCT) {
+    startCandidate(state);
+    endBinaryShift(index);
+    latchAndAppend(MODE_PUNCT, pairCode);
+    addCandidate();
+    if (modes[state] != MODE_PUNCT) {
       // Possibility 2.  Shift to MODE_PUNCT, and then append this code.
       // Every state except MODE_PUNCT (handled above) can shift
-      result.add(stateNoBinary.shiftAndAppend(MODE_PUNCT, pairCode));
+      startCandidate(state);
+      endBinaryShift(index);
+      shiftAndAppend(MODE_PUNCT, pairCode);
+      addCandidate();
     }
     if (pairCode == 3 || pairCode == 4) {
       // both characters are in DIGITS.  Sometimes better to just add two digits
-      State digitState = stateNoBinary
-          .latchAndAppend(MODE_DIGIT, 16 - pairCode)  // period or comma in DIGIT
-          .latchAndAppend(MODE_DIGIT, 1);             // space in DIGIT
-      result.add(digitState);
+      startCandidate(state);
+      endBinaryShift(index);
+      latchAndAppend(MODE_DIGIT, 16 - pairCode);  // period or comma in DIGIT
+      latchAndAppend(MODE_DIGIT, 1);              // space in DIGIT
+      addCandidate();
     }
-    if (state.getBinaryShiftByteCount() > 0) {
+    if (binaryShiftByteCounts[state] > 0) {
       // It only makes sense to do the characters as binary if we're already
       // in binary mode.
-      State binaryState = state.addBinaryShiftChar(index).addBinaryShiftChar(index + 1);
-      result.add(binaryState);
+      startCandidate(state);
+      addBinaryShiftChar(index);
+      addBinaryShiftChar(index + 1);
+      addCandidate();
     }
   }
 
-  private static Collection<State> simplifyStates(Iterable<State> states) {
-    Collection<State> result = new LinkedList<>();
-    for (State newState : states) {
-      boolean add = true;
-      for (Iterator<State> iterator = result.iterator(); iterator.hasNext();) {
-        State oldState = iterator.next();
-        if (oldState.isBetterThanOrEqualTo(newState)) {
-          add = false;
-          break;
-        }
-        if (newState.isBetterThanOrEqualTo(oldState)) {
-          iterator.remove();
-        }
+  private void startCandidate(int state) {
+    candidateMode = modes[state];
+    candidateBinaryShiftByteCount = binaryShiftByteCounts[state];
+    candidateBitCount = bitCounts[state];
+    candidateToken = tokens[state];
+    numPending = 0;
+  }
+
+  // Latch the candidate to a (not necessarily different) mode, and then append a code.
+  private void latchAndAppend(int mode, int value) {
+    if (mode != candidateMode) {
+      int latch = LATCH_TABLE[candidateMode][mode];
+      addPendingToken(latch & 0xFFFF, latch >> 16);
+      candidateBitCount += latch >> 16;
+    }
+    int latchModeBitCount = mode == MODE_DIGIT ? 4 : 5;
+    addPendingToken(value, latchModeBitCount);
+    candidateMode = mode;
+    candidateBitCount += latchModeBitCount;
+  }
+
+  // Temporarily shift the candidate to a different mode to output a single value.
+  private void shiftAndAppend(int mode, int value) {
+    int thisModeBitCount = candidateMode == MODE_DIGIT ? 4 : 5;
+    // Shifts exist only to UPPER and PUNCT, both with tokens size 5.
+    addPendingToken(SHIFT_TABLE[candidateMode][mode], thisModeBitCount);
+    addPendingToken(value, 5);
+    candidateBitCount += thisModeBitCount + 5;
+  }
+
+  // Output one more character of the candidate in Binary Shift mode.
+  private void addBinaryShiftChar(int index) {
+    if (candidateMode == MODE_PUNCT || candidateMode == MODE_DIGIT) {
+      int latch = LATCH_TABLE[candidateMode][MODE_UPPER];
+      addPendingToken(latch & 0xFFFF, latch >> 16);
+      candidateBitCount += latch >> 16;
+      candidateMode = MODE_UPPER;
+    }
+    int binaryShiftByteCount = candidateBinaryShiftByteCount;
+    candidateBitCount +=
+      (binaryShiftByteCount == 0 || binaryShiftByteCount == 31) ? 18 :
+      (binaryShiftByteCount == 62) ? 9 : 8;
+    candidateBinaryShiftByteCount++;
+    if (candidateBinaryShiftByteCount == MAX_BINARY_SHIFT_BYTES) {
+      // The string is as long as it's allowed to be.  We should end it.
+      endBinaryShift(index + 1);
+    }
+  }
+
+  // Take the candidate out of Binary Shift mode, if it is in it.
+  private void endBinaryShift(int index) {
+    int binaryShiftByteCount = candidateBinaryShiftByteCount;
+    if (binaryShiftByteCount > 0) {
+      addPendingToken(index - binaryShiftByteCount, -binaryShiftByteCount);
+      candidateBinaryShiftByteCount = 0;
+    }
+  }
+
+  private void addPendingToken(int value, int bitCount) {
+    pendingValues[numPending] = value;
+    pendingBitCounts[numPending] = bitCount;
+    numPending++;
+  }
+
+  // Merge the candidate into the next states, removing the non-optimal states.
+  private void addCandidate() {
+    int mode = candidateMode;
+    int binaryShiftByteCount = candidateBinaryShiftByteCount;
+    int bitCount = candidateBitCount;
+    boolean add = true;
+    int kept = 0;
+    int i = 0;
+    for (; i < numNextStates; i++) {
+      int oldMode = nextModes[i];
+      int oldBinaryShiftByteCount = nextBinaryShiftByteCounts[i];
+      int oldBitCount = nextBitCounts[i];
+      if (isBetterThanOrEqualTo(oldMode, oldBinaryShiftByteCount, oldBitCount,
+                                mode, binaryShiftByteCount, bitCount)) {
+        add = false;
+        break;
+      }
+      if (!isBetterThanOrEqualTo(mode, binaryShiftByteCount, bitCount,
+                                 oldMode, oldBinaryShiftByteCount, oldBitCount)) {
+        moveNextState(i, kept++);
+      }
+    }
+    for (; i < numNextStates; i++) {
+      moveNextState(i, kept++);
+    }
+    numNextStates = kept;
+    if (!add) {
+      return;
+    }
+
+    int token = candidateToken;
+    for (int p = 0; p < numPending; p++) {
+      token = addToken(token, pendingValues[p], pendingBitCounts[p]);
+    }
+    if (numNextStates == nextModes.length) {
+      int capacity = numNextStates * 2;
+      nextModes = Arrays.copyOf(nextModes, capacity);
+      nextBinaryShiftByteCounts = Arrays.copyOf(nextBinaryShiftByteCounts, capacity);
+      nextBitCounts = Arrays.copyOf(nextBitCounts, capacity);
+      nextTokens = Arrays.copyOf(nextTokens, capacity);
+    }
+    nextModes[numNextStates] = mode;
+    nextBinaryShiftByteCounts[numNextStates] = binaryShiftByteCount;
+    nextBitCounts[numNextStates] = bitCount;
+    nextTokens[numNextStates] = token;
+    numNextStates++;
+  }
+
+  private void moveNextState(int from, int to) {
+    if (from != to) {
+      nextModes[to] = nextModes[from];
+      nextBinaryShiftByteCounts[to] = nextBinaryShiftByteCounts[from];
+      nextBitCounts[to] = nextBitCounts[from];
+      nextTokens[to] = nextTokens[from];
+    }
+  }
+
+  private void swapStates() {
+    int[] swap = modes;
+    modes = nextModes;
+    nextModes = swap;
+    swap = binaryShiftByteCounts;
+    binaryShiftByteCounts = nextBinaryShiftByteCounts;
+    nextBinaryShiftByteCounts = swap;
+    swap = bitCounts;
+    bitCounts = nextBitCounts;
+    nextBitCounts = swap;
+    swap = tokens;
+    tokens = nextTokens;
+    nextTokens = swap;
+    numStates = numNextStates;
+  }
+
+  private int addToken(int previous, int value, int bitCount) {
+    if (numTokens == tokenPrevious.length) {
+      int capacity = numTokens * 2;
+      tokenPrevious = Arrays.copyOf(tokenPrevious, capacity);
+      tokenValues = Arrays.copyOf(tokenValues, capacity);
+      tokenBitCounts = Arrays.copyOf(tokenBitCounts, capacity);
+    }
+    tokenPrevious[numTokens] = previous;
+    tokenValues[numTokens] = value;
+    tokenBitCounts[numTokens] = bitCount;
+    return numTokens++;
+  }
+
+  // Returns true if the first state is better (or equal) to be in than the second
+  // state under all possible circumstances.
+  private static boolean isBetterThanOrEqualTo(int mode, int binaryShiftByteCount, int bitCount,
+                                               int otherMode, int otherBinaryShiftByteCount, int otherBitCount) {
+    int newModeBitCount = bitCount + (LATCH_TABLE[mode][otherMode] >> 16);
+    if (binaryShiftByteCount < otherBinaryShiftByteCount) {
+      // add additional B/S encoding cost of other, if any
+      newModeBitCount += calculateBinaryShiftCost(otherBinaryShiftByteCount) -
+          calculateBinaryShiftCost(binaryShiftByteCount);
+    } else if (binaryShiftByteCount > otherBinaryShiftByteCount && otherBinaryShiftByteCount > 0) {
+      // maximum possible additional cost (we end up exceeding the 31 byte boundary and other state can stay beneath it)
+      newModeBitCount += 10;
+    }
+    return newModeBitCount <= otherBitCount;
+  }
+
+  private static int calculateBinaryShiftCost(int binaryShiftByteCount) {
+    if (binaryShiftByteCount > 62) {
+      return 21; // B/S with extended length
+    }
+    if (binaryShiftByteCount > 31) {
+      return 20; // two B/S
+    }
+    if (binaryShiftByteCount > 0) {
+      return 10; // one B/S
+    }
+    return 0;
+  }
+
+  private BitArray toBitArray(int state) {
+    int lastToken = tokens[state];
+    int binaryShiftByteCount = binaryShiftByteCounts[state];
+    if (binaryShiftByteCount > 0) {
+      lastToken = addToken(lastToken, text.length - binaryShiftByteCount, -binaryShiftByteCount);
+    }
+    // Reverse the tokens, so that they are in the order that they should
+    // be output
+    int numChain = 0;
+    for (int token = lastToken; token >= 0; token = tokenPrevious[token]) {
+      numChain++;
+    }
+    int[] chain = new int[numChain];
+    for (int token = lastToken; token >= 0; token = tokenPrevious[token]) {
+      chain[--numChain] = token;
+    }
+    BitArray bitArray = new BitArray();
+    // Add each token to the result.
+    for (int token : chain) {
+      int bitCount = tokenBitCounts[token];
+      if (bitCount >= 0) {
+        bitArray.appendBits(tokenValues[token], bitCount);
+      } else {
+        appendBinaryShift(bitArray, tokenValues[token], -bitCount);
       }
-      if (add) {
-        result.add(newState);
+    }
+    return bitArray;
+  }
+
+  private void appendBinaryShift(BitArray bitArray, int binaryShiftStart, int binaryShiftByteCount) {
+    for (int i = 0; i < binaryShiftByteCount; i++) {
+      if (i == 0 || (i == 31 && binaryShiftByteCount <= 62)) {
+        // We need a header before the first character, and before
+        // character 31 when the total byte code is <= 62
+        bitArray.appendBits(31, 5);  // BINARY_SHIFT
+        if (binaryShiftByteCount > 62) {
+          bitArray.appendBits(binaryShiftByteCount - 31, 16);
+        } else if (i == 0) {
+          // 1 <= binaryShiftByteCode <= 62
+          bitArray.appendBits(Math.min(binaryShiftByteCount, 31), 5);
+        } else {
+          // 32 <= binaryShiftCount <= 62 and i == 31
+          bitArray.appendBits(binaryShiftByteCount - 31, 5);
+        }
       }
+      bitArray.appendBits(text[binaryShiftStart + i], 8);
     }
-    return result;
   }
 
 }
@@ -25,6 +25,8 @@ import java.util.Arrays;
  */
 public final class BitArray implements Cloneable {
 
+  private static final float LOAD_FACTOR = 0.75f;
+
   private int[] bits;
   private int size;
 
@@ -54,7 +56,8 @@ public final class BitArray implements Cloneable {
 
   private void ensureCapacity(int size) {
     if (size > bits.length * 32) {
-      int[] newBits = makeArray(size);
+      // Grow geometrically so that a run of appends doesn't copy the array each time
+      int[] newBits = makeArray((int) Math.ceil(size / LOAD_FACTOR));
       System.arraycopy(bits, 0, newBits, 0, bits.length);
       this.bits = newBits;
     }
@@ -233,18 +236,39 @@ public final class BitArray implements Cloneable {
     if (numBits < 0 || numBits > 32) {
       throw new IllegalArgumentException("Num bits must be between 0 and 32");
     }
-    ensureCapacity(size + numBits);
-    for (int numBitsLeft = numBits; numBitsLeft > 0; numBitsLeft--) {
-      appendBit(((value >> (numBitsLeft - 1)) & 0x01) == 1);
+    if (numBits == 0) {
+      return;
     }
+    ensureCapacity(size + numBits);
+    // The first bit appended is the most-significant of value, but is stored as the least-significant
+    appendWord(Integer.reverse(value) >>> (32 - numBits), numBits);
   }
 
   public void appendBitArray(BitArray other) {
     int otherSize = other.size;
     ensureCapacity(size + otherSize);
-    for (int i = 0; i < otherSize; i++) {
-      appendBit(other.get(i));
+    int fullWords = otherSize / 32;
+    for (int i = 0; i < fullWords; i++) {
+      appendWord(other.bits[i], 32);
+    }
+    int remaining = otherSize & 0x1F;
+    if (remaining > 0) {
+      appendWord(other.bits[fullWords] & ((1 << remaining) - 1), remaining);
+    }
+  }
+
+  /**
+   * Appends the "numBits" least-significant bits of "word", least-significant first. Capacity must
+   * already be ensured, and bits of "word" above "numBits" must be clear.
+   */
+  private void appendWord(int word, int numBits) {
+    int index = size / 32;
+    int offset = size & 0x1F;
+    bits[index] |= word << offset;
+    if (offset + numBits > 32) {
+      bits[index + 1] |= word >>> (32 - offset);
     }
+    size += numBits;
   }
 
   public void xor(BitArray other) {
@@ -268,14 +292,15 @@ public final class BitArray implements Cloneable {
    */
   public void toBytes(int bitOffset, byte[] array, int offset, int numBytes) {
     for (int i = 0; i < numBytes; i++) {
-      int theByte = 0;
-      for (int j = 0; j < 8; j++) {
-        if (get(bitOffset)) {
-          theByte |= 1 << (7 - j);
-        }
-        bitOffset++;
+      int index = bitOffset / 32;
+      int shift = bitOffset & 0x1F;
+      int theBits = bits[index] >>> shift;
+      if (shift > 24 && index + 1 < bits.length) {
+        theBits |= bits[index + 1] << (32 - shift);
       }
-      array[offset + i] = (byte) theByte;
+      // The first bit is the least-significant here but the most-significant in the byte
+      array[offset + i] = (byte) (Integer.reverse(theBits) >>> 24);
+      bitOffset += 8;
     }
   }
 
@@ -0,0 +1,183 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+/**
+ * <p>A read-only view of a barcode's modules scaled up to an image size, as writers render them: each module
+ * becomes a block of {@code moduleWidth} by {@code moduleHeight} pixels, placed at an offset within an
+ * otherwise unset image. Only the modules are held, and pixels are worked out as they are asked for, so a
+ * large rendering costs no more memory than a small one.</p>
+ *
+ * <p>{@link #toBitMatrix()} gives the same {@link BitMatrix} that a writer's {@code encode} method returns.</p>
+ *
+ * @see com.google.zxing.qrcode.QRCodeWriter#encodeScaled(String, com.google.zxing.BarcodeFormat, int, int,
+ *  java.util.Map)
+ */
+public final class ScaledBitMatrix {
+
+  private final BitMatrix modules;
+  private final int width;
+  private final int height;
+  private final int left;
+  private final int top;
+  private final int moduleWidth;
+  private final int moduleHeight;
+
+  /**
+   * Views a matrix at its own size.
+   *
+   * @param matrix pixels, one per module
+   */
+  public ScaledBitMatrix(BitMatrix matrix) {
+    this(matrix, matrix.getWidth(), matrix.getHeight(), 0, 0, 1, 1);
+  }
+
+  /**
+   * @param modules set where a module is dark
+   * @param width image width in pixels
+   * @param height image height in pixels
+   * @param left pixels left of the first module
+   * @param top pixels above the first module
+   * @param moduleWidth width of each module in pixels
+   * @param moduleHeight height of each module in pixels
+   */
+  public ScaledBitMatrix(BitMatrix modules,
+                         int width,
+                         int height,
+                         int left,
+                         int top,
+                         int moduleWidth,
+                         int moduleHeight) {
+    if (width < 1 || height < 1 || moduleWidth < 1 || moduleHeight < 1) {
+      throw new IllegalArgumentException("Dimensions must be greater than 0");
+    }
+    if (left < 0 || top < 0 ||
+        left + (long) modules.getWidth() * moduleWidth > width ||
+        top + (long) modules.getHeight() * moduleHeight > height) {
+      throw new IllegalArgumentException("Modules must fit inside the image");
+    }
+    this.modules = modules;
+    this.width = width;
+    this.height = height;
+    this.left = left;
+    this.top = top;
+    this.moduleWidth = moduleWidth;
+    this.moduleHeight = moduleHeight;
+  }
+
+  /**
+   * @return the barcode's modules, one bit each
+   */
+  public BitMatrix getModules() {
+    return modules;
+  }
+
+  /**
+   * @return image width in pixels
+   */
+  public int getWidth() {
+    return width;
+  }
+
+  /**
+   * @return image height in pixels
+   */
+  public int getHeight() {
+    return height;
+  }
+
+  /**
+   * @param x the horizontal component (i.e. which column)
+   * @param y the vertical component (i.e. which row)
+   * @return value of given pixel in the image
+   */
+  public boolean get(int x, int y) {
+    if (x < left || y < top) {
+      return false;
+    }
+    int moduleX = (x - left) / moduleWidth;
+    int moduleY = (y - top) / moduleHeight;
+    return moduleX < modules.getWidth() && moduleY < modules.getHeight() && modules.get(moduleX, moduleY);
+  }
+
+  /**
+   * @return the module row which image row {@code y} shows, or -1 if it falls outside the modules. Rows with
+   *  the same module row are the same.
+   */
+  public int getModuleRow(int y) {
+    if (y < top) {
+      return -1;
+    }
+    int moduleY = (y - top) / moduleHeight;
+    return moduleY < modules.getHeight() ? moduleY : -1;
+  }
+
+  /**
+   * A fast method to retrieve one row of the image, expanded from its modules.
+   *
+   * @param y The row to retrieve
+   * @param row An optional caller-allocated BitArray, will be allocated if null or too small
+   * @return The resulting BitArray - this reference should always be used even when passing
+   *         your own row
+   */
+  public BitArray getRow(int y, BitArray row) {
+    int moduleY = getModuleRow(y);
+    if (moduleY >= 0 && moduleWidth == 1 && width == modules.getWidth()) {
+      // Columns aren't scaled, so the row can be copied as is
+      return modules.getRow(moduleY, row);
+    }
+    if (row == null || row.getSize() < width) {
+      row = new BitArray(width);
+    } else {
+      row.clear();
+    }
+    if (moduleY < 0) {
+      return row;
+    }
+    int modulesWidth = modules.getWidth();
+    int moduleX = 0;
+    while (moduleX < modulesWidth) {
+      // Set each run of dark modules as one range
+      if (!modules.get(moduleX, moduleY)) {
+        moduleX++;
+        continue;
+      }
+      int start = moduleX;
+      while (moduleX < modulesWidth && modules.get(moduleX, moduleY)) {
+        moduleX++;
+      }
+      row.setRange(left + start * moduleWidth, left + moduleX * moduleWidth);
+    }
+    return row;
+  }
+
+  /**
+   * @return the whole image as a {@link BitMatrix}
+   */
+  public BitMatrix toBitMatrix() {
+    BitMatrix output = new BitMatrix(width, height);
+    for (int moduleY = 0, y = top; moduleY < modules.getHeight(); moduleY++, y += moduleHeight) {
+      for (int moduleX = 0, x = left; moduleX < modules.getWidth(); moduleX++, x += moduleWidth) {
+        if (modules.get(moduleX, moduleY)) {
+          output.setRegion(x, y, moduleWidth, moduleHeight);
+        }
+      }
+    }
+    return output;
+  }
+
+}
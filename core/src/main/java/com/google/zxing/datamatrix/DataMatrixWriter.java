@@ -24,6 +24,7 @@ import com.google.zxing.datamatrix.encoder.DefaultPlacement;
 import com.google.zxing.Dimension;
 import com.google.zxing.datamatrix.encoder.ErrorCorrection;
 import com.google.zxing.datamatrix.encoder.HighLevelEncoder;
+import com.google.zxing.datamatrix.encoder.MinimalEncoder;
 import com.google.zxing.datamatrix.encoder.SymbolInfo;
 import com.google.zxing.datamatrix.encoder.SymbolShapeHint;
 import com.google.zxing.qrcode.encoder.ByteMatrix;
@@ -62,6 +63,7 @@ public final class DataMatrixWriter implements Writer {
     SymbolShapeHint shape = SymbolShapeHint.FORCE_NONE;
     Dimension minSize = null;
     Dimension maxSize = null;
+    boolean compact = false;
     if (hints != null) {
       SymbolShapeHint requestedShape = (SymbolShapeHint) hints.get(EncodeHintType.DATA_MATRIX_SHAPE);
       if (requestedShape != null) {
@@ -77,16 +79,28 @@ public final class DataMatrixWriter implements Writer {
       if (requestedMaxSize != null) {
         maxSize = requestedMaxSize;
       }
+      if (hints.containsKey(EncodeHintType.DATA_MATRIX_COMPACT)) {
+        compact = Boolean.parseBoolean(hints.get(EncodeHintType.DATA_MATRIX_COMPACT).toString());
+      }
     }
 
 
     //1. step: Data encodation
-    String encoded = HighLevelEncoder.encodeHighLevel(contents, shape, minSize, maxSize);
+    String encoded;
+    if (compact) {
+      encoded = MinimalEncoder.encodeHighLevel(contents, shape, minSize, maxSize);
+    } else {
+      encoded = HighLevelEncoder.encodeHighLevel(contents, shape, minSize, maxSize);
+    }
 
     SymbolInfo symbolInfo = SymbolInfo.lookup(encoded.length(), shape, minSize, maxSize, true);
 
     //2. step: ECC generation
-    String codewords = ErrorCorrection.encodeECC200(encoded, symbolInfo);
+    byte[] dataCodewords = new byte[encoded.length()];
+    for (int i = 0; i < dataCodewords.length; i++) {
+      dataCodewords[i] = (byte) encoded.charAt(i);
+    }
+    byte[] codewords = ErrorCorrection.encodeECC200(dataCodewords, symbolInfo);
 
     //3. step: Module placement in Matrix
     DefaultPlacement placement = new DefaultPlacement(codewords, symbolInfo.getSymbolDataWidth(), symbolInfo.getSymbolDataHeight());
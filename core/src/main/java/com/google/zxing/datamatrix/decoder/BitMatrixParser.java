@@ -19,13 +19,17 @@ package com.google.zxing.datamatrix.decoder;
 import com.google.zxing.FormatException;
 import com.google.zxing.common.BitMatrix;
 
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 /**
  * @author bbrown@google.com (Brian Brown)
  */
 final class BitMatrixParser {
 
-  private final BitMatrix mappingBitMatrix;
-  private final BitMatrix readMappingMatrix;
+  // Per version: position of each codeword bit in the symbol, packed as x | (y << 16), in reading order
+  private static final AtomicReferenceArray<int[]> PLACEMENTS = new AtomicReferenceArray<>(30);
+
+  private final BitMatrix bitMatrix;
   private final Version version;
 
   /**
@@ -39,8 +43,7 @@ final class BitMatrixParser {
     }
 
     version = readVersion(bitMatrix);
-    this.mappingBitMatrix = extractDataRegion(bitMatrix);
-    this.readMappingMatrix = new BitMatrix(this.mappingBitMatrix.getWidth(), this.mappingBitMatrix.getHeight());
+    this.bitMatrix = bitMatrix;
   }
 
   Version getVersion() {
@@ -73,368 +76,233 @@ final class BitMatrixParser {
    * @throws FormatException if the exact number of bytes expected is not read
    */
   byte[] readCodewords() throws FormatException {
-
+    int[] placement = getPlacement(version);
     byte[] result = new byte[version.getTotalCodewords()];
-    int resultOffset = 0;
-
-    int row = 4;
-    int column = 0;
-
-    int numRows = mappingBitMatrix.getHeight();
-    int numColumns = mappingBitMatrix.getWidth();
-
-    boolean corner1Read = false;
-    boolean corner2Read = false;
-    boolean corner3Read = false;
-    boolean corner4Read = false;
-
-    // Read all of the codewords
-    do {
-      // Check the four corner cases
-      if ((row == numRows) && (column == 0) && !corner1Read) {
-        result[resultOffset++] = (byte) readCorner1(numRows, numColumns);
-        row -= 2;
-        column += 2;
-        corner1Read = true;
-      } else if ((row == numRows - 2) && (column == 0) && ((numColumns & 0x03) != 0) && !corner2Read) {
-        result[resultOffset++] = (byte) readCorner2(numRows, numColumns);
-        row -= 2;
-        column += 2;
-        corner2Read = true;
-      } else if ((row == numRows + 4) && (column == 2) && ((numColumns & 0x07) == 0) && !corner3Read) {
-        result[resultOffset++] = (byte) readCorner3(numRows, numColumns);
-        row -= 2;
-        column += 2;
-        corner3Read = true;
-      } else if ((row == numRows - 2) && (column == 0) && ((numColumns & 0x07) == 4) && !corner4Read) {
-        result[resultOffset++] = (byte) readCorner4(numRows, numColumns);
-        row -= 2;
-        column += 2;
-        corner4Read = true;
-      } else {
-        // Sweep upward diagonally to the right
-        do {
-          if ((row < numRows) && (column >= 0) && !readMappingMatrix.get(column, row)) {
-            result[resultOffset++] = (byte) readUtah(row, column, numRows, numColumns);
-          }
-          row -= 2;
-          column += 2;
-        } while ((row >= 0) && (column < numColumns));
-        row += 1;
-        column += 3;
-
-        // Sweep downward diagonally to the left
-        do {
-          if ((row >= 0) && (column < numColumns) && !readMappingMatrix.get(column, row)) {
-             result[resultOffset++] = (byte) readUtah(row, column, numRows, numColumns);
-          }
-          row += 2;
-          column -= 2;
-        } while ((row < numRows) && (column >= 0));
-        row += 3;
-        column += 1;
-      }
-    } while ((row < numRows) || (column < numColumns));
-
-    if (resultOffset != version.getTotalCodewords()) {
+    if (placement.length != result.length * 8) {
       throw FormatException.getFormatInstance();
     }
+    int n = 0;
+    for (int offset = 0; offset < result.length; offset++) {
+      int currentByte = 0;
+      for (int end = n + 8; n < end; n++) {
+        int position = placement[n];
+        currentByte <<= 1;
+        if (bitMatrix.get(position & 0xFFFF, position >>> 16)) {
+          currentByte |= 1;
+        }
+      }
+      result[offset] = (byte) currentByte;
+    }
     return result;
   }
 
-  /**
-   * <p>Reads a bit of the mapping matrix accounting for boundary wrapping.</p>
-   *
-   * @param row Row to read in the mapping matrix
-   * @param column Column to read in the mapping matrix
-   * @param numRows Number of rows in the mapping matrix
-   * @param numColumns Number of columns in the mapping matrix
-   * @return value of the given bit in the mapping matrix
-   */
-  private boolean readModule(int row, int column, int numRows, int numColumns) {
-    // Adjust the row and column indices based on boundary wrapping
-    if (row < 0) {
-      row += numRows;
-      column += 4 - ((numRows + 4) & 0x07);
-    }
-    if (column < 0) {
-      column += numColumns;
-      row += 4 - ((numColumns + 4) & 0x07);
+  private static int[] getPlacement(Version version) {
+    int index = version.getVersionNumber() - 1;
+    int[] placement = PLACEMENTS.get(index);
+    if (placement == null) {
+      placement = new PlacementBuilder(version).build();
+      if (!PLACEMENTS.compareAndSet(index, null, placement)) {
+        placement = PLACEMENTS.get(index);
+      }
     }
-    readMappingMatrix.set(column, row);
-    return mappingBitMatrix.get(column, row);
+    return placement;
   }
 
   /**
-   * <p>Reads the 8 bits of the standard Utah-shaped pattern.</p>
-   *
-   * <p>See ISO 16022:2006, 5.8.1 Figure 6</p>
-   *
-   * @param row Current row in the mapping matrix, anchored at the 8th bit (LSB) of the pattern
-   * @param column Current column in the mapping matrix, anchored at the 8th bit (LSB) of the pattern
-   * @param numRows Number of rows in the mapping matrix
-   * @param numColumns Number of columns in the mapping matrix
-   * @return byte from the utah shape
+   * <p>Walks the mapping matrix of a {@link Version} once in codeword order, and records where in the
+   * full symbol (with alignment patterns) each bit is.</p>
    */
-  private int readUtah(int row, int column, int numRows, int numColumns) {
-    int currentByte = 0;
-    if (readModule(row - 2, column - 2, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(row - 2, column - 1, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(row - 1, column - 2, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(row - 1, column - 1, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(row - 1, column, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(row, column - 2, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(row, column - 1, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(row, column, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    return currentByte;
-  }
+  private static final class PlacementBuilder {
 
-  /**
-   * <p>Reads the 8 bits of the special corner condition 1.</p>
-   *
-   * <p>See ISO 16022:2006, Figure F.3</p>
-   *
-   * @param numRows Number of rows in the mapping matrix
-   * @param numColumns Number of columns in the mapping matrix
-   * @return byte from the Corner condition 1
-   */
-  private int readCorner1(int numRows, int numColumns) {
-    int currentByte = 0;
-    if (readModule(numRows - 1, 0, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(numRows - 1, 1, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(numRows - 1, 2, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(0, numColumns - 2, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(0, numColumns - 1, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(1, numColumns - 1, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(2, numColumns - 1, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(3, numColumns - 1, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    return currentByte;
-  }
+    private final Version version;
+    private final int numRows;
+    private final int numColumns;
+    private final BitMatrix readMappingMatrix;
+    private final int[] placement;
+    private int placementOffset;
 
-  /**
-   * <p>Reads the 8 bits of the special corner condition 2.</p>
-   *
-   * <p>See ISO 16022:2006, Figure F.4</p>
-   *
-   * @param numRows Number of rows in the mapping matrix
-   * @param numColumns Number of columns in the mapping matrix
-   * @return byte from the Corner condition 2
-   */
-  private int readCorner2(int numRows, int numColumns) {
-    int currentByte = 0;
-    if (readModule(numRows - 3, 0, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(numRows - 2, 0, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(numRows - 1, 0, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(0, numColumns - 4, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(0, numColumns - 3, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(0, numColumns - 2, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(0, numColumns - 1, numRows, numColumns)) {
-      currentByte |= 1;
+    PlacementBuilder(Version version) {
+      this.version = version;
+      int dataRegionSizeRows = version.getDataRegionSizeRows();
+      int dataRegionSizeColumns = version.getDataRegionSizeColumns();
+      numRows = version.getSymbolSizeRows() / dataRegionSizeRows * dataRegionSizeRows;
+      numColumns = version.getSymbolSizeColumns() / dataRegionSizeColumns * dataRegionSizeColumns;
+      readMappingMatrix = new BitMatrix(numColumns, numRows);
+      placement = new int[numRows * numColumns];
     }
-    currentByte <<= 1;
-    if (readModule(1, numColumns - 1, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    return currentByte;
-  }
 
-  /**
-   * <p>Reads the 8 bits of the special corner condition 3.</p>
-   *
-   * <p>See ISO 16022:2006, Figure F.5</p>
-   *
-   * @param numRows Number of rows in the mapping matrix
-   * @param numColumns Number of columns in the mapping matrix
-   * @return byte from the Corner condition 3
-   */
-  private int readCorner3(int numRows, int numColumns) {
-    int currentByte = 0;
-    if (readModule(numRows - 1, 0, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(numRows - 1, numColumns - 1, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(0, numColumns - 3, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(0, numColumns - 2, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(0, numColumns - 1, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(1, numColumns - 3, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(1, numColumns - 2, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(1, numColumns - 1, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    return currentByte;
-  }
+    int[] build() {
+      int row = 4;
+      int column = 0;
 
-  /**
-   * <p>Reads the 8 bits of the special corner condition 4.</p>
-   *
-   * <p>See ISO 16022:2006, Figure F.6</p>
-   *
-   * @param numRows Number of rows in the mapping matrix
-   * @param numColumns Number of columns in the mapping matrix
-   * @return byte from the Corner condition 4
-   */
-  private int readCorner4(int numRows, int numColumns) {
-    int currentByte = 0;
-    if (readModule(numRows - 3, 0, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(numRows - 2, 0, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(numRows - 1, 0, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(0, numColumns - 2, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(0, numColumns - 1, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(1, numColumns - 1, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(2, numColumns - 1, numRows, numColumns)) {
-      currentByte |= 1;
-    }
-    currentByte <<= 1;
-    if (readModule(3, numColumns - 1, numRows, numColumns)) {
-      currentByte |= 1;
+      boolean corner1Read = false;
+      boolean corner2Read = false;
+      boolean corner3Read = false;
+      boolean corner4Read = false;
+
+      // Read all of the codewords
+      do {
+        // Check the four corner cases
+        if ((row == numRows) && (column == 0) && !corner1Read) {
+          readCorner1();
+          row -= 2;
+          column += 2;
+          corner1Read = true;
+        } else if ((row == numRows - 2) && (column == 0) && ((numColumns & 0x03) != 0) && !corner2Read) {
+          readCorner2();
+          row -= 2;
+          column += 2;
+          corner2Read = true;
+        } else if ((row == numRows + 4) && (column == 2) && ((numColumns & 0x07) == 0) && !corner3Read) {
+          readCorner3();
+          row -= 2;
+          column += 2;
+          corner3Read = true;
+        } else if ((row == numRows - 2) && (column == 0) && ((numColumns & 0x07) == 4) && !corner4Read) {
+          readCorner4();
+          row -= 2;
+          column += 2;
+          corner4Read = true;
+        } else {
+          // Sweep upward diagonally to the right
+          do {
+            if ((row < numRows) && (column >= 0) && !readMappingMatrix.get(column, row)) {
+              readUtah(row, column);
+            }
+            row -= 2;
+            column += 2;
+          } while ((row >= 0) && (column < numColumns));
+          row += 1;
+          column += 3;
+
+          // Sweep downward diagonally to the left
+          do {
+            if ((row >= 0) && (column < numColumns) && !readMappingMatrix.get(column, row)) {
+               readUtah(row, column);
+            }
+            row += 2;
+            column -= 2;
+          } while ((row < numRows) && (column >= 0));
+          row += 3;
+          column += 1;
+        }
+      } while ((row < numRows) || (column < numColumns));
+
+      int[] result = new int[placementOffset];
+      System.arraycopy(placement, 0, result, 0, placementOffset);
+      return result;
     }
-    return currentByte;
-  }
 
-  /**
-   * <p>Extracts the data region from a {@link BitMatrix} that contains
-   * alignment patterns.</p>
-   *
-   * @param bitMatrix Original {@link BitMatrix} with alignment patterns
-   * @return BitMatrix that has the alignment patterns removed
-   */
-  private BitMatrix extractDataRegion(BitMatrix bitMatrix) {
-    int symbolSizeRows = version.getSymbolSizeRows();
-    int symbolSizeColumns = version.getSymbolSizeColumns();
+    /**
+     * <p>Records a bit of the mapping matrix accounting for boundary wrapping, translated to its
+     * position in the symbol with alignment patterns.</p>
+     *
+     * @param row Row to read in the mapping matrix
+     * @param column Column to read in the mapping matrix
+     */
+    private void readModule(int row, int column) {
+      // Adjust the row and column indices based on boundary wrapping
+      if (row < 0) {
+        row += numRows;
+        column += 4 - ((numRows + 4) & 0x07);
+      }
+      if (column < 0) {
+        column += numColumns;
+        row += 4 - ((numColumns + 4) & 0x07);
+      }
+      readMappingMatrix.set(column, row);
+      // Skip the finder / alignment patterns around each data region
+      int dataRegionSizeRows = version.getDataRegionSizeRows();
+      int dataRegionSizeColumns = version.getDataRegionSizeColumns();
+      int symbolRow = row / dataRegionSizeRows * (dataRegionSizeRows + 2) + 1 + row % dataRegionSizeRows;
+      int symbolColumn =
+          column / dataRegionSizeColumns * (dataRegionSizeColumns + 2) + 1 + column % dataRegionSizeColumns;
+      placement[placementOffset++] = symbolColumn | (symbolRow << 16);
+    }
 
-    if (bitMatrix.getHeight() != symbolSizeRows) {
-      throw new IllegalArgumentException("Dimension of bitMatrix must match the version size");
+    /**
+     * <p>Reads the 8 bits of the standard Utah-shaped pattern.</p>
+     *
+     * <p>See ISO 16022:2006, 5.8.1 Figure 6</p>
+     *
+     * @param row Current row in the mapping matrix, anchored at the 8th bit (LSB) of the pattern
+     * @param column Current column in the mapping matrix, anchored at the 8th bit (LSB) of the pattern
+     */
+    private void readUtah(int row, int column) {
+      readModule(row - 2, column - 2);
+      readModule(row - 2, column - 1);
+      readModule(row - 1, column - 2);
+      readModule(row - 1, column - 1);
+      readModule(row - 1, column);
+      readModule(row, column - 2);
+      readModule(row, column - 1);
+      readModule(row, column);
     }
 
-    int dataRegionSizeRows = version.getDataRegionSizeRows();
-    int dataRegionSizeColumns = version.getDataRegionSizeColumns();
+    /**
+     * <p>Reads the 8 bits of the special corner condition 1.</p>
+     *
+     * <p>See ISO 16022:2006, Figure F.3</p>
+     */
+    private void readCorner1() {
+      readModule(numRows - 1, 0);
+      readModule(numRows - 1, 1);
+      readModule(numRows - 1, 2);
+      readModule(0, numColumns - 2);
+      readModule(0, numColumns - 1);
+      readModule(1, numColumns - 1);
+      readModule(2, numColumns - 1);
+      readModule(3, numColumns - 1);
+    }
 
-    int numDataRegionsRow = symbolSizeRows / dataRegionSizeRows;
-    int numDataRegionsColumn = symbolSizeColumns / dataRegionSizeColumns;
+    /**
+     * <p>Reads the 8 bits of the special corner condition 2.</p>
+     *
+     * <p>See ISO 16022:2006, Figure F.4</p>
+     */
+    private void readCorner2() {
+      readModule(numRows - 3, 0);
+      readModule(numRows - 2, 0);
+      readModule(numRows - 1, 0);
+      readModule(0, numColumns - 4);
+      readModule(0, numColumns - 3);
+      readModule(0, numColumns - 2);
+      readModule(0, numColumns - 1);
+      readModule(1, numColumns - 1);
+    }
 
-    int sizeDataRegionRow = numDataRegionsRow * dataRegionSizeRows;
-    int sizeDataRegionColumn = numDataRegionsColumn * dataRegionSizeColumns;
+    /**
+     * <p>Reads the 8 bits of the special corner condition 3.</p>
+     *
+     * <p>See ISO 16022:2006, Figure F.5</p>
+     */
+    private void readCorner3() {
+      readModule(numRows - 1, 0);
+      readModule(numRows - 1, numColumns - 1);
+      readModule(0, numColumns - 3);
+      readModule(0, numColumns - 2);
+      readModule(0, numColumns - 1);
+      readModule(1, numColumns - 3);
+      readModule(1, numColumns - 2);
+      readModule(1, numColumns - 1);
+    }
 
-    BitMatrix bitMatrixWithoutAlignment = new BitMatrix(sizeDataRegionColumn, sizeDataRegionRow);
-    for (int dataRegionRow = 0; dataRegionRow < numDataRegionsRow; ++dataRegionRow) {
-      int dataRegionRowOffset = dataRegionRow * dataRegionSizeRows;
-      for (int dataRegionColumn = 0; dataRegionColumn < numDataRegionsColumn; ++dataRegionColumn) {
-        int dataRegionColumnOffset = dataRegionColumn * dataRegionSizeColumns;
-        for (int i = 0; i < dataRegionSizeRows; ++i) {
-          int readRowOffset = dataRegionRow * (dataRegionSizeRows + 2) + 1 + i;
-          int writeRowOffset = dataRegionRowOffset + i;
-          for (int j = 0; j < dataRegionSizeColumns; ++j) {
-            int readColumnOffset = dataRegionColumn * (dataRegionSizeColumns + 2) + 1 + j;
-            if (bitMatrix.get(readColumnOffset, readRowOffset)) {
-              int writeColumnOffset = dataRegionColumnOffset + j;
-              bitMatrixWithoutAlignment.set(writeColumnOffset, writeRowOffset);
-            }
-          }
-        }
-      }
+    /**
+     * <p>Reads the 8 bits of the special corner condition 4.</p>
+     *
+     * <p>See ISO 16022:2006, Figure F.6</p>
+     */
+    private void readCorner4() {
+      readModule(numRows - 3, 0);
+      readModule(numRows - 2, 0);
+      readModule(numRows - 1, 0);
+      readModule(0, numColumns - 2);
+      readModule(0, numColumns - 1);
+      readModule(1, numColumns - 1);
+      readModule(2, numColumns - 1);
+      readModule(3, numColumns - 1);
     }
-    return bitMatrixWithoutAlignment;
+
   }
 
 }
@@ -17,13 +17,25 @@
 package com.google.zxing.datamatrix.encoder;
 
 import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Symbol Character Placement Program. Adapted from Annex M.1 in ISO/IEC 16022:2000(E).
+ *
+ * <p>The placement only depends on the size of the mapping matrix, so it is worked out once per size
+ * and kept as a map from each module to the codeword bit it holds; placing a set of codewords is then a
+ * single pass over that map.</p>
  */
 public class DefaultPlacement {
 
-  private final CharSequence codewords;
+  // Values in a placement map other than codeword bits
+  private static final int UNSET = -1;
+  private static final int FIXED_ON = -2;
+
+  private static final Map<Integer,int[]> PLACEMENTS = new ConcurrentHashMap<>();
+
+  private final byte[] codewords;
   private final int numrows;
   private final int numcols;
   private final byte[] bits;
@@ -36,6 +48,15 @@ public class DefaultPlacement {
    * @param numrows   the number of rows
    */
   public DefaultPlacement(CharSequence codewords, int numcols, int numrows) {
+    this(toBytes(codewords), numcols, numrows);
+  }
+
+  /**
+   * @param codewords the codewords to place, 0-255
+   * @param numcols   the number of columns
+   * @param numrows   the number of rows
+   */
+  public DefaultPlacement(byte[] codewords, int numcols, int numrows) {
     this.codewords = codewords;
     this.numcols = numcols;
     this.numrows = numrows;
@@ -43,6 +64,14 @@ public class DefaultPlacement {
     Arrays.fill(this.bits, (byte) -1); //Initialize with "not set" value
   }
 
+  private static byte[] toBytes(CharSequence codewords) {
+    byte[] result = new byte[codewords.length()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = (byte) codewords.charAt(i);
+    }
+    return result;
+  }
+
   final int getNumrows() {
     return numrows;
   }
@@ -59,140 +88,180 @@ public class DefaultPlacement {
     return bits[row * numcols + col] == 1;
   }
 
-  private void setBit(int col, int row, boolean bit) {
-    bits[row * numcols + col] = (byte) (bit ? 1 : 0);
+  public final void place() {
+    int[] placement = getPlacement(numcols, numrows);
+    for (int i = 0; i < placement.length; i++) {
+      int value = placement[i];
+      if (value >= 0) {
+        // Bit 1 of a codeword is its most significant bit
+        int v = codewords[value >> 3] & (0x80 >> (value & 0x07));
+        bits[i] = (byte) (v != 0 ? 1 : 0);
+      } else if (value == FIXED_ON) {
+        bits[i] = 1;
+      }
+    }
   }
 
-  private boolean noBit(int col, int row) {
-    return bits[row * numcols + col] < 0;
+  /**
+   * @return for each module, row by row, 8 * codeword position + (bit - 1) of the codeword bit placed
+   *  there, {@link #FIXED_ON} for the fixed pattern in the lower right corner, or {@link #UNSET}
+   */
+  private static int[] getPlacement(int numcols, int numrows) {
+    Integer key = (numcols << 16) | numrows;
+    int[] placement = PLACEMENTS.get(key);
+    if (placement == null) {
+      placement = new PlacementBuilder(numcols, numrows).build();
+      PLACEMENTS.putIfAbsent(key, placement);
+    }
+    return placement;
   }
 
-  public final void place() {
-    int pos = 0;
-    int row = 4;
-    int col = 0;
-
-    do {
-      // repeatedly first check for one of the special corner cases, then...
-      if ((row == numrows) && (col == 0)) {
-        corner1(pos++);
-      }
-      if ((row == numrows - 2) && (col == 0) && ((numcols % 4) != 0)) {
-        corner2(pos++);
-      }
-      if ((row == numrows - 2) && (col == 0) && (numcols % 8 == 4)) {
-        corner3(pos++);
-      }
-      if ((row == numrows + 4) && (col == 2) && ((numcols % 8) == 0)) {
-        corner4(pos++);
-      }
-      // sweep upward diagonally, inserting successive characters...
-      do {
-        if ((row < numrows) && (col >= 0) && noBit(col, row)) {
-          utah(row, col, pos++);
-        }
-        row -= 2;
-        col += 2;
-      } while (row >= 0 && (col < numcols));
-      row++;
-      col += 3;
+  /**
+   * Runs the placement program once for a given size, recording where each codeword bit goes.
+   */
+  private static final class PlacementBuilder {
+
+    private final int numrows;
+    private final int numcols;
+    private final int[] placement;
+
+    PlacementBuilder(int numcols, int numrows) {
+      this.numcols = numcols;
+      this.numrows = numrows;
+      this.placement = new int[numcols * numrows];
+      Arrays.fill(this.placement, UNSET);
+    }
+
+    private boolean noBit(int col, int row) {
+      return placement[row * numcols + col] == UNSET;
+    }
+
+    int[] build() {
+      int pos = 0;
+      int row = 4;
+      int col = 0;
 
-      // and then sweep downward diagonally, inserting successive characters, ...
       do {
-        if ((row >= 0) && (col < numcols) && noBit(col, row)) {
-          utah(row, col, pos++);
+        // repeatedly first check for one of the special corner cases, then...
+        if ((row == numrows) && (col == 0)) {
+          corner1(pos++);
+        }
+        if ((row == numrows - 2) && (col == 0) && ((numcols % 4) != 0)) {
+          corner2(pos++);
+        }
+        if ((row == numrows - 2) && (col == 0) && (numcols % 8 == 4)) {
+          corner3(pos++);
         }
-        row += 2;
-        col -= 2;
-      } while ((row < numrows) && (col >= 0));
-      row += 3;
-      col++;
-
-      // ...until the entire array is scanned
-    } while ((row < numrows) || (col < numcols));
-
-    // Lastly, if the lower right-hand corner is untouched, fill in fixed pattern
-    if (noBit(numcols - 1, numrows - 1)) {
-      setBit(numcols - 1, numrows - 1, true);
-      setBit(numcols - 2, numrows - 2, true);
+        if ((row == numrows + 4) && (col == 2) && ((numcols % 8) == 0)) {
+          corner4(pos++);
+        }
+        // sweep upward diagonally, inserting successive characters...
+        do {
+          if ((row < numrows) && (col >= 0) && noBit(col, row)) {
+            utah(row, col, pos++);
+          }
+          row -= 2;
+          col += 2;
+        } while (row >= 0 && (col < numcols));
+        row++;
+        col += 3;
+
+        // and then sweep downward diagonally, inserting successive characters, ...
+        do {
+          if ((row >= 0) && (col < numcols) && noBit(col, row)) {
+            utah(row, col, pos++);
+          }
+          row += 2;
+          col -= 2;
+        } while ((row < numrows) && (col >= 0));
+        row += 3;
+        col++;
+
+        // ...until the entire array is scanned
+      } while ((row < numrows) || (col < numcols));
+
+      // Lastly, if the lower right-hand corner is untouched, fill in fixed pattern
+      if (noBit(numcols - 1, numrows - 1)) {
+        placement[(numrows - 1) * numcols + numcols - 1] = FIXED_ON;
+        placement[(numrows - 2) * numcols + numcols - 2] = FIXED_ON;
+      }
+      return placement;
     }
-  }
 
-  private void module(int row, int col, int pos, int bit) {
-    if (row < 0) {
-      row += numrows;
-      col += 4 - ((numrows + 4) % 8);
+    private void module(int row, int col, int pos, int bit) {
+      if (row < 0) {
+        row += numrows;
+        col += 4 - ((numrows + 4) % 8);
+      }
+      if (col < 0) {
+        col += numcols;
+        row += 4 - ((numcols + 4) % 8);
+      }
+      placement[row * numcols + col] = (pos << 3) | (bit - 1);
     }
-    if (col < 0) {
-      col += numcols;
-      row += 4 - ((numcols + 4) % 8);
+
+    /**
+     * Places the 8 bits of a utah-shaped symbol character in ECC200.
+     *
+     * @param row the row
+     * @param col the column
+     * @param pos character position
+     */
+    private void utah(int row, int col, int pos) {
+      module(row - 2, col - 2, pos, 1);
+      module(row - 2, col - 1, pos, 2);
+      module(row - 1, col - 2, pos, 3);
+      module(row - 1, col - 1, pos, 4);
+      module(row - 1, col, pos, 5);
+      module(row, col - 2, pos, 6);
+      module(row, col - 1, pos, 7);
+      module(row, col, pos, 8);
     }
-    // Note the conversion:
-    int v = codewords.charAt(pos);
-    v &= 1 << (8 - bit);
-    setBit(col, row, v != 0);
-  }
 
-  /**
-   * Places the 8 bits of a utah-shaped symbol character in ECC200.
-   *
-   * @param row the row
-   * @param col the column
-   * @param pos character position
-   */
-  private void utah(int row, int col, int pos) {
-    module(row - 2, col - 2, pos, 1);
-    module(row - 2, col - 1, pos, 2);
-    module(row - 1, col - 2, pos, 3);
-    module(row - 1, col - 1, pos, 4);
-    module(row - 1, col, pos, 5);
-    module(row, col - 2, pos, 6);
-    module(row, col - 1, pos, 7);
-    module(row, col, pos, 8);
-  }
+    private void corner1(int pos) {
+      module(numrows - 1, 0, pos, 1);
+      module(numrows - 1, 1, pos, 2);
+      module(numrows - 1, 2, pos, 3);
+      module(0, numcols - 2, pos, 4);
+      module(0, numcols - 1, pos, 5);
+      module(1, numcols - 1, pos, 6);
+      module(2, numcols - 1, pos, 7);
+      module(3, numcols - 1, pos, 8);
+    }
 
-  private void corner1(int pos) {
-    module(numrows - 1, 0, pos, 1);
-    module(numrows - 1, 1, pos, 2);
-    module(numrows - 1, 2, pos, 3);
-    module(0, numcols - 2, pos, 4);
-    module(0, numcols - 1, pos, 5);
-    module(1, numcols - 1, pos, 6);
-    module(2, numcols - 1, pos, 7);
-    module(3, numcols - 1, pos, 8);
-  }
+    private void corner2(int pos) {
+      module(numrows - 3, 0, pos, 1);
+      module(numrows - 2, 0, pos, 2);
+      module(numrows - 1, 0, pos, 3);
+      module(0, numcols - 4, pos, 4);
+      module(0, numcols - 3, pos, 5);
+      module(0, numcols - 2, pos, 6);
+      module(0, numcols - 1, pos, 7);
+      module(1, numcols - 1, pos, 8);
+    }
 
-  private void corner2(int pos) {
-    module(numrows - 3, 0, pos, 1);
-    module(numrows - 2, 0, pos, 2);
-    module(numrows - 1, 0, pos, 3);
-    module(0, numcols - 4, pos, 4);
-    module(0, numcols - 3, pos, 5);
-    module(0, numcols - 2, pos, 6);
-    module(0, numcols - 1, pos, 7);
-    module(1, numcols - 1, pos, 8);
-  }
+    private void corner3(int pos) {
+      module(numrows - 3, 0, pos, 1);
+      module(numrows - 2, 0, pos, 2);
+      module(numrows - 1, 0, pos, 3);
+      module(0, numcols - 2, pos, 4);
+      module(0, numcols - 1, pos, 5);
+      module(1, numcols - 1, pos, 6);
+      module(2, numcols - 1, pos, 7);
+      module(3, numcols - 1, pos, 8);
+    }
 
-  private void corner3(int pos) {
-    module(numrows - 3, 0, pos, 1);
-    module(numrows - 2, 0, pos, 2);
-    module(numrows - 1, 0, pos, 3);
-    module(0, numcols - 2, pos, 4);
-    module(0, numcols - 1, pos, 5);
-    module(1, numcols - 1, pos, 6);
-    module(2, numcols - 1, pos, 7);
-    module(3, numcols - 1, pos, 8);
-  }
+    private void corner4(int pos) {
+      module(numrows - 1, 0, pos, 1);
+      module(numrows - 1, numcols - 1, pos, 2);
+      module(0, numcols - 3, pos, 3);
+      module(0, numcols - 2, pos, 4);
+      module(0, numcols - 1, pos, 5);
+      module(1, numcols - 3, pos, 6);
+      module(1, numcols - 2, pos, 7);
+      module(1, numcols - 1, pos, 8);
+    }
 
-  private void corner4(int pos) {
-    module(numrows - 1, 0, pos, 1);
-    module(numrows - 1, numcols - 1, pos, 2);
-    module(0, numcols - 3, pos, 3);
-    module(0, numcols - 2, pos, 4);
-    module(0, numcols - 1, pos, 5);
-    module(1, numcols - 3, pos, 6);
-    module(1, numcols - 2, pos, 7);
-    module(1, numcols - 1, pos, 8);
   }
 
 }
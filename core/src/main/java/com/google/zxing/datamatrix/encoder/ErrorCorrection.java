@@ -71,21 +71,34 @@ public final class ErrorCorrection {
 
   private static final int[] LOG;
   private static final int[] ALOG;
+  // LOG of each factor in FACTORS, or -1 for a zero factor
+  private static final int[][] FACTOR_LOGS;
 
   static {
-    //Create log and antilog table
+    //Create log and antilog table; ALOG is doubled so that a sum of two logs needs no modulo
     LOG = new int[256];
-    ALOG = new int[255];
+    ALOG = new int[510];
 
     int p = 1;
     for (int i = 0; i < 255; i++) {
       ALOG[i] = p;
+      ALOG[i + 255] = p;
       LOG[p] = i;
       p *= 2;
       if (p >= 256) {
         p ^= MODULO_VALUE;
       }
     }
+
+    FACTOR_LOGS = new int[FACTORS.length][];
+    for (int table = 0; table < FACTORS.length; table++) {
+      int[] poly = FACTORS[table];
+      int[] logs = new int[poly.length];
+      for (int k = 0; k < poly.length; k++) {
+        logs[k] = poly[k] == 0 ? -1 : LOG[poly[k]];
+      }
+      FACTOR_LOGS[table] = logs;
+    }
   }
 
   private ErrorCorrection() {
@@ -99,41 +112,56 @@ public final class ErrorCorrection {
    * @return the codewords with interleaved error correction.
    */
   public static String encodeECC200(String codewords, SymbolInfo symbolInfo) {
-    if (codewords.length() != symbolInfo.getDataCapacity()) {
+    byte[] data = new byte[codewords.length()];
+    for (int i = 0; i < data.length; i++) {
+      data[i] = (byte) codewords.charAt(i);
+    }
+    byte[] result = encodeECC200(data, symbolInfo);
+    char[] chars = new char[result.length];
+    for (int i = 0; i < result.length; i++) {
+      chars[i] = (char) (result[i] & 0xFF);
+    }
+    return String.valueOf(chars);
+  }
+
+  /**
+   * Creates the ECC200 error correction for an encoded message.
+   *
+   * @param codewords  the data codewords, 0-255
+   * @param symbolInfo information about the symbol to be encoded
+   * @return the data codewords followed by the interleaved error correction codewords
+   */
+  public static byte[] encodeECC200(byte[] codewords, SymbolInfo symbolInfo) {
+    int dataCapacity = symbolInfo.getDataCapacity();
+    if (codewords.length != dataCapacity) {
       throw new IllegalArgumentException(
           "The number of codewords does not match the selected symbol");
     }
-    StringBuilder sb = new StringBuilder(symbolInfo.getDataCapacity() + symbolInfo.getErrorCodewords());
-    sb.append(codewords);
+    byte[] result = new byte[dataCapacity + symbolInfo.getErrorCodewords()];
+    System.arraycopy(codewords, 0, result, 0, dataCapacity);
     int blockCount = symbolInfo.getInterleavedBlockCount();
     if (blockCount == 1) {
-      String ecc = createECCBlock(codewords, symbolInfo.getErrorCodewords());
-      sb.append(ecc);
+      createECCBlock(codewords, 0, 1, dataCapacity, symbolInfo.getErrorCodewords(), result);
     } else {
-      sb.setLength(sb.capacity());
-      int[] dataSizes = new int[blockCount];
-      int[] errorSizes = new int[blockCount];
-      for (int i = 0; i < blockCount; i++) {
-        dataSizes[i] = symbolInfo.getDataLengthForInterleavedBlock(i + 1);
-        errorSizes[i] = symbolInfo.getErrorLengthForInterleavedBlock(i + 1);
-      }
+      // Blocks are interleaved codeword by codeword, both in the data and in the error correction
       for (int block = 0; block < blockCount; block++) {
-        StringBuilder temp = new StringBuilder(dataSizes[block]);
-        for (int d = block; d < symbolInfo.getDataCapacity(); d += blockCount) {
-          temp.append(codewords.charAt(d));
-        }
-        String ecc = createECCBlock(temp.toString(), errorSizes[block]);
-        int pos = 0;
-        for (int e = block; e < errorSizes[block] * blockCount; e += blockCount) {
-          sb.setCharAt(symbolInfo.getDataCapacity() + e, ecc.charAt(pos++));
-        }
+        createECCBlock(codewords, block, blockCount, dataCapacity,
+                       symbolInfo.getErrorLengthForInterleavedBlock(block + 1), result);
       }
     }
-    return sb.toString();
-
+    return result;
   }
 
-  private static String createECCBlock(CharSequence codewords, int numECWords) {
+  /**
+   * Computes the error correction for the data codewords at "start", "start" + "step", ... below
+   * "end", and writes it reversed to "result" after the data, at the same offset and step.
+   */
+  private static void createECCBlock(byte[] codewords,
+                                     int start,
+                                     int step,
+                                     int end,
+                                     int numECWords,
+                                     byte[] result) {
     int table = -1;
     for (int i = 0; i < FACTOR_SETS.length; i++) {
       if (FACTOR_SETS[i] == numECWords) {
@@ -145,31 +173,25 @@ public final class ErrorCorrection {
       throw new IllegalArgumentException(
           "Illegal number of error correction codewords specified: " + numECWords);
     }
-    int[] poly = FACTORS[table];
-    char[] ecc = new char[numECWords];
-    for (int i = 0; i < numECWords; i++) {
-      ecc[i] = 0;
-    }
-    for (int i = 0; i < codewords.length(); i++) {
-      int m = ecc[numECWords - 1] ^ codewords.charAt(i);
-      for (int k = numECWords - 1; k > 0; k--) {
-        if (m != 0 && poly[k] != 0) {
-          ecc[k] = (char) (ecc[k - 1] ^ ALOG[(LOG[m] + LOG[poly[k]]) % 255]);
-        } else {
-          ecc[k] = ecc[k - 1];
-        }
-      }
-      if (m != 0 && poly[0] != 0) {
-        ecc[0] = (char) ALOG[(LOG[m] + LOG[poly[0]]) % 255];
-      } else {
+    int[] polyLogs = FACTOR_LOGS[table];
+    int[] ecc = new int[numECWords];
+    for (int i = start; i < end; i += step) {
+      int m = ecc[numECWords - 1] ^ (codewords[i] & 0xFF);
+      if (m == 0) {
+        System.arraycopy(ecc, 0, ecc, 1, numECWords - 1);
         ecc[0] = 0;
+        continue;
+      }
+      int logM = LOG[m];
+      for (int k = numECWords - 1; k > 0; k--) {
+        ecc[k] = polyLogs[k] < 0 ? ecc[k - 1] : ecc[k - 1] ^ ALOG[logM + polyLogs[k]];
       }
+      ecc[0] = polyLogs[0] < 0 ? 0 : ALOG[logM + polyLogs[0]];
     }
-    char[] eccReversed = new char[numECWords];
+    int offset = end + start;
     for (int i = 0; i < numECWords; i++) {
-      eccReversed[i] = ecc[numECWords - i - 1];
+      result[offset + i * step] = (byte) ecc[numECWords - i - 1];
     }
-    return String.valueOf(eccReversed);
   }
 
 }
@@ -29,7 +29,7 @@ public final class HighLevelEncoder {
   /**
    * Padding character
    */
-  private static final char PAD = 129;
+  static final char PAD = 129;
   /**
    * mode latch to C40 encodation mode
    */
@@ -57,11 +57,11 @@ public final class HighLevelEncoder {
   /**
    * 05 Macro
    */
-  private static final char MACRO_05 = 236;
+  static final char MACRO_05 = 236;
   /**
    * 06 Macro
    */
-  private static final char MACRO_06 = 237;
+  static final char MACRO_06 = 237;
   /**
    * mode latch to ANSI X.12 encodation mode
    */
@@ -91,15 +91,15 @@ public final class HighLevelEncoder {
   /**
    * 05 Macro header
    */
-  private static final String MACRO_05_HEADER = "[)>\u001E05\u001D";
+  static final String MACRO_05_HEADER = "[)>\u001E05\u001D";
   /**
    * 06 Macro header
    */
-  private static final String MACRO_06_HEADER = "[)>\u001E06\u001D";
+  static final String MACRO_06_HEADER = "[)>\u001E06\u001D";
   /**
    * Macro trailer
    */
-  private static final String MACRO_TRAILER = "\u001E\u0004";
+  static final String MACRO_TRAILER = "\u001E\u0004";
 
   static final int ASCII_ENCODATION = 0;
   static final int C40_ENCODATION = 1;
@@ -125,7 +125,7 @@ public final class HighLevelEncoder {
   }
    */
 
-  private static char randomize253State(int codewordPosition) {
+  static char randomize253State(int codewordPosition) {
     int pseudoRandom = ((149 * codewordPosition) % 253) + 1;
     int tempVariable = PAD + pseudoRandom;
     return (char) (tempVariable <= 254 ? tempVariable : tempVariable - 254);
@@ -398,7 +398,7 @@ public final class HighLevelEncoder {
     return (ch == ' ') || (ch >= '0' && ch <= '9') || (ch >= 'a' && ch <= 'z');
   }
 
-  private static boolean isNativeX12(char ch) {
+  static boolean isNativeX12(char ch) {
     return isX12TermSep(ch) || (ch == ' ') || (ch >= '0' && ch <= '9') || (ch >= 'A' && ch <= 'Z');
   }
 
@@ -408,7 +408,7 @@ public final class HighLevelEncoder {
         || (ch == '>');
   }
 
-  private static boolean isNativeEDIFACT(char ch) {
+  static boolean isNativeEDIFACT(char ch) {
     return ch >= ' ' && ch <= '^';
   }
 
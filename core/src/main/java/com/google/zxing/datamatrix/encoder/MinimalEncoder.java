@@ -0,0 +1,542 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.datamatrix.encoder;
+
+import com.google.zxing.Dimension;
+
+import java.util.Arrays;
+
+/**
+ * <p>DataMatrix ECC 200 data encoder that picks the encodation modes by dynamic programming instead of
+ * the look-ahead heuristic of annex S, as used by {@link HighLevelEncoder}.</p>
+ *
+ * <p>The message is scanned once. For every position the encoder keeps the fewest codewords needed to
+ * get there in each of 16 states: ASCII, C40, Text and X12 with 0, 1 or 2 values pending in the
+ * current triplet, EDIFACT with 0 to 3 values pending in the current group, and Base 256 with a one
+ * or two codeword length field. Each character is one transition out of each state, and latches and
+ * unlatches are transitions at the same position, so the work is linear in the message length.</p>
+ *
+ * <p>The end of the message is handled per state with the same rules the mode encoders apply at the
+ * end of data (omitted unlatches, a trailing ASCII codeword, a Base 256 field of 0 when the segment
+ * fills the symbol), so that the chosen symbol is never larger than the one {@link HighLevelEncoder}
+ * picks for the same message.</p>
+ */
+public final class MinimalEncoder {
+
+  private static final int ASCII = 0;
+  private static final int C40 = 1;       // 1 to 3: 0 to 2 values pending
+  private static final int TEXT = 4;      // 4 to 6
+  private static final int X12 = 7;       // 7 to 9
+  private static final int EDIFACT = 10;  // 10 to 13: 0 to 3 values pending
+  private static final int BASE256 = 14;  // 14: one byte length field, 15: two bytes
+  private static final int NUM_STATES = 16;
+
+  // Edges of the state graph, as recorded for the path back to the start
+  private static final byte EDGE_CHAR = 0;
+  private static final byte EDGE_DIGITS = 1;
+  private static final byte EDGE_LATCH = 2;
+  private static final byte EDGE_UNLATCH = 3;
+
+  // Ways of ending the message in a state
+  private static final int END_PLAIN = 0;
+  private static final int END_TAIL = 1;      // last 1 or 2 characters in ASCII, without unlatch
+  private static final int END_ZERO_LENGTH = 2; // Base 256 to the end of the symbol, length field 0
+
+  private static final int INFINITY = Integer.MAX_VALUE / 2;
+
+  private static final int MAX_BASE256_SHORT = 249;
+  private static final int MAX_BASE256_LONG = 1555;
+
+  private static final char EDIFACT_UNLATCH = 31;
+
+  private static final int[] TRIPLET_AND_EDIFACT_STATES = {C40, TEXT, X12, EDIFACT};
+
+  // C40 and Text values of each character 0 - 255, and the X12 value of native X12 characters
+  private static final char[][] C40_VALUES = new char[256][];
+  private static final char[][] TEXT_VALUES = new char[256][];
+  private static final char[] X12_VALUES = new char[256];
+
+  static {
+    C40Encoder c40Encoder = new C40Encoder();
+    TextEncoder textEncoder = new TextEncoder();
+    X12Encoder x12Encoder = new X12Encoder();
+    for (char c = 0; c < 256; c++) {
+      StringBuilder sb = new StringBuilder(4);
+      c40Encoder.encodeChar(c, sb);
+      C40_VALUES[c] = sb.toString().toCharArray();
+      sb.setLength(0);
+      textEncoder.encodeChar(c, sb);
+      TEXT_VALUES[c] = sb.toString().toCharArray();
+      if (HighLevelEncoder.isNativeX12(c)) {
+        sb.setLength(0);
+        x12Encoder.encodeChar(c, sb);
+        X12_VALUES[c] = sb.charAt(0);
+      }
+    }
+  }
+
+  private final String msg;
+  private final int length;
+  private final SymbolShapeHint shape;
+  private final Dimension minSize;
+  private final Dimension maxSize;
+  // Codewords written before the message, e.g. a macro
+  private final int prefixLength;
+
+  // Per position * NUM_STATES + state: codewords so far, predecessor and the edge from it
+  private final int[] costs;
+  private final int[] previous;
+  private final byte[] edges;
+  // Characters in the current Base 256 segment, for the Base 256 states
+  private final int[] base256Counts;
+
+  private MinimalEncoder(String msg, int prefixLength,
+                         SymbolShapeHint shape, Dimension minSize, Dimension maxSize) {
+    this.msg = msg;
+    this.length = msg.length();
+    this.prefixLength = prefixLength;
+    this.shape = shape;
+    this.minSize = minSize;
+    this.maxSize = maxSize;
+    int size = (length + 1) * NUM_STATES;
+    costs = new int[size];
+    Arrays.fill(costs, INFINITY);
+    previous = new int[size];
+    edges = new byte[size];
+    base256Counts = new int[size];
+  }
+
+  /**
+   * Performs message encoding of a DataMatrix message, choosing the encodation modes that give the
+   * smallest symbol.
+   *
+   * @param msg the message
+   * @return the encoded message (the char values range from 0 to 255)
+   */
+  public static String encodeHighLevel(String msg) {
+    return encodeHighLevel(msg, SymbolShapeHint.FORCE_NONE, null, null);
+  }
+
+  /**
+   * Performs message encoding of a DataMatrix message, choosing the encodation modes that give the
+   * smallest symbol.
+   *
+   * @param msg     the message
+   * @param shape   requested shape. May be {@code SymbolShapeHint.FORCE_NONE},
+   *                {@code SymbolShapeHint.FORCE_SQUARE} or {@code SymbolShapeHint.FORCE_RECTANGLE}.
+   * @param minSize the minimum symbol size constraint or null for no constraint
+   * @param maxSize the maximum symbol size constraint or null for no constraint
+   * @return the encoded message (the char values range from 0 to 255)
+   */
+  public static String encodeHighLevel(String msg,
+                                       SymbolShapeHint shape,
+                                       Dimension minSize,
+                                       Dimension maxSize) {
+    // Same character set check as EncoderContext: from here on Strings are not Unicode anymore
+    String message = new EncoderContext(msg).getMessage();
+
+    StringBuilder codewords = new StringBuilder(message.length());
+    if (message.startsWith(HighLevelEncoder.MACRO_05_HEADER) && message.endsWith(HighLevelEncoder.MACRO_TRAILER)) {
+      codewords.append(HighLevelEncoder.MACRO_05);
+      message = message.substring(HighLevelEncoder.MACRO_05_HEADER.length(),
+                                  message.length() - HighLevelEncoder.MACRO_TRAILER.length());
+    } else if (message.startsWith(HighLevelEncoder.MACRO_06_HEADER) &&
+               message.endsWith(HighLevelEncoder.MACRO_TRAILER)) {
+      codewords.append(HighLevelEncoder.MACRO_06);
+      message = message.substring(HighLevelEncoder.MACRO_06_HEADER.length(),
+                                  message.length() - HighLevelEncoder.MACRO_TRAILER.length());
+    }
+
+    new MinimalEncoder(message, codewords.length(), shape, minSize, maxSize).encode(codewords);
+    return codewords.toString();
+  }
+
+  private void encode(StringBuilder codewords) {
+    costs[ASCII] = prefixLength;
+    for (int i = 0; i <= length; i++) {
+      relaxZeroLengthEdges(i);
+      if (i < length) {
+        relaxCharacter(i);
+      }
+    }
+
+    // Pick the end state giving the smallest symbol
+    int bestCapacity = INFINITY;
+    int bestIndex = -1;
+    int bestEnd = END_PLAIN;
+    for (int state = 0; state < NUM_STATES; state++) {
+      int index = length * NUM_STATES + state;
+      int cost = costs[index];
+      if (cost >= INFINITY) {
+        continue;
+      }
+      int capacity = endCapacity(state, cost);
+      if (capacity < bestCapacity) {
+        bestCapacity = capacity;
+        bestIndex = index;
+        bestEnd = END_PLAIN;
+      }
+      if (state == BASE256 + 1 && capacity(cost - 1) == cost - 1 && cost - 1 < bestCapacity) {
+        bestCapacity = cost - 1;
+        bestIndex = index;
+        bestEnd = END_ZERO_LENGTH;
+      }
+    }
+    for (int tail = 1; tail <= 2 && tail <= length; tail++) {
+      int tailCodewords = asciiCodewords(length - tail);
+      if (tailCodewords < 0) {
+        continue;
+      }
+      int position = length - tail;
+      for (int state : TRIPLET_AND_EDIFACT_STATES) {
+        int index = position * NUM_STATES + state;
+        int cost = costs[index];
+        if (cost >= INFINITY) {
+          continue;
+        }
+        int capacity = capacity(cost + tailCodewords);
+        boolean valid;
+        if (state == EDIFACT) {
+          // The decoder returns to ASCII when 2 or fewer codewords are left at the start of a group
+          valid = capacity - cost <= 2;
+        } else {
+          // The decoder reads a single codeword left after a triplet as ASCII
+          valid = tailCodewords == 1 && capacity == cost + 1;
+        }
+        if (valid && capacity < bestCapacity) {
+          bestCapacity = capacity;
+          bestIndex = index;
+          bestEnd = END_TAIL;
+        }
+      }
+    }
+    if (bestIndex < 0) {
+      throw new IllegalArgumentException(
+          "Can't find a symbol arrangement that matches the message. Data codewords: " +
+          (prefixLength + length));
+    }
+
+    render(bestIndex, bestEnd, bestCapacity, codewords);
+    if (codewords.length() > bestCapacity) {
+      throw new IllegalStateException("Encoded " + codewords.length() + " codewords for capacity " + bestCapacity);
+    }
+    //Padding
+    if (codewords.length() < bestCapacity) {
+      codewords.append(HighLevelEncoder.PAD);
+    }
+    while (codewords.length() < bestCapacity) {
+      codewords.append(HighLevelEncoder.randomize253State(codewords.length() + 1));
+    }
+  }
+
+  // Unlatches back to ASCII, then latches out of ASCII
+  private void relaxZeroLengthEdges(int i) {
+    int base = i * NUM_STATES;
+    if (i < length) {
+      relax(base + C40, base + ASCII, 1, EDGE_UNLATCH, 0);
+      relax(base + TEXT, base + ASCII, 1, EDGE_UNLATCH, 0);
+      relax(base + X12, base + ASCII, 1, EDGE_UNLATCH, 0);
+      // The unlatch completes the pending EDIFACT group: 1, 2, 3 or 3 codewords
+      relax(base + EDIFACT, base + ASCII, 1, EDGE_UNLATCH, 0);
+      relax(base + EDIFACT + 1, base + ASCII, 2, EDGE_UNLATCH, 0);
+      relax(base + EDIFACT + 2, base + ASCII, 3, EDGE_UNLATCH, 0);
+      relax(base + EDIFACT + 3, base + ASCII, 3, EDGE_UNLATCH, 0);
+      // A Base 256 segment ends after the number of bytes given by its length field
+      relax(base + BASE256, base + ASCII, 0, EDGE_UNLATCH, 0);
+      relax(base + BASE256 + 1, base + ASCII, 0, EDGE_UNLATCH, 0);
+
+      for (int state : TRIPLET_AND_EDIFACT_STATES) {
+        relax(base + ASCII, base + state, 1, EDGE_LATCH, 0);
+      }
+      // Latch and a one byte length field
+      relax(base + ASCII, base + BASE256, 2, EDGE_LATCH, 0);
+    }
+  }
+
+  private void relaxCharacter(int i) {
+    char c = msg.charAt(i);
+    int base = i * NUM_STATES;
+    int next = base + NUM_STATES;
+
+    if (HighLevelEncoder.isDigit(c) && i + 1 < length && HighLevelEncoder.isDigit(msg.charAt(i + 1))) {
+      relax(base + ASCII, next + NUM_STATES + ASCII, 1, EDGE_DIGITS, 0);
+    }
+    relax(base + ASCII, next + ASCII, HighLevelEncoder.isExtendedASCII(c) ? 2 : 1, EDGE_CHAR, 0);
+
+    relaxTriplets(base + C40, next + C40, C40_VALUES[c].length);
+    relaxTriplets(base + TEXT, next + TEXT, TEXT_VALUES[c].length);
+    if (HighLevelEncoder.isNativeX12(c)) {
+      relaxTriplets(base + X12, next + X12, 1);
+    }
+
+    if (HighLevelEncoder.isNativeEDIFACT(c)) {
+      for (int pending = 0; pending < 4; pending++) {
+        if (pending == 3) {
+          relax(base + EDIFACT + 3, next + EDIFACT, 3, EDGE_CHAR, 0);
+        } else {
+          relax(base + EDIFACT + pending, next + EDIFACT + pending + 1, 0, EDGE_CHAR, 0);
+        }
+      }
+    }
+
+    int shortIndex = base + BASE256;
+    if (costs[shortIndex] < INFINITY) {
+      int count = base256Counts[shortIndex] + 1;
+      if (count <= MAX_BASE256_SHORT) {
+        relax(shortIndex, next + BASE256, 1, EDGE_CHAR, count);
+      } else {
+        // The length field grows to two codewords
+        relax(shortIndex, next + BASE256 + 1, 2, EDGE_CHAR, count);
+      }
+    }
+    int longIndex = base + BASE256 + 1;
+    if (costs[longIndex] < INFINITY) {
+      int count = base256Counts[longIndex] + 1;
+      if (count <= MAX_BASE256_LONG) {
+        relax(longIndex, next + BASE256 + 1, 1, EDGE_CHAR, count);
+      }
+    }
+  }
+
+  // C40, Text or X12: a character adding "numValues" values; every completed triplet is 2 codewords
+  private void relaxTriplets(int from, int to, int numValues) {
+    for (int pending = 0; pending < 3; pending++) {
+      int total = pending + numValues;
+      relax(from + pending, to + total % 3, 2 * (total / 3), EDGE_CHAR, 0);
+    }
+  }
+
+  private void relax(int from, int to, int added, byte edge, int base256Count) {
+    int cost = costs[from];
+    if (cost >= INFINITY) {
+      return;
+    }
+    int newCost = cost + added;
+    if (newCost < costs[to] || (newCost == costs[to] && base256Count < base256Counts[to])) {
+      costs[to] = newCost;
+      previous[to] = from;
+      edges[to] = edge;
+      base256Counts[to] = base256Count;
+    }
+  }
+
+  // Capacity of the symbol when the message ends in "state" after "cost" codewords
+  private int endCapacity(int state, int cost) {
+    switch (state) {
+      case C40 + 1:
+      case TEXT + 1:
+      case X12 + 1:
+      case X12 + 2:
+        // A single value left over can't be padded out
+        return INFINITY;
+      case C40 + 2:
+      case TEXT + 2:
+        // Completed with a Shift 1 value
+        return capacity(cost + 2);
+      case EDIFACT + 1:
+      case EDIFACT + 2:
+      case EDIFACT + 3:
+        // Unlatch completes the group, which needs at least 3 codewords left at its start
+        return capacity(cost + 3);
+      default:
+        // Unlatches that don't fit are left out
+        return capacity(cost);
+    }
+  }
+
+  private int capacity(int dataCodewords) {
+    SymbolInfo symbolInfo = SymbolInfo.lookup(dataCodewords, shape, minSize, maxSize, false);
+    return symbolInfo == null ? INFINITY : symbolInfo.getDataCapacity();
+  }
+
+  // Number of ASCII codewords for the rest of the message from "start", or -1 if more than 2
+  private int asciiCodewords(int start) {
+    int count = 0;
+    int i = start;
+    while (i < length) {
+      char c = msg.charAt(i);
+      if (HighLevelEncoder.isDigit(c) && i + 1 < length && HighLevelEncoder.isDigit(msg.charAt(i + 1))) {
+        i += 2;
+        count++;
+      } else {
+        i++;
+        count += HighLevelEncoder.isExtendedASCII(c) ? 2 : 1;
+      }
+    }
+    return count <= 2 ? count : -1;
+  }
+
+  private void render(int endIndex, int end, int capacity, StringBuilder codewords) {
+    // Walk back to the start, then replay the edges forwards
+    int numEdges = 0;
+    for (int index = endIndex; index != ASCII; index = previous[index]) {
+      numEdges++;
+    }
+    int[] path = new int[numEdges];
+    int index = endIndex;
+    for (int i = numEdges - 1; i >= 0; i--) {
+      path[i] = index;
+      index = previous[index];
+    }
+
+    StringBuilder values = new StringBuilder(4);
+    StringBuilder base256 = new StringBuilder();
+    int position = 0;
+    for (int to : path) {
+      int from = previous[to];
+      int fromState = from % NUM_STATES;
+      int toState = to % NUM_STATES;
+      byte edge = edges[to];
+      switch (edge) {
+        case EDGE_DIGITS:
+          codewords.append((char) ((msg.charAt(position) - '0') * 10 + msg.charAt(position + 1) - '0' + 130));
+          position += 2;
+          break;
+        case EDGE_LATCH:
+          codewords.append(latchFor(toState));
+          break;
+        case EDGE_UNLATCH:
+          unlatch(fromState, values, base256, capacity, false, codewords);
+          break;
+        default:
+          appendCharacter(fromState, msg.charAt(position), values, base256, codewords);
+          position++;
+          break;
+      }
+    }
+
+    int state = endIndex % NUM_STATES;
+    if (end == END_TAIL) {
+      for (int i = position; i < length; i++) {
+        char c = msg.charAt(i);
+        if (HighLevelEncoder.isDigit(c) && i + 1 < length && HighLevelEncoder.isDigit(msg.charAt(i + 1))) {
+          codewords.append((char) ((c - '0') * 10 + msg.charAt(i + 1) - '0' + 130));
+          i++;
+        } else {
+          appendCharacter(ASCII, c, values, base256, codewords);
+        }
+      }
+    } else if (state != ASCII) {
+      if (state == C40 + 2 || state == TEXT + 2) {
+        values.append('\0'); //Shift 1
+        writeTriplets(values, codewords);
+      }
+      unlatch(state, values, base256, capacity, end == END_ZERO_LENGTH, codewords);
+    }
+  }
+
+  private static char latchFor(int state) {
+    switch (state) {
+      case C40:
+        return HighLevelEncoder.LATCH_TO_C40;
+      case TEXT:
+        return HighLevelEncoder.LATCH_TO_TEXT;
+      case X12:
+        return HighLevelEncoder.LATCH_TO_ANSIX12;
+      case EDIFACT:
+        return HighLevelEncoder.LATCH_TO_EDIFACT;
+      default:
+        return HighLevelEncoder.LATCH_TO_BASE256;
+    }
+  }
+
+  private static void appendCharacter(int state, char c,
+                                      StringBuilder values, StringBuilder base256, StringBuilder codewords) {
+    if (state == ASCII) {
+      if (HighLevelEncoder.isExtendedASCII(c)) {
+        codewords.append(HighLevelEncoder.UPPER_SHIFT);
+        codewords.append((char) (c - 128 + 1));
+      } else {
+        codewords.append((char) (c + 1));
+      }
+    } else if (state < TEXT) {
+      values.append(C40_VALUES[c]);
+      writeTriplets(values, codewords);
+    } else if (state < X12) {
+      values.append(TEXT_VALUES[c]);
+      writeTriplets(values, codewords);
+    } else if (state < EDIFACT) {
+      values.append(X12_VALUES[c]);
+      writeTriplets(values, codewords);
+    } else if (state < BASE256) {
+      values.append((char) (c >= '@' ? c - 64 : c));
+      if (values.length() == 4) {
+        writeEdifactGroup(values, codewords);
+      }
+    } else {
+      base256.append(c);
+    }
+  }
+
+  // Ends the segment of "state" and returns to ASCII
+  private static void unlatch(int state, StringBuilder values, StringBuilder base256,
+                              int capacity, boolean zeroLength, StringBuilder codewords) {
+    if (state >= BASE256) {
+      int count = base256.length();
+      int start = codewords.length();
+      StringBuilder field = new StringBuilder(2);
+      if (zeroLength) {
+        field.append('\0');
+      } else if (count <= MAX_BASE256_SHORT) {
+        field.append((char) count);
+      } else {
+        field.append((char) ((count / 250) + 249));
+        field.append((char) (count % 250));
+      }
+      field.append(base256);
+      for (int i = 0; i < field.length(); i++) {
+        codewords.append(Base256Encoder.randomize255State(field.charAt(i), start + i + 1));
+      }
+      base256.setLength(0);
+    } else if (state >= EDIFACT) {
+      // An unlatch on its own is left out where the decoder returns to ASCII anyway
+      if (values.length() > 0 || capacity - codewords.length() > 2) {
+        values.append(EDIFACT_UNLATCH);
+        writeEdifactGroup(values, codewords);
+      }
+    } else if (codewords.length() < capacity) {
+      codewords.append(HighLevelEncoder.C40_UNLATCH);
+    }
+  }
+
+  private static void writeTriplets(StringBuilder values, StringBuilder codewords) {
+    while (values.length() >= 3) {
+      int v = (1600 * values.charAt(0)) + (40 * values.charAt(1)) + values.charAt(2) + 1;
+      codewords.append((char) (v / 256));
+      codewords.append((char) (v % 256));
+      values.delete(0, 3);
+    }
+  }
+
+  // Writes 1 to 4 EDIFACT values as 1 to 3 codewords
+  private static void writeEdifactGroup(StringBuilder values, StringBuilder codewords) {
+    int count = values.length();
+    int v = 0;
+    for (int i = 0; i < 4; i++) {
+      v = (v << 6) + (i < count ? values.charAt(i) : 0);
+    }
+    codewords.append((char) ((v >> 16) & 255));
+    if (count >= 2) {
+      codewords.append((char) ((v >> 8) & 255));
+    }
+    if (count >= 3) {
+      codewords.append((char) (v & 255));
+    }
+    values.setLength(0);
+  }
+
+}
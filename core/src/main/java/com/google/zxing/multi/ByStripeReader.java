@@ -0,0 +1,171 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.multi;
+
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.Result;
+import com.google.zxing.ResultPoint;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * <p>Decodes very tall images, like those from continuous feed scanners, one horizontal stripe at a time.
+ * Each stripe is a {@link BinaryBitmap#crop(int, int, int, int)} of the image with a binarizer of its own,
+ * so only that stripe's luminance and black matrix are held while it is examined, and are released before
+ * the next. {@link com.google.zxing.common.HybridBinarizer} thresholds each block by its neighborhood, so
+ * a stripe binarizes much as the same rows of the whole image would.</p>
+ *
+ * <p>Cropping still needs the whole image's {@link com.google.zxing.LuminanceSource}, so the caller holds
+ * that as before. What stays bounded is what binarizing adds on top of it, a copy of the luminance and a
+ * black matrix, which for the whole image would be more than another byte per pixel.</p>
+ *
+ * <p>Consecutive stripes overlap, so that a barcode no taller than the overlap lies wholly within one
+ * stripe, where the delegate's 1D and 2D readers can find it. A barcode found in two stripes is reported
+ * once. Images no taller than a stripe, or which can't be cropped, are passed to the delegate whole.</p>
+ *
+ * @see GenericMultipleBarcodeReader
+ */
+public final class ByStripeReader implements MultipleBarcodeReader {
+
+  private static final int DEFAULT_STRIPE_HEIGHT = 1024;
+  private static final int DEFAULT_OVERLAP = 256;
+
+  private final MultipleBarcodeReader delegate;
+  private final int stripeHeight;
+  private final int overlap;
+
+  public ByStripeReader(MultipleBarcodeReader delegate) {
+    this(delegate, DEFAULT_STRIPE_HEIGHT, DEFAULT_OVERLAP);
+  }
+
+  /**
+   * @param delegate reader to decode each stripe with
+   * @param stripeHeight height of each stripe
+   * @param overlap rows each stripe shares with the next; barcodes up to this tall lie within one stripe
+   */
+  public ByStripeReader(MultipleBarcodeReader delegate, int stripeHeight, int overlap) {
+    if (overlap < 0 || overlap >= stripeHeight) {
+      throw new IllegalArgumentException("Overlap must be at least 0 and less than the stripe height");
+    }
+    this.delegate = delegate;
+    this.stripeHeight = stripeHeight;
+    this.overlap = overlap;
+  }
+
+  @Override
+  public Result[] decodeMultiple(BinaryBitmap image) throws NotFoundException {
+    return decodeMultiple(image, null);
+  }
+
+  @Override
+  public Result[] decodeMultiple(BinaryBitmap image, Map<DecodeHintType,?> hints) throws NotFoundException {
+    int width = image.getWidth();
+    int height = image.getHeight();
+    if (height <= stripeHeight || !image.isCropSupported()) {
+      return delegate.decodeMultiple(image, hints);
+    }
+
+    List<Result> results = new ArrayList<>();
+    // Everything found in the previous stripe, the only one this one overlaps, including duplicates
+    List<Result> previousStripeResults = new ArrayList<>();
+    List<Result> stripeResults = new ArrayList<>();
+    boolean lastStripe = false;
+    for (int top = 0; !lastStripe; top += stripeHeight - overlap) {
+      if (top + stripeHeight >= height) {
+        // Move the last stripe up to end at the bottom of the image
+        top = height - stripeHeight;
+        lastStripe = true;
+      }
+      stripeResults.clear();
+      try {
+        for (Result result : delegate.decodeMultiple(image.crop(0, top, width, stripeHeight), hints)) {
+          makeAbsolute(result.getResultPoints(), top);
+          stripeResults.add(result);
+          if (!isDuplicate(result, previousStripeResults)) {
+            results.add(result);
+          }
+        }
+      } catch (NotFoundException ignored) {
+        // continue
+      }
+      List<Result> temp = previousStripeResults;
+      previousStripeResults = stripeResults;
+      stripeResults = temp;
+    }
+
+    if (results.isEmpty()) {
+      throw NotFoundException.getNotFoundInstance();
+    }
+    return results.toArray(GenericMultipleBarcodeReader.EMPTY_RESULT_ARRAY);
+  }
+
+  /**
+   * @return true if one of the given results has the same format and text, and its center is no further
+   *  than the overlap from this result's in either direction, or either has no points to tell where it is
+   */
+  private boolean isDuplicate(Result result, List<Result> results) {
+    ResultPoint center = center(result);
+    for (Result other : results) {
+      if (other.getBarcodeFormat() != result.getBarcodeFormat() ||
+          !Objects.equals(other.getText(), result.getText())) {
+        continue;
+      }
+      ResultPoint otherCenter = center(other);
+      if (center == null || otherCenter == null ||
+          (Math.abs(center.getX() - otherCenter.getX()) <= overlap &&
+           Math.abs(center.getY() - otherCenter.getY()) <= overlap)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  private static void makeAbsolute(ResultPoint[] points, int topOffset) {
+    if (points != null) {
+      for (int i = 0; i < points.length; i++) {
+        ResultPoint relative = points[i];
+        if (relative != null) {
+          points[i] = new ResultPoint(relative.getX(), relative.getY() + topOffset);
+        }
+      }
+    }
+  }
+
+  private static ResultPoint center(Result result) {
+    ResultPoint[] points = result.getResultPoints();
+    if (points == null) {
+      return null;
+    }
+    float x = 0.0f;
+    float y = 0.0f;
+    int count = 0;
+    for (ResultPoint point : points) {
+      if (point != null) {
+        x += point.getX();
+        y += point.getY();
+        count++;
+      }
+    }
+    return count == 0 ? null : new ResultPoint(x / count, y / count);
+  }
+
+}
@@ -52,6 +52,16 @@ public final class CodaBarReader extends OneDReader {
       0x00c, 0x018, 0x045, 0x051, 0x054, 0x015, 0x01A, 0x029, 0x00B, 0x00E, // -$:/.+ABCD
   };
 
+  // Indexes into CHARACTER_ENCODINGS by 7 bit encoding; -1 where there is none
+  private static final byte[] CHARACTER_INDEXES_BY_PATTERN = new byte[1 << 7];
+
+  static {
+    Arrays.fill(CHARACTER_INDEXES_BY_PATTERN, (byte) -1);
+    for (int i = 0; i < CHARACTER_ENCODINGS.length; i++) {
+      CHARACTER_INDEXES_BY_PATTERN[CHARACTER_ENCODINGS[i]] = (byte) i;
+    }
+  }
+
   // minimal number of characters that should be present (including start and stop characters)
   // under normal circumstances this should be set to 3, but can be set higher
   // as a last-ditch attempt to reduce false positives.
@@ -334,12 +344,7 @@ public final class CodaBarReader extends OneDReader {
       }
     }
 
-    for (int i = 0; i < CHARACTER_ENCODINGS.length; i++) {
-      if (CHARACTER_ENCODINGS[i] == pattern) {
-        return i;
-      }
-    }
-    return -1;
+    return CHARACTER_INDEXES_BY_PATTERN[pattern];
   }
 
 }
@@ -26,6 +26,7 @@ import com.google.zxing.ResultPoint;
 import com.google.zxing.common.BitArray;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
 import java.util.Map;
 
@@ -149,6 +150,20 @@ public final class Code128Reader extends OneDReader {
   private static final float MAX_AVG_VARIANCE = 0.25f;
   private static final float MAX_INDIVIDUAL_VARIANCE = 0.7f;
 
+  // Codes by the module widths of their first six elements, 1 to 4, packed 2 bits each; -1 for no code
+  private static final byte[] CODES_BY_MODULES = new byte[1 << 12];
+
+  static {
+    Arrays.fill(CODES_BY_MODULES, (byte) -1);
+    for (int code = 0; code < CODE_PATTERNS.length; code++) {
+      int index = 0;
+      for (int i = 0; i < 6; i++) {
+        index = (index << 2) | (CODE_PATTERNS[code][i] - 1);
+      }
+      CODES_BY_MODULES[index] = (byte) code;
+    }
+  }
+
   private static final int CODE_SHIFT = 98;
 
   private static final int CODE_CODE_C = 99;
@@ -214,6 +229,10 @@ public final class Code128Reader extends OneDReader {
   private static int decodeCode(BitArray row, int[] counters, int rowOffset)
       throws NotFoundException {
     recordPattern(row, rowOffset, counters);
+    int code = lookUpCode(counters);
+    if (code >= 0) {
+      return code;
+    }
     float bestVariance = MAX_AVG_VARIANCE; // worst variance we'll accept
     int bestMatch = -1;
     for (int d = 0; d < CODE_PATTERNS.length; d++) {
@@ -232,6 +251,37 @@ public final class Code128Reader extends OneDReader {
     }
   }
 
+  /**
+   * Rounds the counters to module widths, and looks up the code with those widths. This only succeeds when
+   * every counter is within 0.4 modules of its rounded width: any other code differs from that one in at least
+   * two elements, each of which then matches at least 0.2 modules worse, so the code found is the one with
+   * the lowest variance, as {@link #decodeCode(BitArray, int[], int)} would find by trying them all.
+   *
+   * @return the code, or -1 if the widths are ambiguous or match no code well enough
+   */
+  // Not private for testing
+  static int lookUpCode(int[] counters) {
+    int total = 0;
+    for (int counter : counters) {
+      total += counter;
+    }
+    int index = 0;
+    for (int counter : counters) {
+      // Width in modules is 11 * counter / total, compared here scaled up by total
+      int scaled = 11 * counter;
+      int modules = (2 * scaled + total) / (2 * total);
+      if (modules < 1 || modules > 4 || 5 * Math.abs(scaled - modules * total) > 2 * total) {
+        return -1;
+      }
+      index = (index << 2) | (modules - 1);
+    }
+    int code = CODES_BY_MODULES[index];
+    if (code < 0 || patternMatchVariance(counters, CODE_PATTERNS[code], MAX_INDIVIDUAL_VARIANCE) >= MAX_AVG_VARIANCE) {
+      return -1;
+    }
+    return code;
+  }
+
   @Override
   public Result decodeRow(int rowNumber, BitArray row, Map<DecodeHintType,?> hints)
       throws NotFoundException, FormatException, ChecksumException {
@@ -53,6 +53,16 @@ public final class Code39Reader extends OneDReader {
 
   static final int ASTERISK_ENCODING = 0x094;
 
+  // Characters by their 9 bit encoding, including the asterisk; 0 where there is none
+  private static final char[] CHARACTERS_BY_PATTERN = new char[1 << 9];
+
+  static {
+    for (int i = 0; i < CHARACTER_ENCODINGS.length; i++) {
+      CHARACTERS_BY_PATTERN[CHARACTER_ENCODINGS[i]] = ALPHABET_STRING.charAt(i);
+    }
+    CHARACTERS_BY_PATTERN[ASTERISK_ENCODING] = '*';
+  }
+
   private final boolean usingCheckDigit;
   private final boolean extendedMode;
   private final StringBuilder decodeRowResult;
@@ -255,15 +265,10 @@ public final class Code39Reader extends OneDReader {
   }
 
   private static char patternToChar(int pattern) throws NotFoundException {
-    for (int i = 0; i < CHARACTER_ENCODINGS.length; i++) {
-      if (CHARACTER_ENCODINGS[i] == pattern) {
-        return ALPHABET_STRING.charAt(i);
-      }
-    }
-    if (pattern == ASTERISK_ENCODING) {
-      return '*';
+    if (pattern < 0 || pattern >= CHARACTERS_BY_PATTERN.length || CHARACTERS_BY_PATTERN[pattern] == 0) {
+      throw NotFoundException.getNotFoundInstance();
     }
-    throw NotFoundException.getNotFoundInstance();
+    return CHARACTERS_BY_PATTERN[pattern];
   }
 
   private static String decodeExtended(CharSequence encoded) throws FormatException {
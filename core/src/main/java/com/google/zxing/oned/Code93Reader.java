@@ -54,6 +54,15 @@ public final class Code93Reader extends OneDReader {
   };
   static final int ASTERISK_ENCODING = CHARACTER_ENCODINGS[47];
 
+  // Characters by their 9 bit encoding; 0 where there is none
+  private static final char[] CHARACTERS_BY_PATTERN = new char[1 << 9];
+
+  static {
+    for (int i = 0; i < CHARACTER_ENCODINGS.length; i++) {
+      CHARACTERS_BY_PATTERN[CHARACTER_ENCODINGS[i]] = ALPHABET[i];
+    }
+  }
+
   private final StringBuilder decodeRowResult;
   private final int[] counters;
 
@@ -186,12 +195,10 @@ public final class Code93Reader extends OneDReader {
   }
 
   private static char patternToChar(int pattern) throws NotFoundException {
-    for (int i = 0; i < CHARACTER_ENCODINGS.length; i++) {
-      if (CHARACTER_ENCODINGS[i] == pattern) {
-        return ALPHABET[i];
-      }
+    if (pattern < 0 || pattern >= CHARACTERS_BY_PATTERN.length || CHARACTERS_BY_PATTERN[pattern] == 0) {
+      throw NotFoundException.getNotFoundInstance();
     }
-    throw NotFoundException.getNotFoundInstance();
+    return CHARACTERS_BY_PATTERN[pattern];
   }
 
   private static String decodeExtended(CharSequence encoded) throws FormatException {
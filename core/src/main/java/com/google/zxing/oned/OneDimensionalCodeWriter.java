@@ -20,6 +20,7 @@ import com.google.zxing.BarcodeFormat;
 import com.google.zxing.EncodeHintType;
 import com.google.zxing.Writer;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.ScaledBitMatrix;
 
 import java.util.Collection;
 import java.util.Map;
@@ -51,6 +52,26 @@ public abstract class OneDimensionalCodeWriter implements Writer {
                           int width,
                           int height,
                           Map<EncodeHintType,?> hints) {
+    return encodeScaled(contents, format, width, height, hints).toBitMatrix();
+  }
+
+  /**
+   * Like {@link #encode(String, BarcodeFormat, int, int, Map)}, but only works out the modules, leaving
+   * them to be scaled up to the requested size as they are read. Every row of a one-dimensional barcode
+   * is the same, so this holds just one row of modules however tall the image.
+   *
+   * @param contents The contents to encode in the barcode
+   * @param format The barcode format to generate
+   * @param width The preferred width in pixels
+   * @param height The preferred height in pixels
+   * @param hints Additional parameters to supply to the encoder
+   * @return the same image as {@code encode} returns, as a view of the modules
+   */
+  public ScaledBitMatrix encodeScaled(String contents,
+                                      BarcodeFormat format,
+                                      int width,
+                                      int height,
+                                      Map<EncodeHintType,?> hints) {
     if (contents.isEmpty()) {
       throw new IllegalArgumentException("Found empty contents");
     }
@@ -81,7 +102,7 @@ public abstract class OneDimensionalCodeWriter implements Writer {
   /**
    * @return a byte array of horizontal pixels (0 = white, 1 = black)
    */
-  private static BitMatrix renderResult(boolean[] code, int width, int height, int sidesMargin) {
+  private static ScaledBitMatrix renderResult(boolean[] code, int width, int height, int sidesMargin) {
     int inputWidth = code.length;
     // Add quiet zone on both sides.
     int fullWidth = inputWidth + sidesMargin;
@@ -91,13 +112,13 @@ public abstract class OneDimensionalCodeWriter implements Writer {
     int multiple = outputWidth / fullWidth;
     int leftPadding = (outputWidth - (inputWidth * multiple)) / 2;
 
-    BitMatrix output = new BitMatrix(outputWidth, outputHeight);
-    for (int inputX = 0, outputX = leftPadding; inputX < inputWidth; inputX++, outputX += multiple) {
+    BitMatrix modules = new BitMatrix(inputWidth, 1);
+    for (int inputX = 0; inputX < inputWidth; inputX++) {
       if (code[inputX]) {
-        output.setRegion(outputX, 0, multiple, outputHeight);
+        modules.set(inputX, 0);
       }
     }
-    return output;
+    return new ScaledBitMatrix(modules, outputWidth, outputHeight, leftPadding, 0, multiple, outputHeight);
   }
 
   /**
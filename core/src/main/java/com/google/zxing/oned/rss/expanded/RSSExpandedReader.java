@@ -43,10 +43,12 @@ import com.google.zxing.oned.rss.expanded.decoders.AbstractExpandedDecoder;
 import java.util.Arrays;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.HashSet;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
 import java.util.Collections;
+import java.util.Set;
 
 /**
  * @author Pablo Orduña, University of Deusto (pablo.orduna@deusto.es)
@@ -114,9 +116,16 @@ public final class RSSExpandedReader extends AbstractRSSReader {
   };
 
   private static final int MAX_PAIRS = 11;
+  // Stacked barcode can have up to 11 rows, so 25 seems reasonable enough
+  private static final int MAX_ROWS = 25;
+  // Rows tried per search for a valid sequence of rows, so that its worst case stays small
+  private static final int MAX_SEARCH_STEPS = 1 << 16;
 
   private final List<ExpandedPair> pairs = new ArrayList<>(MAX_PAIRS);
   private final List<ExpandedRow> rows = new ArrayList<>();
+  // Search states, as from searchState(), from which no valid sequence of rows could be completed
+  private final Set<Long> failedStates = new HashSet<>();
+  private int searchSteps;
   private final int [] startEnd = new int[2];
   private boolean startFromEven;
 
@@ -183,23 +192,20 @@ public final class RSSExpandedReader extends AbstractRSSReader {
     throw NotFoundException.getNotFoundInstance();
   }
 
-  private List<ExpandedPair> checkRows(boolean reverse) {
-    // Limit number of rows we are checking
-    // We use recursive algorithm with pure complexity and don't want it to take forever
-    // Stacked barcode can have up to 11 rows, so 25 seems reasonable enough
-    if (this.rows.size() > 25) {
-      this.rows.clear();  // We will never have a chance to get result, so clear it
-      return null;
-    }
-
+  // Not private for testing
+  List<ExpandedPair> checkRows(boolean reverse) {
     this.pairs.clear();
     if (reverse) {
       Collections.reverse(this.rows);
     }
 
+    // Limit the work we do: the search is exponential in the number of rows, so besides keeping few rows
+    // (see storeRow()) it remembers which states failed, and gives up after a fixed number of steps
+    this.failedStates.clear();
+    this.searchSteps = 0;
     List<ExpandedPair> ps = null;
     try {
-      ps = checkRows(new ArrayList<>(), 0);
+      ps = checkRows(0);
     } catch (NotFoundException e) {
       // OK
     }
@@ -211,36 +217,76 @@ public final class RSSExpandedReader extends AbstractRSSReader {
     return ps;
   }
 
-  // Try to construct a valid rows sequence
-  // Recursion is used to implement backtracking
-  private List<ExpandedPair> checkRows(List<ExpandedRow> collectedRows, int currentRow) throws NotFoundException {
+  // Try to construct a valid rows sequence, extending the pairs of the rows collected so far with rows from
+  // currentRow on. Recursion is used to implement backtracking; on failure the pairs are left as they were.
+  private List<ExpandedPair> checkRows(int currentRow) throws NotFoundException {
     for (int i = currentRow; i < rows.size(); i++) {
-      ExpandedRow row = rows.get(i);
-      this.pairs.clear();
-      for (ExpandedRow collectedRow : collectedRows) {
-        this.pairs.addAll(collectedRow.getPairs());
+      if (++searchSteps > MAX_SEARCH_STEPS) {
+        break;
       }
-      this.pairs.addAll(row.getPairs());
+      int collectedPairs = this.pairs.size();
+      this.pairs.addAll(rows.get(i).getPairs());
 
       if (isValidSequence(this.pairs)) {
         if (checkChecksum()) {
           return this.pairs;
         }
 
-        List<ExpandedRow> rs = new ArrayList<>(collectedRows);
-        rs.add(row);
-        try {
-          // Recursion: try to add more rows
-          return checkRows(rs, i + 1);
-        } catch (NotFoundException e) {
-          // We failed, try the next candidate
+        Long state = searchState(i + 1);
+        if (!failedStates.contains(state)) {
+          try {
+            // Recursion: try to add more rows
+            return checkRows(i + 1);
+          } catch (NotFoundException e) {
+            // We failed, try the next candidate
+            failedStates.add(state);
+          }
         }
       }
+      this.pairs.subList(collectedPairs, this.pairs.size()).clear();
     }
 
     throw NotFoundException.getNotFoundInstance();
   }
 
+  /**
+   * Summarizes what decides whether the pairs, a valid sequence so far, can be completed from rows nextRow on:
+   * their finder patterns, and what remains of the checksum. As in checkChecksum(), the rows to come must add
+   * exactly (check character value / 211 - (s - 4)) characters, whose checksum portions add up to
+   * (check character value - checksum) mod 211. Pairs that agree on all of these succeed or fail alike.
+   */
+  private long searchState(int nextRow) {
+    long finderPatterns = 0;
+    for (ExpandedPair pair : this.pairs) {
+      finderPatterns = (finderPatterns << 3) | (pair.getFinderPattern().getValue() + 1);
+    }
+    DataCharacter checkCharacter = this.pairs.get(0).getLeftChar();
+    DataCharacter firstCharacter = this.pairs.get(0).getRightChar();
+    int checksum = 0;
+    int s = 2;
+    int charactersNeeded = -1;
+    if (firstCharacter != null) {
+      checksum = firstCharacter.getChecksumPortion();
+      for (int i = 1; i < this.pairs.size(); i++) {
+        ExpandedPair pair = this.pairs.get(i);
+        checksum += pair.getLeftChar().getChecksumPortion();
+        s++;
+        if (pair.getRightChar() != null) {
+          checksum += pair.getRightChar().getChecksumPortion();
+          s++;
+        }
+      }
+      // Anything below 0, or above what the longest sequence holds, can't be met
+      charactersNeeded = checkCharacter.getValue() / 211 - (s - 4);
+      if (charactersNeeded > 2 * MAX_PAIRS) {
+        charactersNeeded = -1;
+      }
+    }
+    int checksumNeeded = Math.floorMod(checkCharacter.getValue() - checksum, 211);
+    return ((long) nextRow << 48) | (finderPatterns << 14) | ((long) checksumNeeded << 5) |
+        (Math.max(charactersNeeded, -1) + 1);
+  }
+
   // Whether the pairs form a valid find pattern sequence,
   // either complete or a prefix
   private static boolean isValidSequence(List<ExpandedPair> pairs) {
@@ -293,6 +339,16 @@ public final class RSSExpandedReader extends AbstractRSSReader {
     this.rows.add(insertPos, new ExpandedRow(this.pairs, rowNumber, false));
 
     removePartialRows(this.pairs, this.rows);
+
+    // Rows are sorted by row number, so the one furthest from this row is the first or the last
+    while (this.rows.size() > MAX_ROWS) {
+      int last = this.rows.size() - 1;
+      if (rowNumber - this.rows.get(0).getRowNumber() >= this.rows.get(last).getRowNumber() - rowNumber) {
+        this.rows.remove(0);
+      } else {
+        this.rows.remove(last);
+      }
+    }
   }
 
   // Remove all the rows that contains only specified pairs
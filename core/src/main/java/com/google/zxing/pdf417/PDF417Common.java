@@ -32,7 +32,7 @@ public final class PDF417Common {
   public static final int MIN_ROWS_IN_BARCODE = 3;
   public static final int MAX_ROWS_IN_BARCODE = 90;
   // One left row indication column + max 30 data columns + one right row indicator column
-  //public static final int MAX_CODEWORDS_IN_ROW = 32;
+  public static final int MAX_CODEWORDS_IN_ROW = 32;
   public static final int MODULES_IN_CODEWORD = 17;
   public static final int MODULES_IN_STOP_PATTERN = 18;
   public static final int BARS_IN_MODULE = 8;
@@ -52,6 +52,13 @@ public final class PDF417Common {
     return MathUtils.sum(moduleBitCount);
   }
 
+  /**
+   * @param list values to copy
+   * @return the values as an array, in iteration order
+   * @deprecated no longer used by the decoder, which collects codewords in int arrays; kept because this
+   *  class is public API
+   */
+  @Deprecated
   public static int[] toIntArray(Collection<Integer> list) {
     if (list == null || list.isEmpty()) {
       return EMPTY_INT_ARRAY;
@@ -69,11 +76,11 @@ public final class PDF417Common {
    * @return the codeword corresponding to the symbol.
    */
   public static int getCodeword(int symbol) {
-    int i = Arrays.binarySearch(SYMBOL_TABLE, symbol & 0x3FFFF);
-    if (i < 0) {
+    // Every symbol starts with a bar and ends with a space, so only the 15 bits in between vary
+    if ((symbol & 0x30001) != 0x10000) {
       return -1;
     }
-    return (CODEWORD_TABLE[i] - 1) % NUMBER_OF_CODEWORDS;
+    return CODEWORD_INDEX[(symbol >> 1) & 0x7FFF];
   }
 
   /**
@@ -460,4 +467,16 @@ public final class PDF417Common {
       2058, 2054, 1145, 1142, 2005, 2002, 1999, 2009, 1488, 1429, 1426, 2200, 1698, 1659, 1656, 1975, 1053, 1957, 1954,
       1001, 998, 1924, 1921, 1918, 1928, 937, 934, 931, 1879, 1876, 1873, 1870, 945, 1885, 1882, 1323, 1273, 1270,
       2105, 1202, 1199, 1196, 1211, 2061, 2057, 1576, 1543, 1540, 1484, 1481, 1478, 1491, 1700};
+
+  /**
+   * Codewords of all symbols, indexed by the middle 15 bits of the symbol, or -1 where there is no symbol.
+   */
+  private static final short[] CODEWORD_INDEX = new short[1 << 15];
+
+  static {
+    Arrays.fill(CODEWORD_INDEX, (short) -1);
+    for (int i = 0; i < SYMBOL_TABLE.length; i++) {
+      CODEWORD_INDEX[(SYMBOL_TABLE[i] >> 1) & 0x7FFF] = (short) ((CODEWORD_TABLE[i] - 1) % NUMBER_OF_CODEWORDS);
+    }
+  }
 }
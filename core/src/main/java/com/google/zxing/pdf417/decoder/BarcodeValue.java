@@ -16,53 +16,88 @@
 
 package com.google.zxing.pdf417.decoder;
 
-import com.google.zxing.pdf417.PDF417Common;
-
-import java.util.ArrayList;
-import java.util.Collection;
-import java.util.HashMap;
-import java.util.Map;
-import java.util.Map.Entry;
+import java.util.Arrays;
 
 /**
+ * <p>Counts how often each value was read for one cell. A cell rarely sees more than a couple of distinct
+ * values, so they are kept in small parallel arrays and searched linearly.</p>
+ *
  * @author Guenther Grau
  */
 final class BarcodeValue {
-  private final Map<Integer,Integer> values = new HashMap<>();
+
+  private static final int[] EMPTY_INT_ARRAY = {};
+
+  // Distinct values, in the order they were first set, and how often each was set
+  private int[] values = new int[4];
+  private int[] confidences = new int[4];
+  private int size;
 
   /**
    * Add an occurrence of a value
    */
   void setValue(int value) {
-    Integer confidence = values.get(value);
-    if (confidence == null) {
-      confidence = 0;
+    for (int i = 0; i < size; i++) {
+      if (values[i] == value) {
+        confidences[i]++;
+        return;
+      }
     }
-    confidence++;
-    values.put(value, confidence);
+    if (size == values.length) {
+      values = Arrays.copyOf(values, size * 2);
+      confidences = Arrays.copyOf(confidences, size * 2);
+    }
+    values[size] = value;
+    confidences[size] = 1;
+    size++;
   }
 
   /**
    * Determines the maximum occurrence of a set value and returns all values which were set with this occurrence.
-   * @return an array of int, containing the values with the highest occurrence, or null, if no value was set
+   * @return an array of int, containing the values with the highest occurrence in the order they were first set,
+   *  or an empty array, if no value was set
    */
   int[] getValue() {
-    int maxConfidence = -1;
-    Collection<Integer> result = new ArrayList<>();
-    for (Entry<Integer,Integer> entry : values.entrySet()) {
-      if (entry.getValue() > maxConfidence) {
-        maxConfidence = entry.getValue();
-        result.clear();
-        result.add(entry.getKey());
-      } else if (entry.getValue() == maxConfidence) {
-        result.add(entry.getKey());
+    if (size == 0) {
+      return EMPTY_INT_ARRAY;
+    }
+    int maxConfidence = 0;
+    int count = 0;
+    for (int i = 0; i < size; i++) {
+      if (confidences[i] > maxConfidence) {
+        maxConfidence = confidences[i];
+        count = 1;
+      } else if (confidences[i] == maxConfidence) {
+        count++;
+      }
+    }
+    int[] result = new int[count];
+    int j = 0;
+    for (int i = 0; i < size; i++) {
+      if (confidences[i] == maxConfidence) {
+        result[j++] = values[i];
       }
     }
-    return PDF417Common.toIntArray(result);
+    return result;
   }
 
-  Integer getConfidence(int value) {
-    return values.get(value);
+  /**
+   * @return how often "value" was set, or 0 if it never was
+   */
+  int getConfidence(int value) {
+    for (int i = 0; i < size; i++) {
+      if (values[i] == value) {
+        return confidences[i];
+      }
+    }
+    return 0;
+  }
+
+  /**
+   * Forgets all values, so that the instance can be reused for another cell.
+   */
+  void clear() {
+    size = 0;
   }
 
 }
@@ -19,6 +19,8 @@ package com.google.zxing.pdf417.decoder;
 import com.google.zxing.common.detector.MathUtils;
 import com.google.zxing.pdf417.PDF417Common;
 
+import java.util.Arrays;
+
 /**
  * @author Guenther Grau
  * @author creatale GmbH (christoph.schulz@creatale.de)
@@ -28,6 +30,18 @@ final class PDF417CodewordDecoder {
   private static final float[][] RATIOS_TABLE =
       new float[PDF417Common.SYMBOL_TABLE.length][PDF417Common.BARS_IN_MODULE];
 
+  // The symbols as a trie on their ratios, bar by bar: node 0 is the root, each node's children are the
+  // nodes CHILD_START[node] to CHILD_END[node] - 1 in ascending order of ratio, and the nodes at depth
+  // BARS_IN_MODULE are leaves holding the index of their symbol in SYMBOL_TABLE.
+  private static final int[] CHILD_START;
+  private static final int[] CHILD_END;
+  private static final float[] NODE_RATIO;
+  private static final int[] LEAF_SYMBOL_INDEX;
+
+  // A match packed as the bits of its error, then its symbol index. As errors are never negative, the smaller
+  // of two packed matches is the one with the smaller error, or the smaller index on equal errors.
+  private static final long NO_MATCH = (long) Float.floatToIntBits(Float.MAX_VALUE) << 32;
+
   static {
     // Pre-computes the symbol ratio table.
     for (int i = 0; i < PDF417Common.SYMBOL_TABLE.length; i++) {
@@ -43,6 +57,58 @@ final class PDF417CodewordDecoder {
         RATIOS_TABLE[i][PDF417Common.BARS_IN_MODULE - j - 1] = size / PDF417Common.MODULES_IN_CODEWORD;
       }
     }
+
+    // Sorting the symbols by their ratios makes the symbols under each node of the trie a contiguous range
+    Integer[] sorted = new Integer[RATIOS_TABLE.length];
+    for (int i = 0; i < sorted.length; i++) {
+      sorted[i] = i;
+    }
+    Arrays.sort(sorted, (a, b) -> {
+      for (int k = 0; k < PDF417Common.BARS_IN_MODULE; k++) {
+        int c = Float.compare(RATIOS_TABLE[a][k], RATIOS_TABLE[b][k]);
+        if (c != 0) {
+          return c;
+        }
+      }
+      return 0;
+    });
+    // Built breadth first; each node covers symbols rangeStart[node] to rangeEnd[node] - 1 of "sorted"
+    int maxNodes = 1 + sorted.length * PDF417Common.BARS_IN_MODULE;
+    int[] childStart = new int[maxNodes];
+    int[] childEnd = new int[maxNodes];
+    float[] nodeRatio = new float[maxNodes];
+    int[] leafSymbolIndex = new int[maxNodes];
+    int[] rangeStart = new int[maxNodes];
+    int[] rangeEnd = new int[maxNodes];
+    rangeEnd[0] = sorted.length;
+    int levelStart = 0;
+    int numNodes = 1;
+    for (int level = 0; level < PDF417Common.BARS_IN_MODULE; level++) {
+      int levelEnd = numNodes;
+      for (int node = levelStart; node < levelEnd; node++) {
+        childStart[node] = numNodes;
+        int i = rangeStart[node];
+        while (i < rangeEnd[node]) {
+          float ratio = RATIOS_TABLE[sorted[i]][level];
+          int j = i + 1;
+          while (j < rangeEnd[node] && RATIOS_TABLE[sorted[j]][level] == ratio) {
+            j++;
+          }
+          nodeRatio[numNodes] = ratio;
+          leafSymbolIndex[numNodes] = sorted[i];
+          rangeStart[numNodes] = i;
+          rangeEnd[numNodes] = j;
+          numNodes++;
+          i = j;
+        }
+        childEnd[node] = numNodes;
+      }
+      levelStart = levelEnd;
+    }
+    CHILD_START = Arrays.copyOf(childStart, numNodes);
+    CHILD_END = Arrays.copyOf(childEnd, numNodes);
+    NODE_RATIO = Arrays.copyOf(nodeRatio, numNodes);
+    LEAF_SYMBOL_INDEX = Arrays.copyOf(leafSymbolIndex, numNodes);
   }
 
   private PDF417CodewordDecoder() {
@@ -89,30 +155,54 @@ final class PDF417CodewordDecoder {
     return (int) result;
   }
 
-  private static int getClosestDecodedValue(int[] moduleBitCount) {
+  /**
+   * Finds the symbol whose bar ratios are closest to those of "moduleBitCount" in squared error, the first one
+   * in {@link PDF417Common#SYMBOL_TABLE} on ties.
+   */
+  static int getClosestDecodedValue(int[] moduleBitCount) {
     int bitCountSum = MathUtils.sum(moduleBitCount);
-    float[] bitCountRatios = new float[PDF417Common.BARS_IN_MODULE];
-    if (bitCountSum > 1) {
-      for (int i = 0; i < bitCountRatios.length; i++) {
-        bitCountRatios[i] = moduleBitCount[i] / (float) bitCountSum;
-      }
+    long bestMatch = getClosestMatch(0, 0, 0.0f, moduleBitCount, bitCountSum, NO_MATCH);
+    return PDF417Common.SYMBOL_TABLE[(int) bestMatch];
+  }
+
+  /**
+   * Searches the trie below "node" depth first, nearest ratio first, dropping subtrees whose error so far
+   * already exceeds that of the best match. The error sums the squared differences in the same order as a
+   * plain scan over {@link #RATIOS_TABLE} would, so the result is the same, including on ties.
+   *
+   * @return the better of "bestMatch" and the best match under "node"
+   */
+  private static long getClosestMatch(int node, int level, float error, int[] moduleBitCount, int bitCountSum,
+                                      long bestMatch) {
+    if (level == PDF417Common.BARS_IN_MODULE) {
+      return Math.min(bestMatch, (long) Float.floatToIntBits(error) << 32 | LEAF_SYMBOL_INDEX[node]);
     }
-    float bestMatchError = Float.MAX_VALUE;
-    int bestMatch = -1;
-    for (int j = 0; j < RATIOS_TABLE.length; j++) {
-      float error = 0.0f;
-      float[] ratioTableRow = RATIOS_TABLE[j];
-      for (int k = 0; k < PDF417Common.BARS_IN_MODULE; k++) {
-        float diff = ratioTableRow[k] - bitCountRatios[k];
-        error += diff * diff;
-        if (error >= bestMatchError) {
-          break;
+    float bitCountRatio = bitCountSum > 1 ? moduleBitCount[level] / (float) bitCountSum : 0.0f;
+    int start = CHILD_START[node];
+    int end = CHILD_END[node];
+    // Children below "high" have a ratio under bitCountRatio; walk outwards from there in both directions
+    int high = start;
+    while (high < end && NODE_RATIO[high] < bitCountRatio) {
+      high++;
+    }
+    int low = high - 1;
+    while (low >= start || high < end) {
+      float lowDiff = low >= start ? NODE_RATIO[low] - bitCountRatio : Float.MAX_VALUE;
+      float highDiff = high < end ? NODE_RATIO[high] - bitCountRatio : Float.MAX_VALUE;
+      boolean takeLow = lowDiff * lowDiff < highDiff * highDiff;
+      float diff = takeLow ? lowDiff : highDiff;
+      float childError = error + diff * diff;
+      if (childError > Float.intBitsToFloat((int) (bestMatch >>> 32))) {
+        // Children further out on this side are no closer
+        if (takeLow) {
+          low = start - 1;
+        } else {
+          high = end;
         }
+        continue;
       }
-      if (error < bestMatchError) {
-        bestMatchError = error;
-        bestMatch = PDF417Common.SYMBOL_TABLE[j];
-      }
+      int child = takeLow ? low-- : high++;
+      bestMatch = getClosestMatch(child, level + 1, childError, moduleBitCount, bitCountSum, bestMatch);
     }
     return bestMatch;
   }
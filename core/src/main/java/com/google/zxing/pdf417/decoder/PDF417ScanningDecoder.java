@@ -26,10 +26,8 @@ import com.google.zxing.common.detector.MathUtils;
 import com.google.zxing.pdf417.PDF417Common;
 import com.google.zxing.pdf417.decoder.ec.ErrorCorrection;
 
-import java.util.ArrayList;
-import java.util.Collection;
+import java.util.Arrays;
 import java.util.Formatter;
-import java.util.List;
 
 /**
  * @author Guenther Grau
@@ -41,6 +39,9 @@ public final class PDF417ScanningDecoder {
   private static final int MAX_ERRORS = 3;
   private static final int MAX_EC_CODEWORDS = 512;
   private static final ErrorCorrection errorCorrection = new ErrorCorrection();
+  // Grid of cell values, reused across decodes on the same thread; only the part a barcode covers is used
+  private static final ThreadLocal<BarcodeValue[][]> BARCODE_MATRIX = ThreadLocal.withInitial(
+      () -> new BarcodeValue[PDF417Common.MAX_ROWS_IN_BARCODE][PDF417Common.MAX_CODEWORDS_IN_ROW]);
 
   private PDF417ScanningDecoder() {
   }
@@ -255,39 +256,40 @@ public final class PDF417ScanningDecoder {
       ChecksumException, NotFoundException {
     BarcodeValue[][] barcodeMatrix = createBarcodeMatrix(detectionResult);
     adjustCodewordCount(detectionResult, barcodeMatrix);
-    Collection<Integer> erasures = new ArrayList<>();
     int[] codewords = new int[detectionResult.getBarcodeRowCount() * detectionResult.getBarcodeColumnCount()];
-    List<int[]> ambiguousIndexValuesList = new ArrayList<>();
-    Collection<Integer> ambiguousIndexesList = new ArrayList<>();
+    int[] erasures = new int[codewords.length];
+    int erasureCount = 0;
+    int[] ambiguousIndexes = new int[codewords.length];
+    int[][] ambiguousIndexValues = new int[codewords.length][];
+    int ambiguousCount = 0;
     for (int row = 0; row < detectionResult.getBarcodeRowCount(); row++) {
       for (int column = 0; column < detectionResult.getBarcodeColumnCount(); column++) {
         int[] values = barcodeMatrix[row][column + 1].getValue();
         int codewordIndex = row * detectionResult.getBarcodeColumnCount() + column;
         if (values.length == 0) {
-          erasures.add(codewordIndex);
+          erasures[erasureCount++] = codewordIndex;
         } else if (values.length == 1) {
           codewords[codewordIndex] = values[0];
         } else {
-          ambiguousIndexesList.add(codewordIndex);
-          ambiguousIndexValuesList.add(values);
+          ambiguousIndexes[ambiguousCount] = codewordIndex;
+          ambiguousIndexValues[ambiguousCount] = values;
+          ambiguousCount++;
         }
       }
     }
-    int[][] ambiguousIndexValues = new int[ambiguousIndexValuesList.size()][];
-    for (int i = 0; i < ambiguousIndexValues.length; i++) {
-      ambiguousIndexValues[i] = ambiguousIndexValuesList.get(i);
-    }
     return createDecoderResultFromAmbiguousValues(detectionResult.getBarcodeECLevel(), codewords,
-        PDF417Common.toIntArray(erasures), PDF417Common.toIntArray(ambiguousIndexesList), ambiguousIndexValues);
+        Arrays.copyOf(erasures, erasureCount), Arrays.copyOf(ambiguousIndexes, ambiguousCount),
+        Arrays.copyOf(ambiguousIndexValues, ambiguousCount));
   }
 
   /**
-   * This method deals with the fact, that the decoding process doesn't always yield a single most likely value. The
-   * current error correction implementation doesn't deal with erasures very well, so it's better to provide a value
-   * for these ambiguous codewords instead of treating it as an erasure. The problem is that we don't know which of
-   * the ambiguous values to choose. We try decode using the first value, and if that fails, we use another of the
-   * ambiguous values and try to decode again. This usually only happens on very hard to read and decode barcodes,
-   * so decoding the normal barcodes is not affected by this.
+   * This method deals with the fact, that the decoding process doesn't always yield a single most likely value. Error
+   * correction handles erasures together with errors, but each erasure still uses up one error correction codeword,
+   * while one of the ambiguous values is usually right and costs none. So these ambiguous codewords are given a
+   * value instead of being treated as erasures. The problem is that we don't know which of the ambiguous values to
+   * choose. We try decode using the first value, and if that fails, we use another of the ambiguous values and try
+   * to decode again. This usually only happens on very hard to read and decode barcodes, so decoding the normal
+   * barcodes is not affected by this.
    *
    * @param erasureArray contains the indexes of erasures
    * @param ambiguousIndexes array with the indexes that have more than one most likely value
@@ -330,12 +332,35 @@ public final class PDF417ScanningDecoder {
     throw ChecksumException.getChecksumInstance();
   }
 
+  /**
+   * Collects the codeword values read for each cell. The returned grid is this thread's shared one, so it is
+   * only valid until the next call, and only its first {@link DetectionResult#getBarcodeRowCount()} rows and
+   * {@link DetectionResult#getBarcodeColumnCount()} + 2 columns belong to this barcode. Every cell outside that
+   * part is null, so nothing is left over from an earlier, larger barcode.
+   */
   private static BarcodeValue[][] createBarcodeMatrix(DetectionResult detectionResult) {
-    BarcodeValue[][] barcodeMatrix =
-        new BarcodeValue[detectionResult.getBarcodeRowCount()][detectionResult.getBarcodeColumnCount() + 2];
-    for (int row = 0; row < barcodeMatrix.length; row++) {
-      for (int column = 0; column < barcodeMatrix[row].length; column++) {
-        barcodeMatrix[row][column] = new BarcodeValue();
+    BarcodeValue[][] barcodeMatrix = BARCODE_MATRIX.get();
+    int rowCount = detectionResult.getBarcodeRowCount();
+    int columnCount = detectionResult.getBarcodeColumnCount() + 2;
+    // The part the previous barcode used is the block of non-null cells in the top left corner
+    int usedRowCount = 0;
+    while (usedRowCount < barcodeMatrix.length && barcodeMatrix[usedRowCount][0] != null) {
+      usedRowCount++;
+    }
+    int usedColumnCount = 0;
+    while (usedColumnCount < barcodeMatrix[0].length && barcodeMatrix[0][usedColumnCount] != null) {
+      usedColumnCount++;
+    }
+    for (int row = 0; row < Math.max(rowCount, usedRowCount); row++) {
+      BarcodeValue[] barcodeRow = barcodeMatrix[row];
+      for (int column = 0; column < Math.max(columnCount, usedColumnCount); column++) {
+        if (row >= rowCount || column >= columnCount) {
+          barcodeRow[column] = null;
+        } else if (barcodeRow[column] == null) {
+          barcodeRow[column] = new BarcodeValue();
+        } else {
+          barcodeRow[column].clear();
+        }
       }
     }
 
@@ -346,7 +371,7 @@ public final class PDF417ScanningDecoder {
           if (codeword != null) {
             int rowNumber = codeword.getRowNumber();
             if (rowNumber >= 0) {
-              if (rowNumber >= barcodeMatrix.length) {
+              if (rowNumber >= rowCount) {
                 // We have more rows than the barcode metadata allows for, ignore them.
                 continue;
               }
@@ -611,13 +636,27 @@ public final class PDF417ScanningDecoder {
     return (moduleBitCount[0] - moduleBitCount[2] + moduleBitCount[4] - moduleBitCount[6] + 9) % 9;
   }
 
+  // This thread's pooled grid, as left by the last decode. For testing only
+  static BarcodeValue[][] getBarcodeMatrix() {
+    return BARCODE_MATRIX.get();
+  }
+
   public static String toString(BarcodeValue[][] barcodeMatrix) {
+    // A pooled grid ends with null rows and columns past the barcode it was last used for; leave those out
+    int rowCount = barcodeMatrix.length;
+    while (rowCount > 0 && (barcodeMatrix[rowCount - 1].length == 0 || barcodeMatrix[rowCount - 1][0] == null)) {
+      rowCount--;
+    }
     try (Formatter formatter = new Formatter()) {
-      for (int row = 0; row < barcodeMatrix.length; row++) {
+      for (int row = 0; row < rowCount; row++) {
+        int columnCount = barcodeMatrix[row].length;
+        while (columnCount > 0 && barcodeMatrix[row][columnCount - 1] == null) {
+          columnCount--;
+        }
         formatter.format("Row %2d: ", row);
-        for (int column = 0; column < barcodeMatrix[row].length; column++) {
+        for (int column = 0; column < columnCount; column++) {
           BarcodeValue barcodeValue = barcodeMatrix[row][column];
-          if (barcodeValue.getValue().length == 0) {
+          if (barcodeValue == null || barcodeValue.getValue().length == 0) {
             formatter.format("        ", (Object[]) null);
           } else {
             formatter.format("%4d(%2d)", barcodeValue.getValue()[0],
@@ -18,17 +18,26 @@ package com.google.zxing.pdf417.decoder.ec;
 
 import com.google.zxing.ChecksumException;
 
+import java.util.Arrays;
+
 /**
  * <p>PDF417 error correction implementation.</p>
  *
  * <p>This <a href="http://en.wikipedia.org/wiki/Reed%E2%80%93Solomon_error_correction#Example">example</a>
  * is quite useful in understanding the algorithm.</p>
  *
+ * <p>Errors and erasures are corrected together: the erasure locator is folded into the syndromes before the
+ * Euclidean algorithm, so each erasure costs one error correction codeword rather than two. Polynomials are
+ * kept as coefficient arrays, lowest degree first, in buffers that are reused by later calls on the same
+ * thread.</p>
+ *
  * @author Sean Owen
  * @see com.google.zxing.common.reedsolomon.ReedSolomonDecoder
  */
 public final class ErrorCorrection {
 
+  private static final ThreadLocal<Buffers> BUFFERS = ThreadLocal.withInitial(Buffers::new);
+
   private final ModulusGF field;
 
   public ErrorCorrection() {
@@ -39,19 +48,22 @@ public final class ErrorCorrection {
    * @param received received codewords
    * @param numECCodewords number of those codewords used for EC
    * @param erasures location of erasures
-   * @return number of errors
+   * @return number of codewords corrected, counting errors and erasures
    * @throws ChecksumException if errors cannot be corrected, maybe because of too many errors
    */
   public int decode(int[] received,
                     int numECCodewords,
                     int[] erasures) throws ChecksumException {
 
-    ModulusPoly poly = new ModulusPoly(field, received);
-    int[] S = new int[numECCodewords];
+    Buffers buffers = BUFFERS.get();
+    buffers.ensureCapacity(numECCodewords);
+
+    // S(x) = sum of received(a^i) x^(i-1), for i = 1 .. numECCodewords
+    int[] syndromes = buffers.syndromes;
     boolean error = false;
-    for (int i = numECCodewords; i > 0; i--) {
-      int eval = poly.evaluateAt(field.exp(i));
-      S[numECCodewords - i] = eval;
+    for (int i = 1; i <= numECCodewords; i++) {
+      int eval = field.evaluateAtPower(received, i);
+      syndromes[i - 1] = eval;
       if (eval != 0) {
         error = true;
       }
@@ -61,127 +73,199 @@ public final class ErrorCorrection {
       return 0;
     }
 
-    ModulusPoly knownErrors = field.getOne();
-    if (erasures != null) {
-      for (int erasure : erasures) {
-        int b = field.exp(received.length - 1 - erasure);
-        // Add (1 - bx) term:
-        ModulusPoly term = new ModulusPoly(field, new int[]{field.subtract(0, b), 1});
-        knownErrors = knownErrors.multiply(term);
-      }
+    int numErasures = erasures == null ? 0 : erasures.length;
+    if (numErasures > numECCodewords) {
+      throw ChecksumException.getChecksumInstance();
     }
 
-    ModulusPoly syndrome = new ModulusPoly(field, S);
-    //syndrome = syndrome.multiply(knownErrors);
-
-    ModulusPoly[] sigmaOmega =
-        runEuclideanAlgorithm(field.buildMonomial(numECCodewords, 1), syndrome, numECCodewords);
-    ModulusPoly sigma = sigmaOmega[0];
-    ModulusPoly omega = sigmaOmega[1];
-
-    //sigma = sigma.multiply(knownErrors);
-
-    int[] errorLocations = findErrorLocations(sigma);
-    int[] errorMagnitudes = findErrorMagnitudes(omega, sigma, errorLocations);
-
-    for (int i = 0; i < errorLocations.length; i++) {
-      int position = received.length - 1 - field.log(errorLocations[i]);
-      if (position < 0) {
+    // Erasure locator: product of the (1 - bx) terms
+    int[] erasureLocator = buffers.erasureLocator;
+    erasureLocator[0] = 1;
+    for (int e = 0; e < numErasures; e++) {
+      int erasure = erasures[e];
+      if (erasure < 0 || erasure >= received.length) {
         throw ChecksumException.getChecksumInstance();
       }
-      received[position] = field.subtract(received[position], errorMagnitudes[i]);
+      int b = field.exp(received.length - 1 - erasure);
+      erasureLocator[e + 1] = 0;
+      for (int i = e + 1; i > 0; i--) {
+        erasureLocator[i] = field.subtract(erasureLocator[i], field.multiply(b, erasureLocator[i - 1]));
+      }
     }
-    return errorLocations.length;
-  }
 
-  private ModulusPoly[] runEuclideanAlgorithm(ModulusPoly a, ModulusPoly b, int R)
-      throws ChecksumException {
-    // Assume a's degree is >= b's
-    if (a.getDegree() < b.getDegree()) {
-      ModulusPoly temp = a;
-      a = b;
-      b = temp;
-    }
-
-    ModulusPoly rLast = a;
-    ModulusPoly r = b;
-    ModulusPoly tLast = field.getZero();
-    ModulusPoly t = field.getOne();
-
-    // Run Euclidean algorithm until r's degree is less than R/2
-    while (r.getDegree() >= R / 2) {
-      ModulusPoly rLastLast = rLast;
-      ModulusPoly tLastLast = tLast;
-      rLast = r;
-      tLast = t;
+    // Modified syndrome: erasure locator times S(x), mod x^numECCodewords
+    int[] r = buffers.r;
+    int[] rLast = buffers.rLast;
+    Arrays.fill(rLast, 0, numECCodewords + 1, 0);
+    rLast[numECCodewords] = 1;
+    int rLastDegree = numECCodewords;
+    int rDegree = -1;
+    for (int k = 0; k < numECCodewords; k++) {
+      int sum = 0;
+      for (int i = 0; i <= Math.min(k, numErasures); i++) {
+        sum = field.add(sum, field.multiply(erasureLocator[i], syndromes[k - i]));
+      }
+      r[k] = sum;
+      if (sum != 0) {
+        rDegree = k;
+      }
+    }
+    r[numECCodewords] = 0;
 
-      // Divide rLastLast by rLast, with quotient in q and remainder in r
-      if (rLast.isZero()) {
+    // Euclidean algorithm, with remainders in r and rLast and the matching multipliers in t and tLast
+    int[] t = buffers.t;
+    int[] tLast = buffers.tLast;
+    Arrays.fill(t, 0, numECCodewords + 1, 0);
+    Arrays.fill(tLast, 0, numECCodewords + 1, 0);
+    t[0] = 1;
+    int tDegree = 0;
+    int tLastDegree = -1;
+    // Run until r's degree is less than (numECCodewords + numErasures) / 2
+    while (2 * rDegree >= numECCodewords + numErasures) {
+      // Divide rLast by r in place, leaving the remainder in rLast, and take quotient * t from tLast
+      int dltInverse = field.inverse(r[rDegree]);
+      while (rLastDegree >= rDegree) {
+        int degreeDiff = rLastDegree - rDegree;
+        int scale = field.multiply(rLast[rLastDegree], dltInverse);
+        for (int i = 0; i <= rDegree; i++) {
+          rLast[i + degreeDiff] = field.subtract(rLast[i + degreeDiff], field.multiply(scale, r[i]));
+        }
+        while (rLastDegree >= 0 && rLast[rLastDegree] == 0) {
+          rLastDegree--;
+        }
+        for (int i = 0; i <= tDegree; i++) {
+          tLast[i + degreeDiff] = field.subtract(tLast[i + degreeDiff], field.multiply(scale, t[i]));
+        }
+        tLastDegree = Math.max(tLastDegree, tDegree + degreeDiff);
+      }
+      while (tLastDegree >= 0 && tLast[tLastDegree] == 0) {
+        tLastDegree--;
+      }
+      if (rLastDegree < 0 || tLastDegree < 0) {
         // Oops, Euclidean algorithm already terminated?
         throw ChecksumException.getChecksumInstance();
       }
-      r = rLastLast;
-      ModulusPoly q = field.getZero();
-      int denominatorLeadingTerm = rLast.getCoefficient(rLast.getDegree());
-      int dltInverse = field.inverse(denominatorLeadingTerm);
-      while (r.getDegree() >= rLast.getDegree() && !r.isZero()) {
-        int degreeDiff = r.getDegree() - rLast.getDegree();
-        int scale = field.multiply(r.getCoefficient(r.getDegree()), dltInverse);
-        q = q.add(field.buildMonomial(degreeDiff, scale));
-        r = r.subtract(rLast.multiplyByMonomial(degreeDiff, scale));
-      }
 
-      t = q.multiply(tLast).subtract(tLastLast).negative();
+      int[] temp = rLast;
+      rLast = r;
+      r = temp;
+      int tempDegree = rLastDegree;
+      rLastDegree = rDegree;
+      rDegree = tempDegree;
+      temp = tLast;
+      tLast = t;
+      t = temp;
+      tempDegree = tLastDegree;
+      tLastDegree = tDegree;
+      tDegree = tempDegree;
     }
 
-    int sigmaTildeAtZero = t.getCoefficient(0);
-    if (sigmaTildeAtZero == 0) {
+    // t is the error locator, r the error evaluator, once scaled so that t(0) == 1
+    int sigmaTildeAtZero = t[0];
+    if (sigmaTildeAtZero == 0 || 2 * tDegree + numErasures > numECCodewords) {
       throw ChecksumException.getChecksumInstance();
     }
-
     int inverse = field.inverse(sigmaTildeAtZero);
-    ModulusPoly sigma = t.multiply(inverse);
-    ModulusPoly omega = r.multiply(inverse);
-    return new ModulusPoly[]{sigma, omega};
+    for (int i = 0; i <= tDegree; i++) {
+      t[i] = field.multiply(t[i], inverse);
+    }
+    for (int i = 0; i <= rDegree; i++) {
+      r[i] = field.multiply(r[i], inverse);
+    }
+
+    // Error locations by Chien's search over the positions in "received", as powers of a
+    int[] locations = buffers.locations;
+    int numErrors = findErrorLocations(t, tDegree, received.length, locations);
+    for (int e = 0; e < numErasures; e++) {
+      locations[numErrors + e] = received.length - 1 - erasures[e];
+    }
+
+    // Full locator, errors times erasures, and its formal derivative
+    int[] locator = buffers.locator;
+    int locatorDegree = tDegree + numErasures;
+    Arrays.fill(locator, 0, locatorDegree + 1, 0);
+    for (int i = 0; i <= tDegree; i++) {
+      for (int j = 0; j <= numErasures; j++) {
+        locator[i + j] = field.add(locator[i + j], field.multiply(t[i], erasureLocator[j]));
+      }
+    }
+    for (int i = 1; i <= locatorDegree; i++) {
+      locator[i - 1] = field.multiply(i % field.getSize(), locator[i]);
+    }
+
+    // This is directly applying Forney's Formula
+    int numCorrections = numErrors + numErasures;
+    for (int i = 0; i < numCorrections; i++) {
+      int xiInverse = field.inverse(field.exp(locations[i]));
+      int denominator = evaluateAt(locator, locatorDegree - 1, xiInverse);
+      if (denominator == 0) {
+        throw ChecksumException.getChecksumInstance();
+      }
+      int numerator = field.subtract(0, evaluateAt(r, rDegree, xiInverse));
+      int position = received.length - 1 - locations[i];
+      received[position] =
+          field.subtract(received[position], field.multiply(numerator, field.inverse(denominator)));
+    }
+    return numCorrections;
+  }
+
+  private int evaluateAt(int[] coefficients, int degree, int a) {
+    int result = 0;
+    for (int i = degree; i >= 0; i--) {
+      result = field.add(field.multiply(a, result), coefficients[i]);
+    }
+    return result;
   }
 
-  private int[] findErrorLocations(ModulusPoly errorLocator) throws ChecksumException {
-    // This is a direct application of Chien's search
-    int numErrors = errorLocator.getDegree();
-    int[] result = new int[numErrors];
+  /**
+   * Chien's search, only at the points that correspond to a position in the received codewords.
+   *
+   * @return number of roots found, whose locations are stored in "locations" as powers of a
+   * @throws ChecksumException unless the number of roots is the locator's degree
+   */
+  private int findErrorLocations(int[] errorLocator, int degree, int numReceived, int[] locations)
+      throws ChecksumException {
+    int numLocations = Math.min(numReceived, field.getSize() - 1);
     int e = 0;
-    for (int i = 1; i < field.getSize() && e < numErrors; i++) {
-      if (errorLocator.evaluateAt(i) == 0) {
-        result[e] = field.inverse(i);
+    for (int location = 0; location < numLocations && e < degree; location++) {
+      if (evaluateAt(errorLocator, degree, field.inverse(field.exp(location))) == 0) {
+        locations[e] = location;
         e++;
       }
     }
-    if (e != numErrors) {
+    if (e != degree) {
       throw ChecksumException.getChecksumInstance();
     }
-    return result;
+    return e;
   }
 
-  private int[] findErrorMagnitudes(ModulusPoly errorEvaluator,
-                                    ModulusPoly errorLocator,
-                                    int[] errorLocations) {
-    int errorLocatorDegree = errorLocator.getDegree();
-    int[] formalDerivativeCoefficients = new int[errorLocatorDegree];
-    for (int i = 1; i <= errorLocatorDegree; i++) {
-      formalDerivativeCoefficients[errorLocatorDegree - i] =
-          field.multiply(i, errorLocator.getCoefficient(i));
-    }
-    ModulusPoly formalDerivative = new ModulusPoly(field, formalDerivativeCoefficients);
+  /**
+   * Coefficient buffers for one thread, grown to the largest number of error correction codewords seen.
+   */
+  private static final class Buffers {
 
-    // This is directly applying Forney's Formula
-    int s = errorLocations.length;
-    int[] result = new int[s];
-    for (int i = 0; i < s; i++) {
-      int xiInverse = field.inverse(errorLocations[i]);
-      int numerator = field.subtract(0, errorEvaluator.evaluateAt(xiInverse));
-      int denominator = field.inverse(formalDerivative.evaluateAt(xiInverse));
-      result[i] = field.multiply(numerator, denominator);
+    int[] syndromes = new int[0];
+    int[] erasureLocator = new int[1];
+    int[] r = new int[1];
+    int[] rLast = new int[1];
+    int[] t = new int[1];
+    int[] tLast = new int[1];
+    int[] locator = new int[1];
+    int[] locations = new int[0];
+
+    void ensureCapacity(int numECCodewords) {
+      if (syndromes.length < numECCodewords) {
+        syndromes = new int[numECCodewords];
+        erasureLocator = new int[numECCodewords + 1];
+        r = new int[numECCodewords + 1];
+        rLast = new int[numECCodewords + 1];
+        t = new int[numECCodewords + 1];
+        tLast = new int[numECCodewords + 1];
+        locator = new int[numECCodewords + 1];
+        locations = new int[numECCodewords];
+      }
     }
-    return result;
+
   }
+
 }
@@ -28,18 +28,17 @@ public final class ModulusGF {
 
   public static final ModulusGF PDF417_GF = new ModulusGF(PDF417Common.NUMBER_OF_CODEWORDS, 3);
 
+  // Powers of the generator, over two periods so that a product's logs can be added without reducing them
   private final int[] expTable;
   private final int[] logTable;
-  private final ModulusPoly zero;
-  private final ModulusPoly one;
   private final int modulus;
 
   private ModulusGF(int modulus, int generator) {
     this.modulus = modulus;
-    expTable = new int[modulus];
+    expTable = new int[2 * (modulus - 1)];
     logTable = new int[modulus];
     int x = 1;
-    for (int i = 0; i < modulus; i++) {
+    for (int i = 0; i < expTable.length; i++) {
       expTable[i] = x;
       x = (x * generator) % modulus;
     }
@@ -47,29 +46,6 @@ public final class ModulusGF {
       logTable[expTable[i]] = i;
     }
     // logTable[0] == 0 but this should never be used
-    zero = new ModulusPoly(this, new int[]{0});
-    one = new ModulusPoly(this, new int[]{1});
-  }
-
-
-  ModulusPoly getZero() {
-    return zero;
-  }
-
-  ModulusPoly getOne() {
-    return one;
-  }
-
-  ModulusPoly buildMonomial(int degree, int coefficient) {
-    if (degree < 0) {
-      throw new IllegalArgumentException();
-    }
-    if (coefficient == 0) {
-      return zero;
-    }
-    int[] coefficients = new int[degree + 1];
-    coefficients[0] = coefficient;
-    return new ModulusPoly(this, coefficients);
   }
 
   int add(int a, int b) {
@@ -102,7 +78,21 @@ public final class ModulusGF {
     if (a == 0 || b == 0) {
       return 0;
     }
-    return expTable[(logTable[a] + logTable[b]) % (modulus - 1)];
+    return expTable[logTable[a] + logTable[b]];
+  }
+
+  /**
+   * @param coefficients polynomial coefficients, highest degree first
+   * @param power log of the point to evaluate at
+   * @return evaluation of the polynomial at exp(power)
+   */
+  int evaluateAtPower(int[] coefficients, int power) {
+    int result = 0;
+    for (int coefficient : coefficients) {
+      // result * a + coefficient, with a's log added to result's directly
+      result = (result == 0 ? coefficient : expTable[logTable[result] + power] + coefficient) % modulus;
+    }
+    return result;
   }
 
   int getSize() {
@@ -24,7 +24,6 @@ package com.google.zxing.pdf417.encoder;
 public final class BarcodeMatrix {
 
   private final BarcodeRow[] matrix;
-  private int currentRow;
   private final int height;
   private final int width;
 
@@ -40,7 +39,6 @@ public final class BarcodeMatrix {
     }
     this.width = width * 17;
     this.height = height;
-    this.currentRow = -1;
   }
 
   void set(int x, int y, byte value) {
@@ -53,14 +51,6 @@ public final class BarcodeMatrix {
   }
    */
 
-  void startRow() {
-    ++currentRow;
-  }
-
-  BarcodeRow getCurrentRow() {
-    return matrix[currentRow];
-  }
-
   public byte[][] getMatrix() {
     return getScaledMatrix(1, 1);
   }
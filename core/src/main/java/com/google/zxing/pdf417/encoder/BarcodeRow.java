@@ -22,15 +22,12 @@ package com.google.zxing.pdf417.encoder;
 final class BarcodeRow {
 
   private final byte[] row;
-  //A tacker for position in the bar
-  private int currentLocation;
 
   /**
    * Creates a Barcode row of the width
    */
   BarcodeRow(int width) {
     this.row = new byte[width];
-    currentLocation = 0;
   }
 
   /**
@@ -43,26 +40,6 @@ final class BarcodeRow {
     row[x] = value;
   }
 
-  /**
-   * Sets a specific location in the bar
-   *
-   * @param x The location in the bar
-   * @param black Black if true, white if false;
-   */
-  private void set(int x, boolean black) {
-    row[x] = (byte) (black ? 1 : 0);
-  }
-
-  /**
-   * @param black A boolean which is true if the bar black false if it is white
-   * @param width How many spots wide the bar is.
-   */
-  void addBar(boolean black, int width) {
-    for (int ii = 0; ii < width; ii++) {
-      set(currentLocation++, black);
-    }
-  }
-
   /*
   byte[] getRow() {
     return row;
@@ -21,8 +21,11 @@
 package com.google.zxing.pdf417.encoder;
 
 import com.google.zxing.WriterException;
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.BitMatrix;
 
 import java.nio.charset.Charset;
+import java.util.Arrays;
 
 /**
  * Top-level class for the logic part of the PDF417 implementation.
@@ -512,6 +515,9 @@ public final class PDF417 {
   private static final float DEFAULT_MODULE_WIDTH = 0.357f; //1px in mm
   private static final float HEIGHT = 2.0f; //mm
 
+  // Modules of each row, black as set bits. Rows of a compact symbol are shorter than the row width.
+  private BitArray[] moduleRows;
+  private int columns;
   private BarcodeMatrix barcodeMatrix;
   private boolean compact;
   private Compaction compaction;
@@ -536,9 +542,96 @@ public final class PDF417 {
   }
 
   public BarcodeMatrix getBarcodeMatrix() {
+    if (barcodeMatrix == null && moduleRows != null) {
+      BarcodeMatrix matrix = new BarcodeMatrix(moduleRows.length, columns);
+      for (int y = 0; y < moduleRows.length; y++) {
+        BitArray row = moduleRows[y];
+        for (int x = row.getNextSet(0); x < row.getSize(); x = row.getNextSet(x + 1)) {
+          matrix.set(x, y, (byte) 1);
+        }
+      }
+      barcodeMatrix = matrix;
+    }
     return barcodeMatrix;
   }
 
+  /**
+   * @return number of rows of the last generated symbol
+   * @throws IllegalStateException if no symbol has been generated yet
+   */
+  public int getNumberOfRows() {
+    checkGenerated();
+    return moduleRows.length;
+  }
+
+  /**
+   * @return width in modules of a row of the last generated symbol, including start and stop patterns
+   *  and, for a compact symbol, the room the right row indicator and full stop pattern would take
+   * @throws IllegalStateException if no symbol has been generated yet
+   */
+  public int getRowWidth() {
+    checkGenerated();
+    return (columns + 4) * 17 + 1;
+  }
+
+  private void checkGenerated() {
+    if (moduleRows == null) {
+      throw new IllegalStateException("No symbol generated yet; call generateBarcodeLogic first");
+    }
+  }
+
+  /**
+   * Renders the last generated symbol, without an intermediate byte matrix.
+   *
+   * @param moduleWidth width of a module in pixels
+   * @param rowHeight height of a row in pixels
+   * @param rotate if true, the symbol is turned 90 degrees clockwise so that its rows run top to bottom
+   * @param margin white space around the symbol in pixels
+   * @return the symbol, with set bits for black modules
+   * @throws IllegalStateException if no symbol has been generated yet
+   */
+  public BitMatrix renderBitMatrix(int moduleWidth, int rowHeight, boolean rotate, int margin) {
+    int symbolWidth = getRowWidth() * moduleWidth;
+    int symbolHeight = moduleRows.length * rowHeight;
+    if (!rotate) {
+      BitMatrix output = new BitMatrix(symbolWidth + 2 * margin, symbolHeight + 2 * margin);
+      BitArray line = new BitArray(output.getWidth());
+      for (int y = 0; y < moduleRows.length; y++) {
+        BitArray row = moduleRows[y];
+        line.clear();
+        int size = row.getSize();
+        int start = row.getNextSet(0);
+        while (start < size) {
+          int end = row.getNextUnset(start);
+          line.setRange(margin + start * moduleWidth, margin + end * moduleWidth);
+          start = row.getNextSet(end);
+        }
+        for (int i = 0, top = margin + y * rowHeight; i < rowHeight; i++) {
+          output.setRow(top + i, line);
+        }
+      }
+      return output;
+    }
+
+    // Symbol rows become columns, left to right, and modules run from the bottom up
+    BitMatrix output = new BitMatrix(symbolHeight + 2 * margin, symbolWidth + 2 * margin);
+    BitArray line = new BitArray(output.getWidth());
+    int bottom = output.getHeight() - margin - 1;
+    for (int x = 0, rowWidth = getRowWidth(); x < rowWidth; x++) {
+      line.clear();
+      for (int y = 0; y < moduleRows.length; y++) {
+        BitArray row = moduleRows[y];
+        if (x < row.getSize() && row.get(x)) {
+          line.setRange(margin + y * rowHeight, margin + (y + 1) * rowHeight);
+        }
+      }
+      for (int i = 0, outputY = bottom - x * moduleWidth; i < moduleWidth; i++) {
+        output.setRow(outputY - i, line);
+      }
+    }
+    return output;
+  }
+
   /**
    * Calculates the necessary number of rows as described in annex Q of ISO/IEC 15438:2001(E).
    *
@@ -573,36 +666,17 @@ public final class PDF417 {
     return n > m + 1 ? n - m - 1 : 0;
   }
 
-  private static void encodeChar(int pattern, int len, BarcodeRow logic) {
-    int map = 1 << len - 1;
-    boolean last = (pattern & map) != 0; //Initialize to inverse of first bit
-    int width = 0;
-    for (int i = 0; i < len; i++) {
-      boolean black = (pattern & map) != 0;
-      if (last == black) {
-        width++;
-      } else {
-        logic.addBar(last, width);
-
-        last = black;
-        width = 1;
-      }
-      map >>= 1;
-    }
-    logic.addBar(last, width);
-  }
-
-  private void encodeLowLevel(CharSequence fullCodewords,
-                              int c,
-                              int r,
-                              int errorCorrectionLevel,
-                              BarcodeMatrix logic) {
+  private BitArray[] encodeLowLevel(int[] fullCodewords,
+                                    int c,
+                                    int r,
+                                    int errorCorrectionLevel) {
 
+    BitArray[] rows = new BitArray[r];
     int idx = 0;
     for (int y = 0; y < r; y++) {
       int cluster = y % 3;
-      logic.startRow();
-      encodeChar(START_PATTERN, 17, logic.getCurrentRow());
+      BitArray row = new BitArray();
+      row.appendBits(START_PATTERN, 17);
 
       int left;
       int right;
@@ -617,24 +691,24 @@ public final class PDF417 {
         right = (30 * (y / 3)) + (errorCorrectionLevel * 3) + ((r - 1) % 3);
       }
 
-      int pattern = CODEWORD_TABLE[cluster][left];
-      encodeChar(pattern, 17, logic.getCurrentRow());
+      int[] codewordTable = CODEWORD_TABLE[cluster];
+      row.appendBits(codewordTable[left], 17);
 
       for (int x = 0; x < c; x++) {
-        pattern = CODEWORD_TABLE[cluster][fullCodewords.charAt(idx)];
-        encodeChar(pattern, 17, logic.getCurrentRow());
+        row.appendBits(codewordTable[fullCodewords[idx]], 17);
         idx++;
       }
 
       if (compact) {
-        encodeChar(STOP_PATTERN, 1, logic.getCurrentRow()); // encodes stop line for compact pdf417
+        row.appendBits(STOP_PATTERN, 1); // encodes stop line for compact pdf417
       } else {
-        pattern = CODEWORD_TABLE[cluster][right];
-        encodeChar(pattern, 17, logic.getCurrentRow());
+        row.appendBits(codewordTable[right], 17);
 
-        encodeChar(STOP_PATTERN, 18, logic.getCurrentRow());
+        row.appendBits(STOP_PATTERN, 18);
       }
+      rows[y] = row;
     }
+    return rows;
   }
 
   /**
@@ -646,8 +720,8 @@ public final class PDF417 {
 
     //1. step: High-level encoding
     int errorCorrectionCodeWords = PDF417ErrorCorrection.getErrorCorrectionCodewordCount(errorCorrectionLevel);
-    String highLevel = PDF417HighLevelEncoder.encodeHighLevel(msg, compaction, encoding);
-    int sourceCodeWords = highLevel.length();
+    int[] highLevel = PDF417HighLevelEncoder.encodeHighLevel(msg, compaction, encoding);
+    int sourceCodeWords = highLevel.length;
 
     int[] dimension = determineDimensions(sourceCodeWords, errorCorrectionCodeWords);
 
@@ -662,20 +736,18 @@ public final class PDF417 {
           "Encoded message contains too many code words, message too big (" + msg.length() + " bytes)");
     }
     int n = sourceCodeWords + pad + 1;
-    StringBuilder sb = new StringBuilder(n);
-    sb.append((char) n);
-    sb.append(highLevel);
-    for (int i = 0; i < pad; i++) {
-      sb.append((char) 900); //PAD characters
-    }
-    String dataCodewords = sb.toString();
+    int[] codewords = new int[n + errorCorrectionCodeWords];
+    codewords[0] = n;
+    System.arraycopy(highLevel, 0, codewords, 1, sourceCodeWords);
+    Arrays.fill(codewords, sourceCodeWords + 1, n, 900); //PAD characters
 
     //3. step: Error correction
-    String ec = PDF417ErrorCorrection.generateErrorCorrection(dataCodewords, errorCorrectionLevel);
+    PDF417ErrorCorrection.generateErrorCorrection(codewords, n, errorCorrectionLevel);
 
     //4. step: low-level encoding
-    barcodeMatrix = new BarcodeMatrix(rows, cols);
-    encodeLowLevel(dataCodewords + ec, cols, rows, errorCorrectionLevel, barcodeMatrix);
+    moduleRows = encodeLowLevel(codewords, cols, rows, errorCorrectionLevel);
+    columns = cols;
+    barcodeMatrix = null;
   }
 
   /**
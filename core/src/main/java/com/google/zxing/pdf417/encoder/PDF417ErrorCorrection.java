@@ -170,35 +170,26 @@ final class PDF417ErrorCorrection {
   /**
    * Generates the error correction codewords according to 4.10 in ISO/IEC 15438:2001(E).
    *
-   * @param dataCodewords        the data codewords
+   * @param codewords            the data codewords, followed by room for the error correction codewords
+   * @param numDataCodewords     the number of data codewords
    * @param errorCorrectionLevel the error correction level (0-8)
-   * @return the String representing the error correction codewords
    */
-  static String generateErrorCorrection(CharSequence dataCodewords, int errorCorrectionLevel) {
+  static void generateErrorCorrection(int[] codewords, int numDataCodewords, int errorCorrectionLevel) {
     int k = getErrorCorrectionCodewordCount(errorCorrectionLevel);
-    char[] e = new char[k];
-    int sld = dataCodewords.length();
-    for (int i = 0; i < sld; i++) {
-      int t1 = (dataCodewords.charAt(i) + e[e.length - 1]) % 929;
-      int t2;
-      int t3;
+    int[] coefficients = EC_COEFFICIENTS[errorCorrectionLevel];
+    int[] e = new int[k];
+    for (int i = 0; i < numDataCodewords; i++) {
+      int t1 = (codewords[i] + e[k - 1]) % 929;
       for (int j = k - 1; j >= 1; j--) {
-        t2 = (t1 * EC_COEFFICIENTS[errorCorrectionLevel][j]) % 929;
-        t3 = 929 - t2;
-        e[j] = (char) ((e[j - 1] + t3) % 929);
+        int t3 = 929 - (t1 * coefficients[j]) % 929;
+        e[j] = (e[j - 1] + t3) % 929;
       }
-      t2 = (t1 * EC_COEFFICIENTS[errorCorrectionLevel][0]) % 929;
-      t3 = 929 - t2;
-      e[0] = (char) (t3 % 929);
+      int t3 = 929 - (t1 * coefficients[0]) % 929;
+      e[0] = t3 % 929;
     }
-    StringBuilder sb = new StringBuilder(k);
-    for (int j = k - 1; j >= 0; j--) {
-      if (e[j] != 0) {
-        e[j] = (char) (929 - e[j]);
-      }
-      sb.append(e[j]);
+    for (int j = k - 1, offset = numDataCodewords; j >= 0; j--, offset++) {
+      codewords[offset] = e[j] == 0 ? 0 : 929 - e[j];
     }
-    return sb.toString();
   }
 
 }
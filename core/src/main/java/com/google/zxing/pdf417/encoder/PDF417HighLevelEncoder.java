@@ -23,7 +23,6 @@ package com.google.zxing.pdf417.encoder;
 import com.google.zxing.WriterException;
 import com.google.zxing.common.CharacterSetECI;
 
-import java.math.BigInteger;
 import java.nio.charset.Charset;
 import java.nio.charset.CharsetEncoder;
 import java.nio.charset.StandardCharsets;
@@ -159,12 +158,11 @@ final class PDF417HighLevelEncoder {
    * @param compaction compaction mode to use
    * @param encoding character encoding used to encode in default or byte compaction
    *  or {@code null} for default / not applicable
-   * @return the encoded message (the char values range from 0 to 928)
+   * @return the encoded message (the codewords range from 0 to 928)
    */
-  static String encodeHighLevel(String msg, Compaction compaction, Charset encoding) throws WriterException {
+  static int[] encodeHighLevel(String msg, Compaction compaction, Charset encoding) throws WriterException {
 
-    //the codewords 0..928 are encoded as Unicode characters
-    StringBuilder sb = new StringBuilder(msg.length());
+    CodewordBuffer sb = new CodewordBuffer(msg.length());
 
     if (encoding == null) {
       encoding = DEFAULT_ENCODING;
@@ -189,7 +187,7 @@ final class PDF417HighLevelEncoder {
         encodeBinary(msgBytes, p, msgBytes.length, BYTE_COMPACTION, sb);
         break;
       case NUMERIC:
-        sb.append((char) LATCH_TO_NUMERIC);
+        sb.append(LATCH_TO_NUMERIC);
         encodeNumeric(msg, p, len, sb);
         break;
       default:
@@ -197,7 +195,7 @@ final class PDF417HighLevelEncoder {
         while (p < len) {
           int n = determineConsecutiveDigitCount(msg, p);
           if (n >= 13) {
-            sb.append((char) LATCH_TO_NUMERIC);
+            sb.append(LATCH_TO_NUMERIC);
             encodingMode = NUMERIC_COMPACTION;
             textSubMode = SUBMODE_ALPHA; //Reset after latch
             encodeNumeric(msg, p, n, sb);
@@ -206,7 +204,7 @@ final class PDF417HighLevelEncoder {
             int t = determineConsecutiveTextCount(msg, p);
             if (t >= 5 || n == len) {
               if (encodingMode != TEXT_COMPACTION) {
-                sb.append((char) LATCH_TO_TEXT);
+                sb.append(LATCH_TO_TEXT);
                 encodingMode = TEXT_COMPACTION;
                 textSubMode = SUBMODE_ALPHA; //start with submode alpha after latch
               }
@@ -234,7 +232,7 @@ final class PDF417HighLevelEncoder {
         break;
     }
 
-    return sb.toString();
+    return sb.toArray();
   }
 
   /**
@@ -251,9 +249,11 @@ final class PDF417HighLevelEncoder {
   private static int encodeText(CharSequence msg,
                                 int startpos,
                                 int count,
-                                StringBuilder sb,
+                                CodewordBuffer sb,
                                 int initialSubmode) {
-    StringBuilder tmp = new StringBuilder(count);
+    // Each character takes at most a latch, a shift and its value
+    int[] tmp = new int[count * 3];
+    int len = 0;
     int submode = initialSubmode;
     int idx = 0;
     while (true) {
@@ -262,22 +262,22 @@ final class PDF417HighLevelEncoder {
         case SUBMODE_ALPHA:
           if (isAlphaUpper(ch)) {
             if (ch == ' ') {
-              tmp.append((char) 26); //space
+              tmp[len++] = 26; //space
             } else {
-              tmp.append((char) (ch - 65));
+              tmp[len++] = ch - 65;
             }
           } else {
             if (isAlphaLower(ch)) {
               submode = SUBMODE_LOWER;
-              tmp.append((char) 27); //ll
+              tmp[len++] = 27; //ll
               continue;
             } else if (isMixed(ch)) {
               submode = SUBMODE_MIXED;
-              tmp.append((char) 28); //ml
+              tmp[len++] = 28; //ml
               continue;
             } else {
-              tmp.append((char) 29); //ps
-              tmp.append((char) PUNCTUATION[ch]);
+              tmp[len++] = 29; //ps
+              tmp[len++] = PUNCTUATION[ch];
               break;
             }
           }
@@ -285,59 +285,59 @@ final class PDF417HighLevelEncoder {
         case SUBMODE_LOWER:
           if (isAlphaLower(ch)) {
             if (ch == ' ') {
-              tmp.append((char) 26); //space
+              tmp[len++] = 26; //space
             } else {
-              tmp.append((char) (ch - 97));
+              tmp[len++] = ch - 97;
             }
           } else {
             if (isAlphaUpper(ch)) {
-              tmp.append((char) 27); //as
-              tmp.append((char) (ch - 65));
+              tmp[len++] = 27; //as
+              tmp[len++] = ch - 65;
               //space cannot happen here, it is also in "Lower"
               break;
             } else if (isMixed(ch)) {
               submode = SUBMODE_MIXED;
-              tmp.append((char) 28); //ml
+              tmp[len++] = 28; //ml
               continue;
             } else {
-              tmp.append((char) 29); //ps
-              tmp.append((char) PUNCTUATION[ch]);
+              tmp[len++] = 29; //ps
+              tmp[len++] = PUNCTUATION[ch];
               break;
             }
           }
           break;
         case SUBMODE_MIXED:
           if (isMixed(ch)) {
-            tmp.append((char) MIXED[ch]);
+            tmp[len++] = MIXED[ch];
           } else {
             if (isAlphaUpper(ch)) {
               submode = SUBMODE_ALPHA;
-              tmp.append((char) 28); //al
+              tmp[len++] = 28; //al
               continue;
             } else if (isAlphaLower(ch)) {
               submode = SUBMODE_LOWER;
-              tmp.append((char) 27); //ll
+              tmp[len++] = 27; //ll
               continue;
             } else {
               if (startpos + idx + 1 < count) {
                 char next = msg.charAt(startpos + idx + 1);
                 if (isPunctuation(next)) {
                   submode = SUBMODE_PUNCTUATION;
-                  tmp.append((char) 25); //pl
+                  tmp[len++] = 25; //pl
                   continue;
                 }
               }
-              tmp.append((char) 29); //ps
-              tmp.append((char) PUNCTUATION[ch]);
+              tmp[len++] = 29; //ps
+              tmp[len++] = PUNCTUATION[ch];
             }
           }
           break;
         default: //SUBMODE_PUNCTUATION
           if (isPunctuation(ch)) {
-            tmp.append((char) PUNCTUATION[ch]);
+            tmp[len++] = PUNCTUATION[ch];
           } else {
             submode = SUBMODE_ALPHA;
-            tmp.append((char) 29); //al
+            tmp[len++] = 29; //al
             continue;
           }
       }
@@ -346,19 +346,11 @@ final class PDF417HighLevelEncoder {
         break;
       }
     }
-    char h = 0;
-    int len = tmp.length();
-    for (int i = 0; i < len; i++) {
-      boolean odd = (i % 2) != 0;
-      if (odd) {
-        h = (char) ((h * 30) + tmp.charAt(i));
-        sb.append(h);
-      } else {
-        h = tmp.charAt(i);
-      }
+    for (int i = 0; i + 1 < len; i += 2) {
+      sb.append(tmp[i] * 30 + tmp[i + 1]);
     }
     if ((len % 2) != 0) {
-      sb.append((char) ((h * 30) + 29)); //ps
+      sb.append(tmp[len - 1] * 30 + 29); //ps
     }
     return submode;
   }
@@ -378,21 +370,21 @@ final class PDF417HighLevelEncoder {
                                    int startpos,
                                    int count,
                                    int startmode,
-                                   StringBuilder sb) {
+                                   CodewordBuffer sb) {
     if (count == 1 && startmode == TEXT_COMPACTION) {
-      sb.append((char) SHIFT_TO_BYTE);
+      sb.append(SHIFT_TO_BYTE);
     } else {
       if ((count % 6) == 0) {
-        sb.append((char) LATCH_TO_BYTE);
+        sb.append(LATCH_TO_BYTE);
       } else {
-        sb.append((char) LATCH_TO_BYTE_PADDED);
+        sb.append(LATCH_TO_BYTE_PADDED);
       }
     }
 
     int idx = startpos;
     // Encode sixpacks
     if (count >= 6) {
-      char[] chars = new char[5];
+      int[] chars = new int[5];
       while ((startpos + count - idx) >= 6) {
         long t = 0;
         for (int i = 0; i < 6; i++) {
@@ -400,7 +392,7 @@ final class PDF417HighLevelEncoder {
           t += bytes[idx + i] & 0xff;
         }
         for (int i = 0; i < 5; i++) {
-          chars[i] = (char) (t % 900);
+          chars[i] = (int) (t % 900);
           t /= 900;
         }
         for (int i = chars.length - 1; i >= 0; i--) {
@@ -412,34 +404,55 @@ final class PDF417HighLevelEncoder {
     //Encode rest (remaining n<5 bytes if any)
     for (int i = idx; i < startpos + count; i++) {
       int ch = bytes[i] & 0xff;
-      sb.append((char) ch);
+      sb.append(ch);
     }
   }
 
-  private static void encodeNumeric(String msg, int startpos, int count, StringBuilder sb) {
+  /**
+   * Encode parts of the message using Numeric Compaction as described in ISO/IEC 15438:2001(E),
+   * chapter 4.4.4. Each group of up to 44 digits, with a leading 1, is converted to base 900
+   * directly in int limbs, 3 digits at a time.
+   */
+  private static void encodeNumeric(String msg, int startpos, int count, CodewordBuffer sb)
+      throws WriterException {
+    // Base 900 digits of a group, least significant first; 10^45 < 900^16
+    int[] base900 = new int[16];
     int idx = 0;
-    StringBuilder tmp = new StringBuilder(count / 3 + 1);
-    BigInteger num900 = BigInteger.valueOf(900);
-    BigInteger num0 = BigInteger.valueOf(0);
     while (idx < count) {
-      tmp.setLength(0);
       int len = Math.min(44, count - idx);
-      String part = '1' + msg.substring(startpos + idx, startpos + idx + len);
-      BigInteger bigint = new BigInteger(part);
-      do {
-        tmp.append((char) bigint.mod(num900).intValue());
-        bigint = bigint.divide(num900);
-      } while (!bigint.equals(num0));
-
-      //Reverse temporary string
-      for (int i = tmp.length() - 1; i >= 0; i--) {
-        sb.append(tmp.charAt(i));
+      base900[0] = 1;
+      int numDigits = 1;
+      int pos = startpos + idx;
+      int end = pos + len;
+      while (pos < end) {
+        int chunk = Math.min(3, end - pos);
+        int multiplier = chunk == 3 ? 1000 : chunk == 2 ? 100 : 10;
+        int carry = 0;
+        for (int i = pos; i < pos + chunk; i++) {
+          char ch = msg.charAt(i);
+          if (!isDigit(ch)) {
+            throw new WriterException("Non-numeric character detected: " + ch + " (Unicode: " + (int) ch + ')');
+          }
+          carry = carry * 10 + ch - '0';
+        }
+        for (int i = 0; i < numDigits; i++) {
+          int value = base900[i] * multiplier + carry;
+          base900[i] = value % 900;
+          carry = value / 900;
+        }
+        while (carry > 0) {
+          base900[numDigits++] = carry % 900;
+          carry /= 900;
+        }
+        pos += chunk;
+      }
+      for (int i = numDigits - 1; i >= 0; i--) {
+        sb.append(base900[i]);
       }
       idx += len;
     }
   }
 
-
   private static boolean isDigit(char ch) {
     return ch >= '0' && ch <= '9';
   }
@@ -565,20 +578,45 @@ final class PDF417HighLevelEncoder {
     return idx - startpos;
   }
 
-  private static void encodingECI(int eci, StringBuilder sb) throws WriterException {
+  private static void encodingECI(int eci, CodewordBuffer sb) throws WriterException {
     if (eci >= 0 && eci < 900) {
-      sb.append((char) ECI_CHARSET);
-      sb.append((char) eci);
+      sb.append(ECI_CHARSET);
+      sb.append(eci);
     } else if (eci < 810900) {
-      sb.append((char) ECI_GENERAL_PURPOSE);
-      sb.append((char) (eci / 900 - 1));
-      sb.append((char) (eci % 900));
+      sb.append(ECI_GENERAL_PURPOSE);
+      sb.append(eci / 900 - 1);
+      sb.append(eci % 900);
     } else if (eci < 811800) {
-      sb.append((char) ECI_USER_DEFINED);
-      sb.append((char) (810900 - eci));
+      sb.append(ECI_USER_DEFINED);
+      sb.append(810900 - eci);
     } else {
       throw new WriterException("ECI number not in valid range from 0..811799, but was " + eci);
     }
   }
 
+  /**
+   * Growable list of codewords.
+   */
+  private static final class CodewordBuffer {
+
+    private int[] codewords;
+    private int size;
+
+    CodewordBuffer(int capacity) {
+      codewords = new int[Math.max(capacity, 16)];
+    }
+
+    void append(int codeword) {
+      if (size == codewords.length) {
+        codewords = Arrays.copyOf(codewords, size * 2);
+      }
+      codewords[size++] = codeword;
+    }
+
+    int[] toArray() {
+      return Arrays.copyOf(codewords, size);
+    }
+
+  }
+
 }
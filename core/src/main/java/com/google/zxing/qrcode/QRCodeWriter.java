@@ -21,6 +21,7 @@ import com.google.zxing.EncodeHintType;
 import com.google.zxing.Writer;
 import com.google.zxing.WriterException;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.ScaledBitMatrix;
 import com.google.zxing.qrcode.encoder.ByteMatrix;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
 import com.google.zxing.qrcode.encoder.Encoder;
@@ -50,6 +51,26 @@ public final class QRCodeWriter implements Writer {
                           int width,
                           int height,
                           Map<EncodeHintType,?> hints) throws WriterException {
+    return encodeScaled(contents, format, width, height, hints).toBitMatrix();
+  }
+
+  /**
+   * Like {@link #encode(String, BarcodeFormat, int, int, Map)}, but only works out the modules, leaving
+   * them to be scaled up to the requested size as they are read.
+   *
+   * @param contents The contents to encode in the barcode
+   * @param format The barcode format to generate
+   * @param width The preferred width in pixels
+   * @param height The preferred height in pixels
+   * @param hints Additional parameters to supply to the encoder
+   * @return the same image as {@code encode} returns, as a view of the modules
+   * @throws WriterException if contents cannot be encoded legally in a format
+   */
+  public ScaledBitMatrix encodeScaled(String contents,
+                                      BarcodeFormat format,
+                                      int width,
+                                      int height,
+                                      Map<EncodeHintType,?> hints) throws WriterException {
 
     if (contents.isEmpty()) {
       throw new IllegalArgumentException("Found empty contents");
@@ -81,7 +102,7 @@ public final class QRCodeWriter implements Writer {
 
   // Note that the input matrix uses 0 == white, 1 == black, while the output matrix uses
   // 0 == black, 255 == white (i.e. an 8 bit greyscale bitmap).
-  private static BitMatrix renderResult(QRCode code, int width, int height, int quietZone) {
+  private static ScaledBitMatrix renderResult(QRCode code, int width, int height, int quietZone) {
     ByteMatrix input = code.getMatrix();
     if (input == null) {
       throw new IllegalStateException();
@@ -101,18 +122,16 @@ public final class QRCodeWriter implements Writer {
     int leftPadding = (outputWidth - (inputWidth * multiple)) / 2;
     int topPadding = (outputHeight - (inputHeight * multiple)) / 2;
 
-    BitMatrix output = new BitMatrix(outputWidth, outputHeight);
-
-    for (int inputY = 0, outputY = topPadding; inputY < inputHeight; inputY++, outputY += multiple) {
-      // Write the contents of this row of the barcode
-      for (int inputX = 0, outputX = leftPadding; inputX < inputWidth; inputX++, outputX += multiple) {
+    BitMatrix modules = new BitMatrix(inputWidth, inputHeight);
+    for (int inputY = 0; inputY < inputHeight; inputY++) {
+      for (int inputX = 0; inputX < inputWidth; inputX++) {
         if (input.get(inputX, inputY) == 1) {
-          output.setRegion(outputX, outputY, multiple, multiple);
+          modules.set(inputX, inputY);
         }
       }
     }
 
-    return output;
+    return new ScaledBitMatrix(modules, outputWidth, outputHeight, leftPadding, topPadding, multiple, multiple);
   }
 
 }
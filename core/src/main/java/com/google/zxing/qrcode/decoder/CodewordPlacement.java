@@ -0,0 +1,209 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.qrcode.decoder;
+
+import com.google.zxing.common.BitMatrix;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>Precomputed placement of codeword bits for one QR Code {@link Version}, per ISO 18004:2006 7.7.3.
+ * The zigzag walk over the non-function modules is done once per version and kept as a table of
+ * module positions in placement order, so that the encoder and decoder only need to index into
+ * it. Remainder bits (modules left over after the last codeword) are included at the end.</p>
+ *
+ * <p>For each data mask, the mask is also kept as bits in placement order, packed 32 to an
+ * {@code int}, and as a whole-symbol {@link BitMatrix}, so that masking and unmasking become
+ * word-wise XORs.</p>
+ *
+ * <p>Instances are immutable and shared; tables are built lazily the first time a version is
+ * requested.</p>
+ */
+public final class CodewordPlacement {
+
+  private static final int NUM_MASK_PATTERNS = 8;
+
+  private static final AtomicReferenceArray<CodewordPlacement> CACHE = new AtomicReferenceArray<>(40);
+
+  private final int totalCodewords;
+  // Module positions in placement order, packed as x | (y << 8)
+  private final int[] modules;
+  // Per data mask: mask bits in placement order, bit i of the placement at (word i >> 5, bit i & 0x1F)
+  private final int[][] maskBits;
+  // Per data mask: the mask as a full BitMatrix, for unmasking a symbol in place
+  private final BitMatrix[] maskPlanes;
+
+  private CodewordPlacement(Version version) {
+    int dimension = version.getDimensionForVersion();
+    totalCodewords = version.getTotalCodewords();
+
+    BitMatrix functionPattern = version.buildFunctionPattern();
+    int[] walk = new int[dimension * dimension];
+    int numModules = 0;
+    boolean readingUp = true;
+    // Columns in pairs, from right to left, skipping the vertical timing pattern
+    for (int j = dimension - 1; j > 0; j -= 2) {
+      if (j == 6) {
+        j--;
+      }
+      for (int count = 0; count < dimension; count++) {
+        int i = readingUp ? dimension - 1 - count : count;
+        for (int col = 0; col < 2; col++) {
+          int x = j - col;
+          if (!functionPattern.get(x, i)) {
+            walk[numModules++] = x | (i << 8);
+          }
+        }
+      }
+      readingUp ^= true;
+    }
+
+    modules = new int[numModules];
+    System.arraycopy(walk, 0, modules, 0, numModules);
+
+    int numWords = (numModules + 31) >> 5;
+    maskBits = new int[NUM_MASK_PATTERNS][numWords];
+    maskPlanes = new BitMatrix[NUM_MASK_PATTERNS];
+    DataMask[] dataMasks = DataMask.values();
+    for (int mask = 0; mask < NUM_MASK_PATTERNS; mask++) {
+      DataMask dataMask = dataMasks[mask];
+      int[] bits = maskBits[mask];
+      for (int n = 0; n < numModules; n++) {
+        int position = modules[n];
+        if (dataMask.isMasked(position >>> 8, position & 0xFF)) {
+          bits[n >> 5] |= 1 << (n & 0x1F);
+        }
+      }
+      BitMatrix plane = new BitMatrix(dimension);
+      for (int i = 0; i < dimension; i++) {
+        for (int j = 0; j < dimension; j++) {
+          if (dataMask.isMasked(i, j)) {
+            plane.set(j, i);
+          }
+        }
+      }
+      maskPlanes[mask] = plane;
+    }
+  }
+
+  /**
+   * @param version QR Code version
+   * @return the shared placement tables for that version
+   */
+  public static CodewordPlacement forVersion(Version version) {
+    int index = version.getVersionNumber() - 1;
+    CodewordPlacement placement = CACHE.get(index);
+    if (placement == null) {
+      placement = new CodewordPlacement(version);
+      if (!CACHE.compareAndSet(index, null, placement)) {
+        placement = CACHE.get(index);
+      }
+    }
+    return placement;
+  }
+
+  /**
+   * @return number of modules available for codewords and remainder bits
+   */
+  public int getNumDataModules() {
+    return modules.length;
+  }
+
+  /**
+   * @return number of modules after the last codeword, which carry no data
+   */
+  public int getNumRemainderBits() {
+    return modules.length - totalCodewords * 8;
+  }
+
+  /**
+   * Flips every module covered by a data mask, in place. Applying it twice restores the symbol.
+   *
+   * @param bits symbol of this version's dimension
+   * @param maskPattern data mask, 0 to 7
+   */
+  public void unmask(BitMatrix bits, int maskPattern) {
+    bits.xor(maskPlanes[maskPattern]);
+  }
+
+  /**
+   * Reads the codewords of an already unmasked symbol in placement order.
+   *
+   * @param bits unmasked symbol of this version's dimension
+   * @return all codewords of the symbol, data and error correction, as interleaved
+   */
+  public byte[] readCodewords(BitMatrix bits) {
+    int[] modules = this.modules;
+    byte[] result = new byte[totalCodewords];
+    int n = 0;
+    for (int offset = 0; offset < result.length; offset++) {
+      int currentByte = 0;
+      for (int end = n + 8; n < end; n++) {
+        int position = modules[n];
+        currentByte <<= 1;
+        if (bits.get(position & 0xFF, position >>> 8)) {
+          currentByte |= 1;
+        }
+      }
+      result[offset] = (byte) currentByte;
+    }
+    return result;
+  }
+
+  /**
+   * Writes codewords, most-significant bit first, into the data modules of an encoder matrix, applying
+   * a data mask on the way. Modules past the last codeword are filled with remainder bits, which are
+   * 0 before masking.
+   *
+   * @param codewords final codewords, at most as many bits as there are data modules
+   * @param maskPattern data mask, 0 to 7, or -1 to leave the bits unmasked
+   * @param matrix rows of the symbol as 0/1 bytes, indexed [y][x]
+   * @throws IllegalArgumentException if the codewords don't fit
+   */
+  public void placeCodewords(byte[] codewords, int maskPattern, byte[][] matrix) {
+    int[] modules = this.modules;
+    int numModules = modules.length;
+    int numBits = codewords.length * 8;
+    if (numBits > numModules) {
+      throw new IllegalArgumentException("Too many codewords: " + numBits + '/' + numModules);
+    }
+    int[] mask = maskPattern == -1 ? null : maskBits[maskPattern];
+    int numBytes = codewords.length;
+    for (int n = 0; n < numModules; n += 32) {
+      // Next 32 bits of the codeword stream, first bit in the least-significant position
+      int byteOffset = n >> 3;
+      int word = 0;
+      for (int b = 0; b < 4; b++) {
+        word <<= 8;
+        if (byteOffset + b < numBytes) {
+          word |= codewords[byteOffset + b] & 0xFF;
+        }
+      }
+      word = Integer.reverse(word);
+      if (mask != null) {
+        word ^= mask[n >> 5];
+      }
+      int end = Math.min(n + 32, numModules);
+      for (int k = n; k < end; k++) {
+        int position = modules[k];
+        matrix[position >>> 8][position & 0xFF] = (byte) (word & 0x01);
+        word >>>= 1;
+      }
+    }
+  }
+
+}
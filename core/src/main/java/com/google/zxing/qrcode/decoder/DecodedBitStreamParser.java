@@ -24,7 +24,16 @@ import com.google.zxing.common.DecoderResult;
 import com.google.zxing.common.StringUtils;
 
 import java.io.UnsupportedEncodingException;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.IllegalCharsetNameException;
+import java.nio.charset.StandardCharsets;
+import java.nio.charset.UnsupportedCharsetException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -141,6 +150,172 @@ final class DecodedBitStreamParser {
                              parityData);
   }
 
+  /**
+   * Decodes as many whole characters of the first segment as are contained in "bytes", which
+   * need not hold the whole payload. This is used to read a prefix of the payload from the data
+   * codewords of the common RS block alone. In byte mode, a multibyte character cut off at the
+   * end of "bytes" is left out.
+   *
+   * @param bytes data codewords holding the mode indicator, character count and start of payload
+   * @param version version of the QR Code
+   * @param hints decoding hints, used to guess the encoding of byte mode data
+   * @return the characters decoded from "bytes"
+   * @throws FormatException if the mode is not one of numeric, alphanumeric, byte or kanji, or
+   *  the data is otherwise invalid
+   */
+  static String decodePrefix(byte[] bytes,
+                             Version version,
+                             Map<DecodeHintType,?> hints) throws FormatException {
+    BitSource bits = new BitSource(bytes);
+    StringBuilder result = new StringBuilder(bytes.length);
+    try {
+      Mode mode = Mode.forBits(bits.readBits(4));
+      int charCountSize = mode.getCharacterCountBits(version);
+      int count = bits.readBits(charCountSize);
+      boolean truncated =
+          calcContentSize(mode, count, charCountSize) - 4 - charCountSize > bits.available();
+      if (truncated) {
+        // Only the whole groups which made it into "bytes" can be read
+        int available = bits.available();
+        switch (mode) {
+          case NUMERIC:
+            count = 3 * (available / 10);
+            break;
+          case ALPHANUMERIC:
+            count = 2 * (available / 11);
+            break;
+          case BYTE:
+            count = available / 8;
+            break;
+          case KANJI:
+            count = available / 13;
+            break;
+          default:
+            throw FormatException.getFormatInstance();
+        }
+      }
+      switch (mode) {
+        case NUMERIC:
+          decodeNumericSegment(bits, result, count);
+          break;
+        case ALPHANUMERIC:
+          decodeAlphanumericSegment(bits, result, count, false);
+          break;
+        case BYTE:
+          if (truncated) {
+            decodeBytePrefix(bits, result, count, hints);
+          } else {
+            decodeByteSegment(bits, result, count, null, new ArrayList<byte[]>(1), hints);
+          }
+          break;
+        case KANJI:
+          decodeKanjiSegment(bits, result, count);
+          break;
+        default:
+          throw FormatException.getFormatInstance();
+      }
+    } catch (IllegalArgumentException iae) {
+      // from readBits() calls
+      throw FormatException.getFormatInstance();
+    }
+    return result.toString();
+  }
+
+  /**
+   * As decodeByteSegment(), but for the first "count" bytes of a longer segment, which may end
+   * partway through a multibyte character. Only whole characters are appended.
+   */
+  private static void decodeBytePrefix(BitSource bits,
+                                       StringBuilder result,
+                                       int count,
+                                       Map<DecodeHintType,?> hints) throws FormatException {
+    byte[] readBytes = new byte[count];
+    for (int i = 0; i < count; i++) {
+      readBytes[i] = (byte) bits.readBits(8);
+    }
+    // The guess rejects UTF-8 and Shift_JIS which end in an incomplete character, so leave it out
+    String encoding = null;
+    if (hints == null || !hints.containsKey(DecodeHintType.CHARACTER_SET)) {
+      int utf8Length = getCompleteUTF8Length(readBytes);
+      int sjisLength = getCompleteShiftJISLength(readBytes);
+      if (utf8Length < count &&
+          isUTF8(StringUtils.guessEncoding(Arrays.copyOf(readBytes, utf8Length), hints))) {
+        encoding = StandardCharsets.UTF_8.name();
+      } else if (sjisLength < count && StringUtils.SHIFT_JIS.equals(
+          StringUtils.guessEncoding(Arrays.copyOf(readBytes, sjisLength), hints))) {
+        encoding = StringUtils.SHIFT_JIS;
+      }
+    }
+    if (encoding == null) {
+      encoding = StringUtils.guessEncoding(readBytes, hints);
+    }
+    CharsetDecoder decoder;
+    try {
+      decoder = Charset.forName(encoding).newDecoder()
+          .onMalformedInput(CodingErrorAction.REPLACE)
+          .onUnmappableCharacter(CodingErrorAction.REPLACE);
+    } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+      throw FormatException.getFormatInstance();
+    }
+    // Not at the end of input, so an incomplete character at the end is left undecoded
+    CharBuffer chars = CharBuffer.allocate(count);
+    decoder.decode(ByteBuffer.wrap(readBytes), chars, false);
+    chars.flip();
+    result.append(chars);
+  }
+
+  private static boolean isUTF8(String encoding) {
+    try {
+      return Charset.forName(encoding).equals(StandardCharsets.UTF_8);
+    } catch (IllegalCharsetNameException | UnsupportedCharsetException e) {
+      return false;
+    }
+  }
+
+  /**
+   * @return length of "bytes" without the UTF-8 sequence cut off at its end, if any
+   */
+  private static int getCompleteUTF8Length(byte[] bytes) {
+    // A sequence is at most 4 bytes; find the start of the last one
+    for (int i = bytes.length - 1; i >= 0 && i >= bytes.length - 4; i--) {
+      int value = bytes[i] & 0xFF;
+      if ((value & 0xC0) != 0x80) {
+        int sequenceLength;
+        if ((value & 0xE0) == 0xC0) {
+          sequenceLength = 2;
+        } else if ((value & 0xF0) == 0xE0) {
+          sequenceLength = 3;
+        } else if ((value & 0xF8) == 0xF0) {
+          sequenceLength = 4;
+        } else {
+          sequenceLength = 1;
+        }
+        return i + sequenceLength > bytes.length ? i : bytes.length;
+      }
+    }
+    return bytes.length;
+  }
+
+  /**
+   * @return length of "bytes" without a Shift_JIS double byte character cut off at its end, if any
+   */
+  private static int getCompleteShiftJISLength(byte[] bytes) {
+    int i = 0;
+    while (i < bytes.length) {
+      int value = bytes[i] & 0xFF;
+      // First byte of a double byte character
+      if ((value >= 0x81 && value <= 0x9F) || (value >= 0xE0 && value <= 0xEF)) {
+        if (i + 1 == bytes.length) {
+          return i;
+        }
+        i += 2;
+      } else {
+        i++;
+      }
+    }
+    return bytes.length;
+  }
+
   /* モード指定子，文字数指定子を読み取りk'を返す関数
    * 数字，英数字，バイト，漢字 以外のモードは読み取らない */
   static int readStrFormatReturnKP(byte[] bytes, Version version, ErrorCorrectionLevel ecLevel)
@@ -149,15 +324,22 @@ final class DecodedBitStreamParser {
     BitSource bits = new BitSource(bytes);
 
     Mode mode;
-    mode = Mode.forBits(bits.readBits(4)); // mode is encoded by 4 bits
+    int charCountSize;
+    int charCountValue;
+    try {
+      mode = Mode.forBits(bits.readBits(4)); // mode is encoded by 4 bits
 
-    // debug
-    // System.out.println("mode = " + mode);
+      // debug
+      // System.out.println("mode = " + mode);
 
-    // 文字数指定子のビット幅を求める
-    int charCountSize = mode.getCharacterCountBits(version);
-    // 文字数指定子の値を求める
-    int charCountValue = bits.readBits(mode.getCharacterCountBits(version));
+      // 文字数指定子のビット幅を求める
+      charCountSize = mode.getCharacterCountBits(version);
+      // 文字数指定子の値を求める
+      charCountValue = bits.readBits(charCountSize);
+    } catch (IllegalArgumentException iae) {
+      // from readBits() and forBits() calls
+      throw FormatException.getFormatInstance();
+    }
     int l = 0;
 
     // debug
@@ -186,7 +368,7 @@ final class DecodedBitStreamParser {
    * モード指定子と文字数指定子を与えるとl(埋め込む情報k'(byte)ー終端パターンー埋め草ビット)を求める関数
    * charCountValue：文字数指定子の値
    * charCountSize：文字数指定子のビット幅 */
-  private static int calcContentSize(Mode mode, int charCountValue, int charCountSize)
+  static int calcContentSize(Mode mode, int charCountValue, int charCountSize)
      throws FormatException {
 
    int l = 0;
@@ -27,7 +27,9 @@ import com.google.zxing.common.reedsolomon.ReedSolomonException;
 import com.google.zxing.qrcode.encoder.Encoder;
 
 import java.util.ArrayList;
+import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * <p>The main class which implements QR Code decoding -- as opposed to locating and extracting
@@ -77,19 +79,25 @@ public final class Decoder {
    */
   public DecoderResult decode(BitMatrix bits, Map<DecodeHintType,?> hints)
       throws FormatException, ChecksumException {
+    RSBlockCallback callback = getRSBlockCallback(hints);
 
     // Construct a parser and read version, error-correction level
     BitMatrixParser parser = new BitMatrixParser(bits);
+    // Only the reading whose result or exception is returned is reported to the callback
+    PendingRSBlockCallback pending = PendingRSBlockCallback.forCallback(callback);
     FormatException fe = null;
     ChecksumException ce = null;
     try {
-      return decode(parser, hints);
+      DecoderResult result = decode(parser, hints, pending);
+      PendingRSBlockCallback.release(pending, callback);
+      return result;
     } catch (FormatException e) {
       fe = e;
     } catch (ChecksumException e) {
       ce = e;
     }
 
+    PendingRSBlockCallback mirroredPending = PendingRSBlockCallback.forCallback(callback);
     try {
 
       // Revert the bit matrix
@@ -113,15 +121,17 @@ public final class Decoder {
       // Prepare for a mirrored reading.
       parser.mirror();
 
-      DecoderResult result = decode(parser, hints);
+      DecoderResult result = decode(parser, hints, mirroredPending);
 
       // Success! Notify the caller that the code was mirrored.
       result.setOther(new QRCodeDecoderMetaData(true));
 
+      PendingRSBlockCallback.release(mirroredPending, callback);
       return result;
 
     } catch (FormatException | ChecksumException e) {
       // Throw the exception from the original reading
+      PendingRSBlockCallback.release(pending, callback);
       if (fe != null) {
         throw fe;
       }
@@ -129,7 +139,76 @@ public final class Decoder {
     }
   }
 
-  private DecoderResult decode(BitMatrixParser parser, Map<DecodeHintType,?> hints)
+  /**
+   * <p>Decodes only the common RS block of a QR Code represented as a {@link BitMatrix}. The
+   * returned result gives the mode, character count and the part of the payload held in the
+   * common block; the other RS blocks are error-corrected only when
+   * {@link PartialDecoderResult#getFullResult()} is called.</p>
+   *
+   * @param bits booleans representing white/black QR Code modules
+   * @param hints decoding hints that should be used to influence decoding
+   * @return mode, length and payload prefix encoded within the QR Code
+   * @throws FormatException if the QR Code cannot be decoded
+   * @throws ChecksumException if error correction of the common RS block fails
+   */
+  public PartialDecoderResult decodeCommonBlock(BitMatrix bits, Map<DecodeHintType,?> hints)
+      throws FormatException, ChecksumException {
+    RSBlockCallback callback = getRSBlockCallback(hints);
+
+    BitMatrixParser parser = new BitMatrixParser(bits);
+    // As in decode(BitMatrix, Map); the other blocks are reported when the full result is asked for
+    PendingRSBlockCallback pending = PendingRSBlockCallback.forCallback(callback);
+    FormatException fe = null;
+    ChecksumException ce = null;
+    try {
+      PartialDecoderResult result = decodeCommonBlock(parser, hints, false, pending);
+      result.decodePrefix();
+      PendingRSBlockCallback.release(pending, callback);
+      return result;
+    } catch (FormatException e) {
+      fe = e;
+    } catch (ChecksumException e) {
+      ce = e;
+    }
+
+    PendingRSBlockCallback mirroredPending = PendingRSBlockCallback.forCallback(callback);
+    try {
+      // See decode(BitMatrix, Map) for the mirrored reading
+      parser.remask();
+      parser.setMirror(true);
+      parser.readVersion();
+      parser.readFormatInformation();
+      parser.mirror();
+
+      PartialDecoderResult result = decodeCommonBlock(parser, hints, true, mirroredPending);
+      result.decodePrefix();
+      PendingRSBlockCallback.release(mirroredPending, callback);
+      return result;
+
+    } catch (FormatException | ChecksumException e) {
+      PendingRSBlockCallback.release(pending, callback);
+      if (fe != null) {
+        throw fe;
+      }
+      throw ce;
+    }
+  }
+
+  // A value of any other type is ignored rather than failing the decode
+  private static RSBlockCallback getRSBlockCallback(Map<DecodeHintType,?> hints) {
+    Object callback = hints == null ? null : hints.get(DecodeHintType.NEED_RS_BLOCK_CALLBACK);
+    return callback instanceof RSBlockCallback ? (RSBlockCallback) callback : null;
+  }
+
+  private DecoderResult decode(BitMatrixParser parser, Map<DecodeHintType,?> hints, RSBlockCallback callback)
+      throws FormatException, ChecksumException {
+    return decodeCommonBlock(parser, hints, false, callback).getFullResult();
+  }
+
+  private PartialDecoderResult decodeCommonBlock(BitMatrixParser parser,
+                                                 Map<DecodeHintType,?> hints,
+                                                 boolean mirrored,
+                                                 RSBlockCallback callback)
       throws FormatException, ChecksumException {
     Version version = parser.readVersion();
     ErrorCorrectionLevel ecLevel = parser.readFormatInformation().getErrorCorrectionLevel();
@@ -137,6 +216,36 @@ public final class Decoder {
     // Read codewords
     byte[] codewords = parser.readCodewords();
 
+    return decodeCommonBlock(codewords, version, ecLevel, hints, mirrored, callback);
+  }
+
+  /**
+   * <p>Error-corrects and decodes codewords already read from a symbol, as {@link #decode(BitMatrix, Map)}
+   * does after reading them, but without retrying a mirrored reading.</p>
+   *
+   * @param codewords data and error correction codewords, in the order read from the symbol
+   * @param version version of the symbol
+   * @param ecLevel error correction level of the symbol
+   * @param hints decoding hints that should be used to influence decoding
+   * @return text and bytes encoded within the QR Code
+   * @throws FormatException if the QR Code cannot be decoded
+   * @throws ChecksumException if error correction fails
+   */
+  // Not private for testing
+  DecoderResult decode(byte[] codewords,
+                       Version version,
+                       ErrorCorrectionLevel ecLevel,
+                       Map<DecodeHintType,?> hints) throws FormatException, ChecksumException {
+    return decodeCommonBlock(codewords, version, ecLevel, hints, false, getRSBlockCallback(hints)).getFullResult();
+  }
+
+  private PartialDecoderResult decodeCommonBlock(byte[] codewords,
+                                                 Version version,
+                                                 ErrorCorrectionLevel ecLevel,
+                                                 Map<DecodeHintType,?> hints,
+                                                 boolean mirrored,
+                                                 RSBlockCallback callback)
+      throws FormatException, ChecksumException {
     // 型番・誤り訂正レベルごとのパラメータを得る
     int[] commonRSParam = NewVersion.getCommonRSParam(version.getVersionNumber(), ecLevel);
     // 共通RSブロックの位置を得る
@@ -148,15 +257,54 @@ public final class Decoder {
       commonRSBlockBytes[i] = codewords[commonRSBlockIndex[i]];
     }
     // 共通RSブロックを誤り訂正
-    correctErrors(commonRSBlockBytes, commonRSParam[1]);
-    System.out.println("共通RSブロックの誤り訂正成功");
+    int commonErrors;
+    try {
+      commonErrors = correctErrors(commonRSBlockBytes, commonRSParam[1]);
+    } catch (ChecksumException ce) {
+      if (callback != null) {
+        callback.commonBlockFailed();
+      }
+      throw ce;
+    }
+    if (callback != null) {
+      callback.commonBlockCorrected(commonErrors);
+    }
 
     // 文字数k'(contentSize)を取得
     int kp = DecodedBitStreamParser.readStrFormatReturnKP(commonRSBlockBytes, version, ecLevel);
-    System.out.println("k' = " + kp);
 
     NewVersion newVersion = new NewVersion(version.getVersionNumber(), ecLevel, kp);
+    if (callback != null) {
+      callback.foundBlockLayout(newVersion);
+    }
+
+    return new PartialDecoderResult(this,
+                                    codewords,
+                                    commonRSBlockIndex,
+                                    commonRSBlockBytes,
+                                    commonRSParam[1],
+                                    version,
+                                    ecLevel,
+                                    newVersion,
+                                    hints,
+                                    mirrored,
+                                    callback);
+  }
 
+  /**
+   * Extracts and error-corrects the RS blocks other than the (already corrected) common RS block,
+   * then decodes the whole payload.
+   */
+  DecoderResult decodeRemainingBlocks(byte[] codewords,
+                                      int[] commonRSBlockIndex,
+                                      byte[] commonRSBlockBytes,
+                                      int numCommonDataCodewords,
+                                      Version version,
+                                      ErrorCorrectionLevel ecLevel,
+                                      NewVersion newVersion,
+                                      Map<DecodeHintType,?> hints,
+                                      RSBlockCallback callback)
+      throws FormatException, ChecksumException {
     // その他のRSブロックをDataBlock[]型として得る
     // Separate into data blocks
     DataBlock[] dataBlocks = DataBlock.getDataBlocks(codewords, newVersion, commonRSBlockIndex);
@@ -170,7 +318,7 @@ public final class Decoder {
     // resultBytesは情報コードのみ
 
     // 共通RSブロックを格納
-    for (int i = 0; i < commonRSParam[1]; i++) {
+    for (int i = 0; i < numCommonDataCodewords; i++) {
       resultBytes[resultOffset++] = commonRSBlockBytes[i];
     }
 
@@ -178,7 +326,18 @@ public final class Decoder {
     for (int i = 1; i < dataBlocks.length; i++) {
       byte[] codewordBytes = dataBlocks[i].getCodewords();
       int numDataCodewords = dataBlocks[i].getNumDataCodewords();
-      correctErrors(codewordBytes, numDataCodewords);
+      int errors;
+      try {
+        errors = correctErrors(codewordBytes, numDataCodewords);
+      } catch (ChecksumException ce) {
+        if (callback != null) {
+          callback.blockCorrected(i, -1);
+        }
+        throw ce;
+      }
+      if (callback != null) {
+        callback.blockCorrected(i, errors);
+      }
       for (int j = 0; j < numDataCodewords; j++) {
         resultBytes[resultOffset++] = codewordBytes[j];
       }
@@ -194,17 +353,19 @@ public final class Decoder {
    *
    * @param codewordBytes data and error correction codewords
    * @param numDataCodewords number of codewords that are data bytes
+   * @return the number of errors corrected
    * @throws ChecksumException if error correction fails
    */
-  private void correctErrors(byte[] codewordBytes, int numDataCodewords) throws ChecksumException {
+  private int correctErrors(byte[] codewordBytes, int numDataCodewords) throws ChecksumException {
     int numCodewords = codewordBytes.length;
     // First read into an array of ints
     int[] codewordsInts = new int[numCodewords];
     for (int i = 0; i < numCodewords; i++) {
       codewordsInts[i] = codewordBytes[i] & 0xFF;
     }
+    int errorsCorrected;
     try {
-      rsDecoder.decode(codewordsInts, codewordBytes.length - numDataCodewords);
+      errorsCorrected = rsDecoder.decodeWithECCount(codewordsInts, codewordBytes.length - numDataCodewords);
     } catch (ReedSolomonException ignored) {
       throw ChecksumException.getChecksumInstance();
     }
@@ -213,6 +374,7 @@ public final class Decoder {
     for (int i = 0; i < numDataCodewords; i++) {
       codewordBytes[i] = (byte) codewordsInts[i];
     }
+    return errorsCorrected;
   }
 
   //分割手法の関数 符号長，情報コード数を引数に与えて，同じパラメータを持つRSブロックの個数，n，kの二次元配列を返す
@@ -334,4 +496,63 @@ public final class Decoder {
     return list;
   }
 
+  /**
+   * Holds back the calls made during one attempt to read a symbol, until it is known whether that
+   * attempt's result or exception is the one returned. Once released, calls are passed straight on.
+   */
+  private static final class PendingRSBlockCallback implements RSBlockCallback {
+
+    private final List<Consumer<RSBlockCallback>> calls = new ArrayList<>();
+    private RSBlockCallback target;
+
+    /**
+     * @return a new instance, or null if there is no callback to report to
+     */
+    static PendingRSBlockCallback forCallback(RSBlockCallback callback) {
+      return callback == null ? null : new PendingRSBlockCallback();
+    }
+
+    /**
+     * Makes the calls held back by {@code pending}, if any, on {@code target}.
+     */
+    static void release(PendingRSBlockCallback pending, RSBlockCallback target) {
+      if (pending != null) {
+        for (Consumer<RSBlockCallback> call : pending.calls) {
+          call.accept(target);
+        }
+        pending.calls.clear();
+        pending.target = target;
+      }
+    }
+
+    private void call(Consumer<RSBlockCallback> call) {
+      if (target == null) {
+        calls.add(call);
+      } else {
+        call.accept(target);
+      }
+    }
+
+    @Override
+    public void foundBlockLayout(NewVersion newVersion) {
+      call(callback -> callback.foundBlockLayout(newVersion));
+    }
+
+    @Override
+    public void commonBlockCorrected(int errorsCorrected) {
+      call(callback -> callback.commonBlockCorrected(errorsCorrected));
+    }
+
+    @Override
+    public void commonBlockFailed() {
+      call(RSBlockCallback::commonBlockFailed);
+    }
+
+    @Override
+    public void blockCorrected(int blockIndex, int errorsCorrected) {
+      call(callback -> callback.blockCorrected(blockIndex, errorsCorrected));
+    }
+
+  }
+
 }
@@ -0,0 +1,169 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.qrcode.decoder;
+
+import com.google.zxing.ChecksumException;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.FormatException;
+import com.google.zxing.common.BitSource;
+import com.google.zxing.common.DecoderResult;
+
+import java.util.Map;
+
+/**
+ * <p>The result of decoding only the common RS block of a QR Code: the mode, the character count
+ * and as much of the payload as the common block holds. The other RS blocks are only extracted
+ * and error-corrected when {@link #getFullResult()} is first called.</p>
+ *
+ * <p>Instances are not thread-safe.</p>
+ *
+ * @see Decoder#decodeCommonBlock(com.google.zxing.common.BitMatrix, Map)
+ */
+public final class PartialDecoderResult {
+
+  private final Decoder decoder;
+  private final byte[] codewords;
+  private final int[] commonRSBlockIndex;
+  private final byte[] commonRSBlockBytes;
+  private final int numCommonDataCodewords;
+  private final Version version;
+  private final ErrorCorrectionLevel ecLevel;
+  private final NewVersion newVersion;
+  private final Map<DecodeHintType,?> hints;
+  private final boolean mirrored;
+  private final RSBlockCallback callback;
+  private Mode mode;
+  private int characterCount;
+  private String prefix;
+  private boolean complete;
+  private DecoderResult fullResult;
+
+  PartialDecoderResult(Decoder decoder,
+                       byte[] codewords,
+                       int[] commonRSBlockIndex,
+                       byte[] commonRSBlockBytes,
+                       int numCommonDataCodewords,
+                       Version version,
+                       ErrorCorrectionLevel ecLevel,
+                       NewVersion newVersion,
+                       Map<DecodeHintType,?> hints,
+                       boolean mirrored,
+                       RSBlockCallback callback) {
+    this.decoder = decoder;
+    this.codewords = codewords;
+    this.commonRSBlockIndex = commonRSBlockIndex;
+    this.commonRSBlockBytes = commonRSBlockBytes;
+    this.numCommonDataCodewords = numCommonDataCodewords;
+    this.version = version;
+    this.ecLevel = ecLevel;
+    this.newVersion = newVersion;
+    this.hints = hints;
+    this.mirrored = mirrored;
+    this.callback = callback;
+  }
+
+  /**
+   * Reads the mode, character count and payload prefix from the corrected common RS block.
+   */
+  void decodePrefix() throws FormatException {
+    byte[] commonDataBytes = new byte[numCommonDataCodewords];
+    System.arraycopy(commonRSBlockBytes, 0, commonDataBytes, 0, numCommonDataCodewords);
+    BitSource bits = new BitSource(commonDataBytes);
+    int charCountSize;
+    try {
+      mode = Mode.forBits(bits.readBits(4));
+      charCountSize = mode.getCharacterCountBits(version);
+      characterCount = bits.readBits(charCountSize);
+    } catch (IllegalArgumentException iae) {
+      throw FormatException.getFormatInstance();
+    }
+    prefix = DecodedBitStreamParser.decodePrefix(commonDataBytes, version, hints);
+    complete = DecodedBitStreamParser.calcContentSize(mode, characterCount, charCountSize) <=
+        8 * numCommonDataCodewords;
+  }
+
+  /**
+   * @return mode of the (first) segment
+   */
+  public Mode getMode() {
+    return mode;
+  }
+
+  /**
+   * @return number of characters in the whole payload, as given by the character count indicator
+   */
+  public int getCharacterCount() {
+    return characterCount;
+  }
+
+  /**
+   * @return the characters of the payload which are held in the common RS block
+   */
+  public String getPrefix() {
+    return prefix;
+  }
+
+  /**
+   * @return true if {@link #getPrefix()} is the whole payload
+   */
+  public boolean isComplete() {
+    return complete;
+  }
+
+  /**
+   * @return k', the number of data codewords of the whole symbol
+   */
+  public int getTotalDataCodewords() {
+    return newVersion.getTotalDataCodewords();
+  }
+
+  public Version getVersion() {
+    return version;
+  }
+
+  public ErrorCorrectionLevel getECLevel() {
+    return ecLevel;
+  }
+
+  /**
+   * Extracts and error-corrects the remaining RS blocks, and decodes the whole payload. This is
+   * done once; later calls return the same result.
+   *
+   * @return text and bytes encoded within the QR Code
+   * @throws FormatException if the QR Code cannot be decoded
+   * @throws ChecksumException if error correction fails
+   */
+  public DecoderResult getFullResult() throws FormatException, ChecksumException {
+    if (fullResult == null) {
+      DecoderResult result = decoder.decodeRemainingBlocks(codewords,
+                                                           commonRSBlockIndex,
+                                                           commonRSBlockBytes,
+                                                           numCommonDataCodewords,
+                                                           version,
+                                                           ecLevel,
+                                                           newVersion,
+                                                           hints,
+                                                           callback);
+      if (mirrored) {
+        result.setOther(new QRCodeDecoderMetaData(true));
+      }
+      fullResult = result;
+    }
+    return fullResult;
+  }
+
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.qrcode.decoder;
+
+/**
+ * <p>Callback which is invoked as a QR Code using the common RS block layout is encoded or
+ * decoded. It reports k' (the number of data codewords), the RS block layout derived from it,
+ * and the outcome of error correction for the common RS block and for every other block.</p>
+ *
+ * <p>Implementations may be called from several threads at once if they are shared between
+ * encoders or decoders.</p>
+ *
+ * @see com.google.zxing.DecodeHintType#NEED_RS_BLOCK_CALLBACK
+ * @see com.google.zxing.EncodeHintType#RS_BLOCK_CALLBACK
+ * @see RSBlockStatistics
+ */
+public interface RSBlockCallback {
+
+  /**
+   * @param newVersion RS block layout in use, including k' as
+   *  {@link NewVersion#getTotalDataCodewords()}
+   */
+  void foundBlockLayout(NewVersion newVersion);
+
+  /**
+   * @param errorsCorrected number of codewords corrected in the common RS block
+   */
+  void commonBlockCorrected(int errorsCorrected);
+
+  /**
+   * Called when the common RS block could not be corrected; decoding stops here.
+   */
+  void commonBlockFailed();
+
+  /**
+   * Called for each RS block other than the common RS block, which is reported through
+   * {@link #commonBlockCorrected(int)} and {@link #commonBlockFailed()} instead.
+   *
+   * @param blockIndex index of the block in the layout, from 1; index 0 is the common RS block
+   * @param errorsCorrected number of codewords corrected in the block, or -1 if correction failed
+   */
+  void blockCorrected(int blockIndex, int errorsCorrected);
+
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.qrcode.decoder;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>A thread-safe {@link RSBlockCallback} which only accumulates counters, suitable for
+ * exporting as metrics. One instance may be shared by any number of encoders and decoders.</p>
+ */
+public final class RSBlockStatistics implements RSBlockCallback {
+
+  private final LongAdder layouts = new LongAdder();
+  private final LongAdder totalDataCodewords = new LongAdder();
+  private final LongAdder totalBlocks = new LongAdder();
+  private final LongAdder commonBlockSuccesses = new LongAdder();
+  private final LongAdder commonBlockFailures = new LongAdder();
+  private final LongAdder blocksCorrected = new LongAdder();
+  private final LongAdder blockFailures = new LongAdder();
+  private final LongAdder errorsCorrected = new LongAdder();
+
+  @Override
+  public void foundBlockLayout(NewVersion newVersion) {
+    layouts.increment();
+    totalDataCodewords.add(newVersion.getTotalDataCodewords());
+    totalBlocks.add(newVersion.getECBlocks().getNumBlocks());
+  }
+
+  @Override
+  public void commonBlockCorrected(int errorsCorrected) {
+    commonBlockSuccesses.increment();
+    this.errorsCorrected.add(errorsCorrected);
+  }
+
+  @Override
+  public void commonBlockFailed() {
+    commonBlockFailures.increment();
+  }
+
+  @Override
+  public void blockCorrected(int blockIndex, int errorsCorrected) {
+    if (errorsCorrected < 0) {
+      blockFailures.increment();
+    } else {
+      blocksCorrected.increment();
+      this.errorsCorrected.add(errorsCorrected);
+    }
+  }
+
+  /**
+   * @return number of block layouts reported, i.e. symbols whose k' was known
+   */
+  public long getLayouts() {
+    return layouts.sum();
+  }
+
+  /**
+   * @return sum of k' over all reported layouts
+   */
+  public long getTotalDataCodewords() {
+    return totalDataCodewords.sum();
+  }
+
+  /**
+   * @return sum of RS block counts over all reported layouts
+   */
+  public long getTotalBlocks() {
+    return totalBlocks.sum();
+  }
+
+  public long getCommonBlockSuccesses() {
+    return commonBlockSuccesses.sum();
+  }
+
+  public long getCommonBlockFailures() {
+    return commonBlockFailures.sum();
+  }
+
+  /**
+   * @return number of blocks other than the common RS block which were corrected successfully
+   */
+  public long getBlocksCorrected() {
+    return blocksCorrected.sum();
+  }
+
+  /**
+   * @return number of blocks other than the common RS block which could not be corrected
+   */
+  public long getBlockFailures() {
+    return blockFailures.sum();
+  }
+
+  /**
+   * @return total number of codewords corrected, in the common RS block and all others
+   */
+  public long getErrorsCorrected() {
+    return errorsCorrected.sum();
+  }
+
+  public void reset() {
+    layouts.reset();
+    totalDataCodewords.reset();
+    totalBlocks.reset();
+    commonBlockSuccesses.reset();
+    commonBlockFailures.reset();
+    blocksCorrected.reset();
+    blockFailures.reset();
+    errorsCorrected.reset();
+  }
+
+  @Override
+  public String toString() {
+    return "layouts=" + getLayouts() +
+        " k'=" + getTotalDataCodewords() +
+        " blocks=" + getTotalBlocks() +
+        " common=" + getCommonBlockSuccesses() + '/' + getCommonBlockFailures() +
+        " corrected=" + getBlocksCorrected() + '/' + getBlockFailures() +
+        " errors=" + getErrorsCorrected();
+  }
+
+}
@@ -26,6 +26,7 @@ import com.google.zxing.common.reedsolomon.ReedSolomonEncoder;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
 import com.google.zxing.qrcode.decoder.Mode;
 import com.google.zxing.qrcode.decoder.NewVersion;
+import com.google.zxing.qrcode.decoder.RSBlockCallback;
 import com.google.zxing.qrcode.decoder.Version;
 
 import java.io.UnsupportedEncodingException;
@@ -55,7 +56,7 @@ public final class Encoder {
 
   // The mask penalty calculation is complicated.  See Table 21 of JISX0510:2004 (p.45) for details.
   // Basically it applies four rules and summate all penalties.
-  private static int calculateMaskPenalty(ByteMatrix matrix) {
+  static int calculateMaskPenalty(ByteMatrix matrix) {
     return MaskUtil.applyMaskPenaltyRule1(matrix)
         + MaskUtil.applyMaskPenaltyRule2(matrix)
         + MaskUtil.applyMaskPenaltyRule3(matrix)
@@ -153,10 +154,14 @@ public final class Encoder {
     NewVersion newVersion = new NewVersion(versionNumber, ecLevel,
                                            headerAndDataBits.getSizeInBytes());
 
+    RSBlockCallback callback = hints == null ? null :
+        (RSBlockCallback) hints.get(EncodeHintType.RS_BLOCK_CALLBACK);
+
     // Interleave data bits with error correction code.
     // 書き換える必要あり
-    BitArray finalBits = interleaveWithECBytes(headerAndDataBits,
-                                               newVersion);
+    byte[] finalCodewords = interleaveWithECBytes(headerAndDataBits,
+                                                  newVersion,
+                                                  callback);
 
     QRCode qrCode = new QRCode();
 
@@ -177,13 +182,15 @@ public final class Encoder {
 
     if (maskPattern == -1) {
       // 変えなくてよさそう
-      maskPattern = chooseMaskPattern(finalBits, ecLevel, version, matrix);
+      boolean parallel = hints != null && hints.containsKey(EncodeHintType.QR_PARALLEL_MASK_EVALUATION) &&
+          Boolean.parseBoolean(hints.get(EncodeHintType.QR_PARALLEL_MASK_EVALUATION).toString());
+      maskPattern = chooseMaskPattern(finalCodewords, ecLevel, version, matrix, parallel);
     }
     qrCode.setMaskPattern(maskPattern);
 
     // Build the matrix and set it to "qrCode".
     // 変えなくてよさそう?
-    MatrixUtil.buildMatrix(finalBits, ecLevel, version, maskPattern, matrix);
+    MatrixUtil.buildMatrix(finalCodewords, ecLevel, version, maskPattern, matrix);
     qrCode.setMatrix(matrix);
 
     return qrCode;
@@ -281,23 +288,13 @@ public final class Encoder {
     return true;
   }
 
-  private static int chooseMaskPattern(BitArray bits,
+  private static int chooseMaskPattern(byte[] codewords,
                                        ErrorCorrectionLevel ecLevel,
                                        Version version,
-                                       ByteMatrix matrix) throws WriterException {
-
-    int minPenalty = Integer.MAX_VALUE;  // Lower penalty is better.
-    int bestMaskPattern = -1;
-    // We try all mask patterns to choose the best one.
-    for (int maskPattern = 0; maskPattern < QRCode.NUM_MASK_PATTERNS; maskPattern++) {
-      MatrixUtil.buildMatrix(bits, ecLevel, version, maskPattern, matrix);
-      int penalty = calculateMaskPenalty(matrix);
-      if (penalty < minPenalty) {
-        minPenalty = penalty;
-        bestMaskPattern = maskPattern;
-      }
-    }
-    return bestMaskPattern;
+                                       ByteMatrix matrix,
+                                       boolean parallel) throws WriterException {
+    // Same penalties as calculateMaskPenalty() on each built matrix, but computed on bit-packed rows
+    return new MaskEvaluator(codewords, ecLevel, version, matrix).chooseMaskPattern(parallel);
   }
 
   private static Version chooseVersion(int numInputBits, ErrorCorrectionLevel ecLevel) throws WriterException {
@@ -410,22 +407,30 @@ public final class Encoder {
   }
 
   /**
-   * Interleave "bits" with corresponding error correction bytes. On success, store the result in
-   * "result". The interleave rule is complicated. See 8.6 of JISX0510:2004 (p.37) for details.
+   * Interleave "bits" with corresponding error correction bytes. On success, return the final
+   * codewords, getTotalCodewords() of them. The interleave rule is complicated. See 8.6 of
+   * JISX0510:2004 (p.37) for details.
    */
-  static BitArray interleaveWithECBytes(BitArray bits,
-                                        NewVersion newVersion) throws WriterException {
+  static byte[] interleaveWithECBytes(BitArray bits,
+                                      NewVersion newVersion) throws WriterException {
+    return interleaveWithECBytes(bits, newVersion, null);
+  }
+
+  /**
+   * As {@link #interleaveWithECBytes(BitArray, NewVersion)}, reporting k' and the RS block layout
+   * to "callback" if it is not null.
+   */
+  static byte[] interleaveWithECBytes(BitArray bits,
+                                      NewVersion newVersion,
+                                      RSBlockCallback callback) throws WriterException {
 
     // numDataBytes = k' に注意
     int numDataBytes = newVersion.getTotalDataCodewords();
     int numRSBlocks = newVersion.getECBlocks().getNumBlocks();
     NewVersion.NewECB[] newEcb = newVersion.getECBlocks().getECBlocks();
 
-    // debug用
-    System.out.println("k' = " + numDataBytes);
-    for (NewVersion.NewECB ecb : newEcb) {
-      System.out.println(ecb.getCount() + "×" +
-    "(" + ecb.getCodewords() + "," + ecb.getDataCodewords() + ")");
+    if (callback != null) {
+      callback.foundBlockLayout(newVersion);
     }
 
     // "bits" must have "getNumDataBytes" bytes of data.
@@ -433,6 +438,10 @@ public final class Encoder {
       throw new WriterException("Number of bits and data bytes does not match");
     }
 
+    // Convert all data bits at once; the blocks are then consecutive ranges of these bytes
+    byte[] allDataBytes = new byte[numDataBytes];
+    bits.toBytes(0, allDataBytes, 0, numDataBytes);
+
     // Step 1.  Divide data bytes into blocks and generate error correction bytes for them. We'll
     // store the divided data bytes blocks and error correction bytes blocks into "blocks".
     int dataBytesOffset = 0;
@@ -448,8 +457,11 @@ public final class Encoder {
       for (int j = 0; j < newEcb[i].getCount(); j++) {
         int numDataBytesInBlock = newEcb[i].getDataCodewords();
         int numEcBytesInBlock = newEcb[i].getCodewords() - numDataBytesInBlock;
+        if (dataBytesOffset + numDataBytesInBlock > numDataBytes) {
+          throw new WriterException("Data bytes does not match offset");
+        }
         byte[] dataBytes = new byte[numDataBytesInBlock];
-        bits.toBytes(8 * dataBytesOffset, dataBytes, 0, numDataBytesInBlock);
+        System.arraycopy(allDataBytes, dataBytesOffset, dataBytes, 0, numDataBytesInBlock);
         byte[] ecBytes = generateECBytes(dataBytes, numEcBytesInBlock);
         blocks.add(new BlockPair(dataBytes, ecBytes));
 
@@ -463,11 +475,12 @@ public final class Encoder {
       throw new WriterException("Data bytes does not match offset");
     }
 
-    BitArray result = new BitArray();
+    int numTotalBytes = newVersion.getTotalCodewords();
+    byte[] result = new byte[numTotalBytes];
     // 共通RSブロックの格納位置を格納した配列
     int commonRSBlockCodewords = newVersion.getECBlocks().getECBlocks()[0].getCodewords();
     int[] commonRSBlockIndex = getCommonRSBlockIndex(
-        commonRSBlockCodewords, newVersion.getTotalCodewords() - commonRSBlockCodewords);
+        commonRSBlockCodewords, numTotalBytes - commonRSBlockCodewords);
     // バイト列から見た挿入箇所 最後は総コード語数になるはず
     int position = 0;
     int commonRSBlockOffset = 0;
@@ -476,13 +489,9 @@ public final class Encoder {
 
     // 共通RSブロックのバイト列をcommonRSByteにまとめる
     byte[] commonRSByte = new byte[commonRSBlockCodewords];
-    for (int i = 0; i < commonRSBlockCodewords; i++) {
-      if (i < commonDataBytesLength) {
-        commonRSByte[i] = blocks.get(0).getDataBytes()[i];
-      } else {
-        commonRSByte[i] = blocks.get(0).getErrorCorrectionBytes()[i - commonDataBytesLength];
-      }
-    }
+    System.arraycopy(blocks.get(0).getDataBytes(), 0, commonRSByte, 0, commonDataBytesLength);
+    System.arraycopy(blocks.get(0).getErrorCorrectionBytes(), 0, commonRSByte, commonDataBytesLength,
+                     commonRSBlockCodewords - commonDataBytesLength);
 
     // 共通RSブロックと情報コード部を埋め込む処理
     for (int i = 0; i < maxNumDataBytes; i++) {
@@ -490,18 +499,14 @@ public final class Encoder {
         // 共通RSブロックのバイトを置く位置とループ回数が一致したとき
         if (commonRSBlockIndex[commonRSBlockOffset] == position) {
           // 共通RSBlockを代入
-//          // debug
-//          System.out.println("commonRSBlockOffset = " + commonRSBlockOffset);
-          result.appendBits(commonRSByte[commonRSBlockOffset++], 8);
-          position++;
+          result[position++] = commonRSByte[commonRSBlockOffset++];
           // jをやり直す その他のRSブロックのj番目を飛ばさないように
           j--;
         } else {
           // その他RSBlockを代入
           byte[] dataBytes = blocks.get(j).getDataBytes();
           if (i < dataBytes.length) {
-            result.appendBits(dataBytes[i], 8);
-            position++;
+            result[position++] = dataBytes[i];
           }
         }
       }
@@ -512,27 +517,23 @@ public final class Encoder {
       for (int j = 1; j < blocks.size(); j++) {
         if (commonRSBlockOffset < commonRSBlockIndex.length &&
             commonRSBlockIndex[commonRSBlockOffset] == position) {
-//          // 共通RSBlockを代入
-//          System.out.println("commonRSBlockOffset = " + commonRSBlockOffset);
-          result.appendBits(commonRSByte[commonRSBlockOffset++], 8);
-          position++;
+          // 共通RSBlockを代入
+          result[position++] = commonRSByte[commonRSBlockOffset++];
           // jをやり直す その他のRSブロックのj番目を飛ばさないように
           j--;
         } else {
           // その他RSBlockを代入
           byte[] ecBytes = blocks.get(j).getErrorCorrectionBytes();
           if (i < ecBytes.length) {
-            result.appendBits(ecBytes[i], 8);
-            position++;
+            result[position++] = ecBytes[i];
           }
         }
       }
     }
-    System.out.println("position = " + position);
-    int numTotalBytes = newVersion.getTotalCodewords();
-    if (numTotalBytes != result.getSizeInBytes()) {  // Should be same.
+
+    if (numTotalBytes != position) {  // Should be same.
       throw new WriterException("Interleaving error: " + numTotalBytes + " and " +
-          result.getSizeInBytes() + " differ.");
+          position + " differ.");
     }
 
     return result;
@@ -0,0 +1,306 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.qrcode.encoder;
+
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitArray;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.decoder.Version;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.stream.IntStream;
+
+/**
+ * <p>Computes the mask penalty of all 8 mask patterns for one set of codewords, giving the same
+ * penalties as {@link MaskUtil}'s rules applied to each fully built matrix.</p>
+ *
+ * <p>The matrix is built once, unmasked, and kept as bit-packed {@code long} rows and columns. Each
+ * mask pattern is applied by XORing precomputed mask planes (data modules only) and fixing up the
+ * type information, and the four rules then run on whole words: runs are found from the bit
+ * transitions, 2x2 blocks and finder-like patterns from shifted ANDs, and the dark ratio by
+ * popcount.</p>
+ */
+final class MaskEvaluator {
+
+  // Per version: [mask][row][word] then [mask][column][word] planes covering data modules only
+  private static final AtomicReferenceArray<long[][][][]> MASK_PLANES = new AtomicReferenceArray<>(40);
+
+  private final int dimension;
+  private final int numWords;
+  private final long[][][][] maskPlanes;
+  // Unmasked matrix, with the type information of mask 0
+  private final long[][] rows;
+  private final long[][] columns;
+  // 15-bit type information per mask pattern, least significant bit first
+  private final int[] typeInfo;
+
+  /**
+   * @param codewords final codewords
+   * @param ecLevel error correction level, for the type information
+   * @param version version of the symbol
+   * @param matrix scratch matrix of the version's dimension; its contents are overwritten
+   * @throws WriterException if the codewords can't be placed in the version
+   */
+  MaskEvaluator(byte[] codewords,
+                ErrorCorrectionLevel ecLevel,
+                Version version,
+                ByteMatrix matrix) throws WriterException {
+    dimension = version.getDimensionForVersion();
+    numWords = (dimension + 63) >> 6;
+    maskPlanes = getMaskPlanes(version);
+
+    MatrixUtil.buildMatrix(codewords, ecLevel, version, 0, matrix);
+    rows = new long[dimension][numWords];
+    columns = new long[dimension][numWords];
+    byte[][] array = matrix.getArray();
+    for (int y = 0; y < dimension; y++) {
+      byte[] arrayY = array[y];
+      for (int x = 0; x < dimension; x++) {
+        if (arrayY[x] == 1) {
+          rows[y][x >> 6] |= 1L << x;
+          columns[x][y >> 6] |= 1L << y;
+        }
+      }
+    }
+    xor(rows, maskPlanes[0][0]);
+    xor(columns, maskPlanes[0][1]);
+
+    typeInfo = new int[QRCode.NUM_MASK_PATTERNS];
+    for (int maskPattern = 0; maskPattern < typeInfo.length; maskPattern++) {
+      BitArray typeInfoBits = new BitArray();
+      MatrixUtil.makeTypeInfoBits(ecLevel, maskPattern, typeInfoBits);
+      int size = typeInfoBits.getSize();
+      for (int i = 0; i < size; i++) {
+        if (typeInfoBits.get(size - 1 - i)) {
+          typeInfo[maskPattern] |= 1 << i;
+        }
+      }
+    }
+  }
+
+  /**
+   * @param parallel whether to evaluate the mask patterns concurrently
+   * @return the mask pattern with the lowest penalty, the first one on ties
+   */
+  int chooseMaskPattern(boolean parallel) {
+    int[] penalties = new int[QRCode.NUM_MASK_PATTERNS];
+    if (parallel) {
+      IntStream.range(0, penalties.length).parallel().forEach(i -> penalties[i] = calculatePenalty(i));
+    } else {
+      for (int maskPattern = 0; maskPattern < penalties.length; maskPattern++) {
+        penalties[maskPattern] = calculatePenalty(maskPattern);
+      }
+    }
+    int minPenalty = Integer.MAX_VALUE;
+    int bestMaskPattern = -1;
+    for (int maskPattern = 0; maskPattern < penalties.length; maskPattern++) {
+      if (penalties[maskPattern] < minPenalty) {
+        minPenalty = penalties[maskPattern];
+        bestMaskPattern = maskPattern;
+      }
+    }
+    return bestMaskPattern;
+  }
+
+  /**
+   * @param maskPattern mask pattern, 0 to 7
+   * @return the sum of the four penalty rules for the matrix masked with "maskPattern"
+   */
+  int calculatePenalty(int maskPattern) {
+    long[][] maskedRows = copy(rows);
+    long[][] maskedColumns = copy(columns);
+    xor(maskedRows, maskPlanes[maskPattern][0]);
+    xor(maskedColumns, maskPlanes[maskPattern][1]);
+    int typeInfoChange = typeInfo[maskPattern] ^ typeInfo[0];
+    for (int i = 0; typeInfoChange != 0; i++, typeInfoChange >>>= 1) {
+      if ((typeInfoChange & 0x01) != 0) {
+        int[] coordinates = MatrixUtil.getTypeInfoCoordinates(i);
+        flip(maskedRows, maskedColumns, coordinates[0], coordinates[1]);
+        flip(maskedRows, maskedColumns,
+             MatrixUtil.getSecondTypeInfoX(i, dimension), MatrixUtil.getSecondTypeInfoY(i, dimension));
+      }
+    }
+
+    int rule1 = 0;
+    int rule2 = 0;
+    int rule3 = 0;
+    int numDarkCells = 0;
+    for (int i = 0; i < dimension; i++) {
+      long[] row = maskedRows[i];
+      long[] column = maskedColumns[i];
+      rule1 += runPenalty(row) + runPenalty(column);
+      rule3 += countFinderLikePatterns(row) + countFinderLikePatterns(column);
+      if (i < dimension - 1) {
+        rule2 += countSameColorBlocks(row, maskedRows[i + 1]);
+      }
+      for (long word : row) {
+        numDarkCells += Long.bitCount(word);
+      }
+    }
+    int numTotalCells = dimension * dimension;
+    int fivePercentVariances = Math.abs(numDarkCells * 2 - numTotalCells) * 10 / numTotalCells;
+    return rule1 + MaskUtil.N2 * rule2 + MaskUtil.N3 * rule3 + MaskUtil.N4 * fivePercentVariances;
+  }
+
+  // Rule 1 for one line: runs of 5 or more cells of the same color
+  private int runPenalty(long[] line) {
+    int penalty = 0;
+    int runStart = 0;
+    for (int w = 0; w < numWords; w++) {
+      // Bit x set where cell x differs from cell x - 1, for 0 < x < dimension
+      long transitions = (line[w] ^ window(line, (w << 6) - 1)) & validBits(w, dimension);
+      if (w == 0) {
+        transitions &= ~1L;
+      }
+      while (transitions != 0) {
+        int x = (w << 6) + Long.numberOfTrailingZeros(transitions);
+        int length = x - runStart;
+        if (length >= 5) {
+          penalty += MaskUtil.N1 + (length - 5);
+        }
+        runStart = x;
+        transitions &= transitions - 1;
+      }
+    }
+    int length = dimension - runStart;
+    if (length >= 5) {
+      penalty += MaskUtil.N1 + (length - 5);
+    }
+    return penalty;
+  }
+
+  // Rule 2 for two adjacent rows: 2x2 blocks of the same color
+  private int countSameColorBlocks(long[] row, long[] nextRow) {
+    int count = 0;
+    for (int w = 0; w < numWords; w++) {
+      long a = row[w];
+      long b = nextRow[w];
+      long same = ~(a ^ window(row, (w << 6) + 1)) & ~(a ^ b) & ~(b ^ window(nextRow, (w << 6) + 1));
+      count += Long.bitCount(same & validBits(w, dimension - 1));
+    }
+    return count;
+  }
+
+  // Rule 3 for one line: 1:1:3:1:1 patterns with 4 light cells on either side. Cells outside the
+  // symbol count as light.
+  private int countFinderLikePatterns(long[] line) {
+    int count = 0;
+    for (int w = 0; w < numWords; w++) {
+      int x = w << 6;
+      long pattern = line[w] & ~window(line, x + 1) & window(line, x + 2) & window(line, x + 3) &
+          window(line, x + 4) & ~window(line, x + 5) & window(line, x + 6);
+      pattern &= validBits(w, dimension - 6);
+      if (pattern == 0) {
+        continue;
+      }
+      long lightBefore = ~(window(line, x - 4) | window(line, x - 3) | window(line, x - 2) | window(line, x - 1));
+      long lightAfter = ~(window(line, x + 7) | window(line, x + 8) | window(line, x + 9) | window(line, x + 10));
+      count += Long.bitCount(pattern & (lightBefore | lightAfter));
+    }
+    return count;
+  }
+
+  // Bits x .. x + 63 of "line", with cells outside it read as 0
+  private static long window(long[] line, int x) {
+    int index = x >> 6;
+    int shift = x & 0x3F;
+    long low = index >= 0 && index < line.length ? line[index] : 0L;
+    if (shift == 0) {
+      return low;
+    }
+    long high = index + 1 >= 0 && index + 1 < line.length ? line[index + 1] : 0L;
+    return (low >>> shift) | (high << (64 - shift));
+  }
+
+  // Bits of word "w" that are below "limit"
+  private static long validBits(int w, int limit) {
+    int bits = limit - (w << 6);
+    if (bits <= 0) {
+      return 0L;
+    }
+    return bits >= 64 ? -1L : (1L << bits) - 1;
+  }
+
+  private static void flip(long[][] rows, long[][] columns, int x, int y) {
+    rows[y][x >> 6] ^= 1L << x;
+    columns[x][y >> 6] ^= 1L << y;
+  }
+
+  private static void xor(long[][] lines, long[][] mask) {
+    for (int i = 0; i < lines.length; i++) {
+      long[] line = lines[i];
+      long[] maskLine = mask[i];
+      for (int w = 0; w < line.length; w++) {
+        line[w] ^= maskLine[w];
+      }
+    }
+  }
+
+  private static long[][] copy(long[][] lines) {
+    long[][] result = new long[lines.length][];
+    for (int i = 0; i < lines.length; i++) {
+      result[i] = lines[i].clone();
+    }
+    return result;
+  }
+
+  private static long[][][][] getMaskPlanes(Version version) throws WriterException {
+    int index = version.getVersionNumber() - 1;
+    long[][][][] planes = MASK_PLANES.get(index);
+    if (planes == null) {
+      planes = buildMaskPlanes(version);
+      if (!MASK_PLANES.compareAndSet(index, null, planes)) {
+        planes = MASK_PLANES.get(index);
+      }
+    }
+    return planes;
+  }
+
+  private static long[][][][] buildMaskPlanes(Version version) throws WriterException {
+    int dimension = version.getDimensionForVersion();
+    int numWords = (dimension + 63) >> 6;
+    // Data modules are the cells the template leaves empty, other than the type information
+    byte[][] template = MatrixUtil.getTemplate(version).getArray();
+    boolean[][] isData = new boolean[dimension][dimension];
+    for (int y = 0; y < dimension; y++) {
+      for (int x = 0; x < dimension; x++) {
+        isData[y][x] = template[y][x] == -1;
+      }
+    }
+    for (int i = 0; i < 15; i++) {
+      int[] coordinates = MatrixUtil.getTypeInfoCoordinates(i);
+      isData[coordinates[1]][coordinates[0]] = false;
+      isData[MatrixUtil.getSecondTypeInfoY(i, dimension)][MatrixUtil.getSecondTypeInfoX(i, dimension)] = false;
+    }
+
+    long[][][][] planes = new long[QRCode.NUM_MASK_PATTERNS][2][dimension][numWords];
+    for (int maskPattern = 0; maskPattern < QRCode.NUM_MASK_PATTERNS; maskPattern++) {
+      long[][] maskRows = planes[maskPattern][0];
+      long[][] maskColumns = planes[maskPattern][1];
+      for (int y = 0; y < dimension; y++) {
+        for (int x = 0; x < dimension; x++) {
+          if (isData[y][x] && MaskUtil.getDataMaskBit(maskPattern, x, y)) {
+            maskRows[y][x >> 6] |= 1L << x;
+            maskColumns[x][y >> 6] |= 1L << y;
+          }
+        }
+      }
+    }
+    return planes;
+  }
+
+}
@@ -24,10 +24,10 @@ package com.google.zxing.qrcode.encoder;
 final class MaskUtil {
 
   // Penalty weights from section 6.8.2.1
-  private static final int N1 = 3;
-  private static final int N2 = 3;
-  private static final int N3 = 40;
-  private static final int N4 = 10;
+  static final int N1 = 3;
+  static final int N2 = 3;
+  static final int N3 = 40;
+  static final int N4 = 10;
 
   private MaskUtil() {
     // do nothing
@@ -18,9 +18,12 @@ package com.google.zxing.qrcode.encoder;
 
 import com.google.zxing.WriterException;
 import com.google.zxing.common.BitArray;
+import com.google.zxing.qrcode.decoder.CodewordPlacement;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
 import com.google.zxing.qrcode.decoder.Version;
 
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
 /**
  * @author satorux@google.com (Satoru Takabayashi) - creator
  * @author dswitkin@google.com (Daniel Switkin) - ported from C++
@@ -115,6 +118,8 @@ final class MatrixUtil {
   private static final int TYPE_INFO_POLY = 0x537;
   private static final int TYPE_INFO_MASK_PATTERN = 0x5412;
 
+  private static final AtomicReferenceArray<ByteMatrix> TEMPLATES = new AtomicReferenceArray<>(40);
+
   private MatrixUtil() {
     // do nothing
   }
@@ -144,6 +149,48 @@ final class MatrixUtil {
     embedDataBits(dataBits, maskPattern, matrix);
   }
 
+  // As buildMatrix(BitArray, ...), but taking the final codewords as bytes, most-significant bit first.
+  // The function patterns and version info come from a per-version template, and the data bits are
+  // written through the precomputed CodewordPlacement for the version.
+  static void buildMatrix(byte[] codewords,
+                          ErrorCorrectionLevel ecLevel,
+                          Version version,
+                          int maskPattern,
+                          ByteMatrix matrix) throws WriterException {
+    byte[][] template = getTemplate(version).getArray();
+    byte[][] rows = matrix.getArray();
+    if (rows.length != template.length || rows[0].length != template[0].length) {
+      throw new WriterException("Matrix size does not match version " + version);
+    }
+    for (int y = 0; y < rows.length; y++) {
+      System.arraycopy(template[y], 0, rows[y], 0, rows[y].length);
+    }
+    embedTypeInfo(ecLevel, maskPattern, matrix);
+    try {
+      CodewordPlacement.forVersion(version).placeCodewords(codewords, maskPattern, rows);
+    } catch (IllegalArgumentException iae) {
+      throw new WriterException(iae.getMessage());
+    }
+  }
+
+  // Basic patterns and version info for "version", with every other cell empty. Built once per version;
+  // callers must copy it rather than modify it.
+  static ByteMatrix getTemplate(Version version) throws WriterException {
+    int index = version.getVersionNumber() - 1;
+    ByteMatrix template = TEMPLATES.get(index);
+    if (template == null) {
+      int dimension = version.getDimensionForVersion();
+      template = new ByteMatrix(dimension, dimension);
+      clearMatrix(template);
+      embedBasicPatterns(version, template);
+      maybeEmbedVersionInfo(version, template);
+      if (!TEMPLATES.compareAndSet(index, null, template)) {
+        template = TEMPLATES.get(index);
+      }
+    }
+    return template;
+  }
+
   // Embed basic patterns. On success, modify the matrix and return true.
   // The basic patterns are:
   // - Position detection patterns
@@ -175,25 +222,30 @@ final class MatrixUtil {
 
       // Type info bits at the left top corner. See 8.9 of JISX0510:2004 (p.46).
       int[] coordinates = TYPE_INFO_COORDINATES[i];
-      int x1 = coordinates[0];
-      int y1 = coordinates[1];
-      matrix.set(x1, y1, bit);
-
-      int x2;
-      int y2;
-      if (i < 8) {
-        // Right top corner.
-        x2 = matrix.getWidth() - i - 1;
-        y2 = 8;
-      } else {
-        // Left bottom corner.
-        x2 = 8;
-        y2 = matrix.getHeight() - 7 + (i - 8);
-      }
+      matrix.set(coordinates[0], coordinates[1], bit);
+
+      // Right top corner for the first 8 bits, left bottom corner for the rest.
+      int x2 = getSecondTypeInfoX(i, matrix.getWidth());
+      int y2 = getSecondTypeInfoY(i, matrix.getHeight());
       matrix.set(x2, y2, bit);
     }
   }
 
+  // Position of the first copy of type info bit "i", counting from the least significant bit, as {x, y}.
+  static int[] getTypeInfoCoordinates(int i) {
+    return TYPE_INFO_COORDINATES[i];
+  }
+
+  // X position of the second copy of type info bit "i" in a matrix "width" cells wide.
+  static int getSecondTypeInfoX(int i, int width) {
+    return i < 8 ? width - i - 1 : 8;
+  }
+
+  // Y position of the second copy of type info bit "i" in a matrix "height" cells high.
+  static int getSecondTypeInfoY(int i, int height) {
+    return i < 8 ? 8 : height - 7 + (i - 8);
+  }
+
   // Embed version information if need be. On success, modify the matrix and return true.
   // See 8.10 of JISX0510:2004 (p.47) for how to embed version information.
   static void maybeEmbedVersionInfo(Version version, ByteMatrix matrix) throws WriterException {
@@ -19,6 +19,8 @@ package com.google.zxing.common;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Random;
 
 /**
@@ -232,6 +234,66 @@ public final class BitArrayTestCase extends Assert {
     assertEquals(a.hashCode(), b.hashCode());
   }
 
+  @Test
+  public void testAppendBits() {
+    Random random = new Random(0xDEADBEEF);
+    BitArray array = new BitArray();
+    List<Boolean> expected = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      int value = random.nextInt();
+      int numBits = random.nextInt(33);
+      array.appendBits(value, numBits);
+      for (int j = numBits - 1; j >= 0; j--) {
+        expected.add(((value >> j) & 0x01) != 0);
+      }
+    }
+    assertEquals(expected.size(), array.getSize());
+    for (int i = 0; i < expected.size(); i++) {
+      assertEquals(expected.get(i), array.get(i));
+    }
+  }
+
+  @Test
+  public void testAppendBitArray() {
+    Random random = new Random(0xDEADBEEF);
+    for (int offset = 0; offset < 40; offset++) {
+      BitArray other = new BitArray();
+      for (int i = 0; i < 77; i++) {
+        other.appendBit(random.nextBoolean());
+      }
+      BitArray array = new BitArray();
+      array.appendBits(0x5555, Math.min(offset, 16));
+      array.appendBits(0, Math.max(0, offset - 16));
+      BitArray prefix = array.clone();
+      array.appendBitArray(other);
+      assertEquals(offset + 77, array.getSize());
+      for (int i = 0; i < offset; i++) {
+        assertEquals(prefix.get(i), array.get(i));
+      }
+      for (int i = 0; i < 77; i++) {
+        assertEquals(other.get(i), array.get(offset + i));
+      }
+    }
+  }
+
+  @Test
+  public void testToBytes() {
+    Random random = new Random(0xDEADBEEF);
+    BitArray array = new BitArray();
+    for (int i = 0; i < 300; i++) {
+      array.appendBit(random.nextBoolean());
+    }
+    for (int bitOffset = 0; bitOffset < 40; bitOffset++) {
+      byte[] bytes = new byte[30];
+      array.toBytes(bitOffset, bytes, 1, 29);
+      assertEquals(0, bytes[0]);
+      for (int i = 0; i < 29 * 8; i++) {
+        boolean bit = (bytes[1 + i / 8] & (0x80 >> (i & 0x07))) != 0;
+        assertEquals(array.get(bitOffset + i), bit);
+      }
+    }
+  }
+
   private static int[] reverseOriginal(int[] oldBits, int size) {
     int[] newBits = new int[oldBits.length];
     for (int i = 0; i < size; i++) {
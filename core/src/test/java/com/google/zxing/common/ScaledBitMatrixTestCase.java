@@ -0,0 +1,92 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.common;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.aztec.AztecWriter;
+import com.google.zxing.oned.Code128Writer;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link ScaledBitMatrix}.
+ */
+public final class ScaledBitMatrixTestCase extends Assert {
+
+  @Test
+  public void testScaled() {
+    BitMatrix modules = BitMatrix.parse(
+        "X X   \n" +
+        "  X X \n", "X ", "  ");
+    ScaledBitMatrix scaled = new ScaledBitMatrix(modules, 10, 7, 1, 2, 3, 2);
+    assertEquals(
+        "                    \n" +
+        "                    \n" +
+        "  X X X X X X       \n" +
+        "  X X X X X X       \n" +
+        "        X X X X X X \n" +
+        "        X X X X X X \n" +
+        "                    \n",
+        scaled.toBitMatrix().toString());
+    assertRowsMatch(scaled);
+    assertEquals(-1, scaled.getModuleRow(1));
+    assertEquals(0, scaled.getModuleRow(3));
+    assertEquals(1, scaled.getModuleRow(4));
+    assertEquals(-1, scaled.getModuleRow(6));
+  }
+
+  @Test
+  public void testUnscaled() {
+    BitMatrix matrix = BitMatrix.parse("X   X \n  X   \n", "X ", "  ");
+    ScaledBitMatrix view = new ScaledBitMatrix(matrix);
+    assertEquals(matrix, view.toBitMatrix());
+    assertRowsMatch(view);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testModulesOutside() {
+    new ScaledBitMatrix(new BitMatrix(3, 3), 10, 10, 2, 0, 3, 3);
+  }
+
+  @Test
+  public void testWriters() {
+    // The same images as encode gives, and which the writers' own tests check
+    ScaledBitMatrix aztec = new AztecWriter().encodeScaled("ABC", BarcodeFormat.AZTEC, 101, 80, null);
+    assertEquals(new AztecWriter().encode("ABC", BarcodeFormat.AZTEC, 101, 80), aztec.toBitMatrix());
+    assertRowsMatch(aztec);
+
+    ScaledBitMatrix code128 = new Code128Writer().encodeScaled("ABC-123", BarcodeFormat.CODE_128, 300, 4096, null);
+    assertEquals(1, code128.getModules().getHeight());
+    assertEquals(new Code128Writer().encode("ABC-123", BarcodeFormat.CODE_128, 300, 4096), code128.toBitMatrix());
+    assertRowsMatch(code128);
+  }
+
+  private static void assertRowsMatch(ScaledBitMatrix scaled) {
+    BitMatrix full = scaled.toBitMatrix();
+    BitArray row = new BitArray(1);
+    BitArray fullRow = new BitArray(full.getWidth());
+    for (int y = 0; y < full.getHeight(); y++) {
+      row = scaled.getRow(y, row);
+      fullRow = full.getRow(y, fullRow);
+      for (int x = 0; x < full.getWidth(); x++) {
+        assertEquals(x + "," + y, fullRow.get(x), row.get(x));
+        assertEquals(x + "," + y, fullRow.get(x), scaled.get(x, y));
+      }
+    }
+  }
+
+}
@@ -16,9 +16,14 @@
 
 package com.google.zxing.datamatrix.encoder;
 
+import com.google.zxing.common.reedsolomon.GenericGF;
+import com.google.zxing.common.reedsolomon.ReedSolomonDecoder;
+import com.google.zxing.common.reedsolomon.ReedSolomonException;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Random;
+
 /**
  * Tests for the ECC200 error correction.
  */
@@ -38,4 +43,48 @@ public final class ErrorCorrectionTestCase extends Assert {
     assertEquals("66 129 70 138 234 82 82 95", HighLevelEncodeTestCase.visualize(s));
   }
 
+  @Test
+  public void testBytesMatchString() {
+    char[] cw = {142, 164, 186};
+    SymbolInfo symbolInfo = SymbolInfo.lookup(3);
+    byte[] encoded = ErrorCorrection.encodeECC200(new byte[] {(byte) 142, (byte) 164, (byte) 186}, symbolInfo);
+    String expected = ErrorCorrection.encodeECC200(String.valueOf(cw), symbolInfo);
+    assertEquals(expected.length(), encoded.length);
+    for (int i = 0; i < encoded.length; i++) {
+      assertEquals(expected.charAt(i), encoded[i] & 0xFF);
+    }
+  }
+
+  @Test
+  public void testInterleavedBlocks() throws ReedSolomonException {
+    Random random = new Random(0xECC);
+    ReedSolomonDecoder decoder = new ReedSolomonDecoder(GenericGF.DATA_MATRIX_FIELD_256);
+    // 52x52 has 2 blocks, 144x144 has 10 blocks of two different data lengths
+    for (int dataCodewords : new int[] {204, 1558}) {
+      SymbolInfo symbolInfo = SymbolInfo.lookup(dataCodewords);
+      int blockCount = symbolInfo.getInterleavedBlockCount();
+      assertTrue(blockCount > 1);
+      byte[] data = new byte[symbolInfo.getDataCapacity()];
+      random.nextBytes(data);
+      byte[] encoded = ErrorCorrection.encodeECC200(data, symbolInfo);
+      for (int block = 0; block < blockCount; block++) {
+        int numData = symbolInfo.getDataLengthForInterleavedBlock(block + 1);
+        int numEC = symbolInfo.getErrorLengthForInterleavedBlock(block + 1);
+        int[] received = new int[numData + numEC];
+        int offset = 0;
+        for (int i = block; i < data.length; i += blockCount) {
+          received[offset++] = encoded[i] & 0xFF;
+        }
+        for (int i = data.length + block; i < encoded.length; i += blockCount) {
+          received[offset++] = encoded[i] & 0xFF;
+        }
+        assertEquals(received.length, offset);
+        int[] expected = received.clone();
+        received[1] ^= 0x5A;
+        decoder.decode(received, numEC);
+        assertArrayEquals(expected, received);
+      }
+    }
+  }
+
 }
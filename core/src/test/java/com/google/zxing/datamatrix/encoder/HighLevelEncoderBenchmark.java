@@ -0,0 +1,86 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.datamatrix.encoder;
+
+import java.util.Random;
+
+/**
+ * <p>Times {@link HighLevelEncoder} and {@link MinimalEncoder} over messages of increasing length,
+ * and reports the average number of codewords each produces. Not run as part of the tests.</p>
+ *
+ * <p>Usage: {@code java com.google.zxing.datamatrix.encoder.HighLevelEncoderBenchmark [iterations]}
+ * with core's classes and test classes on the class path.</p>
+ */
+public final class HighLevelEncoderBenchmark {
+
+  private static final int[] LENGTHS = {25, 100, 400, 1000, 1500};
+  private static final int MESSAGES_PER_LENGTH = 20;
+  // Like GS1 element strings: upper case and digits with some punctuation
+  private static final String ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789012345678901234567890123456789-./";
+
+  private HighLevelEncoderBenchmark() {
+  }
+
+  public static void main(String[] args) {
+    int iterations = args.length > 0 ? Integer.parseInt(args[0]) : 50;
+    Random random = new Random(0xBE7C);
+    System.out.println("length  greedy us  minimal us  greedy cw  minimal cw");
+    for (int length : LENGTHS) {
+      String[] messages = new String[MESSAGES_PER_LENGTH];
+      for (int i = 0; i < messages.length; i++) {
+        StringBuilder sb = new StringBuilder(length);
+        for (int j = 0; j < length; j++) {
+          sb.append(ALPHABET.charAt(random.nextInt(ALPHABET.length())));
+        }
+        messages[i] = sb.toString();
+      }
+      // Warm up, and count codewords
+      long greedyCodewords = 0;
+      long minimalCodewords = 0;
+      for (String message : messages) {
+        greedyCodewords += HighLevelEncoder.encodeHighLevel(message).length();
+        minimalCodewords += MinimalEncoder.encodeHighLevel(message).length();
+      }
+      long greedyNanos = time(messages, iterations, false);
+      long minimalNanos = time(messages, iterations, true);
+      int runs = iterations * messages.length;
+      System.out.printf("%6d  %9.1f  %10.1f  %9d  %10d%n",
+                        length,
+                        greedyNanos / 1000.0 / runs,
+                        minimalNanos / 1000.0 / runs,
+                        greedyCodewords / messages.length,
+                        minimalCodewords / messages.length);
+    }
+  }
+
+  private static long time(String[] messages, int iterations, boolean minimal) {
+    int sink = 0;
+    long start = System.nanoTime();
+    for (int i = 0; i < iterations; i++) {
+      for (String message : messages) {
+        String encoded = minimal ? MinimalEncoder.encodeHighLevel(message) : HighLevelEncoder.encodeHighLevel(message);
+        sink += encoded.length();
+      }
+    }
+    long elapsed = System.nanoTime() - start;
+    if (sink == 0) {
+      throw new IllegalStateException();
+    }
+    return elapsed;
+  }
+
+}
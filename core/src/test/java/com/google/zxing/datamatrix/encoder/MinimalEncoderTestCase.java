@@ -0,0 +1,138 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.datamatrix.encoder;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.ChecksumException;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.FormatException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.datamatrix.DataMatrixWriter;
+import com.google.zxing.datamatrix.decoder.Decoder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests {@link MinimalEncoder} against {@link HighLevelEncoder} and the decoder.
+ */
+public final class MinimalEncoderTestCase extends Assert {
+
+  private static final String[] ALPHABETS = {
+      "0123456789",
+      "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 ",
+      "abcdefghijklmnopqrstuvwxyz0123456789 ",
+      "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 *>\r",
+      "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789 .-/:;<=>?@[\\]^",
+      "ABCabc012.-/äöüß§À",
+  };
+
+  @Test
+  public void testExamples() {
+    // Digits pack two to an ASCII codeword
+    assertEquals("142 164 186", HighLevelEncodeTestCase.visualize(MinimalEncoder.encodeHighLevel("123456")));
+    // Upper case text goes to C40, unlatching only when the symbol has room left
+    assertEquals(HighLevelEncodeTestCase.visualize(HighLevelEncoder.encodeHighLevel("AIMAIMAIM")),
+                 HighLevelEncodeTestCase.visualize(MinimalEncoder.encodeHighLevel("AIMAIMAIM")));
+  }
+
+  @Test
+  public void testNeverLongerThanHighLevelEncoder() {
+    Random random = new Random(0xDA7A);
+    SymbolShapeHint[] shapes = SymbolShapeHint.values();
+    for (int i = 0; i < 3000; i++) {
+      String message = randomMessage(random);
+      SymbolShapeHint shape = shapes[i % shapes.length];
+      int expected;
+      try {
+        expected = HighLevelEncoder.encodeHighLevel(message, shape, null, null).length();
+      } catch (IllegalArgumentException iae) {
+        // Too long for any symbol
+        continue;
+      }
+      String encoded = MinimalEncoder.encodeHighLevel(message, shape, null, null);
+      assertTrue(message + ": " + encoded.length() + " > " + expected, encoded.length() <= expected);
+    }
+  }
+
+  @Test
+  public void testDecodes() throws ChecksumException, FormatException {
+    Random random = new Random(0x0DEC);
+    DataMatrixWriter writer = new DataMatrixWriter();
+    Decoder decoder = new Decoder();
+    Map<EncodeHintType,Object> hints = new EnumMap<>(EncodeHintType.class);
+    hints.put(EncodeHintType.DATA_MATRIX_COMPACT, Boolean.TRUE);
+    for (int i = 0; i < 1000; i++) {
+      String message = randomMessage(random);
+      if (message.length() > 500) {
+        continue;
+      }
+      hints.put(EncodeHintType.DATA_MATRIX_SHAPE,
+                i % 2 == 0 ? SymbolShapeHint.FORCE_SQUARE : SymbolShapeHint.FORCE_RECTANGLE);
+      BitMatrix matrix;
+      try {
+        matrix = writer.encode(message, BarcodeFormat.DATA_MATRIX, 0, 0, hints);
+      } catch (IllegalArgumentException iae) {
+        // Too long for a rectangular symbol
+        continue;
+      }
+      assertEquals(message, decoder.decode(matrix).getText());
+    }
+  }
+
+  @Test
+  public void testMacro() {
+    String encoded = MinimalEncoder.encodeHighLevel(HighLevelEncoder.MACRO_05_HEADER + "123456" +
+                                                    HighLevelEncoder.MACRO_TRAILER);
+    assertEquals(HighLevelEncoder.MACRO_05, encoded.charAt(0));
+    assertEquals("142 164 186 129", HighLevelEncodeTestCase.visualize(encoded.substring(1)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooLong() {
+    StringBuilder sb = new StringBuilder();
+    for (int i = 0; i < 1600; i++) {
+      sb.append('\u00B7');
+    }
+    MinimalEncoder.encodeHighLevel(sb.toString());
+  }
+
+  private static String randomMessage(Random random) {
+    int length = 1 + random.nextInt(random.nextInt(8) == 0 ? 1000 : 60);
+    StringBuilder sb = new StringBuilder(length);
+    if (random.nextInt(6) == 0) {
+      // Binary
+      for (int i = 0; i < length; i++) {
+        sb.append((char) random.nextInt(256));
+      }
+      return sb.toString();
+    }
+    // Runs from a few alphabets, as in real data
+    while (sb.length() < length) {
+      String alphabet = ALPHABETS[random.nextInt(ALPHABETS.length)];
+      int run = 1 + random.nextInt(12);
+      for (int i = 0; i < run && sb.length() < length; i++) {
+        sb.append(alphabet.charAt(random.nextInt(alphabet.length())));
+      }
+    }
+    return sb.toString();
+  }
+
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.multi;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.MultiFormatWriter;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.PlanarYUVLuminanceSource;
+import com.google.zxing.Result;
+import com.google.zxing.ResultPoint;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.HybridBinarizer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Tests {@link ByStripeReader}.
+ */
+public final class ByStripeReaderTestCase extends Assert {
+
+  private static final int WIDTH = 400;
+  private static final int LABELS = 8;
+  private static final int LABEL_HEIGHT = 150;
+
+  @Test
+  public void testStripes() throws NotFoundException {
+    int height = 350;
+    // Stripes at 0, 80, 160, 240, then one moved up to end at the bottom
+    int[] stripeTops = {0, 80, 160, 240, 250};
+    // All with the same text, but far enough apart to be different barcodes
+    int[] barcodeYs = {30, 100, 170, 245, 300, 340};
+    List<Integer> stripeHeights = new ArrayList<>();
+    MultipleBarcodeReader delegate = new MultipleBarcodeReader() {
+      @Override
+      public Result[] decodeMultiple(BinaryBitmap image) {
+        return decodeMultiple(image, null);
+      }
+      @Override
+      public Result[] decodeMultiple(BinaryBitmap image, Map<DecodeHintType,?> hints) {
+        int top = stripeTops[stripeHeights.size()];
+        stripeHeights.add(image.getHeight());
+        List<Result> found = new ArrayList<>();
+        for (int y : barcodeYs) {
+          if (y >= top && y < top + image.getHeight()) {
+            found.add(new Result("same", null, new ResultPoint[] {new ResultPoint(10.0f, y - top)},
+                                 BarcodeFormat.CODE_128));
+          }
+        }
+        return found.toArray(new Result[0]);
+      }
+    };
+    LuminanceSource source =
+        new PlanarYUVLuminanceSource(new byte[WIDTH * height], WIDTH, height, 0, 0, WIDTH, height, false);
+    Result[] results =
+        new ByStripeReader(delegate, 100, 20).decodeMultiple(new BinaryBitmap(new HybridBinarizer(source)));
+
+    assertEquals(Collections.nCopies(stripeTops.length, 100), stripeHeights);
+    assertEquals(barcodeYs.length, results.length);
+    for (int i = 0; i < results.length; i++) {
+      assertEquals(barcodeYs[i], results[i].getResultPoints()[0].getY(), 0.0f);
+    }
+  }
+
+  @Test
+  public void testTallImage() throws Exception {
+    // Like a continuous feed: one label after another
+    byte[] luminance = new byte[WIDTH * LABELS * LABEL_HEIGHT];
+    Arrays.fill(luminance, (byte) 0xFF);
+    for (int i = 0; i < LABELS; i++) {
+      draw(luminance, "LABEL-" + i, 30, i * LABEL_HEIGHT + 30, 300, 80);
+    }
+    int height = LABELS * LABEL_HEIGHT;
+    LuminanceSource source = new PlanarYUVLuminanceSource(luminance, WIDTH, height, 0, 0, WIDTH, height, false);
+    Map<DecodeHintType,Object> hints = new EnumMap<>(DecodeHintType.class);
+    hints.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+
+    // Labels are shorter than the overlap, so each lies within a stripe, and some within two
+    MultipleBarcodeReader reader =
+        new ByStripeReader(new GenericMultipleBarcodeReader(new MultiFormatReader()), 400, 160);
+    Result[] results = reader.decodeMultiple(new BinaryBitmap(new HybridBinarizer(source)), hints);
+
+    int[] found = new int[LABELS];
+    for (Result result : results) {
+      int label = (int) result.getResultPoints()[0].getY() / LABEL_HEIGHT;
+      assertEquals("LABEL-" + label, result.getText());
+      found[label]++;
+    }
+    int[] once = new int[LABELS];
+    Arrays.fill(once, 1);
+    assertArrayEquals(once, found);
+  }
+
+  @Test
+  public void testShortImage() throws Exception {
+    byte[] luminance = new byte[WIDTH * LABEL_HEIGHT];
+    Arrays.fill(luminance, (byte) 0xFF);
+    draw(luminance, "SHORT", 30, 30, 300, 80);
+    LuminanceSource source =
+        new PlanarYUVLuminanceSource(luminance, WIDTH, LABEL_HEIGHT, 0, 0, WIDTH, LABEL_HEIGHT, false);
+    Result[] results = new ByStripeReader(new GenericMultipleBarcodeReader(new MultiFormatReader()))
+        .decodeMultiple(new BinaryBitmap(new HybridBinarizer(source)));
+    assertEquals(1, results.length);
+    assertEquals("SHORT", results[0].getText());
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testBadOverlap() {
+    new ByStripeReader(new GenericMultipleBarcodeReader(new MultiFormatReader()), 100, 100);
+  }
+
+  private static void draw(byte[] luminance, String contents, int left, int top, int width, int height)
+      throws WriterException {
+    BitMatrix matrix = new MultiFormatWriter().encode(contents, BarcodeFormat.CODE_128, width, height);
+    for (int y = 0; y < matrix.getHeight(); y++) {
+      for (int x = 0; x < matrix.getWidth(); x++) {
+        if (matrix.get(x, y)) {
+          luminance[(top + y) * WIDTH + left + x] = 0;
+        }
+      }
+    }
+  }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.oned;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests {@link Code128Reader#lookUpCode(int[])} against trying every pattern.
+ */
+public final class Code128ReaderTestCase extends Assert {
+
+  @Test
+  public void testExactPatterns() {
+    for (int code = 0; code < Code128Reader.CODE_PATTERNS.length; code++) {
+      int[] counters = new int[6];
+      for (int scale = 1; scale <= 5; scale++) {
+        for (int i = 0; i < counters.length; i++) {
+          counters[i] = scale * Code128Reader.CODE_PATTERNS[code][i];
+        }
+        assertEquals(code, Code128Reader.lookUpCode(counters));
+      }
+    }
+  }
+
+  @Test
+  public void testSameAsBestVariance() {
+    Random random = new Random(0x128);
+    int[] counters = new int[6];
+    int found = 0;
+    for (int n = 0; n < 100000; n++) {
+      int[] pattern = Code128Reader.CODE_PATTERNS[random.nextInt(Code128Reader.CODE_PATTERNS.length)];
+      int scale = 3 + random.nextInt(6);
+      for (int i = 0; i < counters.length; i++) {
+        counters[i] = Math.max(1, scale * pattern[i] + random.nextInt(3) - 1);
+      }
+      int code = Code128Reader.lookUpCode(counters);
+      if (code >= 0) {
+        assertEquals(bestVariance(counters), code);
+        found++;
+      }
+    }
+    // Most of them are clean enough to look up
+    assertTrue(found > 50000);
+  }
+
+  private static int bestVariance(int[] counters) {
+    float bestVariance = Float.MAX_VALUE;
+    int bestMatch = -1;
+    for (int d = 0; d < Code128Reader.CODE_PATTERNS.length; d++) {
+      float variance = OneDReader.patternMatchVariance(counters, Code128Reader.CODE_PATTERNS[d], 0.7f);
+      if (variance < bestVariance) {
+        bestVariance = variance;
+        bestMatch = d;
+      }
+    }
+    return bestMatch;
+  }
+
+}
@@ -26,6 +26,7 @@
 
 package com.google.zxing.oned.rss.expanded;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import com.google.zxing.oned.OneDReader;
@@ -36,6 +37,8 @@ import com.google.zxing.BinaryBitmap;
 import com.google.zxing.NotFoundException;
 import com.google.zxing.Result;
 import com.google.zxing.common.BitArray;
+import com.google.zxing.oned.rss.DataCharacter;
+import com.google.zxing.oned.rss.FinderPattern;
 
 /**
  * Tests {@link RSSExpandedReader} handling of stacked RSS barcodes.
@@ -85,5 +88,41 @@ public final class RSSExpandedStackedInternalTestCase extends Assert {
     assertEquals("(01)98898765432106(3202)012345(15)991231", result.getText());
   }
 
+  @Test
+  public void testManyDecoyRows() {
+    // Rows A A | B B | C D | D E | E F | F of an 11 pair symbol, each read once right and three times with
+    // characters that make any combination using them fail the checksum. The right rows come last.
+    int[][] rowFinderPatterns = {{0, 0}, {1, 1}, {2, 3}, {3, 4}, {4, 5}, {5}};
+    int checkCharacterValue = 211 * (2 * 11 - 4);
+    RSSExpandedReader rssExpandedReader = new RSSExpandedReader();
+    List<ExpandedRow> rows = rssExpandedReader.getRows();
+    List<ExpandedPair> expected = new ArrayList<>();
+    int pairIndex = 0;
+    for (int[] finderPatterns : rowFinderPatterns) {
+      for (int variant = 3; variant >= 0; variant--) {
+        List<ExpandedPair> pairs = new ArrayList<>();
+        for (int i = 0; i < finderPatterns.length; i++) {
+          int index = pairIndex + i;
+          int checksumPortion = variant == 0 ? 0 : 1;
+          DataCharacter leftChar = index == 0 ?
+              new DataCharacter(checkCharacterValue, 0) : new DataCharacter(100 * variant + index, checksumPortion);
+          DataCharacter rightChar = new DataCharacter(100 * variant + index + 50, checksumPortion);
+          FinderPattern finderPattern = new FinderPattern(finderPatterns[i], new int[2], 0, 0, rows.size());
+          pairs.add(new ExpandedPair(leftChar, rightChar, finderPattern));
+        }
+        rows.add(new ExpandedRow(pairs, rows.size(), false));
+        if (variant == 0) {
+          expected.addAll(pairs);
+        }
+      }
+      pairIndex += finderPatterns.length;
+    }
+
+    assertEquals(expected, rssExpandedReader.checkRows(false));
+
+    // Without the right last row, every combination fails
+    rows.remove(rows.size() - 1);
+    assertNull(rssExpandedReader.checkRows(false));
+  }
 
 }
@@ -0,0 +1,70 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.pdf417.decoder;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Tests {@link BarcodeValue}.
+ */
+public final class BarcodeValueTestCase extends Assert {
+
+  @Test
+  public void testEmpty() {
+    BarcodeValue barcodeValue = new BarcodeValue();
+    assertArrayEquals(new int[0], barcodeValue.getValue());
+    assertEquals(0, barcodeValue.getConfidence(42));
+  }
+
+  @Test
+  public void testMostFrequent() {
+    BarcodeValue barcodeValue = new BarcodeValue();
+    // More distinct values than the initial capacity
+    for (int value : new int[] {7, 3, 900, 3, 12, 45, 3, 7, 0, 811}) {
+      barcodeValue.setValue(value);
+    }
+    assertArrayEquals(new int[] {3}, barcodeValue.getValue());
+    assertEquals(3, barcodeValue.getConfidence(3));
+    assertEquals(2, barcodeValue.getConfidence(7));
+    assertEquals(1, barcodeValue.getConfidence(811));
+    assertEquals(0, barcodeValue.getConfidence(1));
+  }
+
+  @Test
+  public void testTiesInOrderFirstSet() {
+    BarcodeValue barcodeValue = new BarcodeValue();
+    for (int value : new int[] {5, 100, 2, 100, 5, 2, 9}) {
+      barcodeValue.setValue(value);
+    }
+    assertArrayEquals(new int[] {5, 100, 2}, barcodeValue.getValue());
+  }
+
+  @Test
+  public void testClear() {
+    BarcodeValue barcodeValue = new BarcodeValue();
+    barcodeValue.setValue(1);
+    barcodeValue.setValue(1);
+    barcodeValue.clear();
+    assertArrayEquals(new int[0], barcodeValue.getValue());
+    assertEquals(0, barcodeValue.getConfidence(1));
+    barcodeValue.setValue(2);
+    assertArrayEquals(new int[] {2}, barcodeValue.getValue());
+    assertEquals(1, barcodeValue.getConfidence(2));
+  }
+
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.pdf417.decoder;
+
+import com.google.zxing.pdf417.PDF417Common;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests {@link PDF417CodewordDecoder} and {@link PDF417Common#getCodeword(int)} against plain searches of the
+ * symbol table.
+ */
+public final class PDF417CodewordDecoderTestCase extends Assert {
+
+  @Test
+  public void testGetCodeword() {
+    for (int symbol = 0; symbol < 0x40000; symbol++) {
+      boolean isSymbol = Arrays.binarySearch(PDF417Common.SYMBOL_TABLE, symbol) >= 0;
+      assertEquals(Integer.toHexString(symbol), isSymbol, PDF417Common.getCodeword(symbol) >= 0);
+    }
+    // Bits above the 18 of a symbol are ignored
+    assertEquals(PDF417Common.getCodeword(0x1025e), PDF417Common.getCodeword(0x7c1025e));
+  }
+
+  @Test
+  public void testExactSymbols() {
+    for (int symbol : PDF417Common.SYMBOL_TABLE) {
+      int[] moduleBitCount = toModuleBitCount(symbol);
+      assertEquals(symbol, PDF417CodewordDecoder.getDecodedValue(moduleBitCount));
+      // Scaled up by an odd factor, sampling finds the same modules
+      for (int i = 0; i < moduleBitCount.length; i++) {
+        moduleBitCount[i] *= 3;
+      }
+      assertEquals(symbol, PDF417CodewordDecoder.getDecodedValue(moduleBitCount));
+    }
+  }
+
+  @Test
+  public void testClosestSymbol() {
+    float[][] ratios = new float[PDF417Common.SYMBOL_TABLE.length][];
+    for (int i = 0; i < ratios.length; i++) {
+      int[] moduleBitCount = toModuleBitCount(PDF417Common.SYMBOL_TABLE[i]);
+      ratios[i] = new float[moduleBitCount.length];
+      for (int k = 0; k < moduleBitCount.length; k++) {
+        ratios[i][k] = moduleBitCount[k] / (float) PDF417Common.MODULES_IN_CODEWORD;
+      }
+    }
+    Random random = new Random(0x929);
+    int[] moduleBitCount = new int[PDF417Common.BARS_IN_MODULE];
+    for (int n = 0; n < 3000; n++) {
+      int sum = 0;
+      for (int k = 0; k < moduleBitCount.length; k++) {
+        moduleBitCount[k] = random.nextInt(n % 10 == 0 ? 3 : 20);
+        sum += moduleBitCount[k];
+      }
+      float bestError = Float.MAX_VALUE;
+      int bestSymbol = -1;
+      for (int i = 0; i < ratios.length; i++) {
+        float error = 0.0f;
+        for (int k = 0; k < moduleBitCount.length; k++) {
+          float diff = ratios[i][k] - (sum > 1 ? moduleBitCount[k] / (float) sum : 0.0f);
+          error += diff * diff;
+        }
+        if (error < bestError) {
+          bestError = error;
+          bestSymbol = PDF417Common.SYMBOL_TABLE[i];
+        }
+      }
+      assertEquals(bestSymbol, PDF417CodewordDecoder.getClosestDecodedValue(moduleBitCount));
+    }
+  }
+
+  private static int[] toModuleBitCount(int symbol) {
+    int[] moduleBitCount = new int[PDF417Common.BARS_IN_MODULE];
+    int bar = PDF417Common.BARS_IN_MODULE - 1;
+    int previousBit = symbol & 0x1;
+    for (int i = 0; i < PDF417Common.MODULES_IN_CODEWORD; i++) {
+      int bit = (symbol >> i) & 0x1;
+      if (bit != previousBit) {
+        bar--;
+        previousBit = bit;
+      }
+      moduleBitCount[bar]++;
+    }
+    return moduleBitCount;
+  }
+
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.pdf417.decoder;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.RGBLuminanceSource;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.pdf417.PDF417Reader;
+import com.google.zxing.pdf417.PDF417Writer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Tests {@link PDF417ScanningDecoder}.
+ */
+public final class PDF417ScanningDecoderTestCase extends Assert {
+
+  private static final String LARGE_CONTENTS =
+      "The quick brown fox jumps over the lazy dog, again and again, until the symbol needs many rows and columns";
+  private static final String SMALL_CONTENTS = "Hello";
+
+  @Test
+  public void testPooledGridHoldsOnlyLastBarcode() throws Exception {
+    assertEquals(LARGE_CONTENTS, decode(encode(LARGE_CONTENTS)));
+    String largeDump = PDF417ScanningDecoder.toString(PDF417ScanningDecoder.getBarcodeMatrix());
+    assertEquals(SMALL_CONTENTS, decode(encode(SMALL_CONTENTS)));
+    String smallDump = PDF417ScanningDecoder.toString(PDF417ScanningDecoder.getBarcodeMatrix());
+
+    // The same barcode decoded on a thread whose grid has never been used
+    AtomicReference<Object> freshDump = new AtomicReference<>();
+    Thread thread = new Thread(() -> {
+      try {
+        decode(encode(SMALL_CONTENTS));
+        freshDump.set(PDF417ScanningDecoder.toString(PDF417ScanningDecoder.getBarcodeMatrix()));
+      } catch (Exception e) {
+        freshDump.set(e);
+      }
+    });
+    thread.start();
+    thread.join();
+
+    assertEquals(freshDump.get(), smallDump);
+    assertTrue(lineCount(smallDump) < lineCount(largeDump));
+    assertTrue(lineLength(smallDump) < lineLength(largeDump));
+  }
+
+  private static BitMatrix encode(String contents) throws Exception {
+    Map<EncodeHintType,Object> hints = new EnumMap<>(EncodeHintType.class);
+    hints.put(EncodeHintType.MARGIN, 10);
+    return new PDF417Writer().encode(contents, BarcodeFormat.PDF_417, 400, 200, hints);
+  }
+
+  private static String decode(BitMatrix matrix) throws Exception {
+    int width = matrix.getWidth();
+    int height = matrix.getHeight();
+    int[] pixels = new int[width * height];
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        pixels[y * width + x] = matrix.get(x, y) ? 0xFF000000 : 0xFFFFFFFF;
+      }
+    }
+    BinaryBitmap image = new BinaryBitmap(new HybridBinarizer(new RGBLuminanceSource(width, height, pixels)));
+    return new PDF417Reader().decode(image).getText();
+  }
+
+  private static int lineCount(String dump) {
+    return dump.split("\\R").length;
+  }
+
+  private static int lineLength(String dump) {
+    return dump.split("\\R")[0].length();
+  }
+
+}
@@ -18,9 +18,9 @@ package com.google.zxing.pdf417.decoder.ec;
 
 import com.google.zxing.ChecksumException;
 
-import org.junit.Ignore;
 import org.junit.Test;
 
+import java.util.BitSet;
 import java.util.Random;
 
 /**
@@ -85,7 +85,6 @@ public final class ErrorCorrectionTestCase extends AbstractErrorCorrectionTestCa
     }
   }
 
-  @Ignore("Erasures not implemented yet")
   @Test
   public void testMaxErasures() throws ChecksumException {
     Random random = getRandom();
@@ -96,7 +95,6 @@ public final class ErrorCorrectionTestCase extends AbstractErrorCorrectionTestCa
     }
   }
 
-  @Ignore("Erasures not implemented yet")
   @Test
   public void testTooManyErasures() {
     Random random = getRandom();
@@ -110,6 +108,51 @@ public final class ErrorCorrectionTestCase extends AbstractErrorCorrectionTestCa
     }
   }
 
+  @Test
+  public void testErrorsAndErasures() throws ChecksumException {
+    Random random = getRandom();
+    for (int numErasures = 0; numErasures <= MAX_ERASURES; numErasures += 8) {
+      int numErrors = (ERROR_LIMIT - numErasures) / 2;
+      for (int testIterations = 0; testIterations < 10; testIterations++) {
+        int[] received = PDF417_TEST_WITH_EC.clone();
+        int[] erasures = erase(received, numErasures, random);
+        corruptOutside(received, numErrors, erasures, random);
+        checkDecode(received, erasures);
+      }
+    }
+  }
+
+  @Test
+  public void testTooManyErrorsWithErasures() {
+    Random random = getRandom();
+    int[] received = PDF417_TEST_WITH_EC.clone();
+    int[] erasures = erase(received, MAX_ERASURES / 2, random);
+    corruptOutside(received, MAX_ERASURES / 4 + 1, erasures, random);
+    try {
+      checkDecode(received, erasures);
+      fail("Should not have decoded");
+    } catch (ChecksumException ce) {
+      // good
+    }
+  }
+
+  private static void corruptOutside(int[] received, int howMany, int[] erasures, Random random) {
+    BitSet skip = new BitSet(received.length);
+    for (int erasure : erasures) {
+      skip.set(erasure);
+    }
+    for (int j = 0; j < howMany; j++) {
+      int location = random.nextInt(received.length);
+      int value = random.nextInt(929);
+      if (skip.get(location) || received[location] == value) {
+        j--;
+      } else {
+        skip.set(location);
+        received[location] = value;
+      }
+    }
+  }
+
   private void checkDecode(int[] received) throws ChecksumException {
     checkDecode(received, new int[0]);
   }
@@ -16,8 +16,13 @@
 
 package com.google.zxing.pdf417.encoder;
 
+import java.math.BigInteger;
+import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
+import java.util.Random;
 
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -28,7 +33,7 @@ public final class PDF417EncoderTestCase extends Assert {
 
   @Test
   public void testEncodeAuto() throws Exception {
-    String encoded = PDF417HighLevelEncoder.encodeHighLevel(
+    String encoded = encodeHighLevel(
         "ABCD", Compaction.AUTO, StandardCharsets.UTF_8);
     assertEquals("\u039f\u001A\u0385ABCD", encoded);
   }
@@ -36,35 +41,150 @@ public final class PDF417EncoderTestCase extends Assert {
   @Test
   public void testEncodeAutoWithSpecialChars() throws Exception {
     // Just check if this does not throw an exception
-    PDF417HighLevelEncoder.encodeHighLevel(
+    encodeHighLevel(
         "1%§s ?aG$", Compaction.AUTO, StandardCharsets.UTF_8);
   }
   
   @Test
   public void testEncodeIso88591WithSpecialChars() throws Exception {
     // Just check if this does not throw an exception
-    PDF417HighLevelEncoder.encodeHighLevel("asdfg§asd", Compaction.AUTO, StandardCharsets.ISO_8859_1);
+    encodeHighLevel("asdfg§asd", Compaction.AUTO, StandardCharsets.ISO_8859_1);
   }
 
   @Test
   public void testEncodeText() throws Exception {
-    String encoded = PDF417HighLevelEncoder.encodeHighLevel(
+    String encoded = encodeHighLevel(
         "ABCD", Compaction.TEXT, StandardCharsets.UTF_8);
     assertEquals("Ο\u001A\u0001?", encoded);
   }
 
   @Test
   public void testEncodeNumeric() throws Exception {
-    String encoded = PDF417HighLevelEncoder.encodeHighLevel(
+    String encoded = encodeHighLevel(
         "1234", Compaction.NUMERIC, StandardCharsets.UTF_8);
     assertEquals("\u039f\u001A\u0386\f\u01b2", encoded);
   }
 
   @Test
   public void testEncodeByte() throws Exception {
-    String encoded = PDF417HighLevelEncoder.encodeHighLevel(
+    String encoded = encodeHighLevel(
         "abcd", Compaction.BYTE, StandardCharsets.UTF_8);
     assertEquals("\u039f\u001A\u0385abcd", encoded);
   }
 
+  @Test
+  public void testEncodeNumericMatchesBigInteger() throws Exception {
+    Random random = new Random(0x417);
+    for (int length = 1; length <= 200; length++) {
+      StringBuilder digits = new StringBuilder(length);
+      for (int i = 0; i < length; i++) {
+        digits.append((char) ('0' + random.nextInt(10)));
+      }
+      // Mostly zeros, and all nines, are the edge cases for the leading digits
+      for (String msg : new String[] {digits.toString(), digits.toString().replace('5', '0'), nines(length)}) {
+        int[] codewords = PDF417HighLevelEncoder.encodeHighLevel(msg, Compaction.NUMERIC, null);
+        assertEquals(902, codewords[0]);
+        StringBuilder expected = new StringBuilder().append((char) 902);
+        for (int start = 0; start < length; start += 44) {
+          BigInteger group = new BigInteger('1' + msg.substring(start, Math.min(length, start + 44)));
+          StringBuilder reversed = new StringBuilder();
+          do {
+            reversed.append((char) group.mod(BigInteger.valueOf(900)).intValue());
+            group = group.divide(BigInteger.valueOf(900));
+          } while (group.signum() != 0);
+          expected.append(reversed.reverse());
+        }
+        assertEquals(msg, expected.toString(), toString(codewords));
+      }
+    }
+  }
+
+  @Test(expected = WriterException.class)
+  public void testEncodeNumericNonDigit() throws Exception {
+    PDF417HighLevelEncoder.encodeHighLevel("12a4", Compaction.NUMERIC, null);
+  }
+
+  @Test
+  public void testNotGenerated() {
+    PDF417 encoder = new PDF417();
+    assertNull(encoder.getBarcodeMatrix());
+    try {
+      encoder.getNumberOfRows();
+      fail("Expected an IllegalStateException");
+    } catch (IllegalStateException ise) {
+      // good
+    }
+    try {
+      encoder.renderBitMatrix(1, 4, false, 0);
+      fail("Expected an IllegalStateException");
+    } catch (IllegalStateException ise) {
+      // good
+    }
+  }
+
+  @Test
+  public void testRenderMatchesBarcodeMatrix() throws Exception {
+    for (boolean compact : new boolean[] {false, true}) {
+      PDF417 encoder = new PDF417(compact);
+      encoder.generateBarcodeLogic("PDF417 rendering test 0123456789", 2);
+      for (int scale = 1; scale <= 3; scale++) {
+        byte[][] expected = encoder.getBarcodeMatrix().getScaledMatrix(scale, scale * 4);
+        int height = expected.length;
+        int width = expected[0].length;
+        int margin = scale;
+        BitMatrix matrix = encoder.renderBitMatrix(scale, scale * 4, false, margin);
+        BitMatrix rotated = encoder.renderBitMatrix(scale, scale * 4, true, margin);
+        assertEquals(width + 2 * margin, matrix.getWidth());
+        assertEquals(height + 2 * margin, matrix.getHeight());
+        assertEquals(height + 2 * margin, rotated.getWidth());
+        assertEquals(width + 2 * margin, rotated.getHeight());
+        for (int y = 0; y < height; y++) {
+          // The scaled matrix is bottom row first
+          byte[] row = expected[height - 1 - y];
+          for (int x = 0; x < width; x++) {
+            boolean black = row[x] == 1;
+            assertEquals(black, matrix.get(margin + x, margin + y));
+            assertEquals(black, rotated.get(margin + y, rotated.getHeight() - margin - 1 - x));
+          }
+        }
+        assertNull(edgePixel(matrix, margin));
+        assertNull(edgePixel(rotated, margin));
+      }
+    }
+  }
+
+  // A set pixel in the margin, or null
+  private static int[] edgePixel(BitMatrix matrix, int margin) {
+    for (int y = 0; y < matrix.getHeight(); y++) {
+      for (int x = 0; x < matrix.getWidth(); x++) {
+        boolean inMargin = x < margin || y < margin ||
+            x >= matrix.getWidth() - margin || y >= matrix.getHeight() - margin;
+        if (inMargin && matrix.get(x, y)) {
+          return new int[] {x, y};
+        }
+      }
+    }
+    return null;
+  }
+
+  private static String nines(int length) {
+    StringBuilder sb = new StringBuilder(length);
+    for (int i = 0; i < length; i++) {
+      sb.append('9');
+    }
+    return sb.toString();
+  }
+
+  private static String encodeHighLevel(String msg, Compaction compaction, Charset encoding) throws WriterException {
+    return toString(PDF417HighLevelEncoder.encodeHighLevel(msg, compaction, encoding));
+  }
+
+  private static String toString(int[] codewords) {
+    StringBuilder sb = new StringBuilder(codewords.length);
+    for (int codeword : codewords) {
+      sb.append((char) codeword);
+    }
+    return sb.toString();
+  }
+
 }
@@ -0,0 +1,137 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.qrcode.decoder;
+
+import com.google.zxing.common.BitMatrix;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Random;
+
+/**
+ * Tests {@link CodewordPlacement}.
+ */
+public final class CodewordPlacementTestCase extends Assert {
+
+  @Test
+  public void testRemainderBits() {
+    // ISO 18004:2006 Table 1
+    assertEquals(0, CodewordPlacement.forVersion(Version.getVersionForNumber(1)).getNumRemainderBits());
+    assertEquals(7, CodewordPlacement.forVersion(Version.getVersionForNumber(2)).getNumRemainderBits());
+    assertEquals(3, CodewordPlacement.forVersion(Version.getVersionForNumber(14)).getNumRemainderBits());
+    assertEquals(4, CodewordPlacement.forVersion(Version.getVersionForNumber(21)).getNumRemainderBits());
+    assertEquals(0, CodewordPlacement.forVersion(Version.getVersionForNumber(40)).getNumRemainderBits());
+  }
+
+  @Test
+  public void testShared() {
+    Version version = Version.getVersionForNumber(7);
+    assertSame(CodewordPlacement.forVersion(version), CodewordPlacement.forVersion(version));
+  }
+
+  @Test
+  public void testMatchesZigzagWalk() {
+    Random random = new Random(0xC0DE);
+    for (int versionNumber = 1; versionNumber <= 40; versionNumber++) {
+      Version version = Version.getVersionForNumber(versionNumber);
+      int dimension = version.getDimensionForVersion();
+      BitMatrix bits = new BitMatrix(dimension);
+      for (int y = 0; y < dimension; y++) {
+        for (int x = 0; x < dimension; x++) {
+          if (random.nextBoolean()) {
+            bits.set(x, y);
+          }
+        }
+      }
+      assertArrayEquals(readZigzag(bits, version),
+                        CodewordPlacement.forVersion(version).readCodewords(bits));
+    }
+  }
+
+  @Test
+  public void testPlaceAndRead() {
+    Random random = new Random(0xBEEF);
+    for (int versionNumber = 1; versionNumber <= 40; versionNumber++) {
+      Version version = Version.getVersionForNumber(versionNumber);
+      CodewordPlacement placement = CodewordPlacement.forVersion(version);
+      int dimension = version.getDimensionForVersion();
+      byte[] codewords = new byte[version.getTotalCodewords()];
+      random.nextBytes(codewords);
+      int maskPattern = versionNumber % 8;
+
+      byte[][] matrix = new byte[dimension][dimension];
+      placement.placeCodewords(codewords, maskPattern, matrix);
+      BitMatrix bits = new BitMatrix(dimension);
+      for (int y = 0; y < dimension; y++) {
+        for (int x = 0; x < dimension; x++) {
+          if (matrix[y][x] == 1) {
+            bits.set(x, y);
+          }
+        }
+      }
+      BitMatrix original = bits.clone();
+
+      placement.unmask(bits, maskPattern);
+      assertArrayEquals(codewords, placement.readCodewords(bits));
+      placement.unmask(bits, maskPattern);
+      assertEquals(original, bits);
+    }
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTooManyCodewords() {
+    Version version = Version.getVersionForNumber(1);
+    byte[][] matrix = new byte[21][21];
+    CodewordPlacement.forVersion(version).placeCodewords(new byte[version.getTotalCodewords() + 1], 0, matrix);
+  }
+
+  // The walk BitMatrixParser used before placements were precomputed
+  private static byte[] readZigzag(BitMatrix bits, Version version) {
+    BitMatrix functionPattern = version.buildFunctionPattern();
+    int dimension = bits.getHeight();
+    boolean readingUp = true;
+    byte[] result = new byte[version.getTotalCodewords()];
+    int resultOffset = 0;
+    int currentByte = 0;
+    int bitsRead = 0;
+    for (int j = dimension - 1; j > 0; j -= 2) {
+      if (j == 6) {
+        j--;
+      }
+      for (int count = 0; count < dimension; count++) {
+        int i = readingUp ? dimension - 1 - count : count;
+        for (int col = 0; col < 2; col++) {
+          if (!functionPattern.get(j - col, i)) {
+            bitsRead++;
+            currentByte <<= 1;
+            if (bits.get(j - col, i)) {
+              currentByte |= 1;
+            }
+            if (bitsRead == 8) {
+              result[resultOffset++] = (byte) currentByte;
+              bitsRead = 0;
+              currentByte = 0;
+            }
+          }
+        }
+      }
+      readingUp ^= true;
+    }
+    return result;
+  }
+
+}
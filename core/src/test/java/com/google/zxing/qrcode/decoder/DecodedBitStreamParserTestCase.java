@@ -16,10 +16,13 @@
 
 package com.google.zxing.qrcode.decoder;
 
+import com.google.zxing.FormatException;
 import com.google.zxing.common.BitSourceBuilder;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.nio.charset.StandardCharsets;
+
 /**
  * Tests {@link DecodedBitStreamParser}.
  *
@@ -94,6 +97,72 @@ public final class DecodedBitStreamParserTestCase extends Assert {
     assertEquals("\u30a2", result);
   }
 
+  @Test
+  public void testPrefix() throws Exception {
+    BitSourceBuilder builder = new BitSourceBuilder();
+    builder.write(0x02, 4); // Alphanumeric mode
+    builder.write(0x05, 9); // 5 characters, of which only the first pair made it in
+    builder.write(45 * 10 + 11, 11); // "AB"
+    builder.write(0x00, 4);
+    assertEquals("AB", DecodedBitStreamParser.decodePrefix(builder.toByteArray(),
+        Version.getVersionForNumber(1), null));
+  }
+
+  @Test
+  public void testPrefixCutUTF8() throws Exception {
+    byte[] content = "\u00e9t\u00e9 caf\u00e9".getBytes(StandardCharsets.UTF_8);
+    // The last "\u00e9" is cut after its first byte
+    assertEquals("\u00e9t\u00e9 caf", DecodedBitStreamParser.decodePrefix(
+        bytePrefix(content, content.length - 1), Version.getVersionForNumber(1), null));
+    content = "\u65e5\u672c".getBytes(StandardCharsets.UTF_8);
+    // "\u672c" is cut after two of its three bytes
+    assertEquals("\u65e5", DecodedBitStreamParser.decodePrefix(
+        bytePrefix(content, content.length - 1), Version.getVersionForNumber(1), null));
+  }
+
+  @Test
+  public void testPrefixCutShiftJIS() throws Exception {
+    byte[] content = "\u65e5\u672c\u8a9e\u306e".getBytes("Shift_JIS");
+    // "\u306e" is cut after its first byte
+    assertEquals("\u65e5\u672c\u8a9e", DecodedBitStreamParser.decodePrefix(
+        bytePrefix(content, content.length - 1), Version.getVersionForNumber(1), null));
+  }
+
+  @Test(expected = FormatException.class)
+  public void testPrefixLeadingECI() throws Exception {
+    BitSourceBuilder builder = new BitSourceBuilder();
+    builder.write(0x07, 4); // ECI mode
+    builder.write(0x1A, 8); // ECI 26 = UTF-8
+    builder.write(0x04, 4); // Byte mode
+    builder.write(0x01, 8); // 1 byte
+    builder.write(0x41, 8);
+    DecodedBitStreamParser.decodePrefix(builder.toByteArray(), Version.getVersionForNumber(1), null);
+  }
+
+  @Test(expected = FormatException.class)
+  public void testPrefixLeadingFNC1() throws Exception {
+    BitSourceBuilder builder = new BitSourceBuilder();
+    builder.write(0x05, 4); // FNC1 in first position
+    builder.write(0x01, 4); // Numeric mode
+    builder.write(0x02, 10); // 2 digits
+    builder.write(0x01, 7); // "01"
+    builder.write(0x00, 7);
+    DecodedBitStreamParser.decodePrefix(builder.toByteArray(), Version.getVersionForNumber(1), null);
+  }
+
+  /**
+   * @return a byte mode segment header for all of "content", followed by only its first "length" bytes
+   */
+  private static byte[] bytePrefix(byte[] content, int length) {
+    BitSourceBuilder builder = new BitSourceBuilder();
+    builder.write(0x04, 4); // Byte mode
+    builder.write(content.length, 8);
+    for (int i = 0; i < length; i++) {
+      builder.write(content[i] & 0xFF, 8);
+    }
+    return builder.toByteArray();
+  }
+
   // TODO definitely need more tests here
 
 }
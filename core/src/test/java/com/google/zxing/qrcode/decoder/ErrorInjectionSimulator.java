@@ -0,0 +1,610 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.qrcode.decoder;
+
+import com.google.zxing.ChecksumException;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.FormatException;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.DecoderResult;
+import com.google.zxing.common.reedsolomon.GenericGF;
+import com.google.zxing.common.reedsolomon.ReedSolomonDecoder;
+import com.google.zxing.common.reedsolomon.ReedSolomonEncoder;
+import com.google.zxing.common.reedsolomon.ReedSolomonException;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * <p>Monte Carlo simulation of the common RS block scheme under module errors. For each
+ * configuration (version, EC level, k' and error model) random byte mode payloads are encoded
+ * with {@link Encoder}, random or burst module errors are injected into the data region of the
+ * symbol, and {@link Decoder} is run on the codewords read back from it.</p>
+ *
+ * <p>The same codeword errors are then applied to the standard {@link Version.ECBlocks} layout:
+ * the data codewords are padded to the standard capacity, split and interleaved as in
+ * ISO 18004:2006 8.6, XORed with the codeword error pattern read back from the damaged symbol,
+ * every block is corrected with {@link ReedSolomonDecoder} and the bit stream is parsed. Since
+ * both layouts place their codeword stream identically, this is equivalent to damaging the same
+ * modules of a standard symbol.</p>
+ *
+ * <p>Latencies are timed over the same stages for both layouts: from the codewords read off the
+ * damaged symbol to the decoded payload, that is error correction of every block and parsing of
+ * the bit stream. Reading the modules is the same work for both and isn't timed.</p>
+ *
+ * <p>Trials are spread over a fixed thread pool, one task per thread, each with its own random
+ * source and decoder. Run it with, for example:</p>
+ *
+ * <pre>
+ * java -cp core/target/classes:core/target/test-classes \
+ *   com.google.zxing.qrcode.decoder.ErrorInjectionSimulator \
+ *   --versions=5-10 --ec=L,H --fill=0.5,1 --errors=0,8,16 --burst=1 --trials=2000
+ * </pre>
+ */
+public final class ErrorInjectionSimulator implements AutoCloseable {
+
+  private static final String PAYLOAD_CHARS = "abcdefghijklmnopqrstuvwxyz0123456789";
+
+  private final int threads;
+  private final ExecutorService executor;
+
+  public ErrorInjectionSimulator(int threads) {
+    this.threads = threads;
+    executor = Executors.newFixedThreadPool(threads);
+  }
+
+  /**
+   * Describes one simulated configuration.
+   */
+  static final class Configuration {
+
+    final int versionNumber;
+    final ErrorCorrectionLevel ecLevel;
+    final int kp;
+    final int errors;
+    final int burstSize;
+
+    /**
+     * @param versionNumber QR Code version, 1-40
+     * @param ecLevel error correction level
+     * @param kp k', the number of data codewords
+     * @param errors number of error events per symbol
+     * @param burstSize side of the square of modules flipped by each error event; 1 means
+     *  independent single module errors
+     */
+    Configuration(int versionNumber, ErrorCorrectionLevel ecLevel, int kp, int errors, int burstSize) {
+      this.versionNumber = versionNumber;
+      this.ecLevel = ecLevel;
+      this.kp = kp;
+      this.errors = errors;
+      this.burstSize = burstSize;
+    }
+
+    /**
+     * @return the length of a byte mode payload which produces exactly k' data codewords, or -1
+     *  if there is none
+     */
+    int getPayloadLength() {
+      Version version = Version.getVersionForNumber(versionNumber);
+      // 4 bit mode and 4 terminator bits, an 8 or 16 bit count and 8 bits per byte
+      int length = kp - 1 - Mode.BYTE.getCharacterCountBits(version) / 8;
+      Version.ECBlocks ecBlocks = version.getECBlocksForLevel(ecLevel);
+      int capacity = version.getTotalCodewords() - ecBlocks.getTotalECCodewords();
+      return length < 1 || kp > capacity ? -1 : length;
+    }
+
+    @Override
+    public String toString() {
+      return versionNumber + "-" + ecLevel + " k'=" + kp + " errors=" + errors + "x" + burstSize;
+    }
+  }
+
+  /**
+   * Accumulated outcome of the trials of one {@link Configuration}.
+   */
+  static final class Statistics {
+
+    int trials;
+    int encodeFailures;
+    int proposedSuccesses;
+    int proposedMisdecodes;
+    int standardSuccesses;
+    long[] proposedNanos;
+    long[] standardNanos;
+    long wallNanos;
+
+    Statistics(int capacity) {
+      proposedNanos = new long[capacity];
+      standardNanos = new long[capacity];
+    }
+
+    void add(Statistics other) {
+      int offset = trials;
+      trials += other.trials;
+      encodeFailures += other.encodeFailures;
+      proposedSuccesses += other.proposedSuccesses;
+      proposedMisdecodes += other.proposedMisdecodes;
+      standardSuccesses += other.standardSuccesses;
+      proposedNanos = Arrays.copyOf(proposedNanos, trials);
+      standardNanos = Arrays.copyOf(standardNanos, trials);
+      System.arraycopy(other.proposedNanos, 0, proposedNanos, offset, other.trials);
+      System.arraycopy(other.standardNanos, 0, standardNanos, offset, other.trials);
+    }
+
+    double getProposedRate() {
+      return trials == 0 ? 0.0 : (double) proposedSuccesses / trials;
+    }
+
+    double getStandardRate() {
+      return trials == 0 ? 0.0 : (double) standardSuccesses / trials;
+    }
+
+    double getOpsPerSecond() {
+      return wallNanos == 0 ? 0.0 : trials * 1.0e9 / wallNanos;
+    }
+
+    static long percentile(long[] sortedNanos, double fraction) {
+      if (sortedNanos.length == 0) {
+        return 0;
+      }
+      int index = (int) Math.ceil(fraction * sortedNanos.length) - 1;
+      return sortedNanos[Math.max(0, Math.min(sortedNanos.length - 1, index))];
+    }
+  }
+
+  /**
+   * Runs "trials" trials of "configuration", spread over all threads.
+   */
+  Statistics run(final Configuration configuration, int trials, long seed)
+      throws InterruptedException, ExecutionException {
+    Collection<Callable<Statistics>> tasks = new ArrayList<>(threads);
+    for (int t = 0; t < threads; t++) {
+      final int taskTrials = trials / threads + (t < trials % threads ? 1 : 0);
+      final long taskSeed = seed * 31 + t;
+      tasks.add(new Callable<Statistics>() {
+        @Override
+        public Statistics call() {
+          return runTrials(configuration, taskTrials, new Random(taskSeed));
+        }
+      });
+    }
+    long start = System.nanoTime();
+    List<Future<Statistics>> futures = executor.invokeAll(tasks);
+    Statistics total = new Statistics(0);
+    for (Future<Statistics> future : futures) {
+      total.add(future.get());
+    }
+    total.wallNanos = System.nanoTime() - start;
+    Arrays.sort(total.proposedNanos);
+    Arrays.sort(total.standardNanos);
+    return total;
+  }
+
+  static Statistics runTrials(Configuration configuration, int trials, Random random) {
+    Statistics statistics = new Statistics(trials);
+    int length = configuration.getPayloadLength();
+    if (length < 0) {
+      throw new IllegalArgumentException("No byte mode payload gives " + configuration);
+    }
+    Version version = Version.getVersionForNumber(configuration.versionNumber);
+    BitMatrix functionPattern = version.buildFunctionPattern();
+    Map<EncodeHintType,Object> hints = new EnumMap<>(EncodeHintType.class);
+    hints.put(EncodeHintType.QR_VERSION, configuration.versionNumber);
+    Decoder decoder = new Decoder();
+    ReedSolomonDecoder rsDecoder = new ReedSolomonDecoder(GenericGF.QR_CODE_FIELD_256);
+    char[] payload = new char[length];
+
+    for (int trial = 0; trial < trials; trial++) {
+      // A leading lower case letter keeps the encoder in byte mode
+      payload[0] = PAYLOAD_CHARS.charAt(random.nextInt(26));
+      for (int i = 1; i < length; i++) {
+        payload[i] = PAYLOAD_CHARS.charAt(random.nextInt(PAYLOAD_CHARS.length()));
+      }
+      String content = new String(payload);
+
+      BitMatrix clean;
+      byte[] dataCodewords;
+      try {
+        clean = toBitMatrix(Encoder.encode(content, configuration.ecLevel, hints).getMatrix());
+        dataCodewords = decoder.decode(clean.clone()).getRawBytes();
+      } catch (WriterException we) {
+        // Not every k' can be laid out in this version
+        statistics.encodeFailures++;
+        continue;
+      } catch (FormatException | ChecksumException e) {
+        throw new IllegalStateException("Could not decode undamaged " + configuration, e);
+      }
+
+      BitMatrix damaged = clean.clone();
+      injectErrors(damaged, functionPattern, configuration, random);
+
+      byte[] errorPattern;
+      byte[] damagedCodewords;
+      try {
+        errorPattern = readCodewords(clean);
+        damagedCodewords = readCodewords(damaged);
+      } catch (FormatException fe) {
+        throw new IllegalStateException(fe);
+      }
+      for (int i = 0; i < errorPattern.length; i++) {
+        errorPattern[i] ^= damagedCodewords[i];
+      }
+
+      int index = statistics.trials++;
+
+      long start = System.nanoTime();
+      boolean proposedSuccess;
+      try {
+        DecoderResult result = decoder.decode(damagedCodewords, version, configuration.ecLevel, null);
+        proposedSuccess = content.equals(result.getText());
+        if (!proposedSuccess) {
+          statistics.proposedMisdecodes++;
+        }
+      } catch (FormatException | ChecksumException | RuntimeException e) {
+        proposedSuccess = false;
+      }
+      statistics.proposedNanos[index] = System.nanoTime() - start;
+      if (proposedSuccess) {
+        statistics.proposedSuccesses++;
+      }
+
+      byte[] standardData = padToStandardCapacity(dataCodewords, version, configuration.ecLevel);
+      byte[] received = interleaveStandard(standardData, version, configuration.ecLevel);
+      for (int i = 0; i < received.length; i++) {
+        received[i] ^= errorPattern[i];
+      }
+      start = System.nanoTime();
+      byte[] corrected = decodeStandard(received, version, configuration.ecLevel, rsDecoder);
+      boolean standardSuccess = false;
+      if (corrected != null) {
+        try {
+          DecodedBitStreamParser.decode(corrected, version, configuration.ecLevel, null);
+          standardSuccess = true;
+        } catch (FormatException fe) {
+          // standardSuccess stays false
+        }
+      }
+      statistics.standardNanos[index] = System.nanoTime() - start;
+      if (standardSuccess && Arrays.equals(standardData, corrected)) {
+        statistics.standardSuccesses++;
+      }
+    }
+
+    statistics.proposedNanos = Arrays.copyOf(statistics.proposedNanos, statistics.trials);
+    statistics.standardNanos = Arrays.copyOf(statistics.standardNanos, statistics.trials);
+    return statistics;
+  }
+
+  /**
+   * Flips modules outside the function patterns: "errors" squares of "burstSize" modules on a
+   * side, each at a random position.
+   */
+  static void injectErrors(BitMatrix bits,
+                           BitMatrix functionPattern,
+                           Configuration configuration,
+                           Random random) {
+    int dimension = bits.getHeight();
+    int burstSize = configuration.burstSize;
+    for (int e = 0; e < configuration.errors; e++) {
+      int left;
+      int top;
+      if (burstSize == 1) {
+        // Pick a data module so that every error event counts
+        do {
+          left = random.nextInt(dimension);
+          top = random.nextInt(dimension);
+        } while (functionPattern.get(left, top));
+      } else {
+        left = random.nextInt(dimension - burstSize + 1);
+        top = random.nextInt(dimension - burstSize + 1);
+      }
+      for (int y = top; y < top + burstSize; y++) {
+        for (int x = left; x < left + burstSize; x++) {
+          if (!functionPattern.get(x, y)) {
+            bits.flip(x, y);
+          }
+        }
+      }
+    }
+  }
+
+  private static byte[] readCodewords(BitMatrix bits) throws FormatException {
+    // BitMatrixParser unmasks the matrix it reads in place
+    return new BitMatrixParser(bits.clone()).readCodewords();
+  }
+
+  /**
+   * Appends the pad codewords of ISO 18004:2006 8.4.9 up to the standard number of data codewords.
+   */
+  static byte[] padToStandardCapacity(byte[] dataCodewords, Version version, ErrorCorrectionLevel ecLevel) {
+    Version.ECBlocks ecBlocks = version.getECBlocksForLevel(ecLevel);
+    int numDataBytes = version.getTotalCodewords() - ecBlocks.getTotalECCodewords();
+    byte[] result = Arrays.copyOf(dataCodewords, numDataBytes);
+    for (int i = dataCodewords.length; i < numDataBytes; i++) {
+      result[i] = (byte) (((i - dataCodewords.length) & 0x01) == 0 ? 0xEC : 0x11);
+    }
+    return result;
+  }
+
+  /**
+   * Splits the data codewords into the standard blocks, appends their EC codewords and interleaves
+   * them as in ISO 18004:2006 8.6.
+   */
+  static byte[] interleaveStandard(byte[] dataCodewords, Version version, ErrorCorrectionLevel ecLevel) {
+    int[][] blocks = standardBlocks(version, ecLevel);
+    int numECCodewords = version.getECBlocksForLevel(ecLevel).getECCodewordsPerBlock();
+    ReedSolomonEncoder encoder = new ReedSolomonEncoder(GenericGF.QR_CODE_FIELD_256);
+    int dataOffset = 0;
+    for (int[] block : blocks) {
+      int numData = block.length - numECCodewords;
+      for (int i = 0; i < numData; i++) {
+        block[i] = dataCodewords[dataOffset++] & 0xFF;
+      }
+      encoder.encode(block, numECCodewords);
+    }
+    byte[] result = new byte[version.getTotalCodewords()];
+    int[] order = standardOrder(blocks, numECCodewords);
+    for (int i = 0; i < order.length; i++) {
+      result[i] = (byte) blocks[order[i] >>> 16][order[i] & 0xFFFF];
+    }
+    return result;
+  }
+
+  /**
+   * De-interleaves "received" into the standard blocks and corrects each.
+   *
+   * @return the corrected data codewords, or null if a block could not be corrected
+   */
+  static byte[] decodeStandard(byte[] received,
+                               Version version,
+                               ErrorCorrectionLevel ecLevel,
+                               ReedSolomonDecoder rsDecoder) {
+    int[][] blocks = standardBlocks(version, ecLevel);
+    int numECCodewords = version.getECBlocksForLevel(ecLevel).getECCodewordsPerBlock();
+    int[] order = standardOrder(blocks, numECCodewords);
+    for (int i = 0; i < order.length; i++) {
+      blocks[order[i] >>> 16][order[i] & 0xFFFF] = received[i] & 0xFF;
+    }
+    byte[] data = new byte[received.length - blocks.length * numECCodewords];
+    int dataOffset = 0;
+    for (int[] block : blocks) {
+      try {
+        rsDecoder.decode(block, numECCodewords);
+      } catch (ReedSolomonException ignored) {
+        return null;
+      }
+      int numData = block.length - numECCodewords;
+      for (int i = 0; i < numData; i++) {
+        data[dataOffset++] = (byte) block[i];
+      }
+    }
+    return data;
+  }
+
+  private static int[][] standardBlocks(Version version, ErrorCorrectionLevel ecLevel) {
+    Version.ECBlocks ecBlocks = version.getECBlocksForLevel(ecLevel);
+    int numECCodewords = ecBlocks.getECCodewordsPerBlock();
+    int[][] blocks = new int[ecBlocks.getNumBlocks()][];
+    int blockOffset = 0;
+    for (Version.ECB ecb : ecBlocks.getECBlocks()) {
+      for (int i = 0; i < ecb.getCount(); i++) {
+        blocks[blockOffset++] = new int[ecb.getDataCodewords() + numECCodewords];
+      }
+    }
+    return blocks;
+  }
+
+  /**
+   * @return for each position of the interleaved stream, (block index << 16) | codeword index
+   */
+  private static int[] standardOrder(int[][] blocks, int numECCodewords) {
+    int total = 0;
+    int maxData = 0;
+    for (int[] block : blocks) {
+      total += block.length;
+      maxData = Math.max(maxData, block.length - numECCodewords);
+    }
+    int[] order = new int[total];
+    int offset = 0;
+    for (int i = 0; i < maxData; i++) {
+      for (int b = 0; b < blocks.length; b++) {
+        if (i < blocks[b].length - numECCodewords) {
+          order[offset++] = (b << 16) | i;
+        }
+      }
+    }
+    for (int i = 0; i < numECCodewords; i++) {
+      for (int b = 0; b < blocks.length; b++) {
+        order[offset++] = (b << 16) | (blocks[b].length - numECCodewords + i);
+      }
+    }
+    return order;
+  }
+
+  static BitMatrix toBitMatrix(ByteMatrix matrix) {
+    BitMatrix bits = new BitMatrix(matrix.getWidth(), matrix.getHeight());
+    for (int y = 0; y < matrix.getHeight(); y++) {
+      for (int x = 0; x < matrix.getWidth(); x++) {
+        if (matrix.get(x, y) == 1) {
+          bits.set(x, y);
+        }
+      }
+    }
+    return bits;
+  }
+
+  @Override
+  public void close() {
+    executor.shutdown();
+  }
+
+  public static void main(String[] args) throws Exception {
+    int[] versions = parseRange("1-10");
+    List<ErrorCorrectionLevel> ecLevels = Arrays.asList(ErrorCorrectionLevel.values());
+    double[] fills = {0.5, 1.0};
+    int[] errors = {0, 4, 8, 16};
+    int burstSize = 1;
+    int trials = 1000;
+    int threads = Runtime.getRuntime().availableProcessors();
+    int warmup = 200;
+    long seed = 1L;
+
+    for (String arg : args) {
+      String[] keyValue = arg.split("=", 2);
+      if (keyValue.length != 2) {
+        printUsage();
+        return;
+      }
+      String value = keyValue[1];
+      switch (keyValue[0]) {
+        case "--versions":
+          versions = parseRange(value);
+          break;
+        case "--ec":
+          ecLevels = new ArrayList<>();
+          for (String level : value.split(",")) {
+            ecLevels.add(ErrorCorrectionLevel.valueOf(level));
+          }
+          break;
+        case "--fill":
+          String[] fillValues = value.split(",");
+          fills = new double[fillValues.length];
+          for (int i = 0; i < fillValues.length; i++) {
+            fills[i] = Double.parseDouble(fillValues[i]);
+          }
+          break;
+        case "--errors":
+          errors = parseRange(value);
+          break;
+        case "--burst":
+          burstSize = Integer.parseInt(value);
+          break;
+        case "--trials":
+          trials = Integer.parseInt(value);
+          break;
+        case "--threads":
+          threads = Integer.parseInt(value);
+          break;
+        case "--warmup":
+          warmup = Integer.parseInt(value);
+          break;
+        case "--seed":
+          seed = Long.parseLong(value);
+          break;
+        default:
+          printUsage();
+          return;
+      }
+    }
+
+    System.out.println("version,ec,kp,errors,burst,trials,proposedRate,proposedMisdecodes,standardRate," +
+        "opsPerSec,proposedP50us,proposedP95us,proposedP99us,standardP50us,standardP95us,standardP99us");
+    long start = System.nanoTime();
+    int totalTrials = 0;
+    try (ErrorInjectionSimulator simulator = new ErrorInjectionSimulator(threads)) {
+      if (warmup > 0) {
+        // Let the JIT compile the encoder and both decoders before anything is measured
+        simulator.run(new Configuration(5, ErrorCorrectionLevel.M, 40, 4, 1), warmup, seed - 1);
+      }
+      int configurationIndex = 0;
+      for (int versionNumber : versions) {
+        Version version = Version.getVersionForNumber(versionNumber);
+        for (ErrorCorrectionLevel ecLevel : ecLevels) {
+          int capacity = version.getTotalCodewords() - version.getECBlocksForLevel(ecLevel).getTotalECCodewords();
+          for (double fill : fills) {
+            int kp = (int) Math.round(fill * capacity);
+            for (int errorCount : errors) {
+              Configuration configuration = new Configuration(versionNumber, ecLevel, kp, errorCount, burstSize);
+              if (configuration.getPayloadLength() < 0) {
+                continue;
+              }
+              Statistics statistics = simulator.run(configuration, trials, seed + configurationIndex++);
+              totalTrials += statistics.trials;
+              System.out.println(String.format(Locale.ROOT,
+                  "%d,%s,%d,%d,%d,%d,%.4f,%d,%.4f,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f,%.1f",
+                  versionNumber, ecLevel, kp, errorCount, burstSize, statistics.trials,
+                  statistics.getProposedRate(), statistics.proposedMisdecodes, statistics.getStandardRate(),
+                  statistics.getOpsPerSecond(),
+                  Statistics.percentile(statistics.proposedNanos, 0.50) / 1000.0,
+                  Statistics.percentile(statistics.proposedNanos, 0.95) / 1000.0,
+                  Statistics.percentile(statistics.proposedNanos, 0.99) / 1000.0,
+                  Statistics.percentile(statistics.standardNanos, 0.50) / 1000.0,
+                  Statistics.percentile(statistics.standardNanos, 0.95) / 1000.0,
+                  Statistics.percentile(statistics.standardNanos, 0.99) / 1000.0));
+            }
+          }
+        }
+      }
+    }
+    double seconds = (System.nanoTime() - start) / 1.0e9;
+    System.err.println(String.format(Locale.ROOT, "%d trials on %d threads in %.1f s (%.1f trials/s)",
+        totalTrials, threads, seconds, totalTrials / seconds));
+  }
+
+  /**
+   * Parses "1-5,8,10-12" style lists.
+   */
+  private static int[] parseRange(String value) {
+    List<Integer> values = new ArrayList<>();
+    for (String part : value.split(",")) {
+      int dash = part.indexOf('-');
+      if (dash > 0) {
+        int from = Integer.parseInt(part.substring(0, dash));
+        int to = Integer.parseInt(part.substring(dash + 1));
+        for (int i = from; i <= to; i++) {
+          values.add(i);
+        }
+      } else {
+        values.add(Integer.parseInt(part));
+      }
+    }
+    int[] result = new int[values.size()];
+    for (int i = 0; i < result.length; i++) {
+      result[i] = values.get(i);
+    }
+    return result;
+  }
+
+  private static void printUsage() {
+    System.err.println("Monte Carlo error injection for the common RS block scheme.");
+    System.err.println("Options (all optional):");
+    System.err.println("  --versions=1-10      versions to simulate, as a list of numbers and ranges");
+    System.err.println("  --ec=L,M,Q,H         error correction levels");
+    System.err.println("  --fill=0.5,1         k' as fractions of the standard data capacity");
+    System.err.println("  --errors=0,4,8,16    error events per symbol");
+    System.err.println("  --burst=1            side of the square of modules flipped per error event");
+    System.err.println("  --trials=1000        symbols per configuration");
+    System.err.println("  --threads=N          worker threads; defaults to the number of processors");
+    System.err.println("  --warmup=200         untimed trials run before the first configuration");
+    System.err.println("  --seed=1             random seed");
+  }
+
+}
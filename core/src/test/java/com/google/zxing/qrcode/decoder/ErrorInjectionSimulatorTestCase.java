@@ -0,0 +1,91 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.qrcode.decoder;
+
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.common.reedsolomon.GenericGF;
+import com.google.zxing.common.reedsolomon.ReedSolomonDecoder;
+import com.google.zxing.qrcode.encoder.Encoder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Tests {@link ErrorInjectionSimulator}.
+ */
+public final class ErrorInjectionSimulatorTestCase extends Assert {
+
+  @Test
+  public void testNoErrors() throws Exception {
+    try (ErrorInjectionSimulator simulator = new ErrorInjectionSimulator(2)) {
+      ErrorInjectionSimulator.Configuration configuration =
+          new ErrorInjectionSimulator.Configuration(5, ErrorCorrectionLevel.H, 40, 0, 1);
+      ErrorInjectionSimulator.Statistics statistics = simulator.run(configuration, 20, 1L);
+      assertEquals(20, statistics.trials);
+      assertEquals(0, statistics.encodeFailures);
+      assertEquals(1.0, statistics.getProposedRate(), 0.0);
+      assertEquals(1.0, statistics.getStandardRate(), 0.0);
+      assertEquals(20, statistics.proposedNanos.length);
+    }
+  }
+
+  @Test
+  public void testKp() throws Exception {
+    ErrorInjectionSimulator.Configuration configuration =
+        new ErrorInjectionSimulator.Configuration(10, ErrorCorrectionLevel.L, 100, 0, 1);
+    char[] payload = new char[configuration.getPayloadLength()];
+    Arrays.fill(payload, 'a');
+    RSBlockStatistics statistics = new RSBlockStatistics();
+    Map<EncodeHintType,Object> hints = new EnumMap<>(EncodeHintType.class);
+    hints.put(EncodeHintType.QR_VERSION, 10);
+    hints.put(EncodeHintType.RS_BLOCK_CALLBACK, statistics);
+    Encoder.encode(new String(payload), ErrorCorrectionLevel.L, hints);
+    assertEquals(100, statistics.getTotalDataCodewords());
+  }
+
+  @Test
+  public void testPayloadLength() {
+    // 4 bit mode + 8 bit count + 8 * 36 + 4 bit terminator = 304 bits = 38 codewords
+    assertEquals(36, new ErrorInjectionSimulator.Configuration(5, ErrorCorrectionLevel.H, 38, 0, 1)
+        .getPayloadLength());
+    // Version 5-H holds only 46 data codewords
+    assertEquals(-1, new ErrorInjectionSimulator.Configuration(5, ErrorCorrectionLevel.H, 47, 0, 1)
+        .getPayloadLength());
+  }
+
+  @Test
+  public void testStandardLayoutCorrectsErrors() {
+    Version version = Version.getVersionForNumber(7);
+    Random random = new Random(1L);
+    byte[] data = new byte[50];
+    random.nextBytes(data);
+    byte[] padded = ErrorInjectionSimulator.padToStandardCapacity(data, version, ErrorCorrectionLevel.M);
+    byte[] received = ErrorInjectionSimulator.interleaveStandard(padded, version, ErrorCorrectionLevel.M);
+    ReedSolomonDecoder rsDecoder = new ReedSolomonDecoder(GenericGF.QR_CODE_FIELD_256);
+    // 7-M has four blocks with 18 EC codewords each; 8 consecutive errors spread over them
+    for (int i = 20; i < 28; i++) {
+      received[i] ^= (byte) 0x5A;
+    }
+    assertArrayEquals(padded,
+                      ErrorInjectionSimulator.decodeStandard(received, version, ErrorCorrectionLevel.M, rsDecoder));
+  }
+
+}
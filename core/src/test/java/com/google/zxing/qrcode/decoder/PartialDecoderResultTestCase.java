@@ -0,0 +1,124 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.qrcode.decoder;
+
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.FormatException;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Tests {@link Decoder#decodeCommonBlock(BitMatrix, Map)}.
+ */
+public final class PartialDecoderResultTestCase extends Assert {
+
+  @Test
+  public void testAlphanumericPrefix() throws Exception {
+    String content = "HELLO WORLD 0123456789";
+    PartialDecoderResult result = new Decoder().decodeCommonBlock(encode(content, 10), null);
+    assertSame(Mode.ALPHANUMERIC, result.getMode());
+    assertEquals(content.length(), result.getCharacterCount());
+    // 5 data codewords in the common block leave 25 bits after the header: two 11-bit pairs
+    assertEquals("HELL", result.getPrefix());
+    assertFalse(result.isComplete());
+    assertEquals(content, result.getFullResult().getText());
+  }
+
+  @Test
+  public void testLongPayloadPrefix() throws Exception {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      builder.append((char) ('a' + i % 26));
+    }
+    String content = builder.toString();
+    PartialDecoderResult result = new Decoder().decodeCommonBlock(encode(content, 10), null);
+    assertSame(Mode.BYTE, result.getMode());
+    assertEquals(content.length(), result.getCharacterCount());
+    assertFalse(result.isComplete());
+    assertTrue(result.getPrefix().length() > 0);
+    assertTrue(content.startsWith(result.getPrefix()));
+    assertEquals(content, result.getFullResult().getText());
+    assertSame(result.getFullResult(), result.getFullResult());
+  }
+
+  @Test
+  public void testNumericPrefix() throws Exception {
+    StringBuilder builder = new StringBuilder();
+    for (int i = 0; i < 200; i++) {
+      builder.append((char) ('0' + i % 10));
+    }
+    String content = builder.toString();
+    PartialDecoderResult result = new Decoder().decodeCommonBlock(encode(content, 10), null);
+    assertSame(Mode.NUMERIC, result.getMode());
+    assertFalse(result.isComplete());
+    assertEquals(0, result.getPrefix().length() % 3);
+    assertTrue(content.startsWith(result.getPrefix()));
+    assertEquals(content, result.getFullResult().getText());
+  }
+
+  @Test
+  public void testCompletePrefix() throws Exception {
+    // Short enough for the mode, count and all the characters to be held in the common block
+    String content = "ABC";
+    PartialDecoderResult result = new Decoder().decodeCommonBlock(encode(content, 1), null);
+    assertSame(Mode.ALPHANUMERIC, result.getMode());
+    assertEquals(content.length(), result.getCharacterCount());
+    assertTrue(result.isComplete());
+    assertEquals(content, result.getPrefix());
+    assertEquals(content, result.getFullResult().getText());
+  }
+
+  @Test(expected = FormatException.class)
+  public void testLeadingECI() throws Exception {
+    Map<EncodeHintType,Object> hints = new EnumMap<>(EncodeHintType.class);
+    hints.put(EncodeHintType.CHARACTER_SET, "UTF-8");
+    new Decoder().decodeCommonBlock(encode("\u00e9t\u00e9", 10, hints), null);
+  }
+
+  @Test(expected = FormatException.class)
+  public void testLeadingFNC1() throws Exception {
+    Map<EncodeHintType,Object> hints = new EnumMap<>(EncodeHintType.class);
+    hints.put(EncodeHintType.GS1_FORMAT, true);
+    new Decoder().decodeCommonBlock(encode("0101234567890128", 10, hints), null);
+  }
+
+  private static BitMatrix encode(String content, int version) throws Exception {
+    return encode(content, version, new EnumMap<>(EncodeHintType.class));
+  }
+
+  private static BitMatrix encode(String content, int version, Map<EncodeHintType,Object> hints)
+      throws Exception {
+    hints.put(EncodeHintType.QR_VERSION, version);
+    ByteMatrix matrix = Encoder.encode(content, ErrorCorrectionLevel.L, hints).getMatrix();
+    BitMatrix bits = new BitMatrix(matrix.getWidth(), matrix.getHeight());
+    for (int y = 0; y < matrix.getHeight(); y++) {
+      for (int x = 0; x < matrix.getWidth(); x++) {
+        if (matrix.get(x, y) == 1) {
+          bits.set(x, y);
+        }
+      }
+    }
+    return bits;
+  }
+
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.qrcode.decoder;
+
+import com.google.zxing.ChecksumException;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.qrcode.encoder.ByteMatrix;
+import com.google.zxing.qrcode.encoder.Encoder;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * Tests {@link RSBlockStatistics} as reported by {@link Encoder} and {@link Decoder}.
+ */
+public final class RSBlockStatisticsTestCase extends Assert {
+
+  @Test
+  public void testEncodeAndDecode() throws Exception {
+    RSBlockStatistics statistics = new RSBlockStatistics();
+
+    BitMatrix bits = encode("HELLO WORLD 0123456789", statistics);
+    assertEquals(1, statistics.getLayouts());
+    long kp = statistics.getTotalDataCodewords();
+    long blocks = statistics.getTotalBlocks();
+
+    Map<DecodeHintType,Object> decodeHints = new EnumMap<>(DecodeHintType.class);
+    decodeHints.put(DecodeHintType.NEED_RS_BLOCK_CALLBACK, statistics);
+    assertEquals("HELLO WORLD 0123456789", new Decoder().decode(bits, decodeHints).getText());
+
+    assertEquals(2, statistics.getLayouts());
+    assertEquals(2 * kp, statistics.getTotalDataCodewords());
+    assertEquals(2 * blocks, statistics.getTotalBlocks());
+    assertEquals(1, statistics.getCommonBlockSuccesses());
+    assertEquals(0, statistics.getCommonBlockFailures());
+    assertEquals(blocks - 1, statistics.getBlocksCorrected());
+    assertEquals(0, statistics.getBlockFailures());
+    assertEquals(0, statistics.getErrorsCorrected());
+
+    statistics.reset();
+    assertEquals(0, statistics.getLayouts());
+  }
+
+  @Test
+  public void testFailedReadCountedOnce() throws Exception {
+    BitMatrix bits = encode("HELLO WORLD 0123456789", null);
+    // Flip every module away from the finder, format and version information, so the common block
+    // can't be corrected either as read or as mirrored
+    for (int y = 9; y < bits.getHeight(); y++) {
+      for (int x = 9; x < bits.getWidth(); x++) {
+        bits.flip(x, y);
+      }
+    }
+    RSBlockStatistics statistics = new RSBlockStatistics();
+    Map<DecodeHintType,Object> decodeHints = new EnumMap<>(DecodeHintType.class);
+    decodeHints.put(DecodeHintType.NEED_RS_BLOCK_CALLBACK, statistics);
+    try {
+      new Decoder().decode(bits, decodeHints);
+      fail("Should not decode");
+    } catch (ChecksumException ce) {
+      // good
+    }
+    assertEquals(1, statistics.getCommonBlockFailures());
+    assertEquals(0, statistics.getCommonBlockSuccesses());
+    assertEquals(0, statistics.getLayouts());
+  }
+
+  @Test
+  public void testWrongCallbackTypeIgnored() throws Exception {
+    Map<DecodeHintType,Object> decodeHints = new EnumMap<>(DecodeHintType.class);
+    decodeHints.put(DecodeHintType.NEED_RS_BLOCK_CALLBACK, "not a callback");
+    assertEquals("HELLO WORLD 0123456789",
+        new Decoder().decode(encode("HELLO WORLD 0123456789", null), decodeHints).getText());
+    assertEquals("HELLO WORLD 0123456789",
+        new Decoder().decodeCommonBlock(encode("HELLO WORLD 0123456789", null), decodeHints)
+            .getFullResult().getText());
+  }
+
+  private static BitMatrix encode(String content, RSBlockCallback callback) throws Exception {
+    Map<EncodeHintType,Object> hints = new EnumMap<>(EncodeHintType.class);
+    hints.put(EncodeHintType.QR_VERSION, 10);
+    if (callback != null) {
+      hints.put(EncodeHintType.RS_BLOCK_CALLBACK, callback);
+    }
+    ByteMatrix matrix = Encoder.encode(content, ErrorCorrectionLevel.L, hints).getMatrix();
+    BitMatrix bits = new BitMatrix(matrix.getWidth(), matrix.getHeight());
+    for (int y = 0; y < matrix.getHeight(); y++) {
+      for (int x = 0; x < matrix.getWidth(); x++) {
+        if (matrix.get(x, y) == 1) {
+          bits.set(x, y);
+        }
+      }
+    }
+    return bits;
+  }
+
+}
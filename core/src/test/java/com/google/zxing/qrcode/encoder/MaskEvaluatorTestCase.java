@@ -0,0 +1,82 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.qrcode.encoder;
+
+import com.google.zxing.WriterException;
+import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
+import com.google.zxing.qrcode.decoder.Version;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Tests {@link MaskEvaluator} against {@link MaskUtil}'s rules on fully built matrices.
+ */
+public final class MaskEvaluatorTestCase extends Assert {
+
+  @Test
+  public void testSamePenaltiesAsMaskUtil() throws WriterException {
+    Random random = new Random(0x5EED);
+    ErrorCorrectionLevel[] ecLevels = ErrorCorrectionLevel.values();
+    for (int versionNumber = 1; versionNumber <= 40; versionNumber++) {
+      Version version = Version.getVersionForNumber(versionNumber);
+      ErrorCorrectionLevel ecLevel = ecLevels[versionNumber % ecLevels.length];
+      int dimension = version.getDimensionForVersion();
+      byte[] codewords = new byte[version.getTotalCodewords()];
+      random.nextBytes(codewords);
+
+      ByteMatrix matrix = new ByteMatrix(dimension, dimension);
+      MaskEvaluator evaluator = new MaskEvaluator(codewords, ecLevel, version, matrix);
+      int bestMaskPattern = -1;
+      int minPenalty = Integer.MAX_VALUE;
+      for (int maskPattern = 0; maskPattern < QRCode.NUM_MASK_PATTERNS; maskPattern++) {
+        MatrixUtil.buildMatrix(codewords, ecLevel, version, maskPattern, matrix);
+        int expected = Encoder.calculateMaskPenalty(matrix);
+        assertEquals("version " + versionNumber + " mask " + maskPattern,
+                     expected, evaluator.calculatePenalty(maskPattern));
+        if (expected < minPenalty) {
+          minPenalty = expected;
+          bestMaskPattern = maskPattern;
+        }
+      }
+      assertEquals(bestMaskPattern, evaluator.chooseMaskPattern(false));
+      assertEquals(bestMaskPattern, evaluator.chooseMaskPattern(true));
+    }
+  }
+
+  @Test
+  public void testUniformCodewords() throws WriterException {
+    // Long runs and many finder-like patterns, including ones touching the edges
+    for (int versionNumber : new int[] {1, 2, 7, 20, 40}) {
+      Version version = Version.getVersionForNumber(versionNumber);
+      int dimension = version.getDimensionForVersion();
+      for (int value : new int[] {0x00, 0xFF, 0x5D}) {
+        byte[] codewords = new byte[version.getTotalCodewords()];
+        Arrays.fill(codewords, (byte) value);
+        ByteMatrix matrix = new ByteMatrix(dimension, dimension);
+        MaskEvaluator evaluator = new MaskEvaluator(codewords, ErrorCorrectionLevel.M, version, matrix);
+        for (int maskPattern = 0; maskPattern < QRCode.NUM_MASK_PATTERNS; maskPattern++) {
+          MatrixUtil.buildMatrix(codewords, ErrorCorrectionLevel.M, version, maskPattern, matrix);
+          assertEquals(Encoder.calculateMaskPenalty(matrix), evaluator.calculatePenalty(maskPattern));
+        }
+      }
+    }
+  }
+
+}
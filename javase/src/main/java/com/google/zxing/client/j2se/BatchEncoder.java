@@ -0,0 +1,369 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.MultiFormatWriter;
+import com.google.zxing.Writer;
+import com.google.zxing.WriterException;
+import com.google.zxing.common.BitMatrix;
+
+import javax.imageio.ImageIO;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * <p>Encodes many barcodes in one run of {@link CommandLineEncoder}. Contents are read one per line, or with
+ * {@code --batch_format CSV} as rows of contents, then optionally a {@link BarcodeFormat} and hints like
+ * {@code ERROR_CORRECTION=L;MARGIN=2}, which replace those given on the command line for that row.</p>
+ *
+ * <p>Rows are encoded in parallel, each thread reusing one writer, and images pass through a bounded queue to
+ * a single thread writing them out: as numbered files, as numbered entries in one ZIP stream, or tiled in
+ * row order into one contact sheet image. A row which can't be encoded is reported and skipped. Anything else
+ * a thread fails with, like an {@link OutOfMemoryError}, stops reading rows and all the other threads, and
+ * ends the run.</p>
+ *
+ * <p>Numbered files are named from the output name without any image file extension, so {@code --output
+ * label.png} gives {@code label-000001.png} and on. Only a ZIP stream or contact sheet can be written to
+ * standard output, with {@code --output -}.</p>
+ */
+final class BatchEncoder {
+
+  enum InputFormat {
+    LINES,
+    CSV,
+  }
+
+  enum Output {
+    FILES,
+    ZIP,
+    SHEET,
+  }
+
+  // Marks the end of the rows
+  private static final Row END = new Row(0, null, null, null);
+
+  private final EncoderConfig config;
+  private final Supplier<? extends Writer> writers;
+  private final Map<EncodeHintType,Object> hints;
+  private final String extension;
+  private final String fileBase;
+
+  BatchEncoder(EncoderConfig config) {
+    this(config, MultiFormatWriter::new);
+  }
+
+  /**
+   * @param writers makes the writer each encoding thread uses
+   */
+  // Not private for testing
+  BatchEncoder(EncoderConfig config, Supplier<? extends Writer> writers) {
+    if (config.batchOutput == Output.FILES && "-".equals(config.outputFileBase)) {
+      throw new IllegalArgumentException(
+          "--output - can't be used to name files; use --batch_output ZIP or SHEET to write to standard output");
+    }
+    this.config = config;
+    this.writers = writers;
+    hints = config.buildHints();
+    extension = '.' + config.imageFormat.toLowerCase(Locale.ENGLISH);
+    fileBase = stripImageExtension(config.outputFileBase);
+  }
+
+  /**
+   * Encodes each row read, and writes out the images.
+   *
+   * @return number of rows encoded
+   */
+  int encode(BufferedReader in) throws InterruptedException, ExecutionException {
+    int threads = config.threads;
+    BlockingQueue<Row> rows = new ArrayBlockingQueue<>(2 * threads);
+    BlockingQueue<Row> encoded = new ArrayBlockingQueue<>(2 * threads);
+
+    ExecutorService executor = Executors.newFixedThreadPool(threads + 2);
+    CompletionService<Integer> completion = new ExecutorCompletionService<>(executor);
+    try {
+      completion.submit(() -> {
+        readRows(in, rows);
+        for (int i = 0; i < threads; i++) {
+          rows.put(END);
+        }
+        return null;
+      });
+      AtomicInteger running = new AtomicInteger(threads);
+      for (int i = 0; i < threads; i++) {
+        completion.submit(() -> {
+          Writer writer = writers.get();
+          for (Row row; (row = rows.take()) != END;) {
+            try {
+              row.matrix = writer.encode(row.contents, row.format, config.width, config.height, row.hints);
+              if (config.batchOutput != Output.SHEET) {
+                ByteArrayOutputStream image = new ByteArrayOutputStream();
+                MatrixToImageWriter.writeToStream(row.matrix, config.imageFormat, image);
+                row.image = image.toByteArray();
+                row.matrix = null;
+              }
+              encoded.put(row);
+            } catch (WriterException | IOException | RuntimeException e) {
+              System.err.println("Row " + row.number + ": " + e);
+            }
+          }
+          // The last encoding thread to finish ends the writer's rows; one which fails doesn't, as the run stops
+          if (running.decrementAndGet() == 0) {
+            encoded.put(END);
+          }
+          return null;
+        });
+      }
+      Future<Integer> written = completion.submit(() -> writeAll(encoded));
+      executor.shutdown();
+      // Wait on whichever finishes first, so that one failing stops the rest instead of leaving them blocked
+      for (int i = 0; i < threads + 2; i++) {
+        completion.take().get();
+      }
+      return written.get();
+    } finally {
+      executor.shutdownNow();
+    }
+  }
+
+  private void readRows(BufferedReader in, BlockingQueue<Row> rows) throws IOException, InterruptedException {
+    int number = 0;
+    for (String line; (line = in.readLine()) != null;) {
+      if (line.isEmpty()) {
+        continue;
+      }
+      number++;
+      if (config.batchFormat == InputFormat.LINES) {
+        rows.put(new Row(number, line, config.barcodeFormat, hints));
+        continue;
+      }
+      try {
+        rows.put(parseCSVRow(number, line));
+      } catch (IllegalArgumentException iae) {
+        System.err.println("Row " + number + ": " + iae);
+      }
+    }
+  }
+
+  private Row parseCSVRow(int number, String line) {
+    List<String> fields = parseCSV(line);
+    BarcodeFormat format = config.barcodeFormat;
+    if (fields.size() > 1 && !fields.get(1).isEmpty()) {
+      format = BarcodeFormat.valueOf(fields.get(1).trim().toUpperCase(Locale.ENGLISH));
+    }
+    Map<EncodeHintType,Object> rowHints = hints;
+    if (fields.size() > 2 && !fields.get(2).isEmpty()) {
+      rowHints = new EnumMap<>(EncodeHintType.class);
+      rowHints.putAll(hints);
+      for (String hint : fields.get(2).split(";")) {
+        int equals = hint.indexOf('=');
+        if (equals < 0) {
+          throw new IllegalArgumentException("Expected HINT=value: " + hint);
+        }
+        // Writers parse the hints they take from strings
+        rowHints.put(EncodeHintType.valueOf(hint.substring(0, equals).trim().toUpperCase(Locale.ENGLISH)),
+                     hint.substring(equals + 1).trim());
+      }
+    }
+    return new Row(number, fields.get(0), format, rowHints);
+  }
+
+  /**
+   * Splits one line of CSV into fields, which may be in double quotes, with doubled quotes inside them.
+   */
+  // Not private for testing
+  static List<String> parseCSV(String line) {
+    List<String> fields = new ArrayList<>();
+    StringBuilder field = new StringBuilder();
+    boolean quoted = false;
+    for (int i = 0; i < line.length(); i++) {
+      char c = line.charAt(i);
+      if (quoted) {
+        if (c != '"') {
+          field.append(c);
+        } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+          field.append('"');
+          i++;
+        } else {
+          quoted = false;
+        }
+      } else if (c == '"') {
+        quoted = true;
+      } else if (c == ',') {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else {
+        field.append(c);
+      }
+    }
+    if (quoted) {
+      throw new IllegalArgumentException("Unterminated quote: " + line);
+    }
+    fields.add(field.toString());
+    return fields;
+  }
+
+  /**
+   * Writes out encoded rows until {@link #END}.
+   *
+   * @return number of rows written
+   */
+  private int writeAll(BlockingQueue<Row> encoded) throws IOException, InterruptedException {
+    int count = 0;
+    switch (config.batchOutput) {
+      case FILES:
+        for (Row row; (row = encoded.take()) != END;) {
+          Files.write(Paths.get(String.format("%s-%06d%s", fileBase, row.number, extension)), row.image);
+          count++;
+        }
+        break;
+      case ZIP:
+        try (ZipOutputStream zip = new ZipOutputStream(openOutput(".zip"))) {
+          for (Row row; (row = encoded.take()) != END;) {
+            zip.putNextEntry(new ZipEntry(String.format("%06d%s", row.number, extension)));
+            zip.write(row.image);
+            zip.closeEntry();
+            count++;
+          }
+        }
+        break;
+      case SHEET:
+        SortedMap<Integer,BitMatrix> matrices = new TreeMap<>();
+        for (Row row; (row = encoded.take()) != END;) {
+          matrices.put(row.number, row.matrix);
+        }
+        if (!matrices.isEmpty()) {
+          try (OutputStream out = openOutput(extension)) {
+            MatrixToImageWriter.writeToStream(tile(matrices.values(), config.sheetColumns), config.imageFormat, out);
+          }
+        }
+        count = matrices.size();
+        break;
+    }
+    return count;
+  }
+
+  /**
+   * Opens the output file, or standard output for "-". With the default output name, adds the extension.
+   */
+  private OutputStream openOutput(String defaultExtension) throws IOException {
+    if ("-".equals(config.outputFileBase)) {
+      return new FilterOutputStream(System.out) {
+        @Override
+        public void close() throws IOException {
+          // Leave standard output open
+          flush();
+        }
+      };
+    }
+    String output = config.outputFileBase;
+    if (EncoderConfig.DEFAULT_OUTPUT_FILE_BASE.equals(output)) {
+      output += defaultExtension;
+    }
+    return Files.newOutputStream(Paths.get(output));
+  }
+
+  /**
+   * @return the file name without its extension, if that is one an image can be written with
+   */
+  // Not private for testing
+  static String stripImageExtension(String fileName) {
+    int dot = fileName.lastIndexOf('.');
+    if (dot <= 0 || dot < fileName.lastIndexOf('/') || dot < fileName.lastIndexOf(File.separatorChar)) {
+      return fileName;
+    }
+    String suffix = fileName.substring(dot + 1).toLowerCase(Locale.ENGLISH);
+    return Arrays.asList(ImageIO.getWriterFileSuffixes()).contains(suffix) ? fileName.substring(0, dot) : fileName;
+  }
+
+  /**
+   * Lays the matrices out in rows of {@code columns} cells, each as large as the largest matrix.
+   */
+  // Not private for testing
+  static BitMatrix tile(Collection<BitMatrix> matrices, int columns) {
+    int cellWidth = 0;
+    int cellHeight = 0;
+    for (BitMatrix matrix : matrices) {
+      cellWidth = Math.max(cellWidth, matrix.getWidth());
+      cellHeight = Math.max(cellHeight, matrix.getHeight());
+    }
+    columns = Math.min(columns, matrices.size());
+    int rows = (matrices.size() + columns - 1) / columns;
+    BitMatrix sheet = new BitMatrix(columns * cellWidth, rows * cellHeight);
+    int cell = 0;
+    for (BitMatrix matrix : matrices) {
+      int left = (cell % columns) * cellWidth;
+      int top = (cell / columns) * cellHeight;
+      for (int y = 0; y < matrix.getHeight(); y++) {
+        for (int x = 0; x < matrix.getWidth(); x++) {
+          if (matrix.get(x, y)) {
+            sheet.set(left + x, top + y);
+          }
+        }
+      }
+      cell++;
+    }
+    return sheet;
+  }
+
+  private static final class Row {
+
+    final int number;
+    final String contents;
+    final BarcodeFormat format;
+    final Map<EncodeHintType,?> hints;
+    BitMatrix matrix;
+    byte[] image;
+
+    Row(int number, String contents, BarcodeFormat format, Map<EncodeHintType,?> hints) {
+      this.number = number;
+      this.contents = contents;
+      this.format = format;
+      this.hints = hints;
+    }
+
+  }
+
+}
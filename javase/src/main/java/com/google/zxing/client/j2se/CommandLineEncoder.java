@@ -16,16 +16,17 @@
 
 package com.google.zxing.client.j2se;
 
-import com.google.zxing.EncodeHintType;
 import com.google.zxing.MultiFormatWriter;
 import com.google.zxing.common.BitMatrix;
 
 import com.beust.jcommander.JCommander;
 
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
 import java.nio.file.Paths;
-import java.util.EnumMap;
 import java.util.Locale;
-import java.util.Map;
 
 /**
  * Command line utility for encoding barcodes.
@@ -47,17 +48,34 @@ public final class CommandLineEncoder {
       return;
     }
 
+    if (config.batch != null) {
+      BufferedReader in;
+      if ("-".equals(config.batch)) {
+        in = new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8));
+      } else {
+        in = Files.newBufferedReader(Paths.get(config.batch), StandardCharsets.UTF_8);
+      }
+      try {
+        int encoded = new BatchEncoder(config).encode(in);
+        // Standard output may hold the images
+        System.err.println("Encoded " + encoded + " barcodes");
+      } finally {
+        in.close();
+      }
+      return;
+    }
+    if (config.contents == null || config.contents.isEmpty()) {
+      jCommander.usage();
+      return;
+    }
+
     String outFileString = config.outputFileBase;
     if (EncoderConfig.DEFAULT_OUTPUT_FILE_BASE.equals(outFileString)) {
       outFileString += '.' + config.imageFormat.toLowerCase(Locale.ENGLISH);
     }
-    Map<EncodeHintType, Object> hints = new EnumMap<>(EncodeHintType.class);
-    if (config.errorCorrectionLevel != null) {
-      hints.put(EncodeHintType.ERROR_CORRECTION, config.errorCorrectionLevel);
-    }
     BitMatrix matrix = new MultiFormatWriter().encode(
         config.contents.get(0), config.barcodeFormat, config.width,
-        config.height, hints);
+        config.height, config.buildHints());
     MatrixToImageWriter.writeToPath(matrix, config.imageFormat,
         Paths.get(outFileString));
   }
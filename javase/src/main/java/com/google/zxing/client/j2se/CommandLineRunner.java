@@ -17,21 +17,20 @@
 package com.google.zxing.client.j2se;
 
 import com.beust.jcommander.JCommander;
+import com.google.zxing.common.HybridBinarizer;
+import java.io.FilterOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.net.URI;
 import java.net.URISyntaxException;
-import java.nio.file.DirectoryStream;
+import java.nio.file.FileSystems;
 import java.nio.file.Files;
-import java.nio.file.Path;
+import java.nio.file.PathMatcher;
 import java.nio.file.Paths;
+import java.util.ArrayDeque;
 import java.util.ArrayList;
-import java.util.Collection;
 import java.util.List;
 import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.Future;
 
 /**
  * This simple command line utility decodes files, directories of files, or URIs which are passed
@@ -72,96 +71,66 @@ public final class CommandLineRunner {
       inputs.add(uri);
     }
 
-    do {
-      inputs = retainValid(expand(inputs), config.recursive);
-    } while (config.recursive && isExpandable(inputs));
-
-    int numInputs = inputs.size();
-    if (numInputs == 0) {
-      jCommander.usage();
-      return;
-    }
-
-    Queue<URI> syncInputs = new ConcurrentLinkedQueue<>(inputs);
-    int numThreads = Math.min(numInputs, Runtime.getRuntime().availableProcessors());
-    int successful = 0;    
-    if (numThreads > 1) {
-      ExecutorService executor = Executors.newFixedThreadPool(numThreads);
-      Collection<Future<Integer>> futures = new ArrayList<>(numThreads);
-      for (int x = 0; x < numThreads; x++) {
-        futures.add(executor.submit(new DecodeWorker(config, syncInputs)));
-      }
-      executor.shutdown();
-      for (Future<Integer> future : futures) {
-        successful += future.get();
+    PathMatcher include =
+        config.include == null ? null : FileSystems.getDefault().getPathMatcher("glob:" + config.include);
+    InputWalker walker = new InputWalker(inputs, config.recursive, include);
+    if (config.benchmark) {
+      if (new DecodeBenchmark(config).run(walker, System.out) == 0) {
+        jCommander.usage();
       }
-    } else {
-      successful += new DecodeWorker(config, syncInputs).call();
-    }
-
-    if (!config.brief && numInputs > 1) {
-      System.out.println("\nDecoded " + successful + " files out of " + numInputs +
-          " successfully (" + (successful * 100 / numInputs) + "%)\n");
+      return;
     }
-  }
 
-  private static List<URI> expand(Iterable<URI> inputs) throws IOException {
-    List<URI> expanded = new ArrayList<>();
-    for (URI input : inputs) {
-      if (isFileOrDir(input)) {
-        Path inputPath = Paths.get(input);
-        if (Files.isDirectory(inputPath)) {
-          try (DirectoryStream<Path> childPaths = Files.newDirectoryStream(inputPath)) {
-            for (Path childPath : childPaths) {
-              expanded.add(childPath.toUri());
-            }
+    ResultWriter resultWriter = null;
+    if (config.outputFormat != null) {
+      OutputStream out;
+      if (config.output == null) {
+        out = new FilterOutputStream(System.out) {
+          @Override
+          public void close() throws IOException {
+            // Leave standard output open
+            flush();
           }
-        } else {
-          expanded.add(input);
-        }
+        };
       } else {
-        expanded.add(input);
+        out = Files.newOutputStream(Paths.get(config.output));
       }
+      resultWriter = new ResultWriter(config.outputFormat, out, HybridBinarizer.class.getSimpleName(),
+                                      config.buildHints());
     }
-    for (int i = 0; i < expanded.size(); i++) {
-      URI input = expanded.get(i);
-      if (input.getScheme() == null) {
-        expanded.set(i, Paths.get(input.getRawPath()).toUri());
-      }
-    }
-    return expanded;
-  }
 
-  private static List<URI> retainValid(Iterable<URI> inputs, boolean recursive) {
-    List<URI> retained = new ArrayList<>();
-    for (URI input : inputs) {
-      boolean retain;
-      if (isFileOrDir(input)) {
-        Path inputPath = Paths.get(input);
-        retain =
-            !inputPath.getFileName().toString().startsWith(".") &&
-            (recursive || !Files.isDirectory(inputPath));
+    DecodePipeline pipeline = null;
+    int successful;
+    int numInputs;
+    try {
+      if (walker.isSingleInput()) {
+        // One image is decoded directly, without starting the pipeline's threads
+        Queue<URI> single = new ArrayDeque<>(1);
+        walker.walk(single::add);
+        numInputs = single.size();
+        successful = new DecodeWorker(config, single, resultWriter).call();
       } else {
-        retain = true;
+        pipeline = new DecodePipeline(config, resultWriter);
+        // Inputs are found as decoding goes, so their number is only known at the end
+        successful = pipeline.decode(walker);
+        numInputs = pipeline.getInputCount();
       }
-      if (retain) {
-        retained.add(input);
+    } finally {
+      if (resultWriter != null) {
+        resultWriter.close();
       }
     }
-    return retained;
-  }
-
-  private static boolean isExpandable(Iterable<URI> inputs) {
-    for (URI input : inputs) {
-      if (isFileOrDir(input) && Files.isDirectory(Paths.get(input))) {
-        return true;
-      }
+    if (numInputs == 0) {
+      jCommander.usage();
+      return;
     }
-    return false;
-  }
 
-  private static boolean isFileOrDir(URI uri) {
-    return "file".equals(uri.getScheme());
+    // Records written to standard output are left for a program to read
+    if (!config.brief && numInputs > 1 && (resultWriter == null || config.output != null)) {
+      System.out.println("\nDecoded " + successful + " files out of " + numInputs +
+          " successfully (" + (successful * 100 / numInputs) + "%)\n");
+      pipeline.printTimings();
+    }
   }
 
 }
@@ -0,0 +1,249 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+import com.google.zxing.Binarizer;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.LuminanceSource;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.NotFoundException;
+import com.google.zxing.Result;
+import com.google.zxing.common.GlobalHistogramBinarizer;
+import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.multi.GenericMultipleBarcodeReader;
+
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+/**
+ * <p>Measures decoding throughput on a set of images. All of them are read into memory first, so no file or
+ * network I/O is timed. Every image is then decoded with each binarizer, on {@code --decode_threads}
+ * threads, for {@code --warmup_iterations} passes which aren't measured and then {@code --iterations}
+ * passes which are.</p>
+ *
+ * <p>Reports images decoded per second, the 50th, 95th and 99th percentile latency of decoding one image
+ * for each binarizer and barcode format found, and how many bytes the decoding threads allocated, where
+ * the JVM can tell.</p>
+ *
+ * @see CommandLineRunner
+ */
+final class DecodeBenchmark {
+
+  private static final String NOT_FOUND = "(none)";
+
+  private final DecoderConfig config;
+  private final Map<DecodeHintType,?> hints;
+  private final Map<String,Function<LuminanceSource,Binarizer>> binarizers = new TreeMap<>();
+
+  DecodeBenchmark(DecoderConfig config) {
+    this.config = config;
+    hints = config.buildHints();
+    binarizers.put(GlobalHistogramBinarizer.class.getSimpleName(), GlobalHistogramBinarizer::new);
+    binarizers.put(HybridBinarizer.class.getSimpleName(), HybridBinarizer::new);
+  }
+
+  /**
+   * Reads the inputs, then decodes them repeatedly and prints what was measured.
+   *
+   * @return number of images which could be read, and so were decoded
+   */
+  int run(InputWalker inputs, PrintStream out) throws InterruptedException, ExecutionException {
+    List<BufferedImage> images = new ArrayList<>();
+    inputs.walk(uri -> {
+      try {
+        BufferedImage image = ImageReader.readImage(uri);
+        if (image == null) {
+          throw new IOException("Could not load " + uri);
+        }
+        images.add(image);
+      } catch (IOException | RuntimeException e) {
+        System.err.println(uri + ": " + e);
+      }
+    });
+    if (images.isEmpty()) {
+      return 0;
+    }
+
+    ThreadMXBean threadMXBean = ManagementFactory.getThreadMXBean();
+    com.sun.management.ThreadMXBean allocationMXBean = null;
+    if (threadMXBean instanceof com.sun.management.ThreadMXBean &&
+        ((com.sun.management.ThreadMXBean) threadMXBean).isThreadAllocatedMemorySupported()) {
+      allocationMXBean = (com.sun.management.ThreadMXBean) threadMXBean;
+      allocationMXBean.setThreadAllocatedMemoryEnabled(true);
+    }
+
+    out.println("Benchmarking " + images.size() + " images on " + config.decodeThreads + " threads, " +
+                config.warmupIterations + " warmup and " + config.iterations + " timed iterations");
+    ExecutorService executor = Executors.newFixedThreadPool(config.decodeThreads);
+    try {
+      for (Map.Entry<String,Function<LuminanceSource,Binarizer>> binarizer : binarizers.entrySet()) {
+        for (int i = 0; i < config.warmupIterations; i++) {
+          runIteration(executor, images, binarizer.getValue(), null);
+        }
+        Measurements measurements = new Measurements(allocationMXBean);
+        long start = System.nanoTime();
+        for (int i = 0; i < config.iterations; i++) {
+          runIteration(executor, images, binarizer.getValue(), measurements);
+        }
+        long elapsedNanos = System.nanoTime() - start;
+        measurements.print(out, binarizer.getKey(), elapsedNanos);
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    return images.size();
+  }
+
+  /**
+   * Decodes every image once, sharing them out among the executor's threads.
+   *
+   * @param measurements collects each decode's latency and the threads' allocation, or null not to
+   */
+  private void runIteration(ExecutorService executor,
+                            List<BufferedImage> images,
+                            Function<LuminanceSource,Binarizer> binarizer,
+                            Measurements measurements) throws InterruptedException, ExecutionException {
+    AtomicInteger next = new AtomicInteger();
+    Collection<Future<?>> futures = new ArrayList<>();
+    for (int t = 0; t < config.decodeThreads; t++) {
+      futures.add(executor.submit(() -> {
+        long startBytes = measurements == null ? 0 : measurements.getAllocatedBytes();
+        MultiFormatReader reader = new MultiFormatReader();
+        Map<String,List<Long>> latencies = new TreeMap<>();
+        for (int i; (i = next.getAndIncrement()) < images.size();) {
+          long start = System.nanoTime();
+          String format = decode(reader, images.get(i), binarizer);
+          latencies.computeIfAbsent(format, f -> new ArrayList<>()).add(System.nanoTime() - start);
+        }
+        if (measurements != null) {
+          measurements.add(latencies, measurements.getAllocatedBytes() - startBytes);
+        }
+        return null;
+      }));
+    }
+    for (Future<?> future : futures) {
+      future.get();
+    }
+  }
+
+  /**
+   * @return format of the first barcode found, or {@link #NOT_FOUND}
+   */
+  private String decode(MultiFormatReader reader,
+                        BufferedImage image,
+                        Function<LuminanceSource,Binarizer> binarizer) {
+    LuminanceSource source;
+    if (config.crop == null) {
+      source = new BufferedImageLuminanceSource(image);
+    } else {
+      List<Integer> crop = config.crop;
+      source = new BufferedImageLuminanceSource(image, crop.get(0), crop.get(1), crop.get(2), crop.get(3));
+    }
+    BinaryBitmap bitmap = new BinaryBitmap(binarizer.apply(source));
+    try {
+      Result result;
+      if (config.multi) {
+        result = new GenericMultipleBarcodeReader(reader).decodeMultiple(bitmap, hints)[0];
+      } else {
+        result = reader.decode(bitmap, hints);
+      }
+      return result.getBarcodeFormat().toString();
+    } catch (NotFoundException ignored) {
+      return NOT_FOUND;
+    }
+  }
+
+  // Not private for testing
+  static long percentile(long[] sorted, int percent) {
+    // Nearest rank
+    int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+    return sorted[Math.max(rank, 1) - 1];
+  }
+
+  /**
+   * Latencies and allocation gathered from the decoding threads over the timed iterations of one binarizer.
+   */
+  private static final class Measurements {
+
+    private final com.sun.management.ThreadMXBean allocationMXBean;
+    private final Map<String,List<Long>> latencies = new TreeMap<>();
+    private long allocatedBytes;
+
+    Measurements(com.sun.management.ThreadMXBean allocationMXBean) {
+      this.allocationMXBean = allocationMXBean;
+    }
+
+    /**
+     * @return bytes allocated so far by the calling thread, or 0 if unknown
+     */
+    long getAllocatedBytes() {
+      return allocationMXBean == null ? 0 : allocationMXBean.getThreadAllocatedBytes(Thread.currentThread().getId());
+    }
+
+    synchronized void add(Map<String,List<Long>> threadLatencies, long threadAllocatedBytes) {
+      for (Map.Entry<String,List<Long>> entry : threadLatencies.entrySet()) {
+        latencies.computeIfAbsent(entry.getKey(), f -> new ArrayList<>()).addAll(entry.getValue());
+      }
+      allocatedBytes += threadAllocatedBytes;
+    }
+
+    synchronized void print(PrintStream out, String binarizer, long elapsedNanos) {
+      int count = 0;
+      for (List<Long> formatLatencies : latencies.values()) {
+        count += formatLatencies.size();
+      }
+      double seconds = elapsedNanos / 1.0e9;
+      out.println();
+      out.printf("%s: %d images in %.2f s, %.1f images/s%n", binarizer, count, seconds, count / seconds);
+      out.printf("  %-14s %8s %10s %10s %10s%n", "format", "images", "p50 ms", "p95 ms", "p99 ms");
+      for (Map.Entry<String,List<Long>> entry : latencies.entrySet()) {
+        long[] sorted = new long[entry.getValue().size()];
+        for (int i = 0; i < sorted.length; i++) {
+          sorted[i] = entry.getValue().get(i);
+        }
+        Arrays.sort(sorted);
+        out.printf("  %-14s %8d %10.2f %10.2f %10.2f%n", entry.getKey(), sorted.length,
+                   percentile(sorted, 50) / 1.0e6, percentile(sorted, 95) / 1.0e6, percentile(sorted, 99) / 1.0e6);
+      }
+      if (allocationMXBean == null) {
+        out.println("  allocation rate not available in this JVM");
+      } else {
+        out.printf("  allocated %.1f MB/s, %.1f KB per image%n",
+                   allocatedBytes / 1.0e6 / seconds, count == 0 ? 0.0 : allocatedBytes / 1.0e3 / count);
+      }
+    }
+
+  }
+
+}
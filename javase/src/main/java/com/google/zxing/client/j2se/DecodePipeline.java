@@ -0,0 +1,267 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * <p>Decodes many inputs in three stages, each with threads of its own: fetching their bytes, which mostly
+ * waits on disk or network; reading those into images; and decoding barcodes in them. Stages are joined by
+ * small bounded queues, so that while some threads wait on I/O others keep the processors busy, and only a
+ * few inputs are held between stages at once.</p>
+ *
+ * <p>An input which can't be fetched or read is reported, with a record if results are written, and skipped
+ * rather than ending the run. Anything else a thread fails with, like an {@link OutOfMemoryError}, stops all
+ * the others and ends the run.</p>
+ *
+ * @see CommandLineRunner
+ * @see DecodeWorker
+ */
+final class DecodePipeline {
+
+  // Marks the end of a stage's inputs
+  private static final Input END = new Input(null);
+  private static final URI END_URI = URI.create("pipeline:end");
+
+  private final DecodeWorker worker;
+  private final ImageDecoder decoder;
+  private final Stage fetchStage;
+  private final Stage readStage;
+  private final Stage decodeStage;
+  private final AtomicInteger successful = new AtomicInteger();
+
+  DecodePipeline(DecoderConfig config) {
+    this(config, (ResultWriter) null);
+  }
+
+  /**
+   * @param resultWriter writes records of the results instead of printing them, or null to print them
+   */
+  DecodePipeline(DecoderConfig config, ResultWriter resultWriter) {
+    this(config, new DecodeWorker(config, resultWriter));
+  }
+
+  private DecodePipeline(DecoderConfig config, DecodeWorker worker) {
+    this(config, worker, worker::decode);
+  }
+
+  // Not private for testing
+  DecodePipeline(DecoderConfig config, ImageDecoder decoder) {
+    this(config, new DecodeWorker(config, (ResultWriter) null), decoder);
+  }
+
+  private DecodePipeline(DecoderConfig config, DecodeWorker worker, ImageDecoder decoder) {
+    this.worker = worker;
+    this.decoder = decoder;
+    fetchStage = new Stage("fetch", config.ioThreads);
+    readStage = new Stage("read", config.imageThreads);
+    decodeStage = new Stage("decode", config.decodeThreads);
+  }
+
+  /**
+   * @param inputs finds the URIs to decode, while they are decoded
+   * @return number of inputs in which a barcode was found
+   */
+  int decode(InputWalker inputs) throws InterruptedException, ExecutionException {
+    // Room for a couple of inputs per consuming thread, so that none waits while another stage catches up
+    BlockingQueue<URI> found = new ArrayBlockingQueue<>(2 * fetchStage.threads);
+    BlockingQueue<Input> fetched = new ArrayBlockingQueue<>(2 * readStage.threads);
+    BlockingQueue<Input> images = new ArrayBlockingQueue<>(2 * decodeStage.threads);
+
+    ExecutorService executor =
+        Executors.newFixedThreadPool(1 + fetchStage.threads + readStage.threads + decodeStage.threads);
+    CompletionService<Void> completion = new ExecutorCompletionService<>(executor);
+    try {
+      completion.submit(() -> {
+        inputs.walk(found::put);
+        found.put(END_URI);
+        return null;
+      });
+      int tasks = 1;
+      tasks += fetchStage.start(completion,
+          () -> {
+            URI uri = found.take();
+            if (uri == END_URI) {
+              // Leave it for the other fetching threads
+              found.put(END_URI);
+              return END;
+            }
+            return new Input(uri);
+          },
+          input -> {
+            // Loading is timed from here, not counting time spent waiting in queues
+            long start = System.nanoTime();
+            input.bytes = ImageReader.readBytes(input.uri);
+            input.loadNanos = System.nanoTime() - start;
+          },
+          fetched, readStage.threads);
+      tasks += readStage.start(completion,
+          fetched::take,
+          input -> {
+            long start = System.nanoTime();
+            BufferedImage image = ImageReader.readImage(new ByteArrayInputStream(input.bytes));
+            input.bytes = null;
+            if (image == null) {
+              throw new IOException("Could not load " + input.uri);
+            }
+            input.image = image;
+            input.loadNanos += System.nanoTime() - start;
+          },
+          images, decodeStage.threads);
+      tasks += decodeStage.start(completion,
+          images::take,
+          input -> {
+            if (decoder.decode(input.uri, input.image, input.loadNanos)) {
+              successful.incrementAndGet();
+            }
+            input.image.flush();
+            input.image = null;
+          },
+          null, 0);
+      executor.shutdown();
+      // Wait on whichever finishes first, so that one failing stops the rest instead of leaving them blocked
+      for (int i = 0; i < tasks; i++) {
+        completion.take().get();
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+    return successful.get();
+  }
+
+  /**
+   * @return number of inputs found, whether or not they could be read
+   */
+  int getInputCount() {
+    return fetchStage.count.get();
+  }
+
+  /**
+   * Prints how many inputs each stage handled, and how long its threads were busy with them.
+   */
+  void printTimings() {
+    System.out.println("Stage timings:");
+    for (Stage stage : new Stage[] {fetchStage, readStage, decodeStage}) {
+      System.out.println(stage);
+    }
+  }
+
+  private static final class Input {
+
+    final URI uri;
+    byte[] bytes;
+    BufferedImage image;
+    long loadNanos;
+
+    Input(URI uri) {
+      this.uri = uri;
+    }
+
+  }
+
+  // Not private for testing
+  interface ImageDecoder {
+    boolean decode(URI uri, BufferedImage image, long loadNanos) throws IOException;
+  }
+
+  private interface Source {
+    Input next() throws InterruptedException;
+  }
+
+  private interface Task {
+    void process(Input input) throws IOException;
+  }
+
+  private final class Stage {
+
+    private final String name;
+    private final int threads;
+    private final AtomicInteger count = new AtomicInteger();
+    private final AtomicLong busyNanos = new AtomicLong();
+
+    Stage(String name, int threads) {
+      this.name = name;
+      this.threads = threads;
+    }
+
+    /**
+     * Starts this stage's threads, which process inputs from the source and pass them to the output, if any.
+     * The last to finish passes {@link #END} to each of the output's consumers. One which fails doesn't, as
+     * the run is then stopped.
+     *
+     * @return number of threads started
+     */
+    int start(CompletionService<Void> completion,
+              Source source,
+              Task task,
+              BlockingQueue<Input> output,
+              int outputConsumers) {
+      AtomicInteger running = new AtomicInteger(threads);
+      Callable<Void> thread = () -> {
+        for (Input input; (input = source.next()) != END;) {
+          long start = System.nanoTime();
+          boolean processed = false;
+          try {
+            task.process(input);
+            processed = true;
+          } catch (IOException | RuntimeException e) {
+            worker.reportFailure(input.uri, e);
+          } finally {
+            busyNanos.addAndGet(System.nanoTime() - start);
+            count.incrementAndGet();
+          }
+          if (processed && output != null) {
+            output.put(input);
+          }
+        }
+        if (running.decrementAndGet() == 0) {
+          for (int i = 0; i < outputConsumers; i++) {
+            output.put(END);
+          }
+        }
+        return null;
+      };
+      for (int i = 0; i < threads; i++) {
+        completion.submit(thread);
+      }
+      return threads;
+    }
+
+    @Override
+    public String toString() {
+      int n = count.get();
+      double busyMillis = busyNanos.get() / 1.0e6;
+      return String.format("  %-6s %3d threads %6d inputs %8.0f ms busy %8.1f ms each",
+                           name, threads, n, busyMillis, n == 0 ? 0.0 : busyMillis / n);
+    }
+
+  }
+
+}
@@ -28,6 +28,7 @@ import com.google.zxing.client.result.ResultParser;
 import com.google.zxing.common.BitArray;
 import com.google.zxing.common.BitMatrix;
 import com.google.zxing.common.HybridBinarizer;
+import com.google.zxing.multi.ByStripeReader;
 import com.google.zxing.multi.GenericMultipleBarcodeReader;
 import com.google.zxing.multi.MultipleBarcodeReader;
 
@@ -47,9 +48,10 @@ import java.util.List;
 import java.util.Map;
 import java.util.Queue;
 import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentLinkedQueue;
 
 /**
- * One of a pool of threads which pulls images off the Inputs queue and decodes them in parallel.
+ * Decodes images, either those read by a {@link DecodePipeline} or, when called, each one on its inputs queue.
  *
  * @see CommandLineRunner
  */
@@ -62,28 +64,79 @@ final class DecodeWorker implements Callable<Integer> {
   private final DecoderConfig config;
   private final Queue<URI> inputs;
   private final Map<DecodeHintType,?> hints;
+  private final ResultWriter resultWriter;
 
   DecodeWorker(DecoderConfig config, Queue<URI> inputs) {
+    this(config, inputs, null);
+  }
+
+  /**
+   * @param resultWriter writes records of the results instead of printing them, or null to print them
+   */
+  DecodeWorker(DecoderConfig config, Queue<URI> inputs, ResultWriter resultWriter) {
     this.config = config;
     this.inputs = inputs;
+    this.resultWriter = resultWriter;
     hints = config.buildHints();
   }
 
+  /**
+   * Creates a worker with no inputs of its own, which only decodes images read elsewhere.
+   *
+   * @see #decode(URI, BufferedImage, long)
+   */
+  DecodeWorker(DecoderConfig config, ResultWriter resultWriter) {
+    this(config, new ConcurrentLinkedQueue<>(), resultWriter);
+  }
+
   @Override
   public Integer call() throws IOException {
     int successful = 0;
     for (URI input; (input = inputs.poll()) != null;) {
-      Result[] results = decode(input, hints);
-      if (results != null) {
+      long start = System.nanoTime();
+      BufferedImage image;
+      try {
+        image = ImageReader.readImage(input);
+      } catch (IOException ioe) {
+        reportFailure(input, ioe);
+        continue;
+      }
+      if (decode(input, image, System.nanoTime() - start)) {
         successful++;
-        if (config.dumpResults) {
-          dumpResult(input, results);
-        }
       }
     }
     return successful;
   }
 
+  /**
+   * Decodes an image read from the given URI, printing the results, and writing them out if configured.
+   * Safe to call from several threads at once.
+   *
+   * @param loadNanos how long fetching and reading the image took, for the result records
+   * @return true if a barcode was found
+   */
+  boolean decode(URI uri, BufferedImage image, long loadNanos) throws IOException {
+    Result[] results = decode(uri, image, loadNanos, hints);
+    if (results == null) {
+      return false;
+    }
+    if (config.dumpResults) {
+      dumpResult(uri, results);
+    }
+    return true;
+  }
+
+  /**
+   * Reports an input which couldn't be loaded, printing it, or writing a record of it if configured.
+   */
+  void reportFailure(URI uri, Exception e) throws IOException {
+    if (resultWriter == null) {
+      System.err.println(uri + ": " + e);
+    } else {
+      resultWriter.writeFailure(uri, e.toString());
+    }
+  }
+
   private static Path buildOutputPath(URI input, String suffix) throws IOException {
     Path outDir;
     String inputFileName;
@@ -121,9 +174,9 @@ final class DecodeWorker implements Callable<Integer> {
     Files.write(buildOutputPath(input, ".txt"), resultTexts, StandardCharsets.UTF_8);
   }
 
-  private Result[] decode(URI uri, Map<DecodeHintType,?> hints) throws IOException {
-    BufferedImage image = ImageReader.readImage(uri);
-
+  private Result[] decode(URI uri, BufferedImage image, long loadNanos, Map<DecodeHintType,?> hints)
+      throws IOException {
+    long start = System.nanoTime();
     LuminanceSource source;
     if (config.crop == null) {
       source = new BufferedImageLuminanceSource(image);
@@ -134,25 +187,45 @@ final class DecodeWorker implements Callable<Integer> {
     }
 
     BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(source));
+    if (resultWriter != null && !config.stripes) {
+      // Thresholding is otherwise left until a reader asks for it, and counted as decoding. It is done here
+      // only when timings are recorded, as 1D readers may find a barcode without it, and stripes avoid it.
+      try {
+        bitmap.getBlackMatrix();
+      } catch (NotFoundException ignored) {
+        // The readers will find the same
+      }
+    }
+    long binarizeNanos = System.nanoTime() - start;
     if (config.dumpBlackPoint) {
       dumpBlackPoint(uri, image, bitmap);
     }
 
+    start = System.nanoTime();
     MultiFormatReader multiFormatReader = new MultiFormatReader();
     Result[] results;
     try {
-      if (config.multi) {
+      if (config.stripes) {
+        MultipleBarcodeReader reader = new ByStripeReader(new GenericMultipleBarcodeReader(multiFormatReader));
+        results = reader.decodeMultiple(bitmap, hints);
+      } else if (config.multi) {
         MultipleBarcodeReader reader = new GenericMultipleBarcodeReader(multiFormatReader);
         results = reader.decodeMultiple(bitmap, hints);
       } else {
         results = new Result[]{multiFormatReader.decode(bitmap, hints)};
       }
     } catch (NotFoundException ignored) {
-      System.out.println(uri + ": No barcode found");
+      if (resultWriter == null) {
+        System.out.println(uri + ": No barcode found");
+      } else {
+        resultWriter.write(uri, null, loadNanos, binarizeNanos, System.nanoTime() - start);
+      }
       return null;
     }
 
-    if (config.brief) {
+    if (resultWriter != null) {
+      resultWriter.write(uri, results, loadNanos, binarizeNanos, System.nanoTime() - start);
+    } else if (config.brief) {
       System.out.println(uri + ": Success");
     } else {
       StringWriter output = new StringWriter();
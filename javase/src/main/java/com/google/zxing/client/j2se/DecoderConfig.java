@@ -16,7 +16,9 @@
 
 package com.google.zxing.client.j2se;
 
+import com.beust.jcommander.IParameterValidator;
 import com.beust.jcommander.Parameter;
+import com.beust.jcommander.ParameterException;
 import com.beust.jcommander.validators.PositiveInteger;
 import com.google.zxing.BarcodeFormat;
 import com.google.zxing.DecodeHintType;
@@ -54,14 +56,31 @@ final class DecoderConfig {
       description = "Scans image for multiple barcodes")
   boolean multi;
 
+  @Parameter(names = "--stripes",
+      description = "Scans tall images in overlapping horizontal stripes to bound memory, " +
+          "finding multiple barcodes as with --multi")
+  boolean stripes;
+
   @Parameter(names = "--brief",
       description = "Only output one line per file, omitting the contents")
   boolean brief;
 
+  @Parameter(names = "--output_format",
+      description = "Write one record per result as jsonl or csv, with timings, instead of text")
+  ResultWriter.Format outputFormat;
+
+  @Parameter(names = "--output",
+      description = "File to write records to with --output_format, default is standard output")
+  String output;
+
   @Parameter(names = "--recursive",
       description = "Descend into subdirectories")
   boolean recursive;
 
+  @Parameter(names = "--include",
+      description = "Only decode files in directories whose names match this glob, like *.{png,jpg}")
+  String include;
+
   @Parameter(names = "--crop",
       description = " Only examine cropped region of input image(s)",
       arity = 4,
@@ -73,6 +92,35 @@ final class DecoderConfig {
       variableArity = true)
   List<BarcodeFormat> possibleFormats;
 
+  @Parameter(names = "--io_threads",
+      description = "Threads reading inputs from disk or network, when decoding several",
+      validateWith = PositiveInteger.class)
+  int ioThreads = 4 * Runtime.getRuntime().availableProcessors();
+
+  @Parameter(names = "--image_threads",
+      description = "Threads decompressing images, when decoding several",
+      validateWith = PositiveInteger.class)
+  int imageThreads = Runtime.getRuntime().availableProcessors();
+
+  @Parameter(names = "--decode_threads",
+      description = "Threads decoding barcodes, when decoding several",
+      validateWith = PositiveInteger.class)
+  int decodeThreads = Runtime.getRuntime().availableProcessors();
+
+  @Parameter(names = "--benchmark",
+      description = "Time repeated decoding of the images, read into memory first, instead of printing results")
+  boolean benchmark;
+
+  @Parameter(names = "--warmup_iterations",
+      description = "Untimed passes over the images before timing, with --benchmark",
+      validateWith = NonNegativeInteger.class)
+  int warmupIterations = 3;
+
+  @Parameter(names = "--iterations",
+      description = "Timed passes over the images, with --benchmark",
+      validateWith = PositiveInteger.class)
+  int iterations = 10;
+
   @Parameter(names = "--help",
       description = "Prints this help message",
       help = true)
@@ -119,4 +167,18 @@ final class DecoderConfig {
     return Collections.unmodifiableMap(hints);
   }
 
+  /**
+   * Like {@link PositiveInteger}, but also allows 0. Public, as JCommander creates it.
+   */
+  public static final class NonNegativeInteger implements IParameterValidator {
+
+    @Override
+    public void validate(String name, String value) {
+      if (Integer.parseInt(value) < 0) {
+        throw new ParameterException("Parameter " + name + " should be non-negative (found " + value + ")");
+      }
+    }
+
+  }
+
 }
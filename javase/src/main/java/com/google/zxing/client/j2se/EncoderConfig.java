@@ -16,11 +16,14 @@
 
 package com.google.zxing.client.j2se;
 
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
 
 import com.beust.jcommander.Parameter;
 import com.beust.jcommander.validators.PositiveInteger;
 import com.google.zxing.BarcodeFormat;
+import com.google.zxing.EncodeHintType;
 
 final class EncoderConfig {
 
@@ -35,7 +38,8 @@ final class EncoderConfig {
   String imageFormat = "PNG";
 
   @Parameter(names = "--output",
-      description = "File to write to. Defaults to out.png")
+      description = "File to write to. Defaults to out.png, or with --batch out-000001.png and on, " +
+          "out.zip or out.png. With --batch_output ZIP or SHEET, - writes to standard output")
   String outputFileBase = DEFAULT_OUTPUT_FILE_BASE;
 
   @Parameter(names = "--width",
@@ -52,12 +56,43 @@ final class EncoderConfig {
       description = "Error correction level for the encoding")
   String errorCorrectionLevel = null;
 
+  @Parameter(names = "--batch",
+      description = "File of contents to encode, one per line, or - to read standard input")
+  String batch;
+
+  @Parameter(names = "--batch_format",
+      description = "LINES of contents, or CSV rows of contents, then optionally format and hints " +
+          "like MARGIN=2;ERROR_CORRECTION=L")
+  BatchEncoder.InputFormat batchFormat = BatchEncoder.InputFormat.LINES;
+
+  @Parameter(names = "--batch_output",
+      description = "With --batch, write numbered FILES, one ZIP stream, or one contact SHEET of all of them")
+  BatchEncoder.Output batchOutput = BatchEncoder.Output.FILES;
+
+  @Parameter(names = "--sheet_columns",
+      description = "Barcodes in each row of a contact sheet",
+      validateWith = PositiveInteger.class)
+  int sheetColumns = 10;
+
+  @Parameter(names = "--threads",
+      description = "Threads encoding barcodes, with --batch",
+      validateWith = PositiveInteger.class)
+  int threads = Runtime.getRuntime().availableProcessors();
+
   @Parameter(names = "--help",
       description = "Prints this help message",
       help = true)
   boolean help;
 
-  @Parameter(description = "(Text to encode)", required = true)
+  @Parameter(description = "(Text to encode)")
   List<String> contents;
 
+  Map<EncodeHintType,Object> buildHints() {
+    Map<EncodeHintType,Object> hints = new EnumMap<>(EncodeHintType.class);
+    if (errorCorrectionLevel != null) {
+      hints.put(EncodeHintType.ERROR_CORRECTION, errorCorrectionLevel);
+    }
+    return hints;
+  }
+
 }
@@ -17,11 +17,20 @@
 package com.google.zxing.client.j2se;
 
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Dimension;
 import java.awt.image.BufferedImage;
+import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.InputStream;
 import java.net.URI;
+import java.nio.file.Files;
+import java.nio.file.Paths;
 import java.util.Base64;
+import java.util.Iterator;
 
 /**
  * Encapsulates reading URIs as images.
@@ -40,8 +49,8 @@ public final class ImageReader {
       return readDataURIImage(uri);
     }
     BufferedImage result;
-    try {
-      result = ImageIO.read(uri.toURL());
+    try (InputStream in = uri.toURL().openStream()) {
+      result = readImage(in);
     } catch (IllegalArgumentException iae) {
       throw new IOException("Resource not found: " + uri, iae);
     }
@@ -50,8 +59,157 @@ public final class ImageReader {
     }
     return result;
   }
+
+  /**
+   * Reads an image from a stream. PNGs are decoded directly to a {@link BufferedImage#TYPE_BYTE_GRAY} image
+   * of their luminance, which is all decoding needs; other formats are left to {@link ImageIO}.
+   *
+   * @param in stream to read, which is not closed
+   * @return the image, or null if no reader understands its format
+   * @throws IOException if the stream can't be read
+   */
+  public static BufferedImage readImage(InputStream in) throws IOException {
+    return readImage(in, 1);
+  }
+
+  /**
+   * Like {@link #readImage(InputStream)}, but keeps only every {@code subsampling}th pixel of every
+   * {@code subsampling}th row as the image is decoded, so that the full image is never held.
+   *
+   * @param in stream to read, which is not closed
+   * @param subsampling keep every this many pixels, horizontally and vertically; 1 keeps them all
+   * @return the image, or null if no reader understands its format
+   * @throws IOException if the stream can't be read
+   * @see #chooseSubsampling(byte[], int)
+   */
+  public static BufferedImage readImage(InputStream in, int subsampling) throws IOException {
+    InputStream markable = in.markSupported() ? in : new BufferedInputStream(in);
+    BufferedImage result = PNGLuminanceDecoder.decode(markable, subsampling);
+    if (result != null) {
+      return result;
+    }
+    if (subsampling == 1) {
+      return ImageIO.read(markable);
+    }
+    try (ImageInputStream imageIn = ImageIO.createImageInputStream(markable)) {
+      javax.imageio.ImageReader reader = getImageReader(imageIn);
+      if (reader == null) {
+        return null;
+      }
+      try {
+        ImageReadParam param = reader.getDefaultReadParam();
+        param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+        return reader.read(0, param);
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  /**
+   * Reads only the header of an encoded image, to find its size without decoding it.
+   *
+   * @param imageBytes encoded image
+   * @return width and height of the image, or null if its format isn't understood
+   * @throws IOException if the header can't be read
+   */
+  public static Dimension readDimensions(byte[] imageBytes) throws IOException {
+    try (ImageInputStream imageIn = ImageIO.createImageInputStream(new ByteArrayInputStream(imageBytes))) {
+      javax.imageio.ImageReader reader = getImageReader(imageIn);
+      if (reader == null) {
+        return null;
+      }
+      try {
+        return new Dimension(reader.getWidth(0), reader.getHeight(0));
+      } finally {
+        reader.dispose();
+      }
+    }
+  }
+
+  /**
+   * Reads only the header of an encoded image, to find how much it should be subsampled as it is read.
+   *
+   * @param imageBytes encoded image
+   * @param maxPixels number of pixels the image should be brought within
+   * @return smallest subsampling factor leaving at most {@code maxPixels} pixels, or 1 if the image is no
+   *  larger than that, or its format isn't understood
+   * @throws IOException if the header can't be read
+   * @see #readImage(InputStream, int)
+   */
+  public static int chooseSubsampling(byte[] imageBytes, int maxPixels) throws IOException {
+    if (maxPixels < 1) {
+      throw new IllegalArgumentException("maxPixels must be at least 1");
+    }
+    Dimension dimensions = readDimensions(imageBytes);
+    return dimensions == null ? 1 : chooseSubsampling(dimensions.width, dimensions.height, maxPixels);
+  }
+
+  /**
+   * @param width width of the image
+   * @param height height of the image
+   * @param maxPixels number of pixels the image should be brought within
+   * @return smallest subsampling factor leaving at most {@code maxPixels} pixels, or 1 if the image is no
+   *  larger than that
+   * @see #readDimensions(byte[])
+   */
+  public static int chooseSubsampling(int width, int height, int maxPixels) {
+    if (maxPixels < 1) {
+      throw new IllegalArgumentException("maxPixels must be at least 1");
+    }
+    int subsampling = 1;
+    while ((long) ((width + subsampling - 1) / subsampling) * ((height + subsampling - 1) / subsampling) >
+           maxPixels) {
+      subsampling++;
+    }
+    return subsampling;
+  }
+
+  private static javax.imageio.ImageReader getImageReader(ImageInputStream imageIn) {
+    if (imageIn == null) {
+      return null;
+    }
+    Iterator<javax.imageio.ImageReader> readers = ImageIO.getImageReaders(imageIn);
+    if (!readers.hasNext()) {
+      return null;
+    }
+    javax.imageio.ImageReader reader = readers.next();
+    reader.setInput(imageIn, true, true);
+    return reader;
+  }
   
+  /**
+   * Reads the bytes of the image a URI refers to, without decoding them.
+   *
+   * @param uri file, URL or data URI of an image
+   * @return the encoded image
+   * @throws IOException if the URI can't be read
+   * @see #readImage(InputStream)
+   */
+  public static byte[] readBytes(URI uri) throws IOException {
+    if ("data".equals(uri.getScheme())) {
+      return readDataURIBytes(uri);
+    }
+    if ("file".equals(uri.getScheme())) {
+      return Files.readAllBytes(Paths.get(uri));
+    }
+    try (InputStream in = uri.toURL().openStream()) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      byte[] buffer = new byte[8192];
+      for (int count; (count = in.read(buffer)) > 0;) {
+        out.write(buffer, 0, count);
+      }
+      return out.toByteArray();
+    } catch (IllegalArgumentException iae) {
+      throw new IOException("Resource not found: " + uri, iae);
+    }
+  }
+
   public static BufferedImage readDataURIImage(URI uri) throws IOException {
+    return readImage(new ByteArrayInputStream(readDataURIBytes(uri)));
+  }
+
+  private static byte[] readDataURIBytes(URI uri) throws IOException {
     String uriString = uri.getSchemeSpecificPart();
     if (!uriString.startsWith("image/")) {
       throw new IOException("Unsupported data URI MIME type");
@@ -61,8 +219,7 @@ public final class ImageReader {
       throw new IOException("Unsupported data URI encoding");
     }
     String base64Data = uriString.substring(base64Start + BASE64TOKEN.length());
-    byte[] imageBytes = Base64.getDecoder().decode(base64Data);
-    return ImageIO.read(new ByteArrayInputStream(imageBytes));
+    return Base64.getDecoder().decode(base64Data);
   }
 
 }
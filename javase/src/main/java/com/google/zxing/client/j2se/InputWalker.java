@@ -0,0 +1,128 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.DirectoryIteratorException;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.nio.file.Paths;
+import java.util.Iterator;
+
+/**
+ * <p>Expands the inputs given on the command line into the URIs to decode, as they are found. Files in a
+ * directory are listed one at a time with a {@link DirectoryStream}, so decoding can begin with the first of
+ * them, and memory doesn't grow with the number of files.</p>
+ *
+ * <p>A directory is replaced by the files in it, and with {@code recursive} by those in its subdirectories
+ * too. Files and directories whose names start with "." are skipped. Other URIs are passed through.</p>
+ *
+ * @see CommandLineRunner
+ */
+final class InputWalker {
+
+  private final Iterable<URI> inputs;
+  private final boolean recursive;
+  private final PathMatcher include;
+
+  /**
+   * @param inputs URIs or files given on the command line
+   * @param recursive whether to descend into subdirectories
+   * @param include matches the names of files in directories to decode, or null to decode all of them
+   */
+  InputWalker(Iterable<URI> inputs, boolean recursive, PathMatcher include) {
+    this.inputs = inputs;
+    this.recursive = recursive;
+    this.include = include;
+  }
+
+  /**
+   * Passes each URI to decode to the sink as it is found. Directories which can't be read are reported
+   * and skipped.
+   */
+  void walk(Sink sink) throws InterruptedException {
+    for (URI input : inputs) {
+      input = toAbsoluteURI(input);
+      if (!"file".equals(input.getScheme())) {
+        sink.accept(input);
+        continue;
+      }
+      // Normalized so that "." names the directory it stands for
+      Path inputPath = Paths.get(input).normalize();
+      if (isHidden(inputPath)) {
+        continue;
+      }
+      if (Files.isDirectory(inputPath)) {
+        walk(inputPath, sink);
+      } else {
+        sink.accept(input);
+      }
+    }
+  }
+
+  /**
+   * @return true if there is only one input and it isn't a directory, so that there is at most one URI to
+   *  decode
+   */
+  boolean isSingleInput() {
+    Iterator<URI> iterator = inputs.iterator();
+    if (!iterator.hasNext()) {
+      return false;
+    }
+    URI input = toAbsoluteURI(iterator.next());
+    return !iterator.hasNext() && !("file".equals(input.getScheme()) && Files.isDirectory(Paths.get(input)));
+  }
+
+  private static URI toAbsoluteURI(URI input) {
+    return input.getScheme() == null ? Paths.get(input.getRawPath()).toUri() : input;
+  }
+
+  private void walk(Path directory, Sink sink) throws InterruptedException {
+    try (DirectoryStream<Path> childPaths = Files.newDirectoryStream(directory)) {
+      for (Path childPath : childPaths) {
+        if (isHidden(childPath)) {
+          continue;
+        }
+        if (Files.isDirectory(childPath)) {
+          if (recursive) {
+            walk(childPath, sink);
+          }
+        } else if (include == null || include.matches(childPath.getFileName())) {
+          sink.accept(childPath.toUri());
+        }
+      }
+    } catch (IOException | DirectoryIteratorException e) {
+      System.err.println(directory + ": " + e);
+    }
+  }
+
+  private static boolean isHidden(Path path) {
+    Path fileName = path.getFileName();
+    return fileName != null && fileName.toString().startsWith(".");
+  }
+
+  /**
+   * Receives the URIs found, and may block until there is room for more.
+   */
+  interface Sink {
+    void accept(URI uri) throws InterruptedException;
+  }
+
+}
@@ -18,12 +18,15 @@ package com.google.zxing.client.j2se;
 
 import com.google.zxing.common.BitArray;
 import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.ScaledBitMatrix;
 
 import javax.imageio.ImageIO;
+import java.io.BufferedOutputStream;
 import java.io.File;
 import java.io.OutputStream;
 import java.io.IOException;
 import java.awt.image.BufferedImage;
+import java.nio.file.Files;
 import java.nio.file.Path;
 
 /**
@@ -58,6 +61,17 @@ public final class MatrixToImageWriter {
    * @return {@link BufferedImage} representation of the input
    */
   public static BufferedImage toBufferedImage(BitMatrix matrix, MatrixToImageConfig config) {
+    return toBufferedImage(new ScaledBitMatrix(matrix), config);
+  }
+
+  /**
+   * As {@link #toBufferedImage(BitMatrix, MatrixToImageConfig)}, expanding the modules as each row is drawn.
+   *
+   * @param matrix {@link ScaledBitMatrix} to write
+   * @param config output configuration
+   * @return {@link BufferedImage} representation of the input
+   */
+  public static BufferedImage toBufferedImage(ScaledBitMatrix matrix, MatrixToImageConfig config) {
     int width = matrix.getWidth();
     int height = matrix.getHeight();
     BufferedImage image = new BufferedImage(width, height, config.getBufferedImageColorModel());
@@ -125,6 +139,27 @@ public final class MatrixToImageWriter {
    */
   public static void writeToPath(BitMatrix matrix, String format, Path file, MatrixToImageConfig config)
       throws IOException {
+    writeToPath(new ScaledBitMatrix(matrix), format, file, config);
+  }
+
+  /**
+   * As {@link #writeToPath(BitMatrix, String, Path, MatrixToImageConfig)}, expanding the modules as each row
+   * is written. A PNG is written without ever holding the whole image.
+   *
+   * @param matrix {@link ScaledBitMatrix} to write
+   * @param format image format
+   * @param file file {@link Path} to write image to
+   * @param config output configuration
+   * @throws IOException if writes to the file fail
+   */
+  public static void writeToPath(ScaledBitMatrix matrix, String format, Path file, MatrixToImageConfig config)
+      throws IOException {
+    if (isPNG(format)) {
+      try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+        PNGMatrixWriter.write(matrix, config, out);
+      }
+      return;
+    }
     BufferedImage image = toBufferedImage(matrix, config);
     if (!ImageIO.write(image, format, file.toFile())) {
       throw new IOException("Could not write an image of format " + format + " to " + file);
@@ -155,10 +190,49 @@ public final class MatrixToImageWriter {
    */
   public static void writeToStream(BitMatrix matrix, String format, OutputStream stream, MatrixToImageConfig config) 
       throws IOException {  
+    writeToStream(new ScaledBitMatrix(matrix), format, stream, config);
+  }
+
+  /**
+   * Writes a {@link ScaledBitMatrix} to a stream with default configuration.
+   *
+   * @param matrix {@link ScaledBitMatrix} to write
+   * @param format image format
+   * @param stream {@link OutputStream} to write image to
+   * @throws IOException if writes to the stream fail
+   * @see #writeToStream(ScaledBitMatrix, String, OutputStream, MatrixToImageConfig)
+   */
+  public static void writeToStream(ScaledBitMatrix matrix, String format, OutputStream stream) throws IOException {
+    writeToStream(matrix, format, stream, DEFAULT_CONFIG);
+  }
+
+  /**
+   * As {@link #writeToStream(BitMatrix, String, OutputStream, MatrixToImageConfig)}, expanding the modules as
+   * each row is written. A PNG is written without ever holding the whole image.
+   *
+   * @param matrix {@link ScaledBitMatrix} to write
+   * @param format image format
+   * @param stream {@link OutputStream} to write image to
+   * @param config output configuration
+   * @throws IOException if writes to the stream fail
+   */
+  public static void writeToStream(ScaledBitMatrix matrix,
+                                   String format,
+                                   OutputStream stream,
+                                   MatrixToImageConfig config) throws IOException {
+    if (isPNG(format)) {
+      PNGMatrixWriter.write(matrix, config, stream);
+      return;
+    }
     BufferedImage image = toBufferedImage(matrix, config);
     if (!ImageIO.write(image, format, stream)) {
       throw new IOException("Could not write an image of format " + format);
     }
   }
 
+  private static boolean isPNG(String format) {
+    // PNGs are written directly, one bit per pixel, which is much faster and smaller than through ImageIO
+    return "png".equalsIgnoreCase(format);
+  }
+
 }
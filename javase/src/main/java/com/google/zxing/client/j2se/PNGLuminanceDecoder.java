@@ -0,0 +1,463 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBufferByte;
+import java.io.ByteArrayInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Arrays;
+import java.util.zip.Inflater;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * <p>Decodes a PNG straight to luminance, one scanline at a time, into a {@link BufferedImage#TYPE_BYTE_GRAY}
+ * image. {@link BufferedImageLuminanceSource} uses such an image as is, so only one byte per pixel is held,
+ * rather than a full color image and a gray copy of it.</p>
+ *
+ * <p>The image may be subsampled as it is decoded, keeping every nth pixel of every nth row, like
+ * {@link javax.imageio.ImageReadParam#setSourceSubsampling(int, int, int, int)}. Every row must still be
+ * inflated and unfiltered, but only the pixels kept are converted and held.</p>
+ *
+ * <p>Luminance is computed as {@link BufferedImageLuminanceSource} does: fully transparent pixels are white,
+ * and color is weighted 0.299, 0.587 and 0.114. Gamma and color profiles are ignored, and 16 bit samples
+ * are reduced to their high byte. Interlaced images are left to {@link javax.imageio.ImageIO}.</p>
+ */
+final class PNGLuminanceDecoder {
+
+  private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+  // Signature, then the length, type, data and CRC of the IHDR chunk
+  private static final int HEADER_LENGTH = SIGNATURE.length + 25;
+
+  private static final int IHDR = 0x49484452;
+  private static final int PLTE = 0x504C5445;
+  private static final int TRNS = 0x74524E53;
+  private static final int IDAT = 0x49444154;
+
+  private static final int GRAY = 0;
+  private static final int RGB = 2;
+  private static final int PALETTE = 3;
+  private static final int GRAY_ALPHA = 4;
+  private static final int RGB_ALPHA = 6;
+
+  private final DataInputStream in;
+  private final int width;
+  private final int height;
+  private final int bitDepth;
+  private final int colorType;
+  private final int subsampling;
+  private final byte[] paletteLuminance = new byte[256];
+  // Sample values of the one transparent gray or color, or -1
+  private int transparentGray = -1;
+  private int transparentRed = -1;
+  private int transparentGreen = -1;
+  private int transparentBlue = -1;
+
+  private PNGLuminanceDecoder(DataInputStream in,
+                              int width,
+                              int height,
+                              int bitDepth,
+                              int colorType,
+                              int subsampling) {
+    this.in = in;
+    this.width = width;
+    this.height = height;
+    this.bitDepth = bitDepth;
+    this.colorType = colorType;
+    this.subsampling = subsampling;
+  }
+
+  static BufferedImage decode(InputStream in) throws IOException {
+    return decode(in, 1);
+  }
+
+  /**
+   * @param in stream positioned at the start of an image, which must support {@link InputStream#mark(int)}
+   * @param subsampling keep every this many pixels, horizontally and vertically; 1 keeps them all
+   * @return the image as luminance, or null if it is not a PNG this decodes, in which case {@code in} is reset
+   *  to where it was
+   * @throws IOException if the stream can't be read, or the PNG is malformed
+   */
+  static BufferedImage decode(InputStream in, int subsampling) throws IOException {
+    if (subsampling < 1) {
+      throw new IllegalArgumentException("Subsampling must be at least 1");
+    }
+    in.mark(HEADER_LENGTH);
+    DataInputStream data = new DataInputStream(in);
+    byte[] header = new byte[HEADER_LENGTH];
+    try {
+      data.readFully(header);
+    } catch (EOFException eofe) {
+      in.reset();
+      return null;
+    }
+    DataInputStream headerData = new DataInputStream(new ByteArrayInputStream(header));
+    byte[] signature = new byte[SIGNATURE.length];
+    headerData.readFully(signature);
+    if (!Arrays.equals(SIGNATURE, signature) ||
+        headerData.readInt() != 13 ||
+        headerData.readInt() != IHDR) {
+      in.reset();
+      return null;
+    }
+    int width = headerData.readInt();
+    int height = headerData.readInt();
+    int bitDepth = headerData.readUnsignedByte();
+    int colorType = headerData.readUnsignedByte();
+    int compression = headerData.readUnsignedByte();
+    int filter = headerData.readUnsignedByte();
+    int interlace = headerData.readUnsignedByte();
+    if (width <= 0 || height <= 0 || (long) width * height > Integer.MAX_VALUE ||
+        compression != 0 || filter != 0 || interlace != 0 || !isValid(bitDepth, colorType)) {
+      in.reset();
+      return null;
+    }
+    return new PNGLuminanceDecoder(data, width, height, bitDepth, colorType, subsampling).decodeChunks();
+  }
+
+  private static boolean isValid(int bitDepth, int colorType) {
+    switch (colorType) {
+      case GRAY:
+        return bitDepth == 1 || bitDepth == 2 || bitDepth == 4 || bitDepth == 8 || bitDepth == 16;
+      case PALETTE:
+        return bitDepth == 1 || bitDepth == 2 || bitDepth == 4 || bitDepth == 8;
+      case RGB:
+      case GRAY_ALPHA:
+      case RGB_ALPHA:
+        return bitDepth == 8 || bitDepth == 16;
+      default:
+        return false;
+    }
+  }
+
+  private BufferedImage decodeChunks() throws IOException {
+    while (true) {
+      int length = in.readInt();
+      int type = in.readInt();
+      if (length < 0) {
+        throw new IOException("Bad PNG chunk length");
+      }
+      switch (type) {
+        case PLTE:
+          readPalette(length);
+          break;
+        case TRNS:
+          readTransparency(length);
+          break;
+        case IDAT:
+          return decodeImage(length);
+        default:
+          skipFully(length);
+          break;
+      }
+      // CRC
+      skipFully(4);
+    }
+  }
+
+  private void readPalette(int length) throws IOException {
+    if (length % 3 != 0 || length > 3 * 256) {
+      throw new IOException("Bad PNG palette");
+    }
+    for (int i = 0; i < length / 3; i++) {
+      paletteLuminance[i] = (byte) luminance(in.readUnsignedByte(), in.readUnsignedByte(), in.readUnsignedByte());
+    }
+  }
+
+  private void readTransparency(int length) throws IOException {
+    switch (colorType) {
+      case PALETTE:
+        if (length > 256) {
+          throw new IOException("Bad PNG transparency");
+        }
+        for (int i = 0; i < length; i++) {
+          if (in.readUnsignedByte() == 0) {
+            paletteLuminance[i] = (byte) 0xFF;
+          }
+        }
+        break;
+      case GRAY:
+        if (length != 2) {
+          throw new IOException("Bad PNG transparency");
+        }
+        transparentGray = in.readUnsignedShort();
+        break;
+      case RGB:
+        if (length != 6) {
+          throw new IOException("Bad PNG transparency");
+        }
+        transparentRed = in.readUnsignedShort();
+        transparentGreen = in.readUnsignedShort();
+        transparentBlue = in.readUnsignedShort();
+        break;
+      default:
+        // Not allowed with an alpha channel; ignore it as other decoders do
+        skipFully(length);
+        break;
+    }
+  }
+
+  private BufferedImage decodeImage(int firstLength) throws IOException {
+    int channels;
+    switch (colorType) {
+      case RGB:
+        channels = 3;
+        break;
+      case GRAY_ALPHA:
+        channels = 2;
+        break;
+      case RGB_ALPHA:
+        channels = 4;
+        break;
+      default:
+        channels = 1;
+        break;
+    }
+    int bitsPerPixel = channels * bitDepth;
+    // Filters work on whole bytes, so pixels under a byte are compared with the byte before
+    int filterOffset = Math.max(1, bitsPerPixel / 8);
+    // The header only limits width * height, so one very wide row can be longer than an array
+    long rowLength = ((long) width * bitsPerPixel + 7) / 8;
+    if (rowLength > Integer.MAX_VALUE - 1) {
+      throw new IOException("PNG row too long");
+    }
+    int imageWidth = (width + subsampling - 1) / subsampling;
+    int imageHeight = (height + subsampling - 1) / subsampling;
+    BufferedImage image = new BufferedImage(imageWidth, imageHeight, BufferedImage.TYPE_BYTE_GRAY);
+    byte[] luminance = ((DataBufferByte) image.getRaster().getDataBuffer()).getData();
+
+    byte[] row = new byte[(int) rowLength];
+    byte[] previousRow = new byte[row.length];
+
+    Inflater inflater = new Inflater();
+    try {
+      DataInputStream pixels =
+          new DataInputStream(new InflaterInputStream(new ImageDataInputStream(in, firstLength), inflater));
+      for (int y = 0; y < height; y++) {
+        int filterType = pixels.read();
+        if (filterType < 0) {
+          throw new EOFException("PNG image data ends early");
+        }
+        pixels.readFully(row);
+        unfilter(filterType, row, previousRow, filterOffset);
+        if (y % subsampling == 0) {
+          toLuminance(row, luminance, y / subsampling * imageWidth);
+        }
+        byte[] temp = previousRow;
+        previousRow = row;
+        row = temp;
+      }
+    } finally {
+      inflater.end();
+    }
+    // The rest of the stream, and any chunks after the image data, are of no interest
+    return image;
+  }
+
+  private static void unfilter(int filterType, byte[] row, byte[] previousRow, int offset) throws IOException {
+    switch (filterType) {
+      case 0:
+        break;
+      case 1:
+        for (int i = offset; i < row.length; i++) {
+          row[i] += row[i - offset];
+        }
+        break;
+      case 2:
+        for (int i = 0; i < row.length; i++) {
+          row[i] += previousRow[i];
+        }
+        break;
+      case 3:
+        for (int i = 0; i < offset; i++) {
+          row[i] += (previousRow[i] & 0xFF) >> 1;
+        }
+        for (int i = offset; i < row.length; i++) {
+          row[i] += ((row[i - offset] & 0xFF) + (previousRow[i] & 0xFF)) >> 1;
+        }
+        break;
+      case 4:
+        for (int i = 0; i < offset; i++) {
+          row[i] += previousRow[i];
+        }
+        for (int i = offset; i < row.length; i++) {
+          int a = row[i - offset] & 0xFF;
+          int b = previousRow[i] & 0xFF;
+          int c = previousRow[i - offset] & 0xFF;
+          int pa = Math.abs(b - c);
+          int pb = Math.abs(a - c);
+          int pc = Math.abs(a + b - 2 * c);
+          row[i] += pa <= pb && pa <= pc ? a : pb <= pc ? b : c;
+        }
+        break;
+      default:
+        throw new IOException("Bad PNG filter type " + filterType);
+    }
+  }
+
+  private void toLuminance(byte[] row, byte[] luminance, int offset) {
+    switch (colorType) {
+      case GRAY:
+        if (bitDepth == 16) {
+          for (int x = 0, o = offset; x < width; x += subsampling, o++) {
+            int gray = ((row[2 * x] & 0xFF) << 8) | (row[2 * x + 1] & 0xFF);
+            luminance[o] = gray == transparentGray ? (byte) 0xFF : row[2 * x];
+          }
+        } else if (bitDepth == 8) {
+          for (int x = 0, o = offset; x < width; x += subsampling, o++) {
+            int gray = row[x] & 0xFF;
+            luminance[o] = gray == transparentGray ? (byte) 0xFF : row[x];
+          }
+        } else {
+          int max = (1 << bitDepth) - 1;
+          for (int x = 0, o = offset; x < width; x += subsampling, o++) {
+            int gray = packedSample(row, x);
+            luminance[o] = gray == transparentGray ? (byte) 0xFF : (byte) (gray * 0xFF / max);
+          }
+        }
+        break;
+      case PALETTE:
+        if (bitDepth == 8) {
+          for (int x = 0, o = offset; x < width; x += subsampling, o++) {
+            luminance[o] = paletteLuminance[row[x] & 0xFF];
+          }
+        } else {
+          for (int x = 0, o = offset; x < width; x += subsampling, o++) {
+            luminance[o] = paletteLuminance[packedSample(row, x)];
+          }
+        }
+        break;
+      case RGB:
+        int sampleStep = bitDepth / 8;
+        int step = 3 * sampleStep * subsampling;
+        for (int i = 0, o = offset; i < row.length; i += step, o++) {
+          if (transparentRed >= 0 && isTransparentColor(row, i, sampleStep)) {
+            luminance[o] = (byte) 0xFF;
+          } else {
+            luminance[o] = (byte) luminance(row[i] & 0xFF,
+                                            row[i + sampleStep] & 0xFF,
+                                            row[i + 2 * sampleStep] & 0xFF);
+          }
+        }
+        break;
+      case GRAY_ALPHA:
+        int graySampleStep = bitDepth / 8;
+        int grayStep = 2 * graySampleStep * subsampling;
+        for (int i = 0, o = offset; i < row.length; i += grayStep, o++) {
+          // Fully transparent pixels are white. Like the gray sample, a 16-bit alpha is only read by its high
+          // byte, so alpha under 0x100 counts as fully transparent, much as it does once reduced to 8 bits
+          luminance[o] = row[i + graySampleStep] == 0 ? (byte) 0xFF : row[i];
+        }
+        break;
+      case RGB_ALPHA:
+        int colorSampleStep = bitDepth / 8;
+        int colorStep = 4 * colorSampleStep * subsampling;
+        for (int i = 0, o = offset; i < row.length; i += colorStep, o++) {
+          // As above, only the high byte of a 16-bit alpha is read
+          if (row[i + 3 * colorSampleStep] == 0) {
+            luminance[o] = (byte) 0xFF;
+          } else {
+            luminance[o] = (byte) luminance(row[i] & 0xFF,
+                                            row[i + colorSampleStep] & 0xFF,
+                                            row[i + 2 * colorSampleStep] & 0xFF);
+          }
+        }
+        break;
+      default:
+        throw new IllegalStateException();
+    }
+  }
+
+  private int packedSample(byte[] row, int x) {
+    int bit = x * bitDepth;
+    return ((row[bit >> 3] & 0xFF) >> (8 - bitDepth - (bit & 0x07))) & ((1 << bitDepth) - 1);
+  }
+
+  private boolean isTransparentColor(byte[] row, int i, int sampleStep) {
+    return sample(row, i, sampleStep) == transparentRed &&
+        sample(row, i + sampleStep, sampleStep) == transparentGreen &&
+        sample(row, i + 2 * sampleStep, sampleStep) == transparentBlue;
+  }
+
+  private static int sample(byte[] row, int i, int sampleStep) {
+    return sampleStep == 2 ? ((row[i] & 0xFF) << 8) | (row[i + 1] & 0xFF) : row[i] & 0xFF;
+  }
+
+  /**
+   * @see BufferedImageLuminanceSource
+   */
+  private static int luminance(int red, int green, int blue) {
+    return (306 * red + 601 * green + 117 * blue + 0x200) >> 10;
+  }
+
+  private void skipFully(int length) throws IOException {
+    if (in.skipBytes(length) != length) {
+      throw new EOFException("PNG chunk ends early");
+    }
+  }
+
+  /**
+   * Reads the data of consecutive IDAT chunks as one stream, and ends at the first other chunk.
+   */
+  private static final class ImageDataInputStream extends InputStream {
+
+    private final DataInputStream in;
+    private int remaining;
+    private boolean ended;
+
+    ImageDataInputStream(DataInputStream in, int firstLength) {
+      this.in = in;
+      this.remaining = firstLength;
+    }
+
+    @Override
+    public int read() throws IOException {
+      byte[] one = new byte[1];
+      return read(one, 0, 1) < 0 ? -1 : one[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] buffer, int offset, int length) throws IOException {
+      while (remaining == 0) {
+        if (ended) {
+          return -1;
+        }
+        // CRC, then the next chunk
+        if (in.skipBytes(4) != 4) {
+          throw new EOFException("PNG chunk ends early");
+        }
+        int nextLength = in.readInt();
+        if (nextLength < 0 || in.readInt() != IDAT) {
+          ended = true;
+          return -1;
+        }
+        remaining = nextLength;
+      }
+      int count = in.read(buffer, offset, Math.min(length, remaining));
+      if (count < 0) {
+        throw new EOFException("PNG image data ends early");
+      }
+      remaining -= count;
+      return count;
+    }
+
+  }
+
+}
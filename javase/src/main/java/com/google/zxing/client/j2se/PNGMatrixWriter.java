@@ -0,0 +1,198 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+import com.google.zxing.common.BitArray;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.ScaledBitMatrix;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.zip.CRC32;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * <p>Writes a {@link BitMatrix} straight out as a PNG with one bit per pixel, without making a
+ * {@link java.awt.image.BufferedImage} or going through {@link javax.imageio.ImageIO}. Rows are packed into
+ * bytes from the matrix's own bits and deflated into IDAT chunks as they are written. A
+ * {@link ScaledBitMatrix} is expanded from its modules a row at a time, and a row is packed only once for
+ * all the image rows showing the same row of modules.</p>
+ *
+ * <p>Black on white is written as 1 bit gray. Other {@link MatrixToImageConfig} colors are written as a two
+ * color palette, with their alpha in a tRNS chunk if either isn't opaque.</p>
+ *
+ * @see MatrixToImageWriter
+ */
+final class PNGMatrixWriter {
+
+  private static final byte[] SIGNATURE = {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'};
+
+  private static final int IHDR = 0x49484452;
+  private static final int PLTE = 0x504C5445;
+  private static final int TRNS = 0x74524E53;
+  private static final int IDAT = 0x49444154;
+  private static final int IEND = 0x49454E44;
+
+  private static final int GRAY = 0;
+  private static final int PALETTE = 3;
+
+  // Deflated data is written in chunks of up to this many bytes
+  private static final int MAX_IDAT_LENGTH = 1 << 15;
+
+  private PNGMatrixWriter() {
+  }
+
+  static void write(BitMatrix matrix, MatrixToImageConfig config, OutputStream out) throws IOException {
+    write(new ScaledBitMatrix(matrix), config, out);
+  }
+
+  static void write(ScaledBitMatrix matrix, MatrixToImageConfig config, OutputStream out) throws IOException {
+    int width = matrix.getWidth();
+    int height = matrix.getHeight();
+    int onColor = config.getPixelOnColor();
+    int offColor = config.getPixelOffColor();
+    // In 1 bit gray, 0 is black, so set bits are flipped
+    boolean gray = onColor == MatrixToImageConfig.BLACK && offColor == MatrixToImageConfig.WHITE;
+
+    DataOutputStream data = new DataOutputStream(out);
+    data.write(SIGNATURE);
+
+    ByteArrayOutputStream header = new ByteArrayOutputStream(13);
+    DataOutputStream headerData = new DataOutputStream(header);
+    headerData.writeInt(width);
+    headerData.writeInt(height);
+    headerData.writeByte(1); // bit depth
+    headerData.writeByte(gray ? GRAY : PALETTE);
+    headerData.writeByte(0); // deflate
+    headerData.writeByte(0); // adaptive filtering
+    headerData.writeByte(0); // not interlaced
+    writeChunk(data, IHDR, header.toByteArray(), header.size());
+
+    if (!gray) {
+      // Index 0 is off, 1 is on
+      byte[] palette = {
+          (byte) (offColor >> 16), (byte) (offColor >> 8), (byte) offColor,
+          (byte) (onColor >> 16), (byte) (onColor >> 8), (byte) onColor,
+      };
+      writeChunk(data, PLTE, palette, palette.length);
+      if (onColor >>> 24 != 0xFF || offColor >>> 24 != 0xFF) {
+        byte[] alpha = {(byte) (offColor >>> 24), (byte) (onColor >>> 24)};
+        writeChunk(data, TRNS, alpha, alpha.length);
+      }
+    }
+
+    Deflater deflater = new Deflater();
+    try {
+      IDATOutputStream idat = new IDATOutputStream(data);
+      DeflaterOutputStream deflated = new DeflaterOutputStream(idat, deflater, MAX_IDAT_LENGTH);
+      int rowBytes = (width + 7) / 8;
+      byte[] scanline = new byte[1 + rowBytes]; // filter type 0, none, then the row
+      BitArray row = new BitArray(width);
+      int packedModuleRow = Integer.MIN_VALUE;
+      for (int y = 0; y < height; y++) {
+        int moduleRow = matrix.getModuleRow(y);
+        if (moduleRow != packedModuleRow) {
+          row = matrix.getRow(y, row);
+          packRow(row.getBitArray(), scanline, rowBytes, gray);
+          packedModuleRow = moduleRow;
+        }
+        deflated.write(scanline);
+      }
+      deflated.finish();
+      idat.flushChunk();
+    } finally {
+      deflater.end();
+    }
+
+    writeChunk(data, IEND, new byte[0], 0);
+    data.flush();
+  }
+
+  /**
+   * Packs a row's bits, which are held least significant first, into PNG's most significant first bytes
+   * after the filter type byte.
+   */
+  private static void packRow(int[] bits, byte[] scanline, int rowBytes, boolean invert) {
+    for (int i = 0; i < rowBytes; i++) {
+      int b = (bits[i >> 2] >>> ((i & 0x03) << 3)) & 0xFF;
+      b = Integer.reverse(b) >>> 24;
+      scanline[i + 1] = (byte) (invert ? ~b : b);
+    }
+  }
+
+  private static void writeChunk(DataOutputStream out, int type, byte[] chunkData, int length)
+      throws IOException {
+    CRC32 crc = new CRC32();
+    crc.update(type >>> 24);
+    crc.update(type >>> 16);
+    crc.update(type >>> 8);
+    crc.update(type);
+    crc.update(chunkData, 0, length);
+    out.writeInt(length);
+    out.writeInt(type);
+    out.write(chunkData, 0, length);
+    out.writeInt((int) crc.getValue());
+  }
+
+  /**
+   * Collects deflated data and writes it out as IDAT chunks.
+   */
+  private static final class IDATOutputStream extends OutputStream {
+
+    private final DataOutputStream out;
+    private final byte[] buffer = new byte[MAX_IDAT_LENGTH];
+    private int length;
+
+    IDATOutputStream(DataOutputStream out) {
+      this.out = out;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+      if (length == buffer.length) {
+        flushChunk();
+      }
+      buffer[length++] = (byte) b;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+      while (len > 0) {
+        if (length == buffer.length) {
+          flushChunk();
+        }
+        int n = Math.min(len, buffer.length - length);
+        System.arraycopy(b, off, buffer, length, n);
+        length += n;
+        off += n;
+        len -= n;
+      }
+    }
+
+    void flushChunk() throws IOException {
+      if (length > 0) {
+        writeChunk(out, IDAT, buffer, length);
+        length = 0;
+      }
+    }
+
+  }
+
+}
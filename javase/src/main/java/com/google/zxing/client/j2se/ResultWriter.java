@@ -0,0 +1,319 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.Result;
+import com.google.zxing.ResultMetadataType;
+import com.google.zxing.ResultPoint;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+
+/**
+ * <p>Writes one record per barcode found, or per image without one, as JSON Lines or CSV. Records are
+ * formatted by the decoding threads and handed to a single writer thread, which streams them through one
+ * buffered writer and flushes whenever it catches up.</p>
+ *
+ * <p>Each record holds the input URI, the barcode's format, text, result points and orientation, the
+ * binarizer and hints used, and how long loading, binarizing and decoding the image took in
+ * milliseconds. An input which couldn't be loaded gets a record with only its URI and the error.</p>
+ *
+ * @see DecodeWorker
+ */
+final class ResultWriter implements Closeable {
+
+  enum Format {
+    JSONL,
+    CSV,
+  }
+
+  private static final String[] CSV_COLUMNS = {
+      "uri", "format", "text", "points", "orientation", "binarizer", "hints", "load_ms", "binarize_ms", "decode_ms",
+      "error",
+  };
+
+  // Marks the last record
+  private static final String END = new String();
+
+  private final Format format;
+  private final String binarizer;
+  private final String hints;
+  private final BlockingQueue<String> records = new ArrayBlockingQueue<>(1024);
+  private final Thread thread;
+  private volatile IOException exception;
+
+  /**
+   * @param format how to write records
+   * @param out where to write them, which is closed by {@link #close()}
+   * @param binarizer name of the binarizer used for every image
+   * @param hints hints used for every image
+   */
+  ResultWriter(Format format, OutputStream out, String binarizer, Map<DecodeHintType,?> hints) {
+    this.format = format;
+    this.binarizer = binarizer;
+    this.hints = formatHints(hints);
+    Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+    thread = new Thread(() -> run(writer), "ResultWriter");
+    thread.start();
+    if (format == Format.CSV) {
+      enqueue(String.join(",", CSV_COLUMNS));
+    }
+  }
+
+  /**
+   * Queues the records for one image, waiting if the writer has fallen behind. Safe to call from several
+   * threads at once.
+   *
+   * @param results barcodes found, or null if none was
+   */
+  void write(URI uri, Result[] results, long loadNanos, long binarizeNanos, long decodeNanos)
+      throws IOException {
+    if (exception != null) {
+      throw exception;
+    }
+    if (results == null) {
+      results = new Result[] {null};
+    }
+    for (Result result : results) {
+      List<String> values = new ArrayList<>(CSV_COLUMNS.length);
+      values.add(quote(uri.toString()));
+      if (result == null) {
+        values.add(null);
+        values.add(null);
+        values.add(null);
+        values.add(null);
+      } else {
+        values.add(quote(result.getBarcodeFormat().toString()));
+        values.add(quote(result.getText()));
+        values.add(formatPoints(result.getResultPoints()));
+        Map<ResultMetadataType,Object> metadata = result.getResultMetadata();
+        Object orientation = metadata == null ? null : metadata.get(ResultMetadataType.ORIENTATION);
+        values.add(orientation == null ? null : orientation.toString());
+      }
+      values.add(quote(binarizer));
+      values.add(hints);
+      values.add(formatMillis(loadNanos));
+      values.add(formatMillis(binarizeNanos));
+      values.add(formatMillis(decodeNanos));
+      values.add(null);
+      enqueue(format == Format.JSONL ? toJSON(values) : toCSV(values));
+    }
+  }
+
+  /**
+   * Queues the record for an input which couldn't be loaded. Safe to call from several threads at once.
+   *
+   * @param error what went wrong
+   */
+  void writeFailure(URI uri, String error) throws IOException {
+    if (exception != null) {
+      throw exception;
+    }
+    List<String> values = new ArrayList<>(CSV_COLUMNS.length);
+    values.add(quote(uri.toString()));
+    while (values.size() < CSV_COLUMNS.length - 1) {
+      values.add(null);
+    }
+    values.add(quote(error));
+    enqueue(format == Format.JSONL ? toJSON(values) : toCSV(values));
+  }
+
+  /**
+   * Writes out any queued records and closes the output, waiting for the writer thread to finish.
+   */
+  @Override
+  public void close() throws IOException {
+    enqueue(END);
+    try {
+      thread.join();
+    } catch (InterruptedException ie) {
+      Thread.currentThread().interrupt();
+      throw new InterruptedIOException();
+    }
+    if (exception != null) {
+      throw exception;
+    }
+  }
+
+  private void enqueue(String record) {
+    boolean interrupted = false;
+    while (true) {
+      try {
+        records.put(record);
+        break;
+      } catch (InterruptedException ie) {
+        // The record must not be lost, so keep waiting and restore the interrupt afterwards
+        interrupted = true;
+      }
+    }
+    if (interrupted) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private void run(Writer writer) {
+    try (Writer out = writer) {
+      for (String record; (record = records.take()) != END;) {
+        if (exception != null) {
+          // Keep draining, so that decoding threads don't wait forever
+          continue;
+        }
+        try {
+          out.write(record);
+          out.write('\n');
+          if (records.isEmpty()) {
+            out.flush();
+          }
+        } catch (IOException ioe) {
+          exception = ioe;
+        }
+      }
+    } catch (IOException ioe) {
+      if (exception == null) {
+        exception = ioe;
+      }
+    } catch (InterruptedException ie) {
+      exception = new InterruptedIOException();
+    }
+  }
+
+  private String formatHints(Map<DecodeHintType,?> hints) {
+    StringBuilder result = new StringBuilder();
+    for (Map.Entry<DecodeHintType,?> hint : hints.entrySet()) {
+      if (result.length() > 0) {
+        result.append(format == Format.JSONL ? "," : " ");
+      }
+      if (format == Format.JSONL) {
+        result.append(quote(hint.getKey().toString())).append(':').append(quote(formatHintValue(hint.getValue())));
+      } else {
+        result.append(hint.getKey()).append('=').append(formatHintValue(hint.getValue()));
+      }
+    }
+    return format == Format.JSONL ? "{" + result + "}" : quote(result.toString());
+  }
+
+  private static String formatHintValue(Object value) {
+    // Some hints, like ALLOWED_LENGTHS, are arrays
+    if (value instanceof int[]) {
+      return Arrays.toString((int[]) value);
+    }
+    if (value instanceof Object[]) {
+      return Arrays.toString((Object[]) value);
+    }
+    return String.valueOf(value);
+  }
+
+  private String formatPoints(ResultPoint[] points) {
+    StringBuilder result = new StringBuilder();
+    if (points != null) {
+      for (ResultPoint point : points) {
+        if (point == null) {
+          continue;
+        }
+        if (result.length() > 0) {
+          result.append(format == Format.JSONL ? "," : " ");
+        }
+        if (format == Format.JSONL) {
+          result.append('[').append(point.getX()).append(',').append(point.getY()).append(']');
+        } else {
+          result.append(point.getX()).append(':').append(point.getY());
+        }
+      }
+    }
+    return format == Format.JSONL ? "[" + result + "]" : result.toString();
+  }
+
+  private static String formatMillis(long nanos) {
+    return String.format(Locale.ROOT, "%.3f", nanos / 1.0e6);
+  }
+
+  private String quote(String value) {
+    if (format == Format.CSV) {
+      if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+        return value;
+      }
+      return '"' + value.replace("\"", "\"\"") + '"';
+    }
+    StringBuilder result = new StringBuilder(value.length() + 2);
+    result.append('"');
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      switch (c) {
+        case '"':
+        case '\\':
+          result.append('\\').append(c);
+          break;
+        case '\n':
+          result.append("\\n");
+          break;
+        case '\r':
+          result.append("\\r");
+          break;
+        case '\t':
+          result.append("\\t");
+          break;
+        default:
+          if (c < 0x20) {
+            result.append(String.format("\\u%04x", (int) c));
+          } else {
+            result.append(c);
+          }
+      }
+    }
+    return result.append('"').toString();
+  }
+
+  private static String toJSON(List<String> values) {
+    StringBuilder result = new StringBuilder("{");
+    for (int i = 0; i < CSV_COLUMNS.length; i++) {
+      if (i > 0) {
+        result.append(',');
+      }
+      result.append('"').append(CSV_COLUMNS[i]).append("\":").append(values.get(i) == null ? "null" : values.get(i));
+    }
+    return result.append('}').toString();
+  }
+
+  private static String toCSV(List<String> values) {
+    StringBuilder result = new StringBuilder();
+    for (int i = 0; i < values.size(); i++) {
+      if (i > 0) {
+        result.append(',');
+      }
+      if (values.get(i) != null) {
+        result.append(values.get(i));
+      }
+    }
+    return result.toString();
+  }
+
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+import com.beust.jcommander.JCommander;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.BinaryBitmap;
+import com.google.zxing.EncodeHintType;
+import com.google.zxing.MultiFormatReader;
+import com.google.zxing.Result;
+import com.google.zxing.Writer;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.HybridBinarizer;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Tests {@link BatchEncoder}.
+ */
+public final class BatchEncoderTestCase extends Assert {
+
+  @Test
+  public void testFiles() throws Exception {
+    Path dir = Files.createTempDirectory("zxing-batch");
+    try {
+      String base = dir.resolve("label").toString();
+      assertEquals(3, encode("ONE\n\nTWO\nTHREE\n", "--barcode_format", "CODE_128", "--width", "200",
+                             "--height", "50", "--threads", "2", "--output", base));
+      assertEquals("ONE", decode(Files.readAllBytes(dir.resolve("label-000001.png"))));
+      assertEquals("TWO", decode(Files.readAllBytes(dir.resolve("label-000002.png"))));
+      assertEquals("THREE", decode(Files.readAllBytes(dir.resolve("label-000003.png"))));
+    } finally {
+      for (Path path : Files.newDirectoryStream(dir)) {
+        Files.delete(path);
+      }
+      Files.delete(dir);
+    }
+  }
+
+  @Test
+  public void testFilesWithExtension() throws Exception {
+    Path dir = Files.createTempDirectory("zxing-batch");
+    try {
+      assertEquals(1, encode("ONE\n", "--barcode_format", "CODE_128", "--output",
+                             dir.resolve("label.png").toString()));
+      assertEquals("ONE", decode(Files.readAllBytes(dir.resolve("label-000001.png"))));
+    } finally {
+      for (Path path : Files.newDirectoryStream(dir)) {
+        Files.delete(path);
+      }
+      Files.delete(dir);
+    }
+    assertEquals("label", BatchEncoder.stripImageExtension("label.PNG"));
+    assertEquals("label.txt", BatchEncoder.stripImageExtension("label.txt"));
+    assertEquals("out.d/label", BatchEncoder.stripImageExtension("out.d/label"));
+    assertEquals(".png", BatchEncoder.stripImageExtension(".png"));
+  }
+
+  @Test
+  public void testFilesToStandardOutput() throws Exception {
+    try {
+      encode("ONE\n", "--barcode_format", "CODE_128", "--output", "-");
+      fail("Expected an IllegalArgumentException");
+    } catch (IllegalArgumentException iae) {
+      // good
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void testUnwritableFiles() throws Exception {
+    // More rows than the queues hold, so that encoding would stop if the writer stopped taking them
+    StringBuilder input = new StringBuilder();
+    for (int i = 0; i < 20; i++) {
+      input.append("ROW-").append(i).append('\n');
+    }
+    try {
+      // Not a valid path
+      encode(input.toString(), "--barcode_format", "CODE_128", "--threads", "1", "--output", "bad\0name");
+      fail("Expected an ExecutionException");
+    } catch (ExecutionException ee) {
+      assertTrue(ee.getCause() instanceof InvalidPathException);
+    }
+  }
+
+  @Test(timeout = 60000)
+  public void testEncodeError() throws Exception {
+    // More rows than the queues hold, so that reading would block once encoding stops
+    StringBuilder input = new StringBuilder();
+    for (int i = 0; i < 20; i++) {
+      input.append("ROW-").append(i).append('\n');
+    }
+    EncoderConfig config = new EncoderConfig();
+    new JCommander(config).parse("--barcode_format", "CODE_128", "--threads", "2");
+    BatchEncoder encoder = new BatchEncoder(config, () -> new Writer() {
+      @Override
+      public BitMatrix encode(String contents, BarcodeFormat format, int width, int height) {
+        throw new OutOfMemoryError("test");
+      }
+      @Override
+      public BitMatrix encode(String contents, BarcodeFormat format, int width, int height,
+                              Map<EncodeHintType,?> hints) {
+        throw new OutOfMemoryError("test");
+      }
+    });
+    try {
+      encoder.encode(new BufferedReader(new StringReader(input.toString())));
+      fail("Expected an ExecutionException");
+    } catch (ExecutionException ee) {
+      assertTrue(ee.getCause() instanceof OutOfMemoryError);
+    }
+  }
+
+  @Test
+  public void testCSVToZip() throws Exception {
+    Path zip = Files.createTempFile("zxing-batch", ".zip");
+    try {
+      String csv =
+          "\"A,\"\"B\"\"\",CODE_128\n" +
+          "12345670,EAN_8\n" +
+          "Not numeric,EAN_8\n" +
+          "HINTED,,MARGIN=20\n" +
+          "BAD HINT,,NO_SUCH_HINT=1\n";
+      assertEquals(3, encode(csv, "--batch_format", "CSV", "--batch_output", "ZIP", "--barcode_format", "CODE_39",
+                             "--width", "300", "--height", "50", "--output", zip.toString()));
+      Map<String,byte[]> entries = new HashMap<>();
+      try (ZipInputStream in = new ZipInputStream(Files.newInputStream(zip))) {
+        for (ZipEntry entry; (entry = in.getNextEntry()) != null;) {
+          entries.put(entry.getName(), readAll(in));
+        }
+      }
+      assertEquals(3, entries.size());
+      assertEquals("A,\"B\"", decode(entries.get("000001.png")));
+      assertEquals("12345670", decode(entries.get("000002.png")));
+      assertEquals("HINTED", decode(entries.get("000004.png")));
+    } finally {
+      Files.delete(zip);
+    }
+  }
+
+  @Test
+  public void testTile() {
+    BitMatrix small = new BitMatrix(2, 1);
+    small.set(0, 0);
+    BitMatrix large = new BitMatrix(3, 2);
+    large.set(2, 1);
+    BitMatrix sheet = BatchEncoder.tile(Arrays.asList(small, large, small), 2);
+    assertEquals(6, sheet.getWidth());
+    assertEquals(4, sheet.getHeight());
+    assertEquals(
+        "X           \n" +
+        "          X \n" +
+        "X           \n" +
+        "            \n",
+        sheet.toString());
+  }
+
+  @Test
+  public void testParseCSV() {
+    assertEquals(Arrays.asList("a", "b,c", "d\"e", ""), BatchEncoder.parseCSV("a,\"b,c\",\"d\"\"e\","));
+    assertEquals(Arrays.asList(""), BatchEncoder.parseCSV(""));
+    try {
+      BatchEncoder.parseCSV("\"open");
+      fail();
+    } catch (IllegalArgumentException iae) {
+      // good
+    }
+  }
+
+  private static int encode(String input, String... args) throws Exception {
+    EncoderConfig config = new EncoderConfig();
+    new JCommander(config).parse(args);
+    return new BatchEncoder(config).encode(new BufferedReader(new StringReader(input)));
+  }
+
+  private static String decode(byte[] png) throws Exception {
+    BufferedImage image = ImageIO.read(new ByteArrayInputStream(png));
+    BinaryBitmap bitmap = new BinaryBitmap(new HybridBinarizer(new BufferedImageLuminanceSource(image)));
+    Result result = new MultiFormatReader().decode(bitmap);
+    return result.getText();
+  }
+
+  private static byte[] readAll(ZipInputStream in) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    byte[] buffer = new byte[4096];
+    for (int n; (n = in.read(buffer)) > 0;) {
+      out.write(buffer, 0, n);
+    }
+    return out.toByteArray();
+  }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+import com.beust.jcommander.JCommander;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.MultiFormatWriter;
+import com.google.zxing.common.BitMatrix;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Tests {@link DecodeBenchmark}.
+ */
+public final class DecodeBenchmarkTestCase extends Assert {
+
+  @Test
+  public void testBenchmark() throws Exception {
+    List<URI> inputs = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      BitMatrix matrix = new MultiFormatWriter().encode("BENCH-" + i, BarcodeFormat.CODE_128, 300, 60);
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      MatrixToImageWriter.writeToStream(matrix, "png", out);
+      inputs.add(new URI("data:image/png;base64," + Base64.getEncoder().encodeToString(out.toByteArray())));
+    }
+    // Not an image, so left out
+    inputs.add(new URI("data:image/png;base64,AAAA"));
+
+    DecoderConfig config = new DecoderConfig();
+    new JCommander(config).parse("--benchmark", "--warmup_iterations", "0", "--iterations", "2",
+                                 "--decode_threads", "2", "unused");
+    ByteArrayOutputStream report = new ByteArrayOutputStream();
+    int images;
+    try (PrintStream out = new PrintStream(report, true, "UTF-8")) {
+      images = new DecodeBenchmark(config).run(new InputWalker(inputs, false, null), out);
+    }
+    assertEquals(3, images);
+    String text = new String(report.toByteArray(), StandardCharsets.UTF_8);
+    assertTrue(text, text.contains("HybridBinarizer: 6 images"));
+    assertTrue(text, text.contains("GlobalHistogramBinarizer: 6 images"));
+    assertTrue(text, text.matches("(?s).*\n  CODE_128 +6 .*"));
+  }
+
+  @Test
+  public void testPercentile() {
+    long[] sorted = new long[100];
+    for (int i = 0; i < sorted.length; i++) {
+      sorted[i] = i + 1;
+    }
+    assertEquals(50, DecodeBenchmark.percentile(sorted, 50));
+    assertEquals(95, DecodeBenchmark.percentile(sorted, 95));
+    assertEquals(99, DecodeBenchmark.percentile(sorted, 99));
+    assertEquals(7, DecodeBenchmark.percentile(new long[] {7}, 99));
+    assertEquals(3, DecodeBenchmark.percentile(new long[] {1, 2, 3}, 95));
+    assertEquals(1, DecodeBenchmark.percentile(new long[] {1, 2, 3}, 0));
+  }
+
+}
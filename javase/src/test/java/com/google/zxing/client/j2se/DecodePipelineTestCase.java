@@ -0,0 +1,112 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+import com.beust.jcommander.JCommander;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.MultiFormatWriter;
+import com.google.zxing.common.BitMatrix;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Tests {@link DecodePipeline}.
+ */
+public final class DecodePipelineTestCase extends Assert {
+
+  @Test
+  public void testPipeline() throws Exception {
+    List<URI> inputs = new ArrayList<>();
+    for (int i = 0; i < 10; i++) {
+      inputs.add(toDataURI("PIPELINE-" + i));
+    }
+    // Unreadable inputs are reported, and don't stop the others
+    inputs.add(new URI("data:image/png;base64,AAAA"));
+    inputs.add(new URI("file:///no/such/file.png"));
+
+    DecoderConfig config = new DecoderConfig();
+    new JCommander(config).parse("--brief", "--io_threads", "3", "--image_threads", "2", "--decode_threads", "2",
+                                 "unused");
+    DecodePipeline pipeline = new DecodePipeline(config);
+    assertEquals(10, pipeline.decode(new InputWalker(inputs, false, null)));
+    assertEquals(12, pipeline.getInputCount());
+  }
+
+  @Test
+  public void testFailureRecords() throws Exception {
+    List<URI> inputs = new ArrayList<>();
+    inputs.add(toDataURI("RECORDS"));
+    inputs.add(new URI("data:image/png;base64,AAAA"));
+    inputs.add(new URI("file:///no/such/file.png"));
+
+    DecoderConfig config = new DecoderConfig();
+    new JCommander(config).parse("unused");
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (ResultWriter writer = new ResultWriter(ResultWriter.Format.CSV, out, "HybridBinarizer", config.buildHints())) {
+      assertEquals(1, new DecodePipeline(config, writer).decode(new InputWalker(inputs, false, null)));
+    }
+    // Each input has a record, those which couldn't be loaded with the error
+    String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+    assertEquals(4, lines.length);
+    int failures = 0;
+    for (int i = 1; i < lines.length; i++) {
+      if (lines[i].endsWith(",")) {
+        assertTrue(lines[i], lines[i].contains(",RECORDS,"));
+      } else {
+        assertTrue(lines[i], lines[i].contains("Exception"));
+        failures++;
+      }
+    }
+    assertEquals(2, failures);
+  }
+
+  @Test(timeout = 60000)
+  public void testDecodeError() throws Exception {
+    // More inputs than the queues hold, so that nothing could finish once decoding stops
+    List<URI> inputs = new ArrayList<>();
+    for (int i = 0; i < 20; i++) {
+      inputs.add(toDataURI("ERROR-" + i));
+    }
+    DecoderConfig config = new DecoderConfig();
+    new JCommander(config).parse("--io_threads", "2", "--image_threads", "2", "--decode_threads", "2", "unused");
+    DecodePipeline pipeline = new DecodePipeline(config, (uri, image, loadNanos) -> {
+      throw new OutOfMemoryError("test");
+    });
+    try {
+      pipeline.decode(new InputWalker(inputs, false, null));
+      fail("Expected an ExecutionException");
+    } catch (ExecutionException ee) {
+      assertTrue(ee.getCause() instanceof OutOfMemoryError);
+    }
+  }
+
+  private static URI toDataURI(String contents) throws Exception {
+    BitMatrix matrix = new MultiFormatWriter().encode(contents, BarcodeFormat.CODE_128, 300, 60);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    MatrixToImageWriter.writeToStream(matrix, "png", out);
+    return new URI("data:image/png;base64," + Base64.getEncoder().encodeToString(out.toByteArray()));
+  }
+
+}
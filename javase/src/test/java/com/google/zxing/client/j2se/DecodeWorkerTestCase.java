@@ -17,9 +17,15 @@
 package com.google.zxing.client.j2se;
 
 import com.beust.jcommander.JCommander;
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.common.BitMatrix;
+import com.google.zxing.oned.Code128Writer;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
 import java.net.URI;
 import java.util.Collections;
 import java.util.LinkedList;
@@ -46,5 +52,20 @@ public final class DecodeWorkerTestCase extends Assert {
     DecodeWorker worker = new DecodeWorker(config, inputs);
     assertEquals(1, worker.call().intValue());
   }
-  
+
+  @Test
+  public void testStripes() throws Exception {
+    DecoderConfig config = new DecoderConfig();
+    new JCommander(config).parse("--stripes", "tall.png");
+    // A barcode near the bottom of an image several stripes tall
+    BitMatrix matrix = new Code128Writer().encode("STRIPES", BarcodeFormat.CODE_128, 300, 100);
+    BufferedImage image = new BufferedImage(400, 3000, BufferedImage.TYPE_BYTE_GRAY);
+    Graphics2D g = image.createGraphics();
+    g.setColor(Color.WHITE);
+    g.fillRect(0, 0, image.getWidth(), image.getHeight());
+    g.drawImage(MatrixToImageWriter.toBufferedImage(matrix), 50, 2500, null);
+    g.dispose();
+    assertTrue(new DecodeWorker(config, (ResultWriter) null).decode(new URI("tall.png"), image, 0L));
+  }
+
 }
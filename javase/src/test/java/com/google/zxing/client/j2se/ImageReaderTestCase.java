@@ -19,7 +19,11 @@ package com.google.zxing.client.j2se;
 import org.junit.Assert;
 import org.junit.Test;
 
+import javax.imageio.ImageIO;
+import java.awt.Dimension;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
 import java.net.URI;
 
 /**
@@ -37,5 +41,27 @@ public final class ImageReaderTestCase extends Assert {
     assertEquals(16, image.getWidth());
     assertEquals(16, image.getHeight());
   }
+
+  @Test
+  public void testSubsampling() throws Exception {
+    BufferedImage image = new BufferedImage(100, 60, BufferedImage.TYPE_INT_RGB);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertTrue(ImageIO.write(image, "jpeg", out));
+    byte[] jpeg = out.toByteArray();
+
+    assertEquals(1, ImageReader.chooseSubsampling(jpeg, 6000));
+    assertEquals(2, ImageReader.chooseSubsampling(jpeg, 5999));
+    assertEquals(2, ImageReader.chooseSubsampling(jpeg, 1500));
+    assertEquals(3, ImageReader.chooseSubsampling(jpeg, 1499));
+    assertEquals(1, ImageReader.chooseSubsampling(new byte[10], 1));
+
+    assertEquals(new Dimension(100, 60), ImageReader.readDimensions(jpeg));
+    assertNull(ImageReader.readDimensions(new byte[10]));
+    assertEquals(3, ImageReader.chooseSubsampling(100, 60, 1499));
+
+    BufferedImage subsampled = ImageReader.readImage(new ByteArrayInputStream(jpeg), 3);
+    assertEquals(34, subsampled.getWidth());
+    assertEquals(20, subsampled.getHeight());
+  }
   
 }
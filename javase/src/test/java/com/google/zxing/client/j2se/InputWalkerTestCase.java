@@ -0,0 +1,119 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Tests {@link InputWalker}.
+ */
+public final class InputWalkerTestCase extends Assert {
+
+  private Path root;
+
+  @Before
+  public void setUp() throws IOException {
+    root = Files.createTempDirectory("zxing-inputs");
+    for (String file : new String[] {"a.png", "b.jpg", ".hidden.png", "sub/c.png", "sub/deeper/d.gif",
+                                     ".hidden/e.png"}) {
+      Path path = root.resolve(file);
+      Files.createDirectories(path.getParent());
+      Files.createFile(path);
+    }
+  }
+
+  @After
+  public void tearDown() throws IOException {
+    try (Stream<Path> paths = Files.walk(root)) {
+      for (Object path : paths.sorted(Comparator.reverseOrder()).toArray()) {
+        Files.delete((Path) path);
+      }
+    }
+  }
+
+  @Test
+  public void testDirectory() throws InterruptedException {
+    assertEquals(Arrays.asList("a.png", "b.jpg"), walk(false, null, root.toUri()));
+  }
+
+  @Test
+  public void testRecursive() throws InterruptedException {
+    assertEquals(Arrays.asList("a.png", "b.jpg", "sub/c.png", "sub/deeper/d.gif"), walk(true, null, root.toUri()));
+  }
+
+  @Test
+  public void testInclude() throws InterruptedException {
+    PathMatcher include = FileSystems.getDefault().getPathMatcher("glob:*.{png,gif}");
+    assertEquals(Arrays.asList("a.png", "sub/c.png", "sub/deeper/d.gif"), walk(true, include, root.toUri()));
+  }
+
+  @Test
+  public void testExplicitInputs() throws Exception {
+    PathMatcher include = FileSystems.getDefault().getPathMatcher("glob:*.png");
+    URI data = new URI("data:image/png;base64,AAAA");
+    List<URI> found = new ArrayList<>();
+    // Named files are kept whatever the glob, other URIs are passed through, hidden files are dropped
+    new InputWalker(Arrays.asList(root.resolve("b.jpg").toUri(), data, root.resolve(".hidden.png").toUri(),
+                                  new URI(null, root.resolve("sub/c.png").toString(), null)),
+                    false, include).walk(found::add);
+    assertEquals(Arrays.asList(root.resolve("b.jpg").toUri(), data, root.resolve("sub/c.png").toUri()), found);
+  }
+
+  @Test
+  public void testHiddenDirectory() throws InterruptedException {
+    assertEquals(Collections.emptyList(), walk(true, null, root.resolve(".hidden").toUri()));
+    // ".." is judged by the directory it names, which isn't hidden
+    assertEquals(Arrays.asList("a.png", "b.jpg"), walk(false, null, root.resolve("sub/..").toUri()));
+  }
+
+  @Test
+  public void testSingleInput() throws Exception {
+    URI data = new URI("data:image/png;base64,AAAA");
+    assertTrue(new InputWalker(Collections.singletonList(root.resolve("a.png").toUri()), false, null)
+                   .isSingleInput());
+    assertTrue(new InputWalker(Collections.singletonList(data), false, null).isSingleInput());
+    assertFalse(new InputWalker(Collections.singletonList(root.toUri()), false, null).isSingleInput());
+    assertFalse(new InputWalker(Arrays.asList(data, data), false, null).isSingleInput());
+    assertFalse(new InputWalker(Collections.<URI>emptyList(), false, null).isSingleInput());
+  }
+
+  private List<String> walk(boolean recursive, PathMatcher include, URI input) throws InterruptedException {
+    List<String> found = new ArrayList<>();
+    new InputWalker(Collections.singletonList(input), recursive, include).walk(
+        uri -> found.add(root.toUri().relativize(uri).getPath()));
+    // Directory listings come in no particular order
+    Collections.sort(found);
+    return found;
+  }
+
+}
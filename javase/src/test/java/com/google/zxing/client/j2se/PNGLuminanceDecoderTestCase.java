@@ -0,0 +1,141 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Random;
+
+/**
+ * Tests {@link PNGLuminanceDecoder} against {@link ImageIO} and {@link BufferedImageLuminanceSource}.
+ */
+public final class PNGLuminanceDecoderTestCase extends Assert {
+
+  @Test
+  public void testImageTypes() throws IOException {
+    int[] types = {
+        BufferedImage.TYPE_BYTE_GRAY,
+        BufferedImage.TYPE_BYTE_BINARY,
+        BufferedImage.TYPE_BYTE_INDEXED,
+        BufferedImage.TYPE_INT_RGB,
+        BufferedImage.TYPE_INT_ARGB,
+    };
+    Random random = new Random(0x9E6);
+    for (int type : types) {
+      // Odd sizes, so that packed rows end part way through a byte
+      BufferedImage image = new BufferedImage(37, 23, type);
+      for (int y = 0; y < image.getHeight(); y++) {
+        for (int x = 0; x < image.getWidth(); x++) {
+          // Smooth runs with some noise exercise all of the filters
+          int argb = (x * 7 + y * 3) % 256 == 0 ? 0 : 0xFF000000 | random.nextInt(1 << 24) & 0x3F3F3F |
+              ((x * 0x30302 + y * 0x20406) & 0xC0C0C0);
+          image.setRGB(x, y, argb);
+        }
+      }
+      byte[] png = toPNG(image);
+
+      BufferedImage decoded = PNGLuminanceDecoder.decode(new ByteArrayInputStream(png));
+      assertNotNull(decoded);
+      assertEquals(BufferedImage.TYPE_BYTE_GRAY, decoded.getType());
+      byte[] expected = new BufferedImageLuminanceSource(ImageIO.read(new ByteArrayInputStream(png))).getMatrix();
+      assertArrayEquals("type " + type, expected, new BufferedImageLuminanceSource(decoded).getMatrix());
+    }
+  }
+
+  @Test
+  public void testSubsampling() throws IOException {
+    for (int type : new int[] {BufferedImage.TYPE_BYTE_BINARY, BufferedImage.TYPE_INT_ARGB}) {
+      BufferedImage image = new BufferedImage(37, 23, type);
+      for (int y = 0; y < image.getHeight(); y++) {
+        for (int x = 0; x < image.getWidth(); x++) {
+          image.setRGB(x, y, (x + 2 * y) % 5 < 2 ? 0xFF000000 : 0xFFFFFFFF);
+        }
+      }
+      byte[] png = toPNG(image);
+      BufferedImage full = PNGLuminanceDecoder.decode(new ByteArrayInputStream(png));
+      BufferedImage subsampled = PNGLuminanceDecoder.decode(new ByteArrayInputStream(png), 3);
+      assertEquals(13, subsampled.getWidth());
+      assertEquals(8, subsampled.getHeight());
+      for (int y = 0; y < subsampled.getHeight(); y++) {
+        for (int x = 0; x < subsampled.getWidth(); x++) {
+          assertEquals(full.getRaster().getSample(3 * x, 3 * y, 0), subsampled.getRaster().getSample(x, y, 0));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testNotPNG() throws IOException {
+    BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertTrue(ImageIO.write(image, "gif", out));
+    InputStream in = new ByteArrayInputStream(out.toByteArray());
+    assertNull(PNGLuminanceDecoder.decode(in));
+    // Left where it was for another reader
+    assertEquals('G', in.read());
+    assertNull(PNGLuminanceDecoder.decode(new ByteArrayInputStream(new byte[3])));
+  }
+
+  @Test
+  public void testRowTooLong() throws IOException {
+    // One row of 16-bit RGBA: 2^28 and 2^29 pixels of 8 bytes overflow an int row length
+    for (int width : new int[] {1 << 28, 1 << 29}) {
+      ByteArrayOutputStream out = new ByteArrayOutputStream();
+      DataOutputStream data = new DataOutputStream(out);
+      data.write(new byte[] {(byte) 0x89, 'P', 'N', 'G', '\r', '\n', 0x1A, '\n'});
+      data.writeInt(13);
+      data.writeBytes("IHDR");
+      data.writeInt(width);
+      data.writeInt(1);
+      data.write(new byte[] {16, 6, 0, 0, 0});
+      data.writeInt(0); // CRC, not checked
+      data.writeInt(0);
+      data.writeBytes("IDAT");
+      try {
+        PNGLuminanceDecoder.decode(new ByteArrayInputStream(out.toByteArray()));
+        fail("Expected an IOException");
+      } catch (IOException ioe) {
+        assertEquals("PNG row too long", ioe.getMessage());
+      }
+    }
+  }
+
+  @Test
+  public void testReadImage() throws IOException {
+    BufferedImage image = new BufferedImage(10, 10, BufferedImage.TYPE_INT_RGB);
+    assertEquals(BufferedImage.TYPE_BYTE_GRAY,
+                 ImageReader.readImage(new ByteArrayInputStream(toPNG(image))).getType());
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertTrue(ImageIO.write(image, "bmp", out));
+    assertEquals(10, ImageReader.readImage(new ByteArrayInputStream(out.toByteArray())).getWidth());
+  }
+
+  private static byte[] toPNG(BufferedImage image) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    assertTrue(ImageIO.write(image, "png", out));
+    return out.toByteArray();
+  }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+import com.google.zxing.common.BitMatrix;
+import org.junit.Assert;
+import org.junit.Test;
+
+import javax.imageio.ImageIO;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.Random;
+
+/**
+ * Tests {@link PNGMatrixWriter} by reading what it writes back with {@link ImageIO}.
+ */
+public final class PNGMatrixWriterTestCase extends Assert {
+
+  @Test
+  public void testColors() throws IOException {
+    MatrixToImageConfig[] configs = {
+        new MatrixToImageConfig(),
+        new MatrixToImageConfig(MatrixToImageConfig.WHITE, MatrixToImageConfig.BLACK),
+        new MatrixToImageConfig(0xFF102030, 0xFF405060),
+        new MatrixToImageConfig(0xFF000000, 0x00FFFFFF),
+    };
+    // Odd width, so that rows end part way through a byte
+    BitMatrix matrix = randomMatrix(37, 11);
+    for (MatrixToImageConfig config : configs) {
+      BufferedImage image = writeAndRead(matrix, config);
+      assertEquals(matrix.getWidth(), image.getWidth());
+      assertEquals(matrix.getHeight(), image.getHeight());
+      for (int y = 0; y < matrix.getHeight(); y++) {
+        for (int x = 0; x < matrix.getWidth(); x++) {
+          int expected = matrix.get(x, y) ? config.getPixelOnColor() : config.getPixelOffColor();
+          assertEquals(x + "," + y, Integer.toHexString(expected), Integer.toHexString(image.getRGB(x, y)));
+        }
+      }
+    }
+  }
+
+  @Test
+  public void testManyChunks() throws IOException {
+    // Random bits barely compress, so need several IDAT chunks
+    BitMatrix matrix = randomMatrix(2003, 200);
+    BufferedImage image = writeAndRead(matrix, new MatrixToImageConfig());
+    for (int y = 0; y < matrix.getHeight(); y++) {
+      for (int x = 0; x < matrix.getWidth(); x++) {
+        assertEquals(matrix.get(x, y), image.getRGB(x, y) == MatrixToImageConfig.BLACK);
+      }
+    }
+  }
+
+  @Test
+  public void testSmallerThanImageIO() throws IOException {
+    BitMatrix matrix = new BitMatrix(300, 300);
+    matrix.setRegion(30, 30, 120, 240);
+    ByteArrayOutputStream direct = new ByteArrayOutputStream();
+    PNGMatrixWriter.write(matrix, new MatrixToImageConfig(0xFF102030, 0xFF405060), direct);
+    ByteArrayOutputStream imageIO = new ByteArrayOutputStream();
+    assertTrue(ImageIO.write(
+        MatrixToImageWriter.toBufferedImage(matrix, new MatrixToImageConfig(0xFF102030, 0xFF405060)), "png", imageIO));
+    assertTrue(direct.size() + " vs " + imageIO.size(), direct.size() < imageIO.size());
+  }
+
+  private static BufferedImage writeAndRead(BitMatrix matrix, MatrixToImageConfig config) throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    MatrixToImageWriter.writeToStream(matrix, "PNG", out, config);
+    BufferedImage image = ImageIO.read(new ByteArrayInputStream(out.toByteArray()));
+    assertNotNull(image);
+    return image;
+  }
+
+  private static BitMatrix randomMatrix(int width, int height) {
+    Random random = new Random(0x1B17);
+    BitMatrix matrix = new BitMatrix(width, height);
+    for (int y = 0; y < height; y++) {
+      for (int x = 0; x < width; x++) {
+        if (random.nextBoolean()) {
+          matrix.set(x, y);
+        }
+      }
+    }
+    return matrix;
+  }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright 2026 ZXing authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *      http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.google.zxing.client.j2se;
+
+import com.google.zxing.BarcodeFormat;
+import com.google.zxing.DecodeHintType;
+import com.google.zxing.Result;
+import com.google.zxing.ResultMetadataType;
+import com.google.zxing.ResultPoint;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Tests {@link ResultWriter}.
+ */
+public final class ResultWriterTestCase extends Assert {
+
+  private static final Map<DecodeHintType,Object> HINTS = new EnumMap<>(DecodeHintType.class);
+  static {
+    HINTS.put(DecodeHintType.TRY_HARDER, Boolean.TRUE);
+    HINTS.put(DecodeHintType.ALLOWED_LENGTHS, new int[] {8, 13});
+  }
+
+  @Test
+  public void testJSONL() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (ResultWriter writer = new ResultWriter(ResultWriter.Format.JSONL, out, "HybridBinarizer", HINTS)) {
+      Result result = new Result("say \"hi\"\n\\", null,
+                                 new ResultPoint[] {new ResultPoint(1.5f, 2.0f), null, new ResultPoint(3.0f, 4.0f)},
+                                 BarcodeFormat.CODE_128);
+      result.putMetadata(ResultMetadataType.ORIENTATION, 180);
+      writer.write(URI.create("file:///a.png"), new Result[] {result}, 1_500_000L, 250_000L, 2_000_000L);
+      writer.write(URI.create("file:///b.png"), null, 1_000_000L, 0L, 3_000_000L);
+      writer.writeFailure(URI.create("file:///c.png"), "java.io.IOException: Could not load");
+    }
+    assertEquals(
+        "{\"uri\":\"file:///a.png\",\"format\":\"CODE_128\",\"text\":\"say \\\"hi\\\"\\n\\\\\"," +
+        "\"points\":[[1.5,2.0],[3.0,4.0]],\"orientation\":180,\"binarizer\":\"HybridBinarizer\"," +
+        "\"hints\":{\"TRY_HARDER\":\"true\",\"ALLOWED_LENGTHS\":\"[8, 13]\"}," +
+        "\"load_ms\":1.500,\"binarize_ms\":0.250,\"decode_ms\":2.000,\"error\":null}\n" +
+        "{\"uri\":\"file:///b.png\",\"format\":null,\"text\":null,\"points\":null,\"orientation\":null," +
+        "\"binarizer\":\"HybridBinarizer\",\"hints\":{\"TRY_HARDER\":\"true\",\"ALLOWED_LENGTHS\":\"[8, 13]\"}," +
+        "\"load_ms\":1.000,\"binarize_ms\":0.000,\"decode_ms\":3.000,\"error\":null}\n" +
+        "{\"uri\":\"file:///c.png\",\"format\":null,\"text\":null,\"points\":null,\"orientation\":null," +
+        "\"binarizer\":null,\"hints\":null,\"load_ms\":null,\"binarize_ms\":null,\"decode_ms\":null," +
+        "\"error\":\"java.io.IOException: Could not load\"}\n",
+        new String(out.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testCSV() throws IOException {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    try (ResultWriter writer = new ResultWriter(ResultWriter.Format.CSV, out, "HybridBinarizer", HINTS)) {
+      Result result = new Result("a,\"b\"", null, new ResultPoint[] {new ResultPoint(1.0f, 2.0f)},
+                                 BarcodeFormat.EAN_13);
+      writer.write(URI.create("file:///a.png"), new Result[] {result, result}, 0L, 0L, 0L);
+      writer.write(URI.create("file:///b.png"), null, 0L, 0L, 0L);
+      writer.writeFailure(URI.create("file:///c.png"), "java.io.IOException: Could not load, twice");
+    }
+    String hints = "\"TRY_HARDER=true ALLOWED_LENGTHS=[8, 13]\"";
+    assertEquals(
+        "uri,format,text,points,orientation,binarizer,hints,load_ms,binarize_ms,decode_ms,error\n" +
+        "file:///a.png,EAN_13,\"a,\"\"b\"\"\",1.0:2.0,,HybridBinarizer," + hints + ",0.000,0.000,0.000,\n" +
+        "file:///a.png,EAN_13,\"a,\"\"b\"\"\",1.0:2.0,,HybridBinarizer," + hints + ",0.000,0.000,0.000,\n" +
+        "file:///b.png,,,,,HybridBinarizer," + hints + ",0.000,0.000,0.000,\n" +
+        "file:///c.png,,,,,,,,,,\"java.io.IOException: Could not load, twice\"\n",
+        new String(out.toByteArray(), StandardCharsets.UTF_8));
+  }
+
+  @Test
+  public void testManyThreads() throws Exception {
+    ByteArrayOutputStream out = new ByteArrayOutputStream();
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    try (ResultWriter writer = new ResultWriter(ResultWriter.Format.JSONL, out, "HybridBinarizer", HINTS)) {
+      Collection<Future<?>> futures = new ArrayList<>();
+      for (int t = 0; t < 8; t++) {
+        futures.add(executor.submit(() -> {
+          // More records than the queue holds, so that writing threads have to wait
+          for (int i = 0; i < 500; i++) {
+            writer.write(URI.create("file:///" + i + ".png"), null, 0L, 0L, 0L);
+          }
+          return null;
+        }));
+      }
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    } finally {
+      executor.shutdown();
+    }
+    String[] lines = new String(out.toByteArray(), StandardCharsets.UTF_8).split("\n");
+    assertEquals(8 * 500, lines.length);
+    for (String line : lines) {
+      assertTrue(line, line.startsWith("{\"uri\":\"file:///") && line.endsWith("}"));
+    }
+  }
+
+}
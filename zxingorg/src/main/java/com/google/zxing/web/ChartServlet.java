@@ -23,7 +23,7 @@ import com.google.zxing.BarcodeFormat;
 import com.google.zxing.EncodeHintType;
 import com.google.zxing.WriterException;
 import com.google.zxing.client.j2se.MatrixToImageWriter;
-import com.google.zxing.common.BitMatrix;
+import com.google.zxing.common.ScaledBitMatrix;
 import com.google.zxing.qrcode.QRCodeWriter;
 import com.google.zxing.qrcode.decoder.ErrorCorrectionLevel;
 
@@ -86,13 +86,14 @@ public final class ChartServlet extends HttpServlet {
     }
     hints.put(EncodeHintType.ERROR_CORRECTION, parameters.getEcLevel());
 
-    BitMatrix matrix;
+    // Only the modules are held; they are scaled up to the requested size as the image is written
+    ScaledBitMatrix matrix;
     try {
-      matrix = new QRCodeWriter().encode(parameters.getText(),
-                                         BarcodeFormat.QR_CODE,
-                                         parameters.getWidth(),
-                                         parameters.getHeight(),
-                                         hints);
+      matrix = new QRCodeWriter().encodeScaled(parameters.getText(),
+                                               BarcodeFormat.QR_CODE,
+                                               parameters.getWidth(),
+                                               parameters.getHeight(),
+                                               hints);
     } catch (WriterException we) {
       response.sendError(HttpServletResponse.SC_BAD_REQUEST, we.toString());
       return;
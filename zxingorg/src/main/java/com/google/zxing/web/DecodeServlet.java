@@ -34,11 +34,14 @@ import com.google.zxing.common.HybridBinarizer;
 import com.google.zxing.multi.GenericMultipleBarcodeReader;
 import com.google.zxing.multi.MultipleBarcodeReader;
 
+import com.google.common.io.ByteStreams;
 import com.google.common.io.Resources;
 import com.google.common.net.HttpHeaders;
 import com.google.common.net.MediaType;
 
+import java.awt.Dimension;
 import java.awt.image.BufferedImage;
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
 import java.io.OutputStreamWriter;
@@ -64,7 +67,6 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 import java.util.regex.Pattern;
 
-import javax.imageio.ImageIO;
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletContext;
@@ -102,6 +104,8 @@ public final class DecodeServlet extends HttpServlet {
   private static final long MAX_IMAGE_SIZE = 1L << 26;
   // No real reason to deal with more than ~32 megapixels
   private static final int MAX_PIXELS = 1 << 25;
+  // Larger images are first tried subsampled to ~4 megapixels, which is plenty for most barcodes
+  private static final int MAX_SUBSAMPLED_PIXELS = 1 << 22;
   private static final Map<DecodeHintType,Object> HINTS;
   private static final Map<DecodeHintType,Object> HINTS_PURE;
 
@@ -326,15 +330,50 @@ public final class DecodeServlet extends HttpServlet {
                                     HttpServletRequest request,
                                     HttpServletResponse response) throws ServletException, IOException {
 
-    BufferedImage image;
+    byte[] imageBytes;
+    Dimension dimensions;
     try {
-      image = ImageIO.read(is);
+      // One byte more than allowed shows that the image was too large, rather than cutting it short
+      imageBytes = ByteStreams.toByteArray(ByteStreams.limit(is, MAX_IMAGE_SIZE + 1));
+      if (imageBytes.length > MAX_IMAGE_SIZE) {
+        log.info("Too large");
+        errorResponse(request, response, "badimage");
+        return;
+      }
+      dimensions = ImageReader.readDimensions(imageBytes);
     } catch (Exception e) {
       // Many possible failures from JAI, so just catch anything as a failure
       log.info(e.toString());
       errorResponse(request, response, "badimage");
       return;
     }
+
+    if (dimensions != null) {
+      int subsampling = ImageReader.chooseSubsampling(dimensions.width, dimensions.height, MAX_SUBSAMPLED_PIXELS);
+      if (subsampling > 1) {
+        // Barcodes in large photos usually decode at a fraction of the resolution, which is much cheaper
+        Collection<Result> results = decodeSubsampled(imageBytes, subsampling);
+        if (results != null) {
+          writeResults(results, request, response);
+          return;
+        }
+      }
+      if (!inBounds(dimensions.width, dimensions.height)) {
+        // Known from the header, so don't read it at full resolution only to turn it down
+        log.info("Dimensions out of bounds: " + dimensions.width + 'x' + dimensions.height);
+        errorResponse(request, response, "badimage");
+        return;
+      }
+    }
+
+    BufferedImage image;
+    try {
+      image = ImageReader.readImage(new ByteArrayInputStream(imageBytes));
+    } catch (Exception e) {
+      log.info(e.toString());
+      errorResponse(request, response, "badimage");
+      return;
+    }
     if (image == null) {
       errorResponse(request, response, "badimage");
       return;
@@ -342,7 +381,7 @@ public final class DecodeServlet extends HttpServlet {
     try {
       int height = image.getHeight();
       int width = image.getWidth();
-      if (height <= 1 || width <= 1 || height * width > MAX_PIXELS) {
+      if (!inBounds(width, height)) {
         log.info("Dimensions out of bounds: " + width + 'x' + height);
         errorResponse(request, response, "badimage");
         return;
@@ -354,9 +393,55 @@ public final class DecodeServlet extends HttpServlet {
     }
   }
 
+  private static boolean inBounds(int width, int height) {
+    return height > 1 && width > 1 && (long) height * width <= MAX_PIXELS;
+  }
+
+  /**
+   * @return results from the image read at the given subsampling, or null if it can't be read or nothing
+   *  was found, in which case it's worth trying at full resolution
+   */
+  private static Collection<Result> decodeSubsampled(byte[] imageBytes, int subsampling)
+      throws ServletException {
+    BufferedImage image;
+    try {
+      image = ImageReader.readImage(new ByteArrayInputStream(imageBytes), subsampling);
+    } catch (Exception e) {
+      log.info(e.toString());
+      return null;
+    }
+    if (image == null) {
+      return null;
+    }
+    try {
+      if (image.getHeight() <= 1 || image.getWidth() <= 1) {
+        return null;
+      }
+      return decode(image);
+    } catch (ReaderException re) {
+      return null;
+    } finally {
+      image.flush();
+    }
+  }
+
   private static void processImage(BufferedImage image,
                                    HttpServletRequest request,
                                    HttpServletResponse response) throws IOException, ServletException {
+    Collection<Result> results;
+    try {
+      results = decode(image);
+    } catch (FormatException | ChecksumException e) {
+      errorResponse(request, response, "format");
+      return;
+    } catch (ReaderException e) { // Including NotFoundException
+      errorResponse(request, response, "notfound");
+      return;
+    }
+    writeResults(results, request, response);
+  }
+
+  private static Collection<Result> decode(BufferedImage image) throws ReaderException, ServletException {
 
     LuminanceSource source = new BufferedImageLuminanceSource(image);
     BinaryBitmap bitmap = new BinaryBitmap(new GlobalHistogramBinarizer(source));
@@ -415,14 +500,7 @@ public final class DecodeServlet extends HttpServlet {
       }
 
       if (results.isEmpty()) {
-        try {
-          throw savedException == null ? NotFoundException.getNotFoundInstance() : savedException;
-        } catch (FormatException | ChecksumException e) {
-          errorResponse(request, response, "format");
-        } catch (ReaderException e) { // Including NotFoundException
-          errorResponse(request, response, "notfound");
-        }
-        return;
+        throw savedException == null ? NotFoundException.getNotFoundInstance() : savedException;
       }
 
     } catch (RuntimeException re) {
@@ -431,6 +509,12 @@ public final class DecodeServlet extends HttpServlet {
       throw new ServletException(re);
     }
 
+    return results;
+  }
+
+  private static void writeResults(Collection<Result> results,
+                                   HttpServletRequest request,
+                                   HttpServletResponse response) throws IOException, ServletException {
     String fullParameter = request.getParameter("full");
     boolean minimalOutput = fullParameter != null && !Boolean.parseBoolean(fullParameter);
     if (minimalOutput) {